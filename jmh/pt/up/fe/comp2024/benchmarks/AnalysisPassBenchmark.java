@@ -0,0 +1,68 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp2024.analysis.AnalysisPass;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each {@link AnalysisPass} of the semantic analysis on its own, over the valid programs of the cpf corpus
+ * and over synthetic classes of growing size. Passes keep their reports, so a new instance is used for each run.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=AnalysisPassBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class AnalysisPassBenchmark {
+
+    private static final String PASSES_PACKAGE = "pt.up.fe.comp2024.analysis.passes.";
+
+    /**
+     * 'cpf' for the whole cpf corpus, or 'synthetic-N' for a class with N methods.
+     */
+    @Param({"cpf", "synthetic-10", "synthetic-100", "synthetic-1000"})
+    public String input;
+
+    @Param({"UndeclaredSymbol", "ConstantFolding", "ArrayAccessOnInt", "ArrayIndexNotInt", "WrongInit",
+            "ConditionsWithoutBooleans", "WrongOpTypes", "ImportDeclAndMemberAccess", "ReturnTypes", "MethodParams",
+            "StaticMethods"})
+    public String pass;
+
+    private List<JmmSemanticsResult> programs;
+    private Constructor<? extends AnalysisPass> passConstructor;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        var sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(), BenchmarkInputs::synthetic);
+
+        programs = BenchmarkInputs.analyse(sources);
+        passConstructor = Class.forName(PASSES_PACKAGE + pass).asSubclass(AnalysisPass.class).getConstructor();
+    }
+
+    @Benchmark
+    public void analyze(Blackhole blackhole) throws ReflectiveOperationException {
+        for (var program : programs) {
+            var analysisPass = passConstructor.newInstance();
+            analysisPass.setConfig(program.getConfig());
+            blackhole.consume(analysisPass.analyze(program.getRootNode(), program.getSymbolTable()));
+        }
+    }
+}
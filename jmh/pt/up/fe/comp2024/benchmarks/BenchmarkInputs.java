@@ -0,0 +1,292 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.utils.ReportUtils;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Inputs shared by the benchmarks.
+ */
+public class BenchmarkInputs {
+
+    private static final Path CPF_FOLDER = Path.of("test", "pt", "up", "fe", "comp", "cpf");
+    private static final Path CP2_APPS_FOLDER = Path.of("test", "pt", "up", "fe", "comp", "cp2", "apps");
+
+    private static final String CPF = "cpf";
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+
+    // Groups of three assignments in each method of syntheticStraightLine()
+    private static final int STRAIGHT_LINE_GROUPS = 100;
+
+    /**
+     * @return the sources of all the '.jmm' files of the cpf test corpus, sorted by path
+     */
+    public static List<String> cpfCorpus() {
+        return read(CPF_FOLDER, ".jmm");
+    }
+
+    /**
+     * @return the sources of the '.jmm' apps of the cp2 tests, sorted by path
+     */
+    public static List<String> cp2Apps() {
+        return read(CP2_APPS_FOLDER, ".jmm");
+    }
+
+    /**
+     * @return the sources of all the '.ollir' files of the cpf test corpus, sorted by path
+     */
+    public static List<String> cpfOllirCorpus() {
+        return read(CPF_FOLDER, ".ollir");
+    }
+
+    /**
+     * Resolves the value of an 'input' benchmark parameter, 'cpf' for a whole corpus or 'synthetic-N' for a single
+     * generated source of N methods.
+     *
+     * @param input
+     * @param cpf       the sources used for 'cpf'
+     * @param generator generates the source used for 'synthetic-N', given N
+     * @return
+     */
+    public static List<String> sources(String input, List<String> cpf, IntFunction<String> generator) {
+        if (input.equals(CPF)) {
+            return cpf;
+        }
+
+        if (input.startsWith(SYNTHETIC_PREFIX)) {
+            return List.of(generator.apply(Integer.parseInt(input.substring(SYNTHETIC_PREFIX.length()))));
+        }
+
+        throw new IllegalArgumentException("Unknown input '" + input + "', expected 'cpf' or 'synthetic-N'");
+    }
+
+    /**
+     * Parses and analyses the given sources, keeping the ones without errors.
+     */
+    public static List<JmmSemanticsResult> analyse(List<String> sources) {
+        var config = CompilerConfig.getDefault();
+        var parser = new JmmParserImpl();
+        var results = new ArrayList<JmmSemanticsResult>();
+
+        for (var source : sources) {
+            var parserResult = parser.parse(source, config);
+            if (parserResult.getRootNode() == null || ReportUtils.anyError(parserResult.getReports())) {
+                continue;
+            }
+
+            var semanticsResult = new JmmAnalysisImpl().semanticAnalysis(parserResult);
+            if (!ReportUtils.anyError(semanticsResult.getReports())) {
+                results.add(semanticsResult);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Parses the given OLLIR sources, keeping the ones that parse.
+     */
+    public static List<OllirResult> parseOllir(List<String> sources) {
+        var config = CompilerConfig.getDefault();
+
+        return supported(sources, source -> new OllirResult(source, config), "The OLLIR parser").stream()
+                .map(source -> new OllirResult(source, config))
+                .toList();
+    }
+
+    /**
+     * Keeps the inputs that the benchmarked stage accepts, since some stages do not support every construct yet.
+     *
+     * @param inputs
+     * @param stage  runs the stage over an input, throwing if the input is not supported
+     * @param name   the name of the stage, for the error message
+     * @return the inputs for which the stage did not throw
+     * @throws IllegalStateException if the stage accepts none of the inputs
+     */
+    public static <T> List<T> supported(List<T> inputs, Consumer<T> stage, String name) {
+        var supported = new ArrayList<T>();
+
+        for (var input : inputs) {
+            try {
+                stage.accept(input);
+                supported.add(input);
+            } catch (RuntimeException e) {
+                // Not supported yet, skip
+            }
+        }
+
+        if (supported.isEmpty()) {
+            throw new IllegalStateException(name + " does not support any of the " + inputs.size() + " inputs");
+        }
+
+        return supported;
+    }
+
+    /**
+     * Generates a valid Java-- class with the given number of methods. Every method has a few locals, a loop, a
+     * conditional, arrays, calls and long arithmetic expressions, which exercise the left-recursive 'expr' rule.
+     */
+    public static String synthetic(int numMethods) {
+        var code = new StringBuilder();
+
+        code.append("import io;\n");
+        code.append("class Synthetic {\n");
+        code.append("    int field;\n");
+        code.append("    int[] array;\n");
+
+        for (int i = 0; i < numMethods; i++) {
+            code.append("    public int method").append(i).append("(int a, int[] b, boolean c) {\n");
+            code.append("        int i;\n");
+            code.append("        int sum;\n");
+            code.append("        i = 0;\n");
+            code.append("        sum = a * 2 + b[0] - b.length / 3 + field;\n");
+            code.append("        while (i < b.length && !c) {\n");
+            code.append("            sum = sum + b[i] * (i + 1) - (a - i) / 2 + this.method").append(i)
+                    .append("(i, b, true) * 3;\n");
+            code.append("            b[i] = sum + a * i - (sum / 2 + a) * (i - 1);\n");
+            code.append("            i = i + 1;\n");
+            code.append("        }\n");
+            code.append("        if (sum < a && c && true) {\n");
+            code.append("            io.println(sum);\n");
+            code.append("        } else {\n");
+            code.append("            array = new int[sum + 1];\n");
+            code.append("            array = [1, 2, a, sum, b[0]];\n");
+            code.append("        }\n");
+            code.append("        return sum + this.method").append(i).append("(a, array, !c);\n");
+            code.append("    }\n");
+        }
+
+        code.append("    public static void main(String[] args) {\n");
+        code.append("    }\n");
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    /**
+     * Generates a valid Java-- class with the given number of methods, restricted to the constructs that the
+     * AST-to-Jasmin generator currently supports: every method has a loop, a conditional, calls and an increment, but
+     * no expressions that need temporaries.
+     */
+    public static String syntheticLoops(int numMethods) {
+        var code = new StringBuilder();
+
+        code.append("import io;\n");
+        code.append("class Synthetic {\n");
+
+        for (int i = 0; i < numMethods; i++) {
+            code.append("    public int method").append(i).append("(int a, int b) {\n");
+            code.append("        int i;\n");
+            code.append("        boolean flag;\n");
+            code.append("        flag = true;\n");
+            code.append("        i = 0;\n");
+            code.append("        while (i < a) {\n");
+            code.append("            if (flag) {\n");
+            code.append("                io.println(i);\n");
+            code.append("            } else {\n");
+            code.append("                io.println(b);\n");
+            code.append("            }\n");
+            code.append("            flag = !flag;\n");
+            code.append("            i = i + 1;\n");
+            code.append("        }\n");
+            code.append("        return i;\n");
+            code.append("    }\n");
+        }
+
+        code.append("    public static void main(String[] args) {\n");
+        code.append("    }\n");
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    /**
+     * Generates a valid Java-- class with the given number of large methods, restricted to the constructs that
+     * {@link pt.up.fe.comp2024.optimization.OllirClassBuilder} currently supports: every method is a long sequence of
+     * assignments of arithmetic and boolean expressions to locals, without control flow or calls.
+     */
+    public static String syntheticStraightLine(int numMethods) {
+        var code = new StringBuilder();
+
+        code.append("class Synthetic {\n");
+
+        for (int i = 0; i < numMethods; i++) {
+            code.append("    public int method").append(i).append("(int a, int b, boolean c) {\n");
+            code.append("        int x;\n");
+            code.append("        int y;\n");
+            code.append("        boolean d;\n");
+            code.append("        x = a;\n");
+            code.append("        y = b;\n");
+            code.append("        d = c;\n");
+
+            for (int j = 0; j < STRAIGHT_LINE_GROUPS; j++) {
+                code.append("        x = x * 2 + (y - a) / 3 - ").append(j).append(" * (b + 1);\n");
+                code.append("        y = (x + y) * (a - ").append(j).append(") + b / 2;\n");
+                code.append("        d = !(x < y) && d && (a < ").append(j).append(");\n");
+            }
+
+            code.append("        return x + y;\n");
+            code.append("    }\n");
+        }
+
+        code.append("    public static void main(String[] args) {\n");
+        code.append("    }\n");
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    /**
+     * Generates an OLLIR class with the given number of methods, restricted to the instructions that the
+     * OLLIR-to-Jasmin generator currently supports (assignments, binary operations and returns).
+     */
+    public static String syntheticOllir(int numMethods) {
+        var code = new StringBuilder();
+
+        code.append("Synthetic {\n");
+        code.append("    .construct Synthetic().V {\n");
+        code.append("        invokespecial(this, \"<init>\").V;\n");
+        code.append("    }\n");
+
+        for (int i = 0; i < numMethods; i++) {
+            code.append("    .method public method").append(i).append("(a.i32, b.i32).i32 {\n");
+            code.append("        c.i32 :=.i32 2.i32;\n");
+            code.append("        d.i32 :=.i32 a.i32 +.i32 b.i32;\n");
+            code.append("        e.i32 :=.i32 d.i32 *.i32 c.i32;\n");
+            code.append("        f.i32 :=.i32 e.i32 -.i32 a.i32;\n");
+            code.append("        g.i32 :=.i32 f.i32 /.i32 c.i32;\n");
+            code.append("        h.i32 :=.i32 g.i32 +.i32 ").append(i).append(".i32;\n");
+            code.append("        ret.i32 h.i32;\n");
+            code.append("    }\n");
+        }
+
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    private static List<String> read(Path folder, String extension) {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            return paths.filter(path -> path.toString().endsWith(extension))
+                    .sorted()
+                    .map(path -> SpecsIo.read(path.toFile()))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the sources from '" + folder.toAbsolutePath() + "'", e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares the JSON results of a JMH run ('-rf json') with a baseline file in the same format, and fails if any
+ * benchmark got slower than the baseline by more than a relative threshold.
+ * <p>
+ * Benchmarks are matched by name and parameters. For throughput benchmarks a lower score is a regression, for the
+ * other modes (average time, sample time, ...) a higher score is. Since the scores of short runs are noisy, a
+ * benchmark only regresses if, besides the threshold, the 99.9% confidence intervals JMH reports for both scores do
+ * not overlap. A score without an interval (a single iteration) counts as an interval of just that score. Benchmarks
+ * that are only in one of the files are listed, but do not fail the check.
+ * <p>
+ * The baseline is not versioned, since it only makes sense on the machine and JVM it was measured on. Create it with
+ * 'gradle jmh jmhBaseline' on the code to compare against, then run 'gradle jmh jmhCheck [-PjmhThreshold=0.10]' on
+ * the changed code.
+ */
+public class BenchmarkRegressionCheck {
+
+    private static final String THROUGHPUT_MODE = "thrpt";
+
+    /**
+     * @param args the results file, the baseline file and the threshold (e.g. 0.10 for 10%)
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("Expected <results.json> <baseline.json> <threshold>");
+        }
+
+        var results = readScores(new File(args[0]));
+
+        var baselineFile = new File(args[1]);
+        if (!baselineFile.isFile()) {
+            throw new RuntimeException("Could not find JMH baseline '" + baselineFile
+                    + "', create it with 'gradle jmh jmhBaseline' on the code to compare against");
+        }
+        var baseline = readScores(baselineFile);
+        var threshold = Double.parseDouble(args[2]);
+
+        int regressions = 0;
+
+        System.out.printf("%-80s %24s %24s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+
+        for (var entry : results.entrySet()) {
+            var current = entry.getValue();
+            var base = baseline.get(entry.getKey());
+
+            if (base == null) {
+                System.out.printf("%-80s %24s %24s %9s%n", entry.getKey(), "-", current, "new");
+                continue;
+            }
+
+            if (!base.unit.equals(current.unit) || !base.mode.equals(current.mode)) {
+                System.out.printf("%-80s %24s %24s %9s%n", entry.getKey(), base.unit, current.unit, "changed");
+                continue;
+            }
+
+            var change = (current.score - base.score) / base.score;
+            var throughput = current.mode.equals(THROUGHPUT_MODE);
+            var slowdown = throughput ? -change : change;
+
+            // The whole interval of the current score is on the slow side of the interval of the baseline
+            var significant = throughput ? current.high < base.low : current.low > base.high;
+            var regressed = significant && slowdown > threshold;
+
+            if (regressed) {
+                regressions++;
+            }
+
+            System.out.printf("%-80s %24s %24s %+8.1f%%%s%n", entry.getKey(), base, current, change * 100,
+                    regressed ? "  REGRESSION" : slowdown > threshold ? "  (within error)" : "");
+        }
+
+        for (var key : baseline.keySet()) {
+            if (!results.containsKey(key)) {
+                System.out.printf("%-80s %24s %24s %9s%n", key, baseline.get(key), "-", "missing");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+
+        System.out.printf("No benchmark regressed by more than %.1f%%%n", threshold * 100);
+    }
+
+    /**
+     * @return the score of each benchmark, keyed by its name and parameters, in the order of the file
+     */
+    private static Map<String, Score> readScores(File file) {
+        if (!file.isFile()) {
+            throw new RuntimeException("Could not find JMH results file '" + file + "'");
+        }
+
+        JsonArray benchmarks = JsonParser.parseString(SpecsIo.read(file)).getAsJsonArray();
+        var scores = new LinkedHashMap<String, Score>();
+
+        for (JsonElement element : benchmarks) {
+            var benchmark = element.getAsJsonObject();
+            var metric = benchmark.getAsJsonObject("primaryMetric");
+
+            var value = metric.get("score").getAsDouble();
+            var confidence = metric.getAsJsonArray("scoreConfidence");
+            var low = confidence.get(0).getAsDouble();
+            var high = confidence.get(1).getAsDouble();
+
+            // JMH writes 'NaN' when a single iteration gives no error estimate
+            if (Double.isNaN(low) || Double.isNaN(high)) {
+                low = value;
+                high = value;
+            }
+
+            var score = new Score(benchmark.get("mode").getAsString(), value, low, high,
+                    metric.get("scoreUnit").getAsString());
+
+            scores.put(getKey(benchmark), score);
+        }
+
+        return scores;
+    }
+
+    private static String getKey(JsonObject benchmark) {
+        // e.g. 'pt.up.fe.comp2024.benchmarks.ParserBenchmark.parse' becomes 'ParserBenchmark.parse'
+        var name = benchmark.get("benchmark").getAsString();
+        var key = new StringBuilder(name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1));
+
+        if (benchmark.has("params")) {
+            // Sorted, so that the key does not depend on the order of the parameters in the file
+            var params = new TreeMap<String, String>();
+            benchmark.getAsJsonObject("params").entrySet()
+                    .forEach(param -> params.put(param.getKey(), param.getValue().getAsString()));
+
+            params.forEach((param, value) -> key.append(" ").append(param).append("=").append(value));
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * A score and the bounds of its confidence interval.
+     */
+    private record Score(String mode, double score, double low, double high, String unit) {
+
+        @Override
+        public String toString() {
+            return String.format("%.3f +- %.3f", score, (high - low) / 2);
+        }
+    }
+}
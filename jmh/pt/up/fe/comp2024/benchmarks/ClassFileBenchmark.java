@@ -0,0 +1,144 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import jasmin.ClassFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp2024.classfile.ClassFileAssembler;
+import pt.up.fe.comp2024.optimization_jasmin.JasminGeneratorVisitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares producing and loading class files through Jasmin against the {@link ClassFileAssembler}, over the programs
+ * that both assemble into classes that load.
+ * <p>
+ * 'compile' measures the Jasmin generation and the assembly, 'load' measures defining, verifying and initializing the
+ * classes, where Jasmin's class files need the type-inferencing verifier.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=ClassFileBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ClassFileBenchmark {
+
+    private static final String LIBS_CLASSPATH = "libs-jmm/compiled";
+
+    /**
+     * 'jasmin' to assemble with Jasmin, or 'classfile' to assemble with the {@link ClassFileAssembler}.
+     */
+    @Param({"jasmin", "classfile"})
+    public String path;
+
+    /**
+     * 'cpf' for the whole cpf corpus, or 'synthetic-N' for a class with N methods.
+     */
+    @Param({"cpf", "synthetic-100"})
+    public String input;
+
+    private List<JmmSemanticsResult> programs;
+    private List<ClassFileAssembler.AssembledClass> classes;
+    private ClassLoader libsLoader;
+
+    private static class DefiningLoader extends ClassLoader {
+
+        DefiningLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(ClassFileAssembler.AssembledClass assembledClass) {
+            var bytes = assembledClass.bytes();
+            return defineClass(assembledClass.className().replace('/', '.'), bytes, 0, bytes.length);
+        }
+    }
+
+    @Setup
+    public void setup() throws MalformedURLException {
+        libsLoader = new URLClassLoader(new URL[]{new File(LIBS_CLASSPATH).toURI().toURL()});
+
+        var sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(), BenchmarkInputs::syntheticLoops);
+
+        // Only the programs whose classes load with both assemblers, so that both paths do the same work
+        programs = BenchmarkInputs.supported(BenchmarkInputs.analyse(sources), program -> {
+            var code = generate(program);
+            load(assembleWithJasmin(code));
+            load(ClassFileAssembler.assemble(code));
+        }, "ClassFileAssembler");
+
+        classes = new ArrayList<>();
+        for (var program : programs) {
+            classes.add(assemble(generate(program)));
+        }
+    }
+
+    @Benchmark
+    public void compile(Blackhole blackhole) {
+        for (var program : programs) {
+            blackhole.consume(assemble(generate(program)));
+        }
+    }
+
+    @Benchmark
+    public void load(Blackhole blackhole) {
+        for (var assembledClass : classes) {
+            blackhole.consume(load(assembledClass));
+        }
+    }
+
+    private static String generate(JmmSemanticsResult program) {
+        return new JasminGeneratorVisitor(program.getSymbolTable()).visit(program.getRootNode());
+    }
+
+    private ClassFileAssembler.AssembledClass assemble(String code) {
+        return path.equals("jasmin") ? assembleWithJasmin(code) : ClassFileAssembler.assemble(code);
+    }
+
+    private static ClassFileAssembler.AssembledClass assembleWithJasmin(String code) {
+        var classFile = new ClassFile();
+
+        try {
+            classFile.readJasmin(new StringReader(code), "benchmark", false);
+            if (classFile.errorCount() > 0) {
+                throw new RuntimeException("Jasmin found " + classFile.errorCount() + " errors");
+            }
+
+            var bytes = new ByteArrayOutputStream();
+            classFile.write(bytes);
+            return new ClassFileAssembler.AssembledClass(classFile.getClassName(), bytes.toByteArray());
+        } catch (Exception e) {
+            throw new RuntimeException("Could not assemble with Jasmin", e);
+        }
+    }
+
+    private Class<?> load(ClassFileAssembler.AssembledClass assembledClass) {
+        try {
+            var loadedClass = new DefiningLoader(libsLoader).define(assembledClass);
+            return Class.forName(loadedClass.getName(), true, loadedClass.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            // Such as classes that fail verification, or that extend classes outside the libraries
+            throw new RuntimeException("Could not load class '" + assembledClass.className() + "'", e);
+        }
+    }
+}
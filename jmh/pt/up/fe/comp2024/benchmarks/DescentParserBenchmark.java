@@ -0,0 +1,65 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.parser.JmmParser;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.parser.JmmRecursiveDescentParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ANTLR-based {@link JmmParserImpl} (with its defaults) with {@link JmmRecursiveDescentParser}. Run with
+ * '-prof gc' to also compare the allocated memory.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=DescentParserBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class DescentParserBenchmark {
+
+    /**
+     * 'cpf' for the whole cpf corpus, or 'synthetic-N' for a class with N methods.
+     */
+    @Param({"cpf", "synthetic-100", "synthetic-1000"})
+    public String input;
+
+    @Param({"antlr", "descent"})
+    public String parser;
+
+    private List<String> sources;
+    private Map<String, String> config;
+    private JmmParser jmmParser;
+
+    @Setup
+    public void setup() {
+        sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(), BenchmarkInputs::synthetic);
+
+        config = CompilerConfig.getDefault();
+        jmmParser = parser.equals("antlr") ? new JmmParserImpl() : new JmmRecursiveDescentParser();
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (var source : sources) {
+            blackhole.consume(jmmParser.parse(source, config));
+        }
+    }
+}
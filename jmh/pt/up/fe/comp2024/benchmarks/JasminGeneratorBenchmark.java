@@ -0,0 +1,60 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.backend.JasminGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the OLLIR-to-Jasmin {@link JasminGenerator} over the OLLIR files of the cpf corpus it supports and over
+ * synthetic OLLIR classes of growing size (see {@link BenchmarkInputs#syntheticOllir(int)}). The OLLIR code is parsed
+ * once, in the setup.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=JasminGeneratorBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class JasminGeneratorBenchmark {
+
+    /**
+     * 'cpf' for the OLLIR files of the cpf corpus, or 'synthetic-N' for a class with N methods.
+     */
+    @Param({"cpf", "synthetic-10", "synthetic-100", "synthetic-1000"})
+    public String input;
+
+    private List<OllirResult> programs;
+
+    @Setup
+    public void setup() {
+        var sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfOllirCorpus(),
+                BenchmarkInputs::syntheticOllir);
+
+        programs = BenchmarkInputs.supported(BenchmarkInputs.parseOllir(sources),
+                program -> new JasminGenerator(program).build(),
+                "JasminGenerator");
+    }
+
+    @Benchmark
+    public void build(Blackhole blackhole) {
+        for (var program : programs) {
+            blackhole.consume(new JasminGenerator(program).build());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp2024.optimization_jasmin.JasminGeneratorVisitor;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the AST-to-Jasmin {@link JasminGeneratorVisitor} over the programs of the cpf corpus it supports and over
+ * synthetic classes of growing size, restricted to the constructs it supports (see
+ * {@link BenchmarkInputs#syntheticLoops(int)}), generating the methods of each class one at a time or concurrently.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=JasminGeneratorVisitorBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class JasminGeneratorVisitorBenchmark {
+
+    /**
+     * 'cpf' for the whole cpf corpus, or 'synthetic-N' for a class with N methods.
+     */
+    @Param({"cpf", "synthetic-10", "synthetic-100", "synthetic-1000"})
+    public String input;
+
+    /**
+     * The threads that generate the methods of each class, 1 to generate them one at a time.
+     */
+    @Param({"1", "4"})
+    public int threads;
+
+    private List<JmmSemanticsResult> programs;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+
+        var sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(), BenchmarkInputs::syntheticLoops);
+
+        programs = BenchmarkInputs.supported(BenchmarkInputs.analyse(sources),
+                program -> newGenerator(program).visit(program.getRootNode()), "JasminGeneratorVisitor");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private JasminGeneratorVisitor newGenerator(JmmSemanticsResult program) {
+        return new JasminGeneratorVisitor(program.getSymbolTable(), "", pool);
+    }
+
+    @Benchmark
+    public void generate(Blackhole blackhole) {
+        for (var program : programs) {
+            blackhole.consume(newGenerator(program).visit(program.getRootNode()));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.optimization.OllirClassBuilder;
+import pt.up.fe.comp2024.optimization.OllirPrinter;
+import pt.up.fe.comp2024.optimization.OllirResults;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the OLLIR class of a program in memory, with {@link OllirClassBuilder}, against producing its
+ * OLLIR code and parsing it back, as the text-based OLLIR stage does.
+ * <p>
+ * Both paths build the class first, so the 'text' path measures the same classes printed and parsed, and the
+ * difference between the two is the cost of the round trip through the code. The methods of each class are built one
+ * at a time or concurrently.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=OllirClassBuilderBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class OllirClassBuilderBenchmark {
+
+    /**
+     * 'text' to print the OLLIR code of the class and parse it, or 'in-memory' to use the class as built (its code is
+     * printed, but not parsed).
+     */
+    @Param({"text", "in-memory"})
+    public String path;
+
+    @Param({"cpf", "synthetic-10", "synthetic-100"})
+    public String input;
+
+    /**
+     * The threads that build the methods of each class, 1 to build them one at a time.
+     */
+    @Param({"1", "4"})
+    public int threads;
+
+    private List<JmmSemanticsResult> programs;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+
+        var sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(),
+                BenchmarkInputs::syntheticStraightLine);
+
+        programs = BenchmarkInputs.supported(BenchmarkInputs.analyse(sources), this::toOllir, "OllirClassBuilder");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private OllirResult toOllir(JmmSemanticsResult program) {
+        var ollirClass = new OllirClassBuilder(program.getSymbolTable(), pool).build(program.getRootNode());
+
+        return switch (path) {
+            case "text" -> new OllirResult(program, new OllirPrinter().print(ollirClass), Collections.emptyList());
+            case "in-memory" -> OllirResults.fromClass(program, ollirClass, Collections.emptyList());
+            default -> throw new IllegalArgumentException("Unknown path '" + path + "'");
+        };
+    }
+
+    @Benchmark
+    public void toOllir(Blackhole blackhole) {
+        for (var program : programs) {
+            blackhole.consume(toOllir(program).getOllirClass());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp2024.optimization.OllirGeneratorVisitor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link OllirGeneratorVisitor} over the programs of the cpf corpus it supports.
+ * <p>
+ * The visitor does not support typed declarations yet, so there are no synthetic inputs: none of them would be
+ * accepted. Add them to 'input' once it does.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=OllirGeneratorBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class OllirGeneratorBenchmark {
+
+    @Param({"cpf"})
+    public String input;
+
+    private List<JmmSemanticsResult> programs;
+
+    @Setup
+    public void setup() {
+        var sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(), BenchmarkInputs::synthetic);
+
+        programs = BenchmarkInputs.supported(BenchmarkInputs.analyse(sources),
+                program -> new OllirGeneratorVisitor(program.getSymbolTable()).visit(program.getRootNode()),
+                "OllirGeneratorVisitor");
+    }
+
+    @Benchmark
+    public void generate(Blackhole blackhole) {
+        for (var program : programs) {
+            blackhole.consume(new OllirGeneratorVisitor(program.getSymbolTable()).visit(program.getRootNode()));
+        }
+    }
+}
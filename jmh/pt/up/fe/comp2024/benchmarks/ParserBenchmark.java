@@ -0,0 +1,69 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two-stage (SLL first, full LL on failure) parsing of {@link JmmParserImpl} with always using full LL
+ * prediction ('-l'), and the generated lexer with the hand-written one ('-x'), over the cpf corpus and over synthetic
+ * classes of growing size.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=ParserBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ParserBenchmark {
+
+    /**
+     * 'cpf' for the whole cpf corpus, or 'synthetic-N' for a class with N methods.
+     */
+    @Param({"cpf", "synthetic-100", "synthetic-1000"})
+    public String input;
+
+    @Param({"sll", "ll"})
+    public String prediction;
+
+    @Param({"antlr", "handwritten"})
+    public String lexer;
+
+    private List<String> sources;
+    private Map<String, String> config;
+
+    @Setup
+    public void setup() {
+        sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(), BenchmarkInputs::synthetic);
+
+        config = CompilerConfig.getDefault();
+        config.put("fullLL", Boolean.toString(prediction.equals("ll")));
+        config.put("lexer", lexer);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        var parser = new JmmParserImpl();
+
+        for (var source : sources) {
+            blackhole.consume(parser.parse(source, config));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.ProgramRunner;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp2024.classfile.ClassFileAssembler;
+import pt.up.fe.comp2024.optimization_jasmin.AstToJasminImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares running compiled programs as the tests did, with a 'java' process for each, against the
+ * {@link ProgramRunner}, one program at a time and all at the same time.
+ * <p>
+ * Each operation runs all the programs of the input that run without errors, so a single shot is measured.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=ProgramRunnerBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(3)
+public class ProgramRunnerBenchmark {
+
+    /**
+     * 'process' to start a 'java' process for each program, 'in-process' to run them one at a time with the
+     * {@link ProgramRunner}, or 'in-process-parallel' to run them all at the same time.
+     */
+    @Param({"process", "in-process", "in-process-parallel"})
+    public String runner;
+
+    /**
+     * 'cp2-apps' for the apps of the cp2 tests, or 'cpf' for the whole cpf corpus.
+     */
+    @Param({"cp2-apps", "cpf"})
+    public String input;
+
+    private List<JasminResult> programs;
+    private List<ClassFileAssembler.AssembledClass> classes;
+    private ProgramRunner programRunner;
+
+    @Setup
+    public void setup() {
+        programRunner = new ProgramRunner();
+
+        var sources = input.equals("cp2-apps") ? BenchmarkInputs.cp2Apps() : BenchmarkInputs.cpfCorpus();
+        var generated = BenchmarkInputs.supported(BenchmarkInputs.analyse(sources),
+                program -> new AstToJasminImpl().toJasmin(program), "AstToJasminImpl").stream()
+                .map(program -> new AstToJasminImpl().toJasmin(program))
+                .toList();
+
+        programs = BenchmarkInputs.supported(generated, program -> {
+            var output = programRunner.run(program);
+            if (output.getReturnValue() != 0) {
+                throw new RuntimeException("Program '" + program.getClassName() + "' failed: " + output.getOutput());
+            }
+        }, "ProgramRunner");
+
+        classes = programs.stream().map(ProgramRunner::assemble).toList();
+    }
+
+    @Benchmark
+    public void run(Blackhole blackhole) {
+        switch (runner) {
+            case "process" -> {
+                for (var program : programs) {
+                    blackhole.consume(program.runWithFullOutput());
+                }
+            }
+            case "in-process" -> {
+                for (var assembledClass : classes) {
+                    blackhole.consume(programRunner.run(assembledClass, List.of(), null));
+                }
+            }
+            case "in-process-parallel" -> blackhole.consume(programRunner.runAll(classes,
+                    Runtime.getRuntime().availableProcessors()));
+            default -> throw new IllegalArgumentException("Unknown runner '" + runner + "'");
+        }
+    }
+}
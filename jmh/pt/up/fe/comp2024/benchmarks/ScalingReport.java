@@ -0,0 +1,171 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import pt.up.fe.comp2024.CompilationPipeline;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.stats.CompilationStats;
+import pt.up.fe.comp2024.stats.StageStats;
+import pt.up.fe.comp2024.synthetic.ProgramGenerator;
+import pt.up.fe.comp2024.synthetic.ProgramShape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles generated programs of increasing size along each axis of {@link ProgramShape}, and prints the cost of each
+ * stage as CSV, to plot compile time and memory against input size.
+ * <p>
+ * After the CSV, lists the growth exponent of each stage over the largest sizes of each axis, i.e. the 'k' in
+ * 'cost ~ size^k', where size is the length of the source. Stages with an exponent above {@link #SUPER_LINEAR} are
+ * flagged. Stages that do not support the generated programs yet (e.g. OLLIR generation) are only measured up to
+ * the point where they fail.
+ * <p>
+ * Run with 'gradle scalingReport [-Pscaling="&lt;axis&gt; ..."]', all the axes by default.
+ */
+public class ScalingReport {
+
+    private static final long SEED = 2024;
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 10;
+
+    // Expression depth and loop nesting grow the programs much faster than the other axes
+    private static final int[] LINEAR_SIZES = {1, 2, 3, 4, 5, 6};
+    private static final int[] DOUBLING_SIZES = {4, 8, 16, 32, 64, 128};
+
+    private static final int FITTED_POINTS = 4;
+    private static final long MIN_FITTED_NANOS = 1_000_000;
+    private static final double SUPER_LINEAR = 1.3;
+
+    public static void main(String[] args) {
+        var axes = args.length == 0 ? ProgramShape.AXES : Arrays.asList(args);
+        var config = CompilerConfig.getDefault();
+
+        // Exponent of each stage, for each axis
+        var exponents = new LinkedHashMap<String, Map<String, Double>>();
+
+        System.out.println("axis,size,chars,stage,wall_us,cpu_us,allocated_kb");
+
+        for (var axis : axes) {
+            var sizes = axis.equals("depth") || axis.equals("nesting") ? LINEAR_SIZES : DOUBLING_SIZES;
+            var points = new ArrayList<Point>();
+
+            for (var size : sizes) {
+                var code = new ProgramGenerator(SEED).generate(ProgramShape.small().scale(axis, size));
+                var stages = measure(code, config);
+
+                for (var stage : stages) {
+                    System.out.printf("%s,%d,%d,%s,%d,%d,%d%n", axis, size, code.length(), stage.getName(),
+                            stage.getWallNanos() / 1000, stage.getCpuNanos() / 1000,
+                            stage.getAllocatedBytes() / 1024);
+                }
+
+                points.add(new Point(code.length(), stages));
+            }
+
+            exponents.put(axis, growthExponents(points));
+        }
+
+        System.out.println();
+        System.out.printf("%-12s %-24s %9s%n", "Axis", "Stage", "Exponent");
+
+        int superLinear = 0;
+        for (var axis : exponents.entrySet()) {
+            for (var stage : axis.getValue().entrySet()) {
+                var flagged = stage.getValue() > SUPER_LINEAR;
+                if (flagged) {
+                    superLinear++;
+                }
+
+                System.out.printf("%-12s %-24s %9.2f%s%n", axis.getKey(), stage.getKey(), stage.getValue(),
+                        flagged ? "  SUPER-LINEAR" : "");
+            }
+        }
+
+        System.out.printf("%d stage(s) grew faster than size^%.1f%n", superLinear, SUPER_LINEAR);
+    }
+
+    /**
+     * Compiles the code several times, returning the fastest run of each stage, which is the least affected by
+     * noise such as garbage collection.
+     */
+    private static List<StageStats> measure(String code, Map<String, String> config) {
+        var pipeline = new CompilationPipeline();
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            pipeline.compile(code, config);
+        }
+
+        var fastest = new LinkedHashMap<String, StageStats>();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            var stats = CompilationStats.enabled();
+            pipeline.compile(code, config, stats);
+
+            for (var stage : stats.getStages()) {
+                fastest.merge(stage.getName(), stage,
+                        (previous, current) -> current.getWallNanos() < previous.getWallNanos() ? current : previous);
+            }
+        }
+
+        return new ArrayList<>(fastest.values());
+    }
+
+    /**
+     * @return the exponent of each stage, fitted by least squares on a log-log scale over the largest sizes
+     */
+    private static Map<String, Double> growthExponents(List<Point> points) {
+        var exponents = new LinkedHashMap<String, Double>();
+        var largest = points.subList(Math.max(points.size() - FITTED_POINTS, 0), points.size());
+
+        if (largest.size() < 2) {
+            return exponents;
+        }
+
+        var last = largest.get(largest.size() - 1);
+
+        for (var stage : last.stages) {
+            // Below a millisecond, the cost is dominated by noise
+            if (stage.getWallNanos() < MIN_FITTED_NANOS) {
+                continue;
+            }
+
+            var xs = new ArrayList<Double>();
+            var ys = new ArrayList<Double>();
+            for (var point : largest) {
+                point.stages.stream()
+                        .filter(candidate -> candidate.getName().equals(stage.getName()))
+                        .filter(candidate -> candidate.getWallNanos() > 0)
+                        .findFirst()
+                        .ifPresent(candidate -> {
+                            xs.add(Math.log(point.chars));
+                            ys.add(Math.log(candidate.getWallNanos()));
+                        });
+            }
+
+            if (xs.size() >= 2) {
+                exponents.put(stage.getName(), slope(xs, ys));
+            }
+        }
+
+        return exponents;
+    }
+
+    private static double slope(List<Double> xs, List<Double> ys) {
+        var meanX = xs.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        var meanY = ys.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < xs.size(); i++) {
+            covariance += (xs.get(i) - meanX) * (ys.get(i) - meanY);
+            variance += (xs.get(i) - meanX) * (xs.get(i) - meanX);
+        }
+
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    private record Point(int chars, List<StageStats> stages) {
+    }
+}
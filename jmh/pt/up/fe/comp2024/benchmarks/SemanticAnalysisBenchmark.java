@@ -0,0 +1,73 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.utils.ReportUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole semantic analysis (symbol table and all the passes), sequential or with '-p', over the ASTs of
+ * the valid programs of the cpf corpus and over synthetic classes of growing size.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=SemanticAnalysisBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class SemanticAnalysisBenchmark {
+
+    /**
+     * 'cpf' for the whole cpf corpus, or 'synthetic-N' for a class with N methods.
+     */
+    @Param({"cpf", "synthetic-100", "synthetic-1000"})
+    public String input;
+
+    @Param({"sequential", "parallel"})
+    public String mode;
+
+    private List<JmmParserResult> programs;
+
+    @Setup
+    public void setup() {
+        var sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(), BenchmarkInputs::synthetic);
+
+        var config = CompilerConfig.getDefault();
+        if (mode.equals("parallel")) {
+            config.put("parallelAnalysis", "true");
+        }
+
+        // Only the valid programs, parsed with the config of the mode
+        var parser = new JmmParserImpl();
+        programs = sources.stream()
+                .map(source -> parser.parse(source, config))
+                .filter(result -> result.getRootNode() != null && !ReportUtils.anyError(result.getReports()))
+                .filter(result -> !ReportUtils.anyError(new JmmAnalysisImpl().semanticAnalysis(result).getReports()))
+                .toList();
+    }
+
+    @Benchmark
+    public void analyse(Blackhole blackhole) {
+        for (var program : programs) {
+            blackhole.consume(new JmmAnalysisImpl().semanticAnalysis(program));
+        }
+    }
+}
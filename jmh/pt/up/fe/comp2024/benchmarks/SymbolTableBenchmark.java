@@ -0,0 +1,59 @@
+package pt.up.fe.comp2024.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JmmSymbolTableBuilder#build(JmmNode)} over the ASTs of the valid programs of the cpf corpus and
+ * over synthetic classes of growing size.
+ * <p>
+ * Run with 'gradle jmh -Pjmh=SymbolTableBenchmark'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class SymbolTableBenchmark {
+
+    /**
+     * 'cpf' for the whole cpf corpus, or 'synthetic-N' for a class with N methods.
+     */
+    @Param({"cpf", "synthetic-10", "synthetic-100", "synthetic-1000"})
+    public String input;
+
+    private List<JmmNode> roots;
+
+    @Setup
+    public void setup() {
+        var sources = BenchmarkInputs.sources(input, BenchmarkInputs.cpfCorpus(), BenchmarkInputs::synthetic);
+
+        roots = BenchmarkInputs.analyse(sources).stream()
+                .map(JmmSemanticsResult::getRootNode)
+                .toList();
+    }
+
+    @Benchmark
+    public void build(Blackhole blackhole) {
+        for (var root : roots) {
+            blackhole.consume(JmmSymbolTableBuilder.build(root));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package pt.up.fe.comp2024;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2024.backend.JasminBackendImpl;
+import pt.up.fe.comp2024.cache.CompilationCache;
+import pt.up.fe.comp2024.optimization.JmmOptimizationImpl;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.stats.CompilationStats;
+import pt.up.fe.comp2024.utils.ReportUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs all the compilation stages (parsing, semantic analysis, OLLIR generation and optimization, Jasmin generation)
+ * over a single Java-- source.
+ * <p>
+ * Compilation stops after the first stage that reports errors. Exceptions thrown by a stage are converted into error
+ * reports of that stage. Every call creates its own stage instances, so a pipeline can be shared between threads.
+ * <p>
+ * When the config enables the {@link CompilationCache}, results of previous compilations of the same source are
+ * reused, skipping every stage. Failed compilations are cached too, since the compiler is deterministic for a given
+ * source, config and compiler version.
+ * <p>
+ * The cost of each stage is recorded in the given {@link CompilationStats}, when enabled.
+ */
+public class CompilationPipeline {
+
+    private static final String CACHE_NAMESPACE = "ollir";
+
+    public CompilationResult compile(CharSequence code, Map<String, String> config) {
+        return compile(code, config, CompilationStats.disabled());
+    }
+
+    public CompilationResult compile(CharSequence code, Map<String, String> config, CompilationStats stats) {
+        var cache = CompilationCache.fromConfig(config);
+
+        if (cache.isEmpty()) {
+            return compileStages(code, config, stats, null);
+        }
+
+        var key = CompilationCache.computeKey(CACHE_NAMESPACE, CompilationCache.hashSource(code), config);
+        var entry = stats.measure("cache lookup", () -> cache.get().get(key));
+        if (entry.isPresent()) {
+            return CompilationResult.fromCache(entry.get(), config);
+        }
+
+        var result = compileStages(code, config, stats, null);
+        cache.get().put(key, result.toCacheEntry());
+
+        return result;
+    }
+
+    /**
+     * Same as {@link #compile(CharSequence, Map, CompilationStats)}, but writes the Jasmin code to the output as it is
+     * generated (e.g. to a file), instead of keeping it in the result. The cache is not used, since it keeps the whole
+     * code.
+     */
+    public CompilationResult compile(CharSequence code, Map<String, String> config, CompilationStats stats,
+                                     Appendable jasminOut) {
+        return compileStages(code, config, stats, jasminOut);
+    }
+
+    /**
+     * Same as {@link #compile(CharSequence, Map, CompilationStats, Appendable)}, writing the Jasmin code to the given
+     * file. The code goes to a temporary file in the same folder, which replaces the file only if the compilation
+     * succeeds, so a failed compilation never leaves an empty or partial file, nor overwrites a previous one.
+     */
+    public CompilationResult compile(CharSequence code, Map<String, String> config, CompilationStats stats,
+                                     Path jasminFile) {
+        var target = jasminFile.toAbsolutePath();
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+            CompilationResult result;
+            try (var out = Files.newBufferedWriter(tempFile)) {
+                result = compileStages(code, config, stats, out);
+            }
+
+            if (result.isSuccess()) {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                tempFile = null;
+            }
+
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code to '" + jasminFile + "'", e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // Only a leftover temporary file
+                }
+            }
+        }
+    }
+
+    private CompilationResult compileStages(CharSequence code, Map<String, String> config, CompilationStats stats,
+                                            Appendable jasminOut) {
+
+        // Parsing stage
+        JmmParserResult parserResult;
+        try {
+            var parser = new JmmParserImpl();
+            parserResult = stats.measure("parsing", () -> parser.parse(code, parser.getDefaultRule(), config));
+        } catch (RuntimeException e) {
+            return failed(null, null, null, List.of(), Stage.SYNTATIC, "parsing", e);
+        }
+
+        if (ReportUtils.anyError(parserResult.getReports())) {
+            return new CompilationResult(parserResult, null, null, null, parserResult.getReports());
+        }
+
+        stats.recordAst(parserResult.getRootNode());
+
+        // Semantic Analysis stage
+        JmmSemanticsResult semanticsResult;
+        try {
+            var analysis = new JmmAnalysisImpl(stats);
+            semanticsResult = stats.measure("semantic analysis", () -> analysis.semanticAnalysis(parserResult));
+        } catch (RuntimeException e) {
+            return failed(parserResult, null, null, parserResult.getReports(), Stage.SEMANTIC, "semantic analysis", e);
+        }
+
+        if (ReportUtils.anyError(semanticsResult.getReports())) {
+            return new CompilationResult(parserResult, semanticsResult, null, null, semanticsResult.getReports());
+        }
+
+        // Optimization stage
+        OllirResult ollirResult;
+        try {
+            var ollirGen = new JmmOptimizationImpl();
+            var analyzed = semanticsResult;
+            semanticsResult = stats.measure("AST optimization", () -> ollirGen.optimize(analyzed));
+            var optimized = semanticsResult;
+            var ollir = stats.measure("OLLIR generation", () -> ollirGen.toOllir(optimized));
+            ollirResult = stats.measure("OLLIR optimization", () -> ollirGen.optimize(ollir));
+        } catch (RuntimeException e) {
+            return failed(parserResult, semanticsResult, null, semanticsResult.getReports(), Stage.LLIR, "OLLIR generation", e);
+        }
+
+        if (ReportUtils.anyError(ollirResult.getReports())) {
+            return new CompilationResult(parserResult, semanticsResult, ollirResult, null, ollirResult.getReports());
+        }
+
+        // Code generation stage
+        if (jasminOut != null) {
+            List<Report> reports;
+            try {
+                var backend = new JasminBackendImpl();
+                var ollir = ollirResult;
+                reports = stats.measure("Jasmin generation", () -> backend.toJasmin(ollir, jasminOut));
+            } catch (RuntimeException e) {
+                return failed(parserResult, semanticsResult, ollirResult, ollirResult.getReports(), Stage.GENERATION, "Jasmin generation", e);
+            }
+
+            return new CompilationResult(parserResult, semanticsResult, ollirResult, null, reports);
+        }
+
+        JasminResult jasminResult;
+        try {
+            var backend = new JasminBackendImpl();
+            var ollir = ollirResult;
+            jasminResult = stats.measure("Jasmin generation", () -> backend.toJasmin(ollir));
+        } catch (RuntimeException e) {
+            return failed(parserResult, semanticsResult, ollirResult, ollirResult.getReports(), Stage.GENERATION, "Jasmin generation", e);
+        }
+
+        stats.recordJasmin(jasminResult.getJasminCode());
+
+        return new CompilationResult(parserResult, semanticsResult, ollirResult, jasminResult, jasminResult.getReports());
+    }
+
+    private CompilationResult failed(JmmParserResult parserResult, JmmSemanticsResult semanticsResult,
+                                     OllirResult ollirResult, List<Report> previousReports,
+                                     Stage stage, String stageName, RuntimeException e) {
+
+        var reports = new ArrayList<>(previousReports);
+        reports.add(Report.newError(stage, -1, -1, "Exception during " + stageName, e));
+
+        return new CompilationResult(parserResult, semanticsResult, ollirResult, null, reports);
+    }
+}
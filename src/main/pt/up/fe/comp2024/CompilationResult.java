@@ -0,0 +1,126 @@
+package pt.up.fe.comp2024;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.cache.CacheEntry;
+import pt.up.fe.comp2024.cache.CompilationCache;
+import pt.up.fe.comp2024.classfile.ClassFileAssembler;
+import pt.up.fe.comp2024.classfile.ClassFileResult;
+import pt.up.fe.comp2024.utils.ReportUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The results of running the compilation stages over a single source.
+ * <p>
+ * Stages after the first one that reported errors were not executed, and their results are empty. Results restored
+ * from the {@link CompilationCache} only have the generated code and the reports, not the intermediate results.
+ */
+public class CompilationResult {
+
+    private final JmmParserResult parserResult;
+    private final JmmSemanticsResult semanticsResult;
+    private final OllirResult ollirResult;
+    private final JasminResult jasminResult;
+    private final String ollirCode;
+    private final List<Report> reports;
+    private final boolean cached;
+
+    public CompilationResult(JmmParserResult parserResult, JmmSemanticsResult semanticsResult,
+                             OllirResult ollirResult, JasminResult jasminResult, List<Report> reports) {
+        this(parserResult, semanticsResult, ollirResult, null, jasminResult, reports, false);
+    }
+
+    private CompilationResult(JmmParserResult parserResult, JmmSemanticsResult semanticsResult,
+                              OllirResult ollirResult, String ollirCode, JasminResult jasminResult,
+                              List<Report> reports, boolean cached) {
+        this.parserResult = parserResult;
+        this.semanticsResult = semanticsResult;
+        this.ollirResult = ollirResult;
+        this.ollirCode = ollirCode;
+        this.jasminResult = jasminResult;
+        this.reports = Collections.unmodifiableList(new ArrayList<>(reports));
+        this.cached = cached;
+    }
+
+    public static CompilationResult fromCache(CacheEntry entry, Map<String, String> config) {
+        var reports = entry.getReports();
+        var jasminResult = entry.getJasminCode() != null
+                ? new JasminResult(entry.getClassName(), entry.getJasminCode(), reports, config)
+                : null;
+
+        // As returned by the backend, which assembled the class file
+        var classFile = entry.getClassFile();
+        if (jasminResult != null && classFile != null) {
+            jasminResult = new ClassFileResult(jasminResult,
+                    new ClassFileAssembler.AssembledClass(entry.getClassName(), classFile));
+        }
+
+        return new CompilationResult(null, null, null, entry.getOllirCode(), jasminResult, reports, true);
+    }
+
+    public CacheEntry toCacheEntry() {
+        var className = jasminResult != null ? jasminResult.getClassName() : null;
+        var classFile = jasminResult instanceof ClassFileResult classFileResult ? classFileResult.getClassFile() : null;
+
+        return new CacheEntry(className, getOllirCode().orElse(null), getJasminCode().orElse(null), classFile,
+                reports);
+    }
+
+    public Optional<JmmParserResult> getParserResult() {
+        return Optional.ofNullable(parserResult);
+    }
+
+    public Optional<JmmSemanticsResult> getSemanticsResult() {
+        return Optional.ofNullable(semanticsResult);
+    }
+
+    public Optional<OllirResult> getOllirResult() {
+        return Optional.ofNullable(ollirResult);
+    }
+
+    public Optional<JasminResult> getJasminResult() {
+        return Optional.ofNullable(jasminResult);
+    }
+
+    public Optional<String> getOllirCode() {
+        if (ollirCode != null) {
+            return Optional.of(ollirCode);
+        }
+
+        return getOllirResult().map(OllirResult::getOllirCode);
+    }
+
+    public Optional<String> getJasminCode() {
+        return getJasminResult().map(JasminResult::getJasminCode);
+    }
+
+    /**
+     * @return true if this result was restored from the cache, without running the compilation stages
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * @return the reports of all the stages that were executed
+     */
+    public List<Report> getReports() {
+        return reports;
+    }
+
+    /**
+     * @return true if all stages were executed without error reports
+     */
+    public boolean isSuccess() {
+        // Jasmin code written to an output as it was generated has no Jasmin result, only the OLLIR result before it
+        return (jasminResult != null || ollirResult != null) && !ReportUtils.anyError(reports);
+    }
+}
@@ -1,15 +1,54 @@
 package pt.up.fe.comp2024;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 public class CompilerConfig {
 
     private static final String INPUT_FILE = "inputFile";
     private static final String OPTIMIZE = "optimize";
     private static final String REGISTER = "registerAllocation";
+    private static final String BATCH = "batch";
+    private static final String THREADS = "threads";
+    private static final String SERVER = "server";
+    private static final String CACHE = "cache";
+    private static final String CACHE_SIZE = "cacheSize";
+    private static final String FULL_LL = "fullLL";
+    private static final String LEXER = "lexer";
+    private static final String STATS = "stats";
+    private static final String PARALLEL_ANALYSIS = "parallelAnalysis";
+    private static final String CLASS_FILE = "classFile";
+    private static final String OLLIR_IN_MEMORY = "ollirInMemory";
+    private static final String PARALLEL_JASMIN = "parallelJasmin";
+    private static final String PARALLEL_OLLIR = "parallelOllir";
+    private static final String JASMIN_FILE = "jasminFile";
+
+    private static final String SERVER_STDIO = "stdio";
+
+    /**
+     * Options that a client of the compile server may set for a single request. The others (e.g. the cache folder and
+     * size, or the number of threads) are set once, for the whole server.
+     */
+    private static final Set<String> REQUEST_OPTIONS = Set.of(OPTIMIZE, REGISTER, FULL_LL, LEXER, PARALLEL_ANALYSIS,
+            CLASS_FILE, OLLIR_IN_MEMORY, PARALLEL_JASMIN, PARALLEL_OLLIR);
+
+    public static final String LEXER_ANTLR = "antlr";
+    public static final String LEXER_HANDWRITTEN = "handwritten";
+
+    private static final String JMM_EXTENSION = ".jmm";
+
+    private static final String DEFAULT_CACHE_SIZE_MB = "256";
 
 
     static Map<String, String> shortToLong = new HashMap<>();
@@ -18,6 +57,20 @@ public class CompilerConfig {
         shortToLong.put("i", CompilerConfig.INPUT_FILE);
         shortToLong.put("o", CompilerConfig.OPTIMIZE);
         shortToLong.put("r", CompilerConfig.REGISTER);
+        shortToLong.put("b", CompilerConfig.BATCH);
+        shortToLong.put("t", CompilerConfig.THREADS);
+        shortToLong.put("d", CompilerConfig.SERVER);
+        shortToLong.put("c", CompilerConfig.CACHE);
+        shortToLong.put("z", CompilerConfig.CACHE_SIZE);
+        shortToLong.put("l", CompilerConfig.FULL_LL);
+        shortToLong.put("x", CompilerConfig.LEXER);
+        shortToLong.put("s", CompilerConfig.STATS);
+        shortToLong.put("p", CompilerConfig.PARALLEL_ANALYSIS);
+        shortToLong.put("f", CompilerConfig.CLASS_FILE);
+        shortToLong.put("m", CompilerConfig.OLLIR_IN_MEMORY);
+        shortToLong.put("j", CompilerConfig.PARALLEL_JASMIN);
+        shortToLong.put("g", CompilerConfig.PARALLEL_OLLIR);
+        shortToLong.put("w", CompilerConfig.JASMIN_FILE);
     }
 
 
@@ -41,6 +94,279 @@ public class CompilerConfig {
     }
 
 
+    /**
+     * If true ('-l'), the parser always uses full LL prediction, instead of trying the faster SLL prediction first.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean getFullLL(Map<String, String> config) {
+        return Boolean.parseBoolean(config.getOrDefault(FULL_LL, "false"));
+    }
+
+    /**
+     * The lexer used by the parser, '-x=antlr' (default) for the generated lexer or '-x=handwritten' for JmmLexer.
+     *
+     * @param config
+     * @return
+     */
+    public static String getLexer(Map<String, String> config) {
+        var lexer = config.getOrDefault(LEXER, LEXER_ANTLR);
+
+        if (!lexer.equals(LEXER_ANTLR) && !lexer.equals(LEXER_HANDWRITTEN)) {
+            throw new RuntimeException("Unknown lexer '" + lexer + "', expected '" + LEXER_ANTLR + "' or '"
+                    + LEXER_HANDWRITTEN + "'");
+        }
+
+        return lexer;
+    }
+
+    /**
+     * If true ('-s'), records the time and allocations of each stage and analysis pass, and the size of the AST and
+     * of each method.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean isStats(Map<String, String> config) {
+        return config.containsKey(STATS);
+    }
+
+    /**
+     * The file where the statistics are written as JSON, if given with '-s=<FILE>'. Otherwise, the JSON is printed
+     * after the table.
+     *
+     * @param config
+     * @return
+     */
+    public static Optional<File> getStatsFile(Map<String, String> config) {
+        var stats = config.get(STATS);
+
+        if (stats == null || stats.equals("true")) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new File(stats));
+    }
+
+    /**
+     * The file where the Jasmin code is written as it is generated, if given with '-w=<FILE>'.
+     *
+     * @param config
+     * @return
+     */
+    public static Optional<File> getJasminFile(Map<String, String> config) {
+        return Optional.ofNullable(config.get(JASMIN_FILE)).map(File::new);
+    }
+
+    /**
+     * If true ('-p'), the semantic analysis runs the passes concurrently and splits per-method checks across the
+     * threads given by '-t'.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean isParallelAnalysis(Map<String, String> config) {
+        return config.containsKey(PARALLEL_ANALYSIS);
+    }
+
+    /**
+     * If true ('-f'), the backends assemble the class file themselves, instead of leaving the Jasmin code to be
+     * assembled by Jasmin. The Jasmin code is still generated, for debugging.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean isClassFile(Map<String, String> config) {
+        return config.containsKey(CLASS_FILE);
+    }
+
+    /**
+     * If true ('-m'), the OLLIR stage uses a separate, partial OLLIR generator (OllirClassBuilder), which builds the
+     * OLLIR classes directly from the AST, instead of generating OLLIR code and parsing it. The code is printed from the
+     * classes, but not parsed.
+     * <p>
+     * It is not a faster equivalent of the default generator: the two support different constructs (the default one
+     * does not support typed declarations yet, the in-memory one only straight-line code), so this option changes the
+     * OLLIR code, and whether a program compiles at all.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean isOllirInMemory(Map<String, String> config) {
+        return config.containsKey(OLLIR_IN_MEMORY);
+    }
+
+    /**
+     * If true ('-j'), the AST-to-Jasmin backend generates the methods of the class concurrently, on the threads given
+     * by '-t'. The code is the same as when they are generated one at a time.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean isParallelJasmin(Map<String, String> config) {
+        return config.containsKey(PARALLEL_JASMIN);
+    }
+
+    /**
+     * If true ('-g'), the in-memory OLLIR generator ('-m') builds the methods of the class concurrently, on the threads
+     * given by '-t'. The result is the same as when they are built one at a time. Without '-m' it has no effect, since
+     * the default generator does not support methods yet.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean isParallelOllir(Map<String, String> config) {
+        return config.containsKey(PARALLEL_OLLIR);
+    }
+
+    public static boolean isBatch(Map<String, String> config) {
+        return config.containsKey(BATCH);
+    }
+
+    /**
+     * Expands the value of the batch option into the list of files to compile.
+     * <p>
+     * The option accepts a comma-separated list of paths. Files are used as-is, directories are searched recursively
+     * for '.jmm' files, which are returned sorted by path.
+     *
+     * @param config
+     * @return the files to compile, or an empty list if batch mode is not enabled
+     */
+    public static List<File> getBatchFiles(Map<String, String> config) {
+        var batch = config.get(BATCH);
+
+        if (batch == null) {
+            return List.of();
+        }
+
+        var files = new ArrayList<File>();
+
+        for (var path : batch.split(",")) {
+            var file = new File(path.trim());
+
+            if (file.isFile()) {
+                files.add(file);
+                continue;
+            }
+
+            if (!file.isDirectory()) {
+                throw new RuntimeException("Could not find batch input '" + file + "'");
+            }
+
+            try (Stream<Path> paths = Files.walk(file.toPath())) {
+                paths.filter(Files::isRegularFile)
+                        .filter(p -> p.toString().endsWith(JMM_EXTENSION))
+                        .sorted()
+                        .map(Path::toFile)
+                        .forEach(files::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not list batch input folder '" + file + "'", e);
+            }
+        }
+
+        return files;
+    }
+
+    public static int getThreads(Map<String, String> config) {
+        var threads = config.get(THREADS);
+
+        if (threads == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        return Integer.parseInt(threads);
+    }
+
+    public static boolean isServer(Map<String, String> config) {
+        return config.containsKey(SERVER);
+    }
+
+    /**
+     * The port where the compile server should listen, if the option was given a value (e.g. '-d=4000'). When given
+     * without value ('-d') or as '-d=stdio', the server uses stdin and stdout.
+     *
+     * @param config
+     * @return
+     */
+    public static Optional<Integer> getServerPort(Map<String, String> config) {
+        var server = config.get(SERVER);
+
+        if (server == null || server.equals("true") || server.equals(SERVER_STDIO)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Integer.parseInt(server));
+    }
+
+    /**
+     * The folder of the compilation cache, if caching was enabled with '-c=<DIR>'.
+     *
+     * @param config
+     * @return
+     */
+    public static Optional<File> getCacheFolder(Map<String, String> config) {
+        var cache = config.get(CACHE);
+
+        if (cache == null || cache.equals("true")) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new File(cache));
+    }
+
+    /**
+     * The maximum size of the compilation cache, given in megabytes with '-z=<MB>' (default 256).
+     *
+     * @param config
+     * @return the maximum size in bytes
+     */
+    public static long getCacheMaxBytes(Map<String, String> config) {
+        var megabytes = Long.parseLong(config.getOrDefault(CACHE_SIZE, DEFAULT_CACHE_SIZE_MB));
+
+        if (megabytes <= 0) {
+            throw new RuntimeException("Cache size must be positive, got '" + megabytes + "'");
+        }
+
+        return megabytes * 1024 * 1024;
+    }
+
+    /**
+     * Checks the options of a single request to the compile server, which may only set the options in
+     * {@link #REQUEST_OPTIONS}, to valid values.
+     *
+     * @param options
+     */
+    public static void checkRequestOptions(Map<String, String> options) {
+        for (var option : options.keySet()) {
+            if (!REQUEST_OPTIONS.contains(option)) {
+                throw new RuntimeException("Option '" + option + "' cannot be set per request, expected one of "
+                        + new TreeSet<>(REQUEST_OPTIONS));
+            }
+        }
+
+        // Verify if values are valid
+        getRegisterAllocation(options);
+        getLexer(options);
+    }
+
+    /**
+     * Creates a copy of the given config that targets a single input file, e.g. one of the files of a batch.
+     *
+     * @param config
+     * @param inputFile
+     * @return
+     */
+    public static Map<String, String> forInputFile(Map<String, String> config, File inputFile) {
+        var fileConfig = new HashMap<>(config);
+
+        fileConfig.remove(BATCH);
+        fileConfig.put(INPUT_FILE, inputFile.getAbsolutePath());
+
+        return fileConfig;
+    }
+
+
     public static Map<String, String> getDefault() {
 
         var config = new HashMap<String, String>();
@@ -89,23 +415,34 @@ public class CompilerConfig {
             config.put(getLongOpt(shortOption), value);
         }
 
-        if (!config.containsKey(INPUT_FILE)) {
+        if (!config.containsKey(INPUT_FILE) && !config.containsKey(BATCH) && !config.containsKey(SERVER)) {
 
-            throw new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>'");
+            throw new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>', a batch of files, use '-b=<DIR_OR_FILES>', or server mode, use '-d[=<PORT>]'");
         }
 
-        // make sure we save the absolute path of the input file
-        var inputFile = new File(config.get(INPUT_FILE));
-        if (!inputFile.isFile()) {
-            throw new RuntimeException("Could not find input file '" + inputFile + "'");
-        }
+        if (config.containsKey(INPUT_FILE)) {
+            // make sure we save the absolute path of the input file
+            var inputFile = new File(config.get(INPUT_FILE));
+            if (!inputFile.isFile()) {
+                throw new RuntimeException("Could not find input file '" + inputFile + "'");
+            }
 
-        var absolutePath = inputFile.getAbsolutePath();
-        config.put(INPUT_FILE, absolutePath);
+            var absolutePath = inputFile.getAbsolutePath();
+            config.put(INPUT_FILE, absolutePath);
+        }
 
         // Verify if values are valid
         getOptimize(config);
         getRegisterAllocation(config);
+        getBatchFiles(config);
+        getThreads(config);
+        getServerPort(config);
+        getCacheMaxBytes(config);
+        getLexer(config);
+
+        if (config.get(CACHE) != null && getCacheFolder(config).isEmpty()) {
+            throw new RuntimeException("Option '-c' expects a cache folder, use '-c=<DIR>'");
+        }
 
         return config;
     }
@@ -1,14 +1,11 @@
 package pt.up.fe.comp2024;
 
 import pt.up.fe.comp.TestUtils;
-import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
-import pt.up.fe.comp.jmm.jasmin.JasminResult;
-import pt.up.fe.comp.jmm.ollir.OllirResult;
-import pt.up.fe.comp.jmm.parser.JmmParserResult;
-import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
-import pt.up.fe.comp2024.backend.JasminBackendImpl;
-import pt.up.fe.comp2024.optimization.JmmOptimizationImpl;
-import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.batch.BatchCompiler;
+import pt.up.fe.comp2024.cache.CompilationCache;
+import pt.up.fe.comp2024.parser.SourceLoader;
+import pt.up.fe.comp2024.server.CompileServer;
+import pt.up.fe.comp2024.stats.CompilationStats;
 import pt.up.fe.specs.util.SpecsIo;
 import pt.up.fe.specs.util.SpecsSystem;
 
@@ -21,41 +18,77 @@ public class Launcher {
 
         Map<String, String> config = CompilerConfig.parseArgs(args);
 
+        if (CompilerConfig.isServer(config)) {
+            runServer(config);
+            return;
+        }
+
+        if (CompilerConfig.isBatch(config)) {
+            compileBatch(config);
+            return;
+        }
+
         var inputFile = CompilerConfig.getInputFile(config).orElseThrow();
         if (!inputFile.isFile()) {
             throw new RuntimeException("Option '-i' expects a path to an existing input file, got '" + args[0] + "'.");
         }
-        String code = SpecsIo.read(inputFile);
+        // Large files are memory-mapped instead of read into a String
+        CharSequence code = SourceLoader.load(inputFile);
 
-        // Parsing stage
-        JmmParserImpl parser = new JmmParserImpl();
-        JmmParserResult parserResult = parser.parse(code, config);
-        TestUtils.noErrors(parserResult.getReports());
+        // Runs all the stages, or restores their results from the cache ('-c')
+        var stats = CompilationStats.fromConfig(config);
+        var jasminFile = CompilerConfig.getJasminFile(config);
+        CompilationResult result = jasminFile.isPresent()
+                ? new CompilationPipeline().compile(code, config, stats, jasminFile.get().toPath())
+                : new CompilationPipeline().compile(code, config, stats);
 
-        // Print AST
-        //System.out.println(parserResult.getRootNode().toTree());
+        if (stats.isEnabled()) {
+            printStats(stats, config);
+        }
 
-        // Semantic Analysis stage
-        JmmAnalysisImpl sema = new JmmAnalysisImpl();
-        JmmSemanticsResult semanticsResult = sema.semanticAnalysis(parserResult);
-        TestUtils.noErrors(semanticsResult.getReports());
+        TestUtils.noErrors(result.getReports());
 
+        // Print OLLIR code
+        //System.out.println(result.getOllirCode().orElse(""));
 
-        // Optimization stage
-        JmmOptimizationImpl ollirGen = new JmmOptimizationImpl();
-        OllirResult ollirResult = ollirGen.toOllir(semanticsResult);
-        TestUtils.noErrors(ollirResult.getReports());
+        // Print Jasmin code
+        //System.out.println(result.getJasminCode().orElse(""));
+    }
 
-        // Print OLLIR code
-        //System.out.println(ollirResult.getOllirCode());
+    private static void runServer(Map<String, String> config) {
+        var server = new CompileServer(config);
+        server.warmUp();
 
-        // Code generation stage
-        JasminBackendImpl jasminGen = new JasminBackendImpl();
-        JasminResult jasminResult = jasminGen.toJasmin(ollirResult);
-        TestUtils.noErrors(jasminResult.getReports());
+        var port = CompilerConfig.getServerPort(config);
+        if (port.isPresent()) {
+            server.listen(port.get());
+        } else {
+            server.serve(System.in, System.out);
+        }
+    }
 
-        // Print Jasmin code
-        //System.out.println(jasminResult.getJasminCode());
+    private static void printStats(CompilationStats stats, Map<String, String> config) {
+        System.out.print(stats.toTable());
+
+        var statsFile = CompilerConfig.getStatsFile(config);
+        if (statsFile.isPresent()) {
+            SpecsIo.write(statsFile.get(), stats.toJson());
+        } else {
+            System.out.println(stats.toJson());
+        }
+    }
+
+    private static void compileBatch(Map<String, String> config) {
+        var files = CompilerConfig.getBatchFiles(config);
+
+        var batchCompiler = new BatchCompiler(CompilerConfig.getThreads(config));
+        var batchResult = batchCompiler.compile(files, config);
+
+        System.out.print(batchResult.getReportsSummary());
+        System.out.println(batchResult.getSummary());
+
+        CompilationCache.fromConfig(config)
+                .ifPresent(cache -> System.out.println(cache.getStatsSummary()));
     }
 
 }
@@ -22,4 +22,23 @@ public interface AnalysisPass {
     List<Report> analyze(JmmNode root, SymbolTable table);
 
     void setConfig(Map<String, String> config);
+
+    /**
+     * If true, the pass only visits nodes inside method declarations and keeps no state between methods, so each
+     * method can be analysed separately, by a different instance of the pass.
+     *
+     * @return
+     */
+    default boolean isMethodLocal() {
+        return false;
+    }
+
+    /**
+     * If true, the pass changes the AST, and cannot run concurrently with other passes.
+     *
+     * @return
+     */
+    default boolean isMutating() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -4,22 +4,32 @@ import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
 import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.ast.KindTable;
+import pt.up.fe.comp2024.jfr.AnalysisPassEvent;
+import pt.up.fe.comp2024.jfr.CompilerEvent;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 /**
  *
  */
 public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Void> implements AnalysisPass {
 
+    // Default visit, which tells apart the kinds of nodes that this pass does not visit
+    private static final BiFunction<JmmNode, SymbolTable, Void> NO_VISIT = (node, table) -> null;
+
     private List<Report> reports;
     private Map<String, String> config;
 
+    // Visit of each kind of node, resolved once per kind
+    private final KindTable<BiFunction<JmmNode, SymbolTable, Void>> visits = new KindTable<>(super::getVisit);
+
     public AnalysisVisitor() {
         reports = new ArrayList<>();
-        setDefaultValue(() -> null);
+        setDefaultVisit(NO_VISIT);
     }
 
     protected void addReport(Report report) {
@@ -33,13 +43,41 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
 
     @Override
     public List<Report> analyze(JmmNode root, SymbolTable table) {
+        var event = new AnalysisPassEvent();
+        event.begin();
+        long start = System.nanoTime();
+
         // Visit the node
         visit(root, table);
 
+        if (event.shouldCommit()) {
+            event.visitTime = System.nanoTime() - start;
+            event.inputFile = CompilerEvent.getInputFile(config);
+            event.pass = getClass().getSimpleName();
+            event.nodes = CompilerEvent.countNodes(root);
+            event.reports = getReports().size();
+            event.commit();
+        }
+
         // Return reports
         return getReports();
     }
 
+    @Override
+    protected BiFunction<JmmNode, SymbolTable, Void> getVisit(JmmNode node) {
+        return visits.get(node);
+    }
+
+    /**
+     * @param node
+     * @return the visit of this pass for the given node, or null if this pass does not visit nodes of its kind
+     */
+    BiFunction<JmmNode, SymbolTable, Void> getVisitOrNull(JmmNode node) {
+        var visit = getVisit(node);
+
+        return visit == NO_VISIT ? null : visit;
+    }
+
     public void setConfig(Map<String, String> config) {
         this.config = config;
     }
@@ -0,0 +1,97 @@
+package pt.up.fe.comp2024.analysis;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the declarations of a class, built once from the AST, that finds the names declared more than once in the
+ * same scope.
+ * <p>
+ * Imports, fields and methods are in the scope of the class, and parameters and local variables in the scope of their
+ * method. Each kind of declaration is checked on its own, so a local variable with the name of a parameter is not a
+ * duplicate. Every declaration after the first with the same name is a duplicate, and keeps its own node, so that it
+ * can be reported where it is.
+ */
+public class DeclarationIndex {
+
+    public enum DeclarationKind {
+        IMPORT("Import"),
+        FIELD("Field"),
+        METHOD("Method"),
+        PARAMETER("Parameter"),
+        VARIABLE("Variable");
+
+        private final String description;
+
+        DeclarationKind(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    public record Duplicate(DeclarationKind kind, String name, JmmNode node) {
+    }
+
+    // Duplicates of each scope, the class declaration or a method declaration
+    private final Map<JmmNode, List<Duplicate>> duplicatesByScope;
+
+    private DeclarationIndex() {
+        this.duplicatesByScope = new IdentityHashMap<>();
+    }
+
+    /**
+     * @param classDecl
+     * @return the index of the declarations of the class, its imports and its methods
+     */
+    public static DeclarationIndex build(JmmNode classDecl) {
+        Kind.CLASS_DECL.checkOrThrow(classDecl);
+
+        var index = new DeclarationIndex();
+
+        var program = classDecl.getParent();
+        if (program != null) {
+            index.addAll(classDecl, DeclarationKind.IMPORT, program.getChildren(Kind.IMPORT_DECL), "ID");
+        }
+        index.addAll(classDecl, DeclarationKind.FIELD, classDecl.getChildren(Kind.VAR_DECL), "varName");
+
+        var methods = classDecl.getChildren(Kind.METHOD_DECL);
+        index.addAll(classDecl, DeclarationKind.METHOD, methods, "name");
+
+        for (var method : methods) {
+            index.addAll(method, DeclarationKind.PARAMETER, method.getChildren(Kind.PARAM_DECL), "var");
+            index.addAll(method, DeclarationKind.VARIABLE, method.getChildren(Kind.VAR_DECL), "varName");
+        }
+
+        return index;
+    }
+
+    /**
+     * @param scope a class or method declaration
+     * @return the duplicated declarations of the scope, in the order they appear in the code
+     */
+    public List<Duplicate> getDuplicates(JmmNode scope) {
+        return duplicatesByScope.getOrDefault(scope, List.of());
+    }
+
+    private void addAll(JmmNode scope, DeclarationKind kind, List<JmmNode> declarations, String nameAttribute) {
+        var firstByName = new HashMap<String, JmmNode>();
+
+        for (var declaration : declarations) {
+            var name = declaration.get(nameAttribute);
+
+            if (firstByName.putIfAbsent(name, declaration) != null) {
+                duplicatesByScope.computeIfAbsent(scope, key -> new ArrayList<>())
+                        .add(new Duplicate(kind, name, declaration));
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package pt.up.fe.comp2024.analysis;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.ast.KindTable;
+import pt.up.fe.comp2024.jfr.AnalysisPassEvent;
+import pt.up.fe.comp2024.jfr.CompilerEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Runs several analysis passes in a single preorder traversal of the AST, instead of one traversal per pass.
+ * <p>
+ * On each node, the visits of the passes are called in the order of the passes, which gives each pass the same
+ * sequence of visits as its own traversal would. Each pass keeps its own state and reports. A pass that throws is
+ * not visited again, and its reports are replaced by an error, as if it had run on its own.
+ * <p>
+ * Passes must not change the AST, since the later passes would see the changes earlier than on their own traversal.
+ */
+public class FusedAnalysis {
+
+    private final List<AnalysisVisitor> passes;
+
+    // The visit of each pass for each kind of node, only for the passes that visit that kind
+    private final KindTable<List<PassVisit>> visitsByKind;
+
+    private final Exception[] failures;
+    private final boolean timed;
+
+    // If the visits are timed in this analysis, either because timed or for the events of the passes
+    private boolean measured;
+
+    // Time spent in the visits of each pass, only measured if timed
+    private final long[] passNanos;
+
+    private long visitNanos;
+    private long traversalNanos;
+
+    /**
+     * @param passes
+     * @param timed  if true, measures the time spent in the visits of each pass, see {@link #getPassNanos(int)}, and
+     *               how much of the traversal is spent outside the visits, see {@link #getTraversalOverheadNanos()}
+     */
+    public FusedAnalysis(List<AnalysisVisitor> passes, boolean timed) {
+        this.passes = passes;
+        this.visitsByKind = new KindTable<>(this::findVisits);
+        this.failures = new Exception[passes.size()];
+        this.timed = timed;
+        this.passNanos = new long[passes.size()];
+    }
+
+    /**
+     * @param root
+     * @param table
+     * @return the reports of each pass, in the order of the passes
+     */
+    public List<List<Report>> analyze(JmmNode root, SymbolTable table) {
+        // One event per pass, as when each pass has a traversal of its own
+        var events = new ArrayList<AnalysisPassEvent>();
+        for (int i = 0; i < passes.size(); i++) {
+            var event = new AnalysisPassEvent();
+            event.begin();
+            events.add(event);
+        }
+
+        measured = timed || (!events.isEmpty() && events.get(0).isEnabled());
+
+        long start = System.nanoTime();
+        visit(root, table);
+        traversalNanos = System.nanoTime() - start;
+
+        var reports = new ArrayList<List<Report>>();
+        for (int i = 0; i < passes.size(); i++) {
+            var pass = passes.get(i);
+            reports.add(failures[i] == null ? pass.getReports() : List.of(JmmAnalysisImpl.passError(pass, failures[i])));
+        }
+
+        commitEvents(events, root, reports);
+
+        return reports;
+    }
+
+    private void commitEvents(List<AnalysisPassEvent> events, JmmNode root, List<List<Report>> reports) {
+        int nodes = -1;
+
+        for (int i = 0; i < events.size(); i++) {
+            var event = events.get(i);
+            event.end();
+
+            if (event.shouldCommit()) {
+                // Counted once, all the passes visit the same tree
+                nodes = nodes == -1 ? CompilerEvent.countNodes(root) : nodes;
+
+                var pass = passes.get(i);
+                event.inputFile = CompilerEvent.getInputFile(pass.getConfig());
+                event.pass = pass.getClass().getSimpleName();
+                event.nodes = nodes;
+                event.reports = reports.get(i).size();
+                event.visitTime = passNanos[i];
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @return the number of traversals of the AST that the fusion avoided
+     */
+    public int getTraversalsSaved() {
+        return Math.max(passes.size() - 1, 0);
+    }
+
+    /**
+     * The time of the traversal itself (walking the tree and finding the visits of each node), without the time
+     * spent in the visits. Each of the avoided traversals would have cost at least this much. Only measured if
+     * timed, otherwise -1.
+     *
+     * @return
+     */
+    public long getTraversalOverheadNanos() {
+        return timed ? traversalNanos - visitNanos : -1;
+    }
+
+    /**
+     * The time spent in the visits of the pass with the given index, which is what the pass costs on top of the shared
+     * traversal. Only measured if timed, otherwise -1.
+     *
+     * @param index the index of the pass in the list given to the constructor
+     * @return
+     */
+    public long getPassNanos(int index) {
+        return timed ? passNanos[index] : -1;
+    }
+
+    private void visit(JmmNode node, SymbolTable table) {
+        for (var passVisit : getVisits(node)) {
+            if (failures[passVisit.index] != null) {
+                continue;
+            }
+
+            long start = measured ? System.nanoTime() : 0;
+            try {
+                passVisit.visit.apply(node, table);
+            } catch (Exception e) {
+                failures[passVisit.index] = e;
+            }
+            if (measured) {
+                long elapsed = System.nanoTime() - start;
+                passNanos[passVisit.index] += elapsed;
+                visitNanos += elapsed;
+            }
+        }
+
+        for (var child : node.getChildren()) {
+            visit(child, table);
+        }
+    }
+
+    private List<PassVisit> getVisits(JmmNode node) {
+        // The visit of a pass only depends on the kind of the node and its hierarchy, which is the same for every
+        // node of that kind
+        return visitsByKind.get(node);
+    }
+
+    private List<PassVisit> findVisits(JmmNode node) {
+        var visits = new ArrayList<PassVisit>();
+
+        for (int i = 0; i < passes.size(); i++) {
+            var visit = passes.get(i).getVisitOrNull(node);
+            if (visit != null) {
+                visits.add(new PassVisit(i, visit));
+            }
+        }
+
+        return visits;
+    }
+
+    private record PassVisit(int index, BiFunction<JmmNode, SymbolTable, Void> visit) {
+    }
+}
@@ -7,31 +7,57 @@ import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
 import pt.up.fe.comp2024.analysis.passes.*;
+import pt.up.fe.comp2024.ast.ExprTypes;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.stats.CompilationStats;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
 import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 public class JmmAnalysisImpl implements JmmAnalysis {
 
+    // Shared by all the parallel analyses with the same number of threads
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
 
-    private final List<AnalysisPass> analysisPasses;
+    private final List<Supplier<AnalysisPass>> analysisPasses;
+    private final CompilationStats stats;
 
     public JmmAnalysisImpl() {
+        this(CompilationStats.disabled());
+    }
+
+    /**
+     * @param stats records the cost of building the symbol table and of each analysis pass
+     */
+    public JmmAnalysisImpl(CompilationStats stats) {
 
-        this.analysisPasses = List.of(new UndeclaredSymbol(),
-                new ConstantFolding(),
-                new ArrayAccessOnInt(),
-                new ArrayIndexNotInt(),
-                new WrongInit(),
-                new ConditionsWithoutBooleans(),
-                new WrongOpTypes(),
-                new ImportDeclAndMemberAccess(),
-                new ReturnTypes(),
-                new MethodParams(),
-                new StaticMethods());
+        this.stats = stats;
+
+        // Passes keep state while visiting, so a new instance is created for each analysis
+        this.analysisPasses = List.of(UndeclaredSymbol::new,
+                ConstantFolding::new,
+                ArrayAccessOnInt::new,
+                ArrayIndexNotInt::new,
+                WrongInit::new,
+                ConditionsWithoutBooleans::new,
+                WrongOpTypes::new,
+                ImportDeclAndMemberAccess::new,
+                ReturnTypes::new,
+                MethodParams::new,
+                StaticMethods::new);
     }
 
     @Override
@@ -39,29 +65,181 @@ public class JmmAnalysisImpl implements JmmAnalysis {
 
         JmmNode rootNode = parserResult.getRootNode();
 
-        SymbolTable table = JmmSymbolTableBuilder.build(rootNode);
+        JmmSymbolTable table = stats.measure("symbol table", () -> JmmSymbolTableBuilder.build(rootNode));
 
         Map<String, String> config = parserResult.getConfig();
 
+        List<Report> reports;
+        if (CompilerConfig.isParallelAnalysis(config)) {
+            reports = analyzeInParallel(rootNode, table, config);
+        } else {
+            reports = analyze(rootNode, table, config);
+        }
+
+        return new JmmSemanticsResult(parserResult, table, reports);
+    }
+
+    /**
+     * Runs the read-only passes in a single traversal of the AST, see {@link FusedAnalysis}. Passes that change the AST
+     * run first, each with its own traversal, followed by the type annotation.
+     */
+    private List<Report> analyze(JmmNode rootNode, JmmSymbolTable table, Map<String, String> config) {
+        var passes = analysisPasses.stream().map(Supplier::get).toList();
+
+        // Reports of each pass, merged in the order of the passes
+        var passReports = new ArrayList<List<Report>>(Collections.nCopies(passes.size(), List.<Report>of()));
+
+        var fusedPasses = new ArrayList<AnalysisVisitor>();
+        var fusedIndexes = new ArrayList<Integer>();
+        int traversals = 0;
+
+        for (int i = 0; i < passes.size(); i++) {
+            var analysisPass = passes.get(i);
+
+            if (!analysisPass.isMutating() && analysisPass instanceof AnalysisVisitor visitor) {
+                visitor.setConfig(config);
+                fusedPasses.add(visitor);
+                fusedIndexes.add(i);
+                continue;
+            }
+
+            passReports.set(i, stats.measure(analysisPass.getClass().getSimpleName(),
+                    () -> runPass(analysisPass, rootNode, table, config)));
+            traversals++;
+        }
+
+        annotateTypes(rootNode, table);
+
+        if (!fusedPasses.isEmpty()) {
+            var fused = new FusedAnalysis(fusedPasses, stats.isEnabled());
+            var fusedReports = stats.measure("fused passes", () -> {
+                var reportsByPass = fused.analyze(rootNode, table);
+
+                // The visits of the passes are interleaved, so each pass is timed by the traversal
+                for (int i = 0; i < fusedPasses.size(); i++) {
+                    stats.record(fusedPasses.get(i).getClass().getSimpleName(), fused.getPassNanos(i));
+                }
+
+                return reportsByPass;
+            });
+
+            for (int i = 0; i < fusedReports.size(); i++) {
+                passReports.set(fusedIndexes.get(i), fusedReports.get(i));
+            }
+
+            traversals++;
+            stats.count("analysis traversals", traversals);
+            stats.count("analysis traversals saved", fused.getTraversalsSaved());
+            stats.count("analysis time saved, estimated (us)",
+                    fused.getTraversalOverheadNanos() * fused.getTraversalsSaved() / 1000);
+        }
+
         List<Report> reports = new ArrayList<>();
+        passReports.forEach(reports::addAll);
+
+        return reports;
+    }
 
-        // Visit all nodes in the AST
-        for (var analysisPass : analysisPasses) {
+    /**
+     * Runs the passes on a ForkJoin pool. Passes that change the AST run first, each on its own, then the type
+     * annotation, and then all the read-only passes run concurrently. Method-local passes are split into one task per
+     * method.
+     * <p>
+     * The reports are merged in the order of the passes and methods, and then sorted by line and column, so the result
+     * does not depend on the scheduling.
+     */
+    private List<Report> analyzeInParallel(JmmNode rootNode, JmmSymbolTable table, Map<String, String> config) {
+        var pool = POOLS.computeIfAbsent(CompilerConfig.getThreads(config), ForkJoinPool::new);
+        var methods = rootNode.getDescendants(Kind.METHOD_DECL);
+
+        List<Report> reports = new ArrayList<>();
+
+        stats.measure("AST-mutating passes", () -> {
+            for (var passFactory : analysisPasses) {
+                if (passFactory.get().isMutating()) {
+                    reports.addAll(invokeAll(pool, tasks(passFactory, rootNode, methods, table, config)));
+                }
+            }
+            return null;
+        });
+
+        annotateTypes(rootNode, table);
+
+        stats.measure("read-only passes", () -> {
+            var tasks = new ArrayList<Callable<List<Report>>>();
+            for (var passFactory : analysisPasses) {
+                if (!passFactory.get().isMutating()) {
+                    tasks.addAll(tasks(passFactory, rootNode, methods, table, config));
+                }
+            }
+
+            reports.addAll(invokeAll(pool, tasks));
+            return null;
+        });
+
+        reports.sort(Comparator.comparingInt(Report::getLine).thenComparingInt(Report::getColumn));
+
+        return reports;
+    }
+
+    /**
+     * Resolves the types of all the expressions once, after the passes that change the AST, so that the read-only
+     * passes and the backends do not compute them again.
+     */
+    private void annotateTypes(JmmNode rootNode, JmmSymbolTable table) {
+        var exprTypes = stats.measure("type annotation", () -> ExprTypes.annotate(rootNode, table));
+        stats.count("typed expressions", exprTypes.size());
+    }
+
+    /**
+     * @return one task per method if the pass is method-local, otherwise a single task over the whole AST
+     */
+    private List<Callable<List<Report>>> tasks(Supplier<AnalysisPass> passFactory, JmmNode rootNode,
+                                               List<JmmNode> methods, SymbolTable table,
+                                               Map<String, String> config) {
+
+        if (!passFactory.get().isMethodLocal()) {
+            return List.of(() -> runPass(passFactory.get(), rootNode, table, config));
+        }
+
+        return methods.stream()
+                .<Callable<List<Report>>>map(method -> () -> runPass(passFactory.get(), method, table, config))
+                .toList();
+    }
+
+    private static List<Report> invokeAll(ForkJoinPool pool, List<Callable<List<Report>>> tasks) {
+        var reports = new ArrayList<Report>();
+
+        for (Future<List<Report>> future : pool.invokeAll(tasks)) {
             try {
-                analysisPass.setConfig(config);
-                var passReports = analysisPass.analyze(rootNode, table);
-                reports.addAll(passReports);
-            } catch (Exception e) {
-                reports.add(Report.newError(Stage.SEMANTIC,
-                        -1,
-                        -1,
-                        "Problem while executing analysis pass '" + analysisPass.getClass() + "'",
-                        e)
-                );
+                reports.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted during the semantic analysis", e);
+            } catch (ExecutionException e) {
+                // runPass already turns exceptions into reports
+                throw new RuntimeException("Unexpected exception during the semantic analysis", e.getCause());
             }
+        }
+
+        return reports;
+    }
 
+    private static List<Report> runPass(AnalysisPass analysisPass, JmmNode node, SymbolTable table,
+                                        Map<String, String> config) {
+        try {
+            analysisPass.setConfig(config);
+            return analysisPass.analyze(node, table);
+        } catch (Exception e) {
+            return List.of(passError(analysisPass, e));
         }
+    }
 
-        return new JmmSemanticsResult(parserResult, table, reports);
+    static Report passError(AnalysisPass analysisPass, Exception e) {
+        return Report.newError(Stage.SEMANTIC,
+                -1,
+                -1,
+                "Problem while executing analysis pass '" + analysisPass.getClass() + "'",
+                e);
     }
 }
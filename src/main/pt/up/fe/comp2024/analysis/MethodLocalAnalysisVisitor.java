@@ -0,0 +1,13 @@
+package pt.up.fe.comp2024.analysis;
+
+/**
+ * Analysis pass that only visits nodes inside method declarations and keeps no state between methods, so each method
+ * can be analysed separately, by a different instance of the pass (see {@link AnalysisPass#isMethodLocal()}).
+ */
+public abstract class MethodLocalAnalysisVisitor extends AnalysisVisitor {
+
+    @Override
+    public final boolean isMethodLocal() {
+        return true;
+    }
+}
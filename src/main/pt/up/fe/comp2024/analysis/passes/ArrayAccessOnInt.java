@@ -5,7 +5,7 @@ import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
-import pt.up.fe.comp2024.analysis.AnalysisVisitor;
+import pt.up.fe.comp2024.analysis.MethodLocalAnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
@@ -14,9 +14,10 @@ import pt.up.fe.specs.util.SpecsCheck;
 /**
  * Checks if the accessed array exists.
  */
-public class ArrayAccessOnInt extends AnalysisVisitor {
+public class ArrayAccessOnInt extends MethodLocalAnalysisVisitor {
 
     private String currentMethod;
+
     @Override
     public void buildVisitor() {
         addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
@@ -5,7 +5,7 @@ import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
-import pt.up.fe.comp2024.analysis.AnalysisVisitor;
+import pt.up.fe.comp2024.analysis.MethodLocalAnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
@@ -14,7 +14,7 @@ import pt.up.fe.specs.util.SpecsCheck;
 /**
  * Checks if the condition in a While/IfElse statement is a boolean.
  */
-public class ConditionsWithoutBooleans extends AnalysisVisitor {
+public class ConditionsWithoutBooleans extends MethodLocalAnalysisVisitor {
 
     private String currentMethod;
 
@@ -3,17 +3,22 @@ package pt.up.fe.comp2024.analysis.passes;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp2024.CompilerConfig;
-import pt.up.fe.comp2024.analysis.AnalysisVisitor;
+import pt.up.fe.comp2024.analysis.MethodLocalAnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.specs.util.SpecsCheck;
 
 /**
  * Constant folding analysis.
  */
-public class ConstantFolding extends AnalysisVisitor {
+public class ConstantFolding extends MethodLocalAnalysisVisitor {
 
     private String currentMethod;
 
+    @Override
+    public boolean isMutating() {
+        return true;
+    }
+
     @Override
     public void buildVisitor() {
         addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
@@ -32,7 +37,7 @@ public class ConstantFolding extends AnalysisVisitor {
             var left = binaryExpr.getChild(0);
             var right = binaryExpr.getChild(1);
 
-            if(left.getKind().equals("IntegerLiteral") && right.getKind().equals("IntegerLiteral")) {
+            if(Kind.INTEGER_LITERAL.check(left) && Kind.INTEGER_LITERAL.check(right)) {
                 var leftValue = Integer.parseInt(left.get("value"));
                 var rightValue = Integer.parseInt(right.get("value"));
 
@@ -61,7 +66,7 @@ public class ConstantFolding extends AnalysisVisitor {
 
                 binaryExpr.put("value", Integer.toString(result));
             }
-            if(left.getKind().equals("BooleanLiteral") && right.getKind().equals("BooleanLiteral")) {
+            if(Kind.BOOLEAN_LITERAL.check(left) && Kind.BOOLEAN_LITERAL.check(right)) {
                 var leftValue = Boolean.parseBoolean(left.get("value"));
                 var rightValue = Boolean.parseBoolean(right.get("value"));
 
@@ -5,18 +5,20 @@ import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
-import pt.up.fe.comp2024.analysis.AnalysisVisitor;
+import pt.up.fe.comp2024.analysis.MethodLocalAnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
 import pt.up.fe.specs.util.SpecsCheck;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
 
 /**
  * Checks if a member access is correct, all the imported classes logistic.
  */
-public class ImportDeclAndMemberAccess extends AnalysisVisitor {
+public class ImportDeclAndMemberAccess extends MethodLocalAnalysisVisitor {
 
     private String currentMethod;
+
     @Override
     public void buildVisitor() {
         addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
@@ -40,11 +42,11 @@ public class ImportDeclAndMemberAccess extends AnalysisVisitor {
             }
 
             if (!table.getImports().isEmpty()) { // There exists imported classes
-                if (table.getImports().contains(table.getSuper())) { // Super class is imported
+                if (SymbolTableUtils.isImported(table, table.getSuper())) { // Super class is imported
                     if (methodType.getName().equals(table.getClassName()) || methodType.getName().equals(table.getSuper())) { // Accessing a member of the class or the super class
                         return null;
                     }
-                } else if (table.getImports().contains(methodType.getName())) { // Accessing a member of an imported class
+                } else if (SymbolTableUtils.isImported(table, methodType.getName())) { // Accessing a member of an imported class
                     return null;
                 } else {
                     var message = String.format("Accessing member '%s' of a class that is not imported.", methodType.getName());
@@ -5,20 +5,22 @@ import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
-import pt.up.fe.comp2024.analysis.AnalysisVisitor;
+import pt.up.fe.comp2024.analysis.MethodLocalAnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
 import pt.up.fe.specs.util.SpecsCheck;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
 
 import java.util.Objects;
 
 /**
  * Checks if return types are correct.
  */
-public class ReturnTypes extends AnalysisVisitor {
+public class ReturnTypes extends MethodLocalAnalysisVisitor {
 
     private String currentMethod;
+
     @Override
     public void buildVisitor() {
         addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
@@ -81,7 +83,7 @@ public class ReturnTypes extends AnalysisVisitor {
         try{
             var returnType = TypeUtils.getExprType(returnStmt.getChild(0), table, currentMethod);
             var methodReturnType = table.getReturnType(currentMethod);
-            if(!TypeUtils.compareTypes(returnType, methodReturnType) && !table.getImports().contains(returnType.getName()) && (!table.getImports().contains(table.getSuper()) && !Objects.equals(returnType.getName(), table.getClassName()))){
+            if(!TypeUtils.compareTypes(returnType, methodReturnType) && !SymbolTableUtils.isImported(table, returnType.getName()) && (!SymbolTableUtils.isImported(table, table.getSuper()) && !Objects.equals(returnType.getName(), table.getClassName()))){
                 String name;
                 if(Objects.equals(returnStmt.getChild(0).getKind(), Kind.MEMBER_ACCESS_OP.getNodeName())){
                     name = returnStmt.getChild(0).get("func");
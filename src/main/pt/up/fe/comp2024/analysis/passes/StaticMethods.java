@@ -5,19 +5,21 @@ import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
-import pt.up.fe.comp2024.analysis.AnalysisVisitor;
+import pt.up.fe.comp2024.analysis.MethodLocalAnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
 import pt.up.fe.specs.util.SpecsCheck;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
 
 /**
  * Checks if a member access is correct, all the imported classes logistic.
  */
-public class StaticMethods extends AnalysisVisitor {
+public class StaticMethods extends MethodLocalAnalysisVisitor {
 
     private String currentMethod;
     private Boolean isStatic;
+
     @Override
     public void buildVisitor() {
         addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
@@ -53,18 +55,15 @@ public class StaticMethods extends AnalysisVisitor {
 
         var identifierName = identifier.get("value");
 
-        if(table.getParameters(currentMethod).stream()
-                .anyMatch(param -> param.getName().equals(identifierName)) && isStatic){
+        if(SymbolTableUtils.getParameter(table, currentMethod, identifierName) != null && isStatic){
             return null;
         }
 
-        if(table.getLocalVariables(currentMethod).stream()
-                .anyMatch(varDecl -> varDecl.getName().equals(identifierName)) && isStatic){
+        if(SymbolTableUtils.getLocalVariable(table, currentMethod, identifierName) != null && isStatic){
             return null;
         }
 
-        if (table.getFields().stream()
-                .anyMatch(param -> param.getName().equals(identifierName)) && isStatic){
+        if (SymbolTableUtils.getField(table, identifierName) != null && isStatic){
             var message = String.format("Cannot access variable '%s' in static method '%s'", identifierName, currentMethod);
             addReport(Report.newError(
                     Stage.SEMANTIC,
@@ -7,10 +7,12 @@ import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2024.analysis.AnalysisVisitor;
+import pt.up.fe.comp2024.analysis.DeclarationIndex;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
 import pt.up.fe.specs.util.SpecsCheck;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -23,6 +25,8 @@ import java.util.Objects;
 public class WrongInit extends AnalysisVisitor {
 
     private String currentMethod;
+    private DeclarationIndex declarations;
+
     @Override
     public void buildVisitor() {
         addVisit(Kind.CLASS_DECL, this::visitClassDecl);
@@ -34,51 +38,8 @@ public class WrongInit extends AnalysisVisitor {
 
     // check duplicates
     private Void visitClassDecl(JmmNode classDecl, SymbolTable table) {
-        int i = 0;
-        for(var method : table.getMethods()){
-            if(table.getMethods().subList(i + 1, table.getMethods().size()).contains(method)){
-                var message = String.format("Method '%s' is duplicated", method);
-                addReport(Report.newError(
-                        Stage.SEMANTIC,
-                        NodeUtils.getLine(classDecl),
-                        NodeUtils.getColumn(classDecl),
-                        message,
-                        null)
-                );
-            }
-            i++;
-        }
-
-        i = 0;
-        for(var field : table.getFields()){
-            if(table.getFields().subList(i + 1, table.getFields().size()).contains(field)){
-                var message = String.format("Field '%s' is duplicated", field.getName());
-                addReport(Report.newError(
-                        Stage.SEMANTIC,
-                        NodeUtils.getLine(classDecl),
-                        NodeUtils.getColumn(classDecl),
-                        message,
-                        null)
-                );
-            }
-            i++;
-        }
-
-        i = 0;
-        // strip dots from import names and get the last part of the name
-        for(var var : table.getImports()){
-            if(table.getImports().subList(i + 1, table.getImports().size()).contains(var)){
-                var message = String.format("Import '%s' is duplicated", var);
-                addReport(Report.newError(
-                        Stage.SEMANTIC,
-                        NodeUtils.getLine(classDecl),
-                        NodeUtils.getColumn(classDecl),
-                        message,
-                        null)
-                );
-            }
-            i++;
-        }
+        declarations = DeclarationIndex.build(classDecl);
+        reportDuplicates(classDecl);
 
         return null;
     }
@@ -87,35 +48,10 @@ public class WrongInit extends AnalysisVisitor {
     private Void visitMethodDecl(JmmNode method, SymbolTable table) {
         currentMethod = method.get("name");
 
-        int i = 0;
-        for(var param : table.getParameters(currentMethod)){
-            if(table.getParameters(currentMethod).subList(i + 1, table.getParameters(currentMethod).size()).contains(param)){
-                var message = String.format("Parameter '%s' is duplicated", param.getName());
-                addReport(Report.newError(
-                        Stage.SEMANTIC,
-                        NodeUtils.getLine(method),
-                        NodeUtils.getColumn(method),
-                        message,
-                        null)
-                );
-            }
-            i++;
-        }
-
-        i = 0;
-        for(var var : table.getLocalVariables(currentMethod)){
-            if(table.getLocalVariables(currentMethod).subList(i + 1, table.getLocalVariables(currentMethod).size()).contains(var)){
-                var message = String.format("Variable '%s' is duplicated", var.getName());
-                addReport(Report.newError(
-                        Stage.SEMANTIC,
-                        NodeUtils.getLine(method),
-                        NodeUtils.getColumn(method),
-                        message,
-                        null)
-                );
-            }
-            i++;
+        if(declarations == null){
+            declarations = DeclarationIndex.build(method.getParent());
         }
+        reportDuplicates(method);
 
         if(currentMethod.equals("main")){
             var parameters = method.getChildren(Kind.PARAM_DECL);
@@ -165,6 +101,19 @@ public class WrongInit extends AnalysisVisitor {
         return null;
     }
 
+    private void reportDuplicates(JmmNode scope) {
+        for(var duplicate : declarations.getDuplicates(scope)){
+            var message = String.format("%s '%s' is duplicated", duplicate.kind().getDescription(), duplicate.name());
+            addReport(Report.newError(
+                    Stage.SEMANTIC,
+                    NodeUtils.getLine(duplicate.node()),
+                    NodeUtils.getColumn(duplicate.node()),
+                    message,
+                    null)
+            );
+        }
+    }
+
     private Void visitLengthOp(JmmNode lengthOp, SymbolTable table) {
         if(!lengthOp.get("value").equals("length")){
             var message = "Length Operator does not contain keyword 'length'";
@@ -303,11 +252,11 @@ public class WrongInit extends AnalysisVisitor {
     }
 
     private Boolean checkIfTypeIsImported(Type type, SymbolTable table){
-        return table.getImports().contains(type.getName());
+        return SymbolTableUtils.isImported(table, type.getName());
     }
 
     private Boolean checkIfTypeIsExtension(Type type, SymbolTable table){
-        return table.getImports().contains(table.getSuper()) && Objects.equals(table.getSuper(), type.getName());
+        return SymbolTableUtils.isImported(table, table.getSuper()) && Objects.equals(table.getSuper(), type.getName());
     }
 }
 
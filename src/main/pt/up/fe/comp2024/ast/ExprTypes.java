@@ -0,0 +1,94 @@
+package pt.up.fe.comp2024.ast;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The types of the expressions of an AST, resolved once by a single bottom-up pass and then read in constant time by
+ * {@link TypeUtils#getExprType(JmmNode, SymbolTable, String)}, both by the analysis passes and by the backends.
+ * <p>
+ * Expressions that cannot be typed keep the exception thrown while typing them, which is thrown again on every lookup,
+ * so callers see the same behavior as if the type had been computed on the spot.
+ * <p>
+ * Only valid while the structure of the AST does not change, so types are annotated after the passes that change the
+ * AST. Nodes added later are not annotated, and their types are computed on each lookup as before.
+ */
+public class ExprTypes {
+
+    // The Type of each expression, or the RuntimeException thrown while computing it
+    private final Map<JmmNode, Object> types;
+
+    private ExprTypes() {
+        this.types = new IdentityHashMap<>();
+    }
+
+    /**
+     * Annotates the type of every expression under the root, and attaches the annotations to the table.
+     *
+     * @param root
+     * @param table
+     * @return the annotations
+     */
+    public static ExprTypes annotate(JmmNode root, JmmSymbolTable table) {
+        var exprTypes = new ExprTypes();
+
+        // Attached before the traversal, so that each expression reuses the types of its children
+        table.setExprTypes(exprTypes);
+        exprTypes.annotate(root, table, null);
+
+        return exprTypes;
+    }
+
+    /**
+     * @param expr
+     * @return the type of the expression, or null if it was not annotated
+     * @throws RuntimeException the exception thrown while typing the expression, if it could not be typed
+     */
+    public Type get(JmmNode expr) {
+        var type = types.get(expr);
+
+        if (type instanceof RuntimeException e) {
+            throw e;
+        }
+
+        return (Type) type;
+    }
+
+    /**
+     * @return the number of annotated expressions
+     */
+    public int size() {
+        return types.size();
+    }
+
+    private void annotate(JmmNode node, JmmSymbolTable table, String currentMethod) {
+        if (Kind.of(node) == Kind.METHOD_DECL) {
+            currentMethod = node.get("name");
+        }
+
+        // Post-order, since the type of an expression depends on the types of its children
+        for (var child : node.getChildren()) {
+            annotate(child, table, currentMethod);
+        }
+
+        if (!isExpr(node)) {
+            return;
+        }
+
+        try {
+            types.put(node, TypeUtils.computeExprType(node, table, currentMethod));
+        } catch (RuntimeException e) {
+            types.put(node, e);
+        }
+    }
+
+    private static boolean isExpr(JmmNode node) {
+        var kind = Kind.of(node);
+        return kind != null && kind.isExpr();
+    }
+}
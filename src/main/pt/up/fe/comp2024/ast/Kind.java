@@ -4,6 +4,8 @@ import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.specs.util.SpecsStrings;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 public enum Kind {
@@ -15,7 +17,10 @@ public enum Kind {
     MAIN_DECL,
     PARAM_DECL,
     ASSIGN_STMT,
+    ARRAY_ASSIGN,
     RETURN_STMT,
+    EXPR_STMT,
+    BLOCK_STMT,
     BINARY_EXPR,
     BOOLEAN_LITERAL,
     INTEGER_LITERAL,
@@ -41,8 +46,20 @@ public enum Kind {
     PAREN_OP,
     UNARY_OP;
 
-    private static final Set<Kind> STATEMENTS = Set.of(ASSIGN_STMT, RETURN_STMT);
-    private static final Set<Kind> EXPRESSIONS = Set.of(BINARY_EXPR, INTEGER_LITERAL, IDENTIFIER);
+    private static final Set<Kind> STATEMENTS = Set.of(ASSIGN_STMT, ARRAY_ASSIGN, RETURN_STMT, EXPR_STMT, BLOCK_STMT,
+            WHILE_STMT, IF_ELSE_STMT);
+    private static final Set<Kind> EXPRESSIONS = Set.of(BINARY_EXPR, INTEGER_LITERAL, BOOLEAN_LITERAL, IDENTIFIER,
+            ARRAY_ACCESS_OP, ARRAY_CREATION_OP, NEW_OP_ARRAY, NEW_OP_OBJECT, MEMBER_ACCESS_OP, THIS, LENGTH_OP, PAREN_OP,
+            UNARY_OP);
+
+    // Kinds by node name, built once instead of searching the values on every lookup
+    private static final Map<String, Kind> BY_NODE_NAME = new HashMap<>();
+
+    static {
+        for (Kind k : values()) {
+            BY_NODE_NAME.put(k.getNodeName(), k);
+        }
+    }
 
     private final String name;
 
@@ -55,13 +72,21 @@ public enum Kind {
     }
 
     public static Kind fromString(String kind) {
+        var k = BY_NODE_NAME.get(kind);
 
-        for (Kind k : Kind.values()) {
-            if (k.getNodeName().equals(kind)) {
-                return k;
-            }
+        if (k == null) {
+            throw new RuntimeException("Could not convert string '" + kind + "' to a Kind");
         }
-        throw new RuntimeException("Could not convert string '" + kind + "' to a Kind");
+
+        return k;
+    }
+
+    /**
+     * @param node
+     * @return the kind of the node, or null if it has a kind that is not in this enum
+     */
+    public static Kind of(JmmNode node) {
+        return BY_NODE_NAME.get(node.getKind());
     }
 
     public String getNodeName() {
@@ -94,7 +119,7 @@ public enum Kind {
      * @return
      */
     public boolean check(JmmNode node) {
-        return node.getKind().equals(getNodeName());
+        return of(node) == this;
     }
 
     /**
@@ -118,10 +143,13 @@ public enum Kind {
      */
     public static boolean check(JmmNode node, Kind... kindsToTest) {
 
+        // resolve the kind of the node only once
+        var kind = of(node);
+
         for (Kind k : kindsToTest) {
 
             // if any matches, return successfully
-            if (k.check(node)) {
+            if (k == kind) {
 
                 return true;
             }
@@ -0,0 +1,44 @@
+package pt.up.fe.comp2024.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.function.Function;
+
+/**
+ * A value for each {@link Kind} of node, indexed by the ordinal of the kind and computed the first time a node of that
+ * kind is looked up. Used by the visitors to resolve the visit method of a node with an array access, instead of
+ * searching the map of visits with each kind in the hierarchy of the node.
+ * <p>
+ * The value must only depend on the kind of the node. Nodes with a kind that is not in {@link Kind} are not cached.
+ *
+ * @param <V>
+ */
+public class KindTable<V> {
+
+    private final Function<JmmNode, V> compute;
+    private final Object[] values;
+
+    /**
+     * @param compute computes the value of a node, which is then used for every node of the same kind
+     */
+    public KindTable(Function<JmmNode, V> compute) {
+        this.compute = compute;
+        this.values = new Object[Kind.values().length];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(JmmNode node) {
+        var kind = Kind.of(node);
+        if (kind == null) {
+            return compute.apply(node);
+        }
+
+        var value = values[kind.ordinal()];
+        if (value == null) {
+            value = compute.apply(node);
+            values[kind.ordinal()] = value;
+        }
+
+        return (V) value;
+    }
+}
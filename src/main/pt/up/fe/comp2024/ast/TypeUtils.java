@@ -3,6 +3,13 @@ package pt.up.fe.comp2024.ast;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TypeUtils {
 
@@ -10,13 +17,43 @@ public class TypeUtils {
     private static final String BOOLEAN_TYPE_NAME = "boolean";
     private static final String STRING_TYPE_NAME = "String";
     private static final String VOID_TYPE_NAME = "void";
+
+    // Canonical instances of the built-in types, by name, see getType(). The types of classes are not kept, since
+    // their names come from the compiled code, which a compile server would keep adding
+    private static final Map<String, Type> BUILT_IN_TYPES = builtInTypes(false);
+    private static final Map<String, Type> BUILT_IN_ARRAY_TYPES = builtInTypes(true);
+
+    private static final Type INT = getType(INT_TYPE_NAME, false);
+    private static final Type BOOLEAN = getType(BOOLEAN_TYPE_NAME, false);
+    private static final Type INT_ARRAY = getType(INT_TYPE_NAME, true);
+
     public static String getIntTypeName() {
         return INT_TYPE_NAME;
     }
     public static String getBooleanTypeName() { return BOOLEAN_TYPE_NAME; }
     public static String getStringTypeName() { return STRING_TYPE_NAME; }
     public static String getVoidTypeName(){ return VOID_TYPE_NAME; }
-    public static Type getIntArrayType() { return new Type(INT_TYPE_NAME, true); }
+    public static Type getIntArrayType() { return INT_ARRAY; }
+
+    private static Map<String, Type> builtInTypes(boolean isArray) {
+        return Stream.of(INT_TYPE_NAME, BOOLEAN_TYPE_NAME, STRING_TYPE_NAME, VOID_TYPE_NAME)
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), name -> new Type(name, isArray)));
+    }
+
+    /**
+     * Returns the canonical instance of a built-in type, shared by every symbol and expression of that type, instead
+     * of allocating a new one. Types are compared with equals() anyway, and the compiler never changes their
+     * attributes. The types of classes are created on each call.
+     *
+     * @param name
+     * @param isArray
+     * @return
+     */
+    public static Type getType(String name, boolean isArray) {
+        var type = (isArray ? BUILT_IN_ARRAY_TYPES : BUILT_IN_TYPES).get(name);
+
+        return type != null ? type : new Type(name, isArray);
+    }
 
     /**
      * Gets the {@link Type} of an arbitrary expression.
@@ -27,6 +64,18 @@ public class TypeUtils {
      * @return
      */
     public static Type getExprType(JmmNode expr, SymbolTable table, String currentMethod) {
+        // Already resolved by the type annotation pass, see ExprTypes
+        if (table instanceof JmmSymbolTable jmmTable && jmmTable.getExprTypes() != null) {
+            var type = jmmTable.getExprTypes().get(expr);
+            if (type != null) {
+                return type;
+            }
+        }
+
+        return computeExprType(expr, table, currentMethod);
+    }
+
+    static Type computeExprType(JmmNode expr, SymbolTable table, String currentMethod) {
         // TODO: Simple implementation that needs to be expanded
 
         var kind = Kind.fromString(expr.getKind());
@@ -35,14 +84,14 @@ public class TypeUtils {
             case BINARY_EXPR -> getBinExprType(expr);
             case IDENTIFIER, VAR_DECL -> getIdentifierType(expr, table, currentMethod);
             case PARAM_DECL -> getParamDeclType(expr, table, currentMethod);
-            case INTEGER_LITERAL, LENGTH_OP, ARRAY_ACCESS_OP -> new Type(INT_TYPE_NAME, false);
-            case BOOLEAN_LITERAL -> new Type(BOOLEAN_TYPE_NAME, false);
+            case INTEGER_LITERAL, LENGTH_OP, ARRAY_ACCESS_OP -> INT;
+            case BOOLEAN_LITERAL -> BOOLEAN;
             case ARRAY_CREATION_OP -> getArrayType(expr, table, currentMethod);
             case NEW_OP_ARRAY, NEW_OP_OBJECT -> getNewOpType(expr, table, currentMethod);
             case MEMBER_ACCESS_OP -> getMemberAccessType(expr, table, currentMethod);
-            case THIS -> new Type(table.getClassName(), false);
+            case THIS -> getType(table.getClassName(), false);
             case PAREN_OP, UNARY_OP -> getExprType(expr.getChild(0), table, currentMethod);
-            case IDENTIFIER_TYPE -> new Type(expr.get("typeName"), false);
+            case IDENTIFIER_TYPE -> getType(expr.get("typeName"), false);
             default -> throw new UnsupportedOperationException("Can't compute type for expression kind '" + kind + "'");
         };
 
@@ -53,8 +102,8 @@ public class TypeUtils {
         String operator = binaryExpr.get("op");
 
         return switch (operator) {
-            case "+", "*", "-", "/" -> new Type(INT_TYPE_NAME, false);
-            case "&&", "<" -> new Type(BOOLEAN_TYPE_NAME, false);
+            case "+", "*", "-", "/" -> INT;
+            case "&&", "<" -> BOOLEAN;
             default ->
                     throw new RuntimeException("Unknown operator '" + operator + "' of expression '" + binaryExpr + "'");
         };
@@ -73,23 +122,15 @@ public class TypeUtils {
 
         if(currentMethod != null){
             // Var is a parameter, return
-            if (table.getParameters(currentMethod).stream()
-                    .anyMatch(param -> param.getName().equals(id))) {
-                return table.getParameters(currentMethod).stream()
-                        .filter(param -> param.getName().equals(id))
-                        .findFirst()
-                        .get()
-                        .getType();
+            var param = SymbolTableUtils.getParameter(table, currentMethod, id);
+            if (param != null) {
+                return param.getType();
             }
 
             // Var is a declared variable, return
-            if (table.getLocalVariables(currentMethod).stream()
-                    .anyMatch(varDecl -> varDecl.getName().equals(id))) {
-                var type = table.getLocalVariables(currentMethod).stream()
-                        .filter(varDecl -> varDecl.getName().equals(id))
-                        .findFirst()
-                        .get()
-                        .getType();
+            var local = SymbolTableUtils.getLocalVariable(table, currentMethod, id);
+            if (local != null) {
+                var type = local.getType();
                 if(type.getName().equals("int...")){
                     throw new RuntimeException("Varargs as local variable is not allowed");
                 }
@@ -98,19 +139,14 @@ public class TypeUtils {
         }
 
         // Var is an import, return
-        if(table.getImports().stream()
-                .anyMatch(importDecl -> importDecl.equals(id))) {
-            return new Type(id, false);
+        if(SymbolTableUtils.isImported(table, id)) {
+            return getType(id, false);
         }
 
         // Var is a field, return
-        if (table.getFields().stream()
-                .anyMatch(param -> param.getName().equals(id))) {
-            var type = table.getFields().stream()
-                    .filter(param -> param.getName().equals(id))
-                    .findFirst()
-                    .get()
-                    .getType();
+        var field = SymbolTableUtils.getField(table, id);
+        if (field != null) {
+            var type = field.getType();
             if(type.getName().equals("int...")){
                 throw new RuntimeException("Varargs as field is not allowed");
             }
@@ -124,13 +160,13 @@ public class TypeUtils {
         var kind = Kind.fromString(paramDecl.getChild(0).getKind());
 
         Type type = switch(kind){
-            case VOID_TYPE -> new Type(getVoidTypeName(), false);
-            case STRING_ARRAY_TYPE -> new Type(getStringTypeName(), true);
-            case INT_ARRAY_TYPE -> new Type(getIntTypeName(), true);
-            case BOOLEAN_TYPE -> new Type(getBooleanTypeName(), false);
-            case STRING_TYPE -> new Type(getStringTypeName(), false);
-            case INT_TYPE -> new Type(getIntTypeName(), false);
-            case INT_ELLIPSIS_TYPE -> new Type("int...", true);
+            case VOID_TYPE -> getType(getVoidTypeName(), false);
+            case STRING_ARRAY_TYPE -> getType(getStringTypeName(), true);
+            case INT_ARRAY_TYPE -> INT_ARRAY;
+            case BOOLEAN_TYPE -> BOOLEAN;
+            case STRING_TYPE -> getType(getStringTypeName(), false);
+            case INT_TYPE -> INT;
+            case INT_ELLIPSIS_TYPE -> getType("int...", true);
             case IDENTIFIER_TYPE -> getExprType(paramDecl.getDescendants(Kind.IDENTIFIER_TYPE).get(0), table, currentMethod);
             default -> throw new RuntimeException(kind + " is not a ParamDecl type.");
         };
@@ -152,16 +188,16 @@ public class TypeUtils {
             }
         }
 
-        return new Type(firstElementType.getName(), true);
+        return getType(firstElementType.getName(), true);
     }
 
     private static Type getNewOpType(JmmNode newOp, SymbolTable table, String currentMethod) {
         // Check if there exists a child
         if (newOp.getNumChildren() == 0) {
-            return new Type(newOp.get("value"), false);
+            return getType(newOp.get("value"), false);
         }
 
-        return new Type(INT_TYPE_NAME, true);
+        return INT_ARRAY;
     }
 
     private static Type getMemberAccessType(JmmNode memberAccess, SymbolTable table, String currentMethod){
@@ -3,6 +3,11 @@ package pt.up.fe.comp2024.backend;
 import pt.up.fe.comp.jmm.jasmin.JasminBackend;
 import pt.up.fe.comp.jmm.jasmin.JasminResult;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.classfile.ClassFileResult;
+
+import java.util.List;
 
 public class JasminBackendImpl implements JasminBackend {
 
@@ -11,8 +16,29 @@ public class JasminBackendImpl implements JasminBackend {
 
         var jasminGenerator = new JasminGenerator(ollirResult);
         var jasminCode = jasminGenerator.build();
+        var jasminResult = new JasminResult(ollirResult, jasminCode, jasminGenerator.getReports());
+
+        if (!CompilerConfig.isClassFile(ollirResult.getConfig())) {
+            return jasminResult;
+        }
+
+        // The Jasmin code is kept for debugging, the class file is assembled from the same instructions
+        return new ClassFileResult(jasminResult, jasminGenerator.assemble());
+    }
+
+    /**
+     * Writes the Jasmin code to the output as it is generated, such as to a file, without keeping it in memory.
+     *
+     * @param ollirResult
+     * @param out
+     * @return the reports of the generation
+     */
+    public List<Report> toJasmin(OllirResult ollirResult, Appendable out) {
+
+        var jasminGenerator = new JasminGenerator(ollirResult);
+        jasminGenerator.write(out);
 
-        return new JasminResult(ollirResult, jasminCode, jasminGenerator.getReports());
+        return jasminGenerator.getReports();
     }
 
 }
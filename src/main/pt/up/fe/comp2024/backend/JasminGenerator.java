@@ -4,24 +4,36 @@ import org.specs.comp.ollir.*;
 import org.specs.comp.ollir.tree.TreeNode;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.report.Report;
-import pt.up.fe.specs.util.classmap.FunctionClassMap;
+import pt.up.fe.comp2024.classfile.ClassFileAssembler;
+import pt.up.fe.comp2024.classfile.JasminInstruction;
+import pt.up.fe.comp2024.jfr.CompilerEvent;
+import pt.up.fe.comp2024.jfr.JasminGenerationEvent;
+import pt.up.fe.specs.util.classmap.BiConsumerClassMap;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
-import pt.up.fe.specs.util.utilities.StringLines;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
- * Generates Jasmin code from an OllirResult.
+ * Generates Jasmin code from an OllirResult, or assembles its class file directly from the generated instructions.
  * <p>
  * One JasminGenerator instance per OllirResult.
  */
 public class JasminGenerator {
 
-    private static final String NL = "\n";
     private static final String TAB = "   ";
 
+    // TODO: Hardcoded to Object, needs to be expanded
+    private static final String SUPER_CLASS = "java/lang/Object";
+
+    // A single constructor, which receives no arguments
+    private static final List<JasminInstruction> DEFAULT_CONSTRUCTOR = List.of(
+            JasminInstruction.of("aload_0"),
+            JasminInstruction.of("invokespecial", SUPER_CLASS + "/<init>()V"),
+            JasminInstruction.of("return"));
+
     private final OllirResult ollirResult;
 
     List<Report> reports;
@@ -30,7 +42,11 @@ public class JasminGenerator {
 
     Method currentMethod;
 
-    private final FunctionClassMap<TreeNode, String> generators;
+    // Each generator adds its instructions to the list
+    private final BiConsumerClassMap<TreeNode, List<JasminInstruction>> generators;
+
+    // The instructions of each method, generated once for both the Jasmin code and the class file
+    private final Map<Method, List<JasminInstruction>> instructionsByMethod;
 
     public JasminGenerator(OllirResult ollirResult) {
         this.ollirResult = ollirResult;
@@ -38,10 +54,9 @@ public class JasminGenerator {
         reports = new ArrayList<>();
         code = null;
         currentMethod = null;
+        instructionsByMethod = new HashMap<>();
 
-        this.generators = new FunctionClassMap<>();
-        generators.put(ClassUnit.class, this::generateClassUnit);
-        generators.put(Method.class, this::generateMethod);
+        this.generators = new BiConsumerClassMap<>();
         generators.put(AssignInstruction.class, this::generateAssign);
         generators.put(SingleOpInstruction.class, this::generateSingleOp);
         generators.put(LiteralElement.class, this::generateLiteral);
@@ -58,37 +73,77 @@ public class JasminGenerator {
 
         // This way, build is idempotent
         if (code == null) {
-            code = generators.apply(ollirResult.getOllirClass());
+            var builder = new StringBuilder();
+            write(builder);
+            code = builder.toString();
         }
 
         return code;
     }
 
+    /**
+     * Writes the Jasmin code of the class to the output as it is generated, instead of building it in memory.
+     *
+     * @param out
+     */
+    public void write(Appendable out) {
+        var event = new JasminGenerationEvent();
+        event.begin();
+
+        var writer = new JasminWriter(out, TAB);
+        writeClassUnit(ollirResult.getOllirClass(), writer);
+
+        if (event.shouldCommit()) {
+            event.inputFile = CompilerEvent.getInputFile(ollirResult.getConfig());
+            event.className = ollirResult.getOllirClass().getClassName();
+            event.methods = ollirResult.getOllirClass().getNumMethods();
+            event.outputChars = (int) writer.length();
+            event.commit();
+        }
+    }
+
+    /**
+     * Assembles the class file from the generated instructions, without writing and parsing the Jasmin code. The
+     * instructions of each method are only generated once, when both the code and the class file are needed.
+     *
+     * @return the assembled class
+     */
+    public ClassFileAssembler.AssembledClass assemble() {
+        var classUnit = ollirResult.getOllirClass();
+        var assembler = ClassFileAssembler.newClass(List.of(), classUnit.getClassName(), SUPER_CLASS);
+
+        assembler.addMethod(List.of("public"), "<init>", "()V", DEFAULT_CONSTRUCTOR);
+
+        for (var method : classUnit.getMethods()) {
+            if (method.isConstructMethod()) {
+                continue;
+            }
+
+            // TODO: Hardcoded param types and return type, needs to be expanded
+            assembler.addMethod(getAccess(method), method.getMethodName(), "(I)I", getInstructions(method));
+        }
 
-    private String generateClassUnit(ClassUnit classUnit) {
+        return assembler.toAssembledClass();
+    }
 
-        var code = new StringBuilder();
+    private void writeClassUnit(ClassUnit classUnit, JasminWriter code) {
 
         // generate class name
-        var className = ollirResult.getOllirClass().getClassName();
-        code.append(".class ").append(className).append(NL).append(NL);
+        var className = classUnit.getClassName();
+        code.append(".class ").append(className).newLine().newLine();
 
-        // TODO: Hardcoded to Object, needs to be expanded
-        code.append(".super java/lang/Object").append(NL);
+        code.append(".super ").append(SUPER_CLASS).newLine();
 
         // generate a single constructor method
-        var defaultConstructor = """
-                ;default constructor
-                .method public <init>()V
-                    aload_0
-                    invokespecial java/lang/Object/<init>()V
-                    return
-                .end method
-                """;
-        code.append(defaultConstructor);
+        code.append(";default constructor").newLine();
+        code.append(".method public <init>()V").newLine();
+        for (var instruction : DEFAULT_CONSTRUCTOR) {
+            code.line(instruction.toString());
+        }
+        code.append(".end method").newLine();
 
         // generate code for all other methods
-        for (var method : ollirResult.getOllirClass().getMethods()) {
+        for (var method : classUnit.getMethods()) {
 
             // Ignore constructor, since there is always one constructor
             // that receives no arguments, and has been already added
@@ -97,54 +152,66 @@ public class JasminGenerator {
                 continue;
             }
 
-            code.append(generators.apply(method));
+            writeMethod(method, code);
         }
-
-        return code.toString();
     }
 
 
-    private String generateMethod(Method method) {
-
-        // set method
-        currentMethod = method;
-
-        var code = new StringBuilder();
-
-        // calculate modifier
-        var modifier = method.getMethodAccessModifier() != AccessModifier.DEFAULT ?
-                method.getMethodAccessModifier().name().toLowerCase() + " " :
-                "";
+    private void writeMethod(Method method, JasminWriter code) {
 
         var methodName = method.getMethodName();
 
+        code.newLine().append(".method ");
+        for (var modifier : getAccess(method)) {
+            code.append(modifier).append(" ");
+        }
+
         // TODO: Hardcoded param types and return type, needs to be expanded
-        code.append("\n.method ").append(modifier).append(methodName).append("(I)I").append(NL);
+        code.append(methodName).append("(I)I").newLine();
 
-        // Add limits
-        code.append(TAB).append(".limit stack 99").append(NL);
-        code.append(TAB).append(".limit locals 99").append(NL);
+        // The limits are only known after generating the instructions
+        var instructions = getInstructions(method);
 
-        for (var inst : method.getInstructions()) {
-            var instCode = StringLines.getLines(generators.apply(inst)).stream()
-                    .collect(Collectors.joining(NL + TAB, TAB, NL));
+        // Add limits
+        code.line(".limit stack " + JasminLimits.maxStack(instructions));
+        code.line(".limit locals " + JasminLimits.maxLocals(method));
 
-            code.append(instCode);
+        for (var instruction : instructions) {
+            code.line(instruction.toString());
         }
 
-        code.append(".end method\n");
+        code.append(".end method").newLine();
+    }
+
+    private static List<String> getAccess(Method method) {
+        return method.getMethodAccessModifier() != AccessModifier.DEFAULT ?
+                List.of(method.getMethodAccessModifier().name().toLowerCase()) :
+                List.of();
+    }
+
+    private List<JasminInstruction> getInstructions(Method method) {
+        return instructionsByMethod.computeIfAbsent(method, this::generateInstructions);
+    }
+
+    private List<JasminInstruction> generateInstructions(Method method) {
+
+        // set method
+        currentMethod = method;
+
+        var instructions = new ArrayList<JasminInstruction>();
+        for (var inst : method.getInstructions()) {
+            generators.accept(inst, instructions);
+        }
 
         // unset method
         currentMethod = null;
 
-        return code.toString();
+        return instructions;
     }
 
-    private String generateAssign(AssignInstruction assign) {
-        var code = new StringBuilder();
-
+    private void generateAssign(AssignInstruction assign, List<JasminInstruction> code) {
         // generate code for loading what's on the right
-        code.append(generators.apply(assign.getRhs()));
+        generators.accept(assign.getRhs(), code);
 
         // store value in the stack in destination
         var lhs = assign.getDest();
@@ -159,31 +226,27 @@ public class JasminGenerator {
         var reg = currentMethod.getVarTable().get(operand.getName()).getVirtualReg();
 
         // TODO: Hardcoded for int type, needs to be expanded
-        code.append("istore ").append(reg).append(NL);
-
-        return code.toString();
+        code.add(JasminInstruction.of("istore", Integer.toString(reg)));
     }
 
-    private String generateSingleOp(SingleOpInstruction singleOp) {
-        return generators.apply(singleOp.getSingleOperand());
+    private void generateSingleOp(SingleOpInstruction singleOp, List<JasminInstruction> code) {
+        generators.accept(singleOp.getSingleOperand(), code);
     }
 
-    private String generateLiteral(LiteralElement literal) {
-        return "ldc " + literal.getLiteral() + NL;
+    private void generateLiteral(LiteralElement literal, List<JasminInstruction> code) {
+        code.add(JasminInstruction.of("ldc", literal.getLiteral()));
     }
 
-    private String generateOperand(Operand operand) {
+    private void generateOperand(Operand operand, List<JasminInstruction> code) {
         // get register
         var reg = currentMethod.getVarTable().get(operand.getName()).getVirtualReg();
-        return "iload " + reg + NL;
+        code.add(JasminInstruction.of("iload", Integer.toString(reg)));
     }
 
-    private String generateBinaryOp(BinaryOpInstruction binaryOp) {
-        var code = new StringBuilder();
-
+    private void generateBinaryOp(BinaryOpInstruction binaryOp, List<JasminInstruction> code) {
         // load values on the left and on the right
-        code.append(generators.apply(binaryOp.getLeftOperand()));
-        code.append(generators.apply(binaryOp.getRightOperand()));
+        generators.accept(binaryOp.getLeftOperand(), code);
+        generators.accept(binaryOp.getRightOperand(), code);
 
         // apply operation
         var op = switch (binaryOp.getOperation().getOpType()) {
@@ -192,20 +255,14 @@ public class JasminGenerator {
             default -> throw new NotImplementedException(binaryOp.getOperation().getOpType());
         };
 
-        code.append(op).append(NL);
-
-        return code.toString();
+        code.add(JasminInstruction.of(op));
     }
 
-    private String generateReturn(ReturnInstruction returnInst) {
-        var code = new StringBuilder();
-
+    private void generateReturn(ReturnInstruction returnInst, List<JasminInstruction> code) {
         // TODO: Hardcoded to int return type, needs to be expanded
 
-        code.append(generators.apply(returnInst.getOperand()));
-        code.append("ireturn").append(NL);
-
-        return code.toString();
+        generators.accept(returnInst.getOperand(), code);
+        code.add(JasminInstruction.of("ireturn"));
     }
 
 }
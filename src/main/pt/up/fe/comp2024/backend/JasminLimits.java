@@ -0,0 +1,308 @@
+package pt.up.fe.comp2024.backend;
+
+import org.specs.comp.ollir.Method;
+import pt.up.fe.comp2024.classfile.JasminInstruction;
+import pt.up.fe.specs.util.exceptions.NotImplementedException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the '.limit stack' and '.limit locals' of a method from its Jasmin code and its OLLIR variables.
+ * <p>
+ * The maximum stack is found by following the instructions from the start of the method, and every branch to a
+ * label, with the stack effect of each instruction. Code that underflows the stack, or that reaches an instruction
+ * with different stack depths, fails, since the JVM would reject it.
+ */
+public class JasminLimits {
+
+    /**
+     * The number of values an instruction pops from the operand stack, and then pushes.
+     */
+    private record StackEffect(int pops, int pushes) {
+    }
+
+    private static final Map<String, StackEffect> EFFECTS = new HashMap<>();
+
+    private static final Set<String> BRANCHES = Set.of("ifeq", "ifne", "iflt", "ifge", "ifgt", "ifle",
+            "if_icmpeq", "if_icmpne", "if_icmplt", "if_icmpge", "if_icmpgt", "if_icmple", "if_acmpeq", "if_acmpne",
+            "ifnull", "ifnonnull", "goto", "goto_w");
+
+    private static final Set<String> UNCONDITIONAL = Set.of("goto", "goto_w", "ireturn", "areturn", "return",
+            "athrow");
+
+    static {
+        effect(0, 1, "aconst_null", "iconst_m1", "iconst_0", "iconst_1", "iconst_2", "iconst_3", "iconst_4",
+                "iconst_5", "bipush", "sipush", "ldc", "ldc_w", "iload", "aload", "new");
+        effect(0, 1, numbered("iload", "aload"));
+        effect(1, 0, "istore", "astore", "pop", "ifeq", "ifne", "iflt", "ifge", "ifgt", "ifle", "ifnull",
+                "ifnonnull", "ireturn", "areturn", "athrow");
+        effect(1, 0, numbered("istore", "astore"));
+        effect(2, 0, "pop2", "if_icmpeq", "if_icmpne", "if_icmplt", "if_icmpge", "if_icmpgt", "if_icmple",
+                "if_acmpeq", "if_acmpne");
+        effect(2, 1, "iaload", "aaload", "baload", "caload", "saload", "iadd", "isub", "imul", "idiv", "irem",
+                "ishl", "ishr", "iushr", "iand", "ior", "ixor");
+        effect(3, 0, "iastore", "aastore", "bastore", "castore", "sastore");
+        effect(1, 1, "ineg", "arraylength", "newarray", "anewarray", "checkcast", "instanceof", "i2b", "i2c",
+                "i2s");
+        effect(0, 0, "nop", "iinc", "goto", "goto_w", "return");
+        effect(1, 2, "dup");
+        effect(2, 3, "dup_x1");
+        effect(3, 4, "dup_x2");
+        effect(2, 4, "dup2");
+        effect(2, 2, "swap");
+    }
+
+    private static void effect(int pops, int pushes, String... mnemonics) {
+        for (var mnemonic : mnemonics) {
+            EFFECTS.put(mnemonic, new StackEffect(pops, pushes));
+        }
+    }
+
+    private static String[] numbered(String... mnemonics) {
+        return Arrays.stream(mnemonics)
+                .flatMap(mnemonic -> Arrays.stream(new String[]{"_0", "_1", "_2", "_3"}).map(n -> mnemonic + n))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * @param method the OLLIR method, with its variable table built
+     * @return the number of registers used by the parameters and variables of the method
+     */
+    public static int maxLocals(Method method) {
+        // 'this' is not in the variable table when it is not used
+        int locals = (method.isStaticMethod() ? 0 : 1) + method.getParams().size();
+
+        for (var descriptor : method.getVarTable().values()) {
+            locals = Math.max(locals, descriptor.getVirtualReg() + 1);
+        }
+
+        return locals;
+    }
+
+    /**
+     * @param methodCode the instructions and labels of a method, one per line
+     * @return the maximum depth of the operand stack when running the code
+     */
+    public static int maxStack(CharSequence methodCode) {
+        var instructions = new ArrayList<JasminInstruction>();
+
+        methodCode.toString().lines().forEach(line -> {
+            var tokens = tokenize(line);
+            if (tokens.length == 0) {
+                return;
+            }
+
+            if (tokens[0].endsWith(":")) {
+                instructions.add(new JasminInstruction(tokens[0], List.of()));
+                tokens = Arrays.copyOfRange(tokens, 1, tokens.length);
+
+                if (tokens.length == 0) {
+                    return;
+                }
+            }
+
+            // Directives inside methods, such as '.limit', do not change the stack
+            if (!tokens[0].startsWith(".")) {
+                instructions.add(new JasminInstruction(tokens[0], List.of(tokens).subList(1, tokens.length)));
+            }
+        });
+
+        return maxStack(instructions);
+    }
+
+    /**
+     * @param methodCode the instructions and labels of a method, as generated
+     * @return the maximum depth of the operand stack when running the code
+     */
+    public static int maxStack(List<JasminInstruction> methodCode) {
+        var instructions = new ArrayList<JasminInstruction>(methodCode.size());
+        var labels = new HashMap<String, Integer>();
+
+        for (var instruction : methodCode) {
+            if (instruction.isLabel()) {
+                labels.put(instruction.getLabel(), instructions.size());
+            } else {
+                instructions.add(instruction);
+            }
+        }
+
+        return maxStack(instructions, labels);
+    }
+
+    private static int maxStack(List<JasminInstruction> instructions, Map<String, Integer> labels) {
+        // Depth of the stack before each instruction, -1 if not reached yet
+        var depths = new int[instructions.size() + 1];
+        Arrays.fill(depths, -1);
+
+        var worklist = new ArrayDeque<Integer>();
+        int maxStack = 0;
+
+        reach(0, 0, depths, worklist);
+
+        while (!worklist.isEmpty()) {
+            int index = worklist.pop();
+
+            // Falling off the end of the method
+            if (index == instructions.size()) {
+                continue;
+            }
+
+            var instruction = instructions.get(index);
+            var mnemonic = instruction.mnemonic();
+            var effect = getEffect(instruction);
+
+            if (depths[index] < effect.pops()) {
+                throw new RuntimeException("Stack underflow at '" + instruction + "', with "
+                        + depths[index] + " values in the stack");
+            }
+
+            int depth = depths[index] - effect.pops() + effect.pushes();
+            maxStack = Math.max(maxStack, depth);
+
+            if (BRANCHES.contains(mnemonic)) {
+                var target = labels.get(lastOperand(instruction));
+                if (target == null) {
+                    throw new RuntimeException("Undefined label in '" + instruction + "'");
+                }
+
+                reach(target, depth, depths, worklist);
+            }
+
+            if (!UNCONDITIONAL.contains(mnemonic)) {
+                reach(index + 1, depth, depths, worklist);
+            }
+        }
+
+        return maxStack;
+    }
+
+    private static void reach(int index, int depth, int[] depths, ArrayDeque<Integer> worklist) {
+        if (depths[index] == -1) {
+            depths[index] = depth;
+            worklist.push(index);
+            return;
+        }
+
+        if (depths[index] != depth) {
+            throw new RuntimeException("Instruction " + index + " is reached with " + depths[index] + " and "
+                    + depth + " values in the stack");
+        }
+    }
+
+    private static StackEffect getEffect(JasminInstruction instruction) {
+        var mnemonic = instruction.mnemonic();
+
+        var effect = EFFECTS.get(mnemonic);
+        if (effect != null) {
+            return effect;
+        }
+
+        // The method reference is the first operand, since 'invokeinterface' ends with the argument count
+        var operand = mnemonic.startsWith("invoke") ? firstOperand(instruction) : lastOperand(instruction);
+
+        return switch (mnemonic) {
+            case "invokestatic" -> new StackEffect(argumentsSize(operand), returnSize(operand));
+            case "invokevirtual", "invokespecial", "invokeinterface" ->
+                    new StackEffect(argumentsSize(operand) + 1, returnSize(operand));
+            case "getstatic" -> new StackEffect(0, typeSize(operand));
+            case "putstatic" -> new StackEffect(typeSize(operand), 0);
+            case "getfield" -> new StackEffect(1, typeSize(operand));
+            case "putfield" -> new StackEffect(1 + typeSize(operand), 0);
+            case "multianewarray" -> new StackEffect(Integer.parseInt(operand), 1);
+            default -> throw new NotImplementedException(mnemonic);
+        };
+    }
+
+    private static String firstOperand(JasminInstruction instruction) {
+        return operands(instruction).get(0);
+    }
+
+    private static String lastOperand(JasminInstruction instruction) {
+        var operands = operands(instruction);
+        return operands.get(operands.size() - 1);
+    }
+
+    private static List<String> operands(JasminInstruction instruction) {
+        var operands = instruction.operands();
+        if (operands.isEmpty()) {
+            throw new RuntimeException("Missing operand in '" + instruction + "'");
+        }
+
+        return operands;
+    }
+
+    /**
+     * @param methodRef such as 'java/lang/Object/equals(Ljava/lang/Object;)Z'
+     */
+    private static int argumentsSize(String methodRef) {
+        var descriptor = methodRef.substring(methodRef.indexOf('(') + 1, methodRef.indexOf(')'));
+
+        int size = 0;
+        int i = 0;
+        while (i < descriptor.length()) {
+            size += typeSize(descriptor.substring(i));
+            i = skipType(descriptor, i);
+        }
+
+        return size;
+    }
+
+    private static int returnSize(String methodRef) {
+        var returnType = methodRef.substring(methodRef.indexOf(')') + 1);
+        return returnType.equals("V") ? 0 : typeSize(returnType);
+    }
+
+    private static int typeSize(String descriptor) {
+        return descriptor.charAt(0) == 'J' || descriptor.charAt(0) == 'D' ? 2 : 1;
+    }
+
+    private static int skipType(String descriptor, int i) {
+        while (descriptor.charAt(i) == '[') {
+            i++;
+        }
+
+        return descriptor.charAt(i) == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+    }
+
+    private static String[] tokenize(String line) {
+        var comment = commentStart(line);
+        if (comment >= 0) {
+            line = line.substring(0, comment);
+        }
+
+        var trimmed = line.strip();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    /**
+     * Comments start with a ';' at the start of a token, either a whole line or after an instruction. Descriptors such
+     * as 'Ljava/lang/String;' have ';' in the middle of a token, and strings may have it anywhere.
+     *
+     * @return the index of the ';' that starts the comment of the line, or -1 if it has none
+     */
+    private static int commentStart(String line) {
+        if (line.indexOf(';') < 0) {
+            return -1;
+        }
+
+        boolean inString = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+
+            if (c == '"' && (i == 0 || line.charAt(i - 1) != '\\')) {
+                inString = !inString;
+            } else if (c == ';' && !inString && (i == 0 || Character.isWhitespace(line.charAt(i - 1)))) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,144 @@
+package pt.up.fe.comp2024.backend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes Jasmin code to an {@link Appendable}, such as a StringBuilder or a file Writer, as it is generated.
+ * <p>
+ * Instructions are indented by the writer, line by line, as they are copied to the output, so the code of each
+ * instruction does not have to be split into lines and joined again.
+ */
+public class JasminWriter {
+
+    private static final char NL = '\n';
+
+    private final Appendable out;
+    private final String indentation;
+
+    private long length;
+
+    /**
+     * @param out         where the code is written
+     * @param indentation the indentation of each line of instructions
+     */
+    public JasminWriter(Appendable out, String indentation) {
+        this.out = out;
+        this.indentation = indentation;
+        this.length = 0;
+    }
+
+    /**
+     * Writes the code as is.
+     *
+     * @param code
+     * @return this writer
+     */
+    public JasminWriter append(CharSequence code) {
+        try {
+            out.append(code);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code", e);
+        }
+
+        length += code.length();
+
+        return this;
+    }
+
+    /**
+     * @param value
+     * @return this writer
+     */
+    public JasminWriter append(int value) {
+        return append(Integer.toString(value));
+    }
+
+    /**
+     * @return this writer
+     */
+    public JasminWriter newLine() {
+        return append(NL);
+    }
+
+    /**
+     * Writes a single indented line.
+     *
+     * @param line
+     * @return this writer
+     */
+    public JasminWriter line(CharSequence line) {
+        return append(indentation).append(line).newLine();
+    }
+
+    /**
+     * Writes each line of the code indented, ending with a new line. Code without lines is written as an empty
+     * indented line. Lines end in '\n', '\r' or "\r\n", and are written ending in '\n'.
+     *
+     * @param code one or more lines of instructions
+     * @return this writer
+     */
+    public JasminWriter lines(CharSequence code) {
+        append(indentation);
+
+        int start = 0;
+        int end = code.length();
+
+        for (int i = 0; i < end; i++) {
+            char c = code.charAt(i);
+            if (c != '\n' && c != '\r') {
+                continue;
+            }
+
+            append(code, start, i).newLine();
+
+            if (c == '\r' && i + 1 < end && code.charAt(i + 1) == '\n') {
+                i++;
+            }
+
+            start = i + 1;
+
+            // The last line already ended
+            if (start < end) {
+                append(indentation);
+            }
+        }
+
+        if (start < end || end == 0) {
+            append(code, start, end).newLine();
+        }
+
+        return this;
+    }
+
+    /**
+     * @return the number of characters written
+     */
+    public long length() {
+        return length;
+    }
+
+    private JasminWriter append(CharSequence code, int start, int end) {
+        try {
+            out.append(code, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code", e);
+        }
+
+        length += end - start;
+
+        return this;
+    }
+
+    private JasminWriter append(char c) {
+        try {
+            out.append(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code", e);
+        }
+
+        length++;
+
+        return this;
+    }
+}
@@ -0,0 +1,77 @@
+package pt.up.fe.comp2024.batch;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilationPipeline;
+import pt.up.fe.comp2024.CompilationResult;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.parser.SourceLoader;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compiles several Java-- files in the same JVM, using a work-stealing pool.
+ * <p>
+ * Each file is compiled independently, with its own parser, semantics, OLLIR and Jasmin results.
+ */
+public class BatchCompiler {
+
+    private final CompilationPipeline pipeline;
+    private final int threads;
+
+    public BatchCompiler(int threads) {
+        this(new CompilationPipeline(), threads);
+    }
+
+    public BatchCompiler(CompilationPipeline pipeline, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Expected at least one thread, got " + threads);
+        }
+
+        this.pipeline = pipeline;
+        this.threads = threads;
+    }
+
+    public BatchResult compile(List<File> files, Map<String, String> config) {
+
+        var pool = new ForkJoinPool(threads);
+
+        try {
+            long start = System.nanoTime();
+
+            // Submit all files first, so that idle workers can steal them, then collect in input order
+            List<ForkJoinTask<FileCompilation>> tasks = files.stream()
+                    .map(file -> pool.submit(() -> compileFile(file, config)))
+                    .toList();
+
+            var results = tasks.stream()
+                    .map(ForkJoinTask::join)
+                    .toList();
+
+            return new BatchResult(results, System.nanoTime() - start, threads);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private FileCompilation compileFile(File file, Map<String, String> config) {
+        long start = System.nanoTime();
+
+        var fileConfig = CompilerConfig.forInputFile(config, file);
+
+        CompilationResult result;
+        try {
+            var code = SourceLoader.load(file);
+            result = pipeline.compile(code, fileConfig);
+        } catch (RuntimeException e) {
+            var report = Report.newError(Stage.OTHER, -1, -1, "Could not compile file '" + file + "'", e);
+            result = new CompilationResult(null, null, null, null, List.of(report));
+        }
+
+        return new FileCompilation(file, result, System.nanoTime() - start);
+    }
+}
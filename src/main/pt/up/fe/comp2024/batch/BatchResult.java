@@ -0,0 +1,71 @@
+package pt.up.fe.comp2024.batch;
+
+import pt.up.fe.comp.jmm.report.ReportType;
+
+import java.util.List;
+
+/**
+ * The results of a batch compilation, in the same order as the input files.
+ */
+public class BatchResult {
+
+    private static final String NL = "\n";
+    private static final String TAB = "   ";
+
+    private final List<FileCompilation> files;
+    private final long elapsedNanos;
+    private final int threads;
+
+    public BatchResult(List<FileCompilation> files, long elapsedNanos, int threads) {
+        this.files = files;
+        this.elapsedNanos = elapsedNanos;
+        this.threads = threads;
+    }
+
+    public List<FileCompilation> getFiles() {
+        return files;
+    }
+
+    public long getNumFailed() {
+        return files.stream().filter(file -> !file.isSuccess()).count();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getFilesPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+
+        return files.size() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * @return the error and warning reports of each file, grouped by file
+     */
+    public String getReportsSummary() {
+        var code = new StringBuilder();
+
+        for (var file : files) {
+            var reports = file.getReports().stream()
+                    .filter(report -> report.getType() == ReportType.ERROR || report.getType() == ReportType.WARNING)
+                    .toList();
+
+            if (reports.isEmpty()) {
+                continue;
+            }
+
+            code.append(file.getFile().getPath()).append(":").append(NL);
+            reports.forEach(report -> code.append(TAB).append(report).append(NL));
+        }
+
+        return code.toString();
+    }
+
+    public String getSummary() {
+        return String.format("Compiled %d files (%d failed) in %.1f ms on %d threads, %.1f files/s",
+                files.size(), getNumFailed(), elapsedNanos / 1_000_000.0, threads, getFilesPerSecond());
+    }
+}
@@ -0,0 +1,43 @@
+package pt.up.fe.comp2024.batch;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.CompilationResult;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * The result of compiling one of the files of a batch.
+ */
+public class FileCompilation {
+
+    private final File file;
+    private final CompilationResult result;
+    private final long elapsedNanos;
+
+    public FileCompilation(File file, CompilationResult result, long elapsedNanos) {
+        this.file = file;
+        this.result = result;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public CompilationResult getResult() {
+        return result;
+    }
+
+    public List<Report> getReports() {
+        return result.getReports();
+    }
+
+    public boolean isSuccess() {
+        return result.isSuccess();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,82 @@
+package pt.up.fe.comp2024.cache;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.Stage;
+
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * The artifacts of a compilation, as stored in the {@link CompilationCache}.
+ * <p>
+ * Reports are stored without their exceptions, only with the information needed to print them. The class file, when
+ * the backend assembled it ('-f'), is stored in Base64.
+ */
+public class CacheEntry {
+
+    private final String className;
+    private final String ollirCode;
+    private final String jasminCode;
+    private final String classFile;
+    private final List<CachedReport> reports;
+
+    public CacheEntry(String className, String ollirCode, String jasminCode, byte[] classFile, List<Report> reports) {
+        this.className = className;
+        this.ollirCode = ollirCode;
+        this.jasminCode = jasminCode;
+        this.classFile = classFile != null ? Base64.getEncoder().encodeToString(classFile) : null;
+        this.reports = reports.stream().map(CachedReport::new).toList();
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return the OLLIR code, or null if the compilation did not reach OLLIR generation
+     */
+    public String getOllirCode() {
+        return ollirCode;
+    }
+
+    /**
+     * @return the Jasmin code, or null if the compilation did not reach Jasmin generation
+     */
+    public String getJasminCode() {
+        return jasminCode;
+    }
+
+    /**
+     * @return the bytes of the class file, or null if the backend did not assemble it
+     */
+    public byte[] getClassFile() {
+        return classFile != null ? Base64.getDecoder().decode(classFile) : null;
+    }
+
+    public List<Report> getReports() {
+        return reports.stream().map(CachedReport::toReport).toList();
+    }
+
+    private static class CachedReport {
+        private final ReportType type;
+        private final Stage stage;
+        private final int line;
+        private final int column;
+        private final String message;
+
+        private CachedReport(Report report) {
+            this.type = report.getType();
+            this.stage = report.getStage();
+            this.line = report.getLine();
+            this.column = report.getColumn();
+            this.message = report.getException()
+                    .map(e -> report.getMessage() + " (exception: " + e.getMessage() + ")")
+                    .orElse(report.getMessage());
+        }
+
+        private Report toReport() {
+            return new Report(type, stage, line, column, message);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package pt.up.fe.comp2024.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.parser.AsciiCharSequence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed, size-bounded on-disk cache of compilation artifacts.
+ * <p>
+ * Entries are keyed by a hash of the source code, of the config options that change the generated code and of the
+ * compiler version (see {@link #computeKey(String, String, Map)}). Entries are written to a temporary file and then
+ * atomically renamed, so that concurrent writers (threads or processes) never expose a partial entry. Reading an entry
+ * updates its modification time, which is used to evict the least recently used entries when the cache grows beyond
+ * its maximum size.
+ */
+public class CompilationCache {
+
+    /**
+     * Attribute of the root of the AST with the hash of the code it was parsed from, set by the parsers when caching is
+     * enabled, so that the stages after parsing can key their artifacts on that code.
+     */
+    public static final String SOURCE_HASH = "sourceHash";
+
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    // One instance per folder, so that all the users in the same JVM share statistics and size accounting
+    private static final Map<Path, CompilationCache> CACHES = new ConcurrentHashMap<>();
+
+    private final Path folder;
+    private volatile long maxBytes;
+    private final Gson gson;
+
+    private final AtomicLong currentBytes;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong writes;
+    private final AtomicLong evictions;
+
+    private CompilationCache(Path folder, long maxBytes) {
+        this.folder = folder;
+        this.maxBytes = maxBytes;
+        this.gson = new Gson();
+
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.writes = new AtomicLong();
+        this.evictions = new AtomicLong();
+
+        try {
+            Files.createDirectories(folder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create cache folder '" + folder + "'", e);
+        }
+
+        this.currentBytes = new AtomicLong(listEntries().stream().mapToLong(CompilationCache::size).sum());
+    }
+
+    /**
+     * Opens the cache in the given folder, shared by all the users of that folder in this JVM. The maximum size is the
+     * one given last, and is enforced on the next write.
+     *
+     * @param folder
+     * @param maxBytes
+     * @return
+     */
+    public static CompilationCache open(Path folder, long maxBytes) {
+        var cache = CACHES.computeIfAbsent(folder.toAbsolutePath().normalize(),
+                absoluteFolder -> new CompilationCache(absoluteFolder, maxBytes));
+        cache.maxBytes = maxBytes;
+
+        return cache;
+    }
+
+    /**
+     * @param config
+     * @return the cache configured with the options '-c' and '-z', if caching is enabled
+     */
+    public static Optional<CompilationCache> fromConfig(Map<String, String> config) {
+        return CompilerConfig.getCacheFolder(config)
+                .map(folder -> open(folder.toPath(), CompilerConfig.getCacheMaxBytes(config)));
+    }
+
+    /**
+     * @param code
+     * @return a hexadecimal SHA-256 hash of the source code
+     */
+    public static String hashSource(CharSequence code) {
+        var digest = newDigest();
+
+        // ASCII sources are their own UTF-8 encoding, hash the mapped bytes instead of copying them
+        if (code instanceof AsciiCharSequence asciiCode) {
+            digest.update(asciiCode.getBytes());
+        } else {
+            digest.update(code.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Sets {@link #SOURCE_HASH} in the root of the AST parsed from the code, if caching is enabled in the config.
+     *
+     * @param root the root of the AST, or null if the code could not be parsed
+     * @param code
+     * @param config
+     */
+    public static void recordSource(JmmNode root, CharSequence code, Map<String, String> config) {
+        if (root != null && CompilerConfig.getCacheFolder(config).isPresent()) {
+            root.put(SOURCE_HASH, hashSource(code));
+        }
+    }
+
+    /**
+     * Computes the key of the artifacts generated from the source code with the given hash.
+     *
+     * @param namespace  distinguishes between the artifacts of different pipelines for the same source
+     * @param sourceHash the hash of the source code, as given by {@link #hashSource(CharSequence)}
+     * @param config
+     * @return a hexadecimal SHA-256 hash
+     */
+    public static String computeKey(String namespace, String sourceHash, Map<String, String> config) {
+        var digest = newDigest();
+
+        // Every option that changes the generated code, or whether the compilation fails
+        var header = namespace + "\0" + CompilerVersion.VALUE + "\0"
+                + CompilerConfig.getOptimize(config) + "\0"
+                + CompilerConfig.getRegisterAllocation(config) + "\0"
+                + CompilerConfig.isOllirInMemory(config) + "\0"
+                + CompilerConfig.isClassFile(config) + "\0"
+                + sourceHash;
+
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    public Optional<CacheEntry> get(String key) {
+        var entryPath = getEntryPath(key);
+
+        try {
+            var json = Files.readString(entryPath);
+            var entry = gson.fromJson(json, CacheEntry.class);
+
+            // Mark as recently used
+            Files.setLastModifiedTime(entryPath, FileTime.fromMillis(System.currentTimeMillis()));
+
+            hits.incrementAndGet();
+            return Optional.of(entry);
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        } catch (IOException | JsonParseException e) {
+            // Corrupted or concurrently evicted entry, treat as a miss
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, CacheEntry entry) {
+        var entryPath = getEntryPath(key);
+        var bytes = gson.toJson(entry).getBytes(StandardCharsets.UTF_8);
+        long replacedBytes;
+
+        try {
+            Files.createDirectories(entryPath.getParent());
+
+            var tempPath = Files.createTempFile(entryPath.getParent(), key, TEMP_EXTENSION);
+            try {
+                Files.write(tempPath, bytes);
+
+                // A rewrite of the same key replaces the entry, only the difference in size is added
+                replacedBytes = size(entryPath);
+                moveAtomically(tempPath, entryPath);
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+        } catch (IOException e) {
+            // The cache is an optimization, failing to write an entry must not fail the compilation
+            return;
+        }
+
+        writes.incrementAndGet();
+
+        if (currentBytes.addAndGet(bytes.length - replacedBytes) > maxBytes) {
+            evict();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public String getStatsSummary() {
+        long total = hits.get() + misses.get();
+        double hitRate = total == 0 ? 0 : 100.0 * hits.get() / total;
+
+        return String.format("Cache: %d hits, %d misses (%.1f%% hit rate), %d writes, %d evictions, %.1f/%.1f MB",
+                hits.get(), misses.get(), hitRate, writes.get(), evictions.get(),
+                currentBytes.get() / 1_048_576.0, maxBytes / 1_048_576.0);
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits its maximum size.
+     * <p>
+     * The folder is rescanned, since other processes may be writing to the same cache.
+     */
+    private synchronized void evict() {
+        var entries = listEntries();
+        long total = entries.stream().mapToLong(CompilationCache::size).sum();
+
+        if (total > maxBytes) {
+            entries.sort(Comparator.comparing(CompilationCache::lastModified));
+
+            for (var entry : entries) {
+                if (total <= maxBytes) {
+                    break;
+                }
+
+                long size = size(entry);
+                try {
+                    if (Files.deleteIfExists(entry)) {
+                        total -= size;
+                        evictions.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    // Entry in use or already removed, try the next one
+                }
+            }
+        }
+
+        currentBytes.set(total);
+    }
+
+    private Path getEntryPath(String key) {
+        // Shard entries by the first two digits of the key, to keep folders small
+        return folder.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+    }
+
+    private List<Path> listEntries() {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            return paths.filter(path -> path.toString().endsWith(ENTRY_EXTENSION))
+                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        } catch (IOException | UncheckedIOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * The version in the jar manifest, together with a hash of the classes and resources the compiler was loaded from
+     * (its jar, or its classes folder), so that rebuilding the compiler invalidates the cache even when the version is
+     * not bumped. Computed the first time a key is, since it reads the whole compiler.
+     */
+    private static class CompilerVersion {
+
+        private static final String VALUE = compute();
+
+        private static String compute() {
+            var version = Optional.ofNullable(CompilationCache.class.getPackage().getImplementationVersion())
+                    .orElse("dev");
+
+            try {
+                var location = Path.of(CompilationCache.class.getProtectionDomain().getCodeSource().getLocation()
+                        .toURI());
+                return version + "@" + hashFiles(location);
+            } catch (URISyntaxException | IOException | RuntimeException e) {
+                return version;
+            }
+        }
+
+        private static String hashFiles(Path location) throws IOException {
+            var digest = newDigest();
+
+            if (!Files.isDirectory(location)) {
+                updateDigest(digest, location);
+                return HexFormat.of().formatHex(digest.digest());
+            }
+
+            // Sorted, so that the hash does not depend on the order the file system lists them in
+            List<Path> files;
+            try (Stream<Path> paths = Files.walk(location)) {
+                files = paths.filter(Files::isRegularFile).sorted().toList();
+            }
+
+            for (var file : files) {
+                digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                updateDigest(digest, file);
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private static void updateDigest(MessageDigest digest, Path file) throws IOException {
+            try (InputStream in = Files.newInputStream(file)) {
+                var buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+    }
+}
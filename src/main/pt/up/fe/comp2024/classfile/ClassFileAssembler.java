@@ -0,0 +1,421 @@
+package pt.up.fe.comp2024.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assembles Jasmin code into the bytes of a class file, without going through the Jasmin assembler.
+ * <p>
+ * The code is either read from text, see {@link #assemble(CharSequence)}, or given by a code generator as
+ * {@link JasminInstruction}s, one method at a time, see {@link #newClass(List, String, String)}. Supports the
+ * directives and instructions that the Jasmin generators of this compiler emit. The class file has
+ * version 52 (Java 8) and a StackMapTable for each method with jumps, so the JVM loads it with the type-checking
+ * verifier, instead of the slower type-inferencing verifier that the version written by Jasmin requires.
+ */
+public class ClassFileAssembler {
+
+    public static final int MAJOR_VERSION = 52;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    // Instructions given by a code generator have no line in Jasmin code
+    private static final int NO_LINE = -1;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final Map<String, Integer> ACCESS_FLAGS = Map.of(
+            "public", 0x0001,
+            "private", 0x0002,
+            "protected", 0x0004,
+            "static", 0x0008,
+            "final", 0x0010,
+            "abstract", 0x0400);
+
+    /**
+     * A class assembled from Jasmin code.
+     *
+     * @param className the name of the class, in internal form
+     * @param bytes     the bytes of the class file
+     */
+    public record AssembledClass(String className, byte[] bytes) {
+    }
+
+    private final ConstantPool pool;
+    private final List<String> interfaces;
+
+    private final ByteArrayOutputStream fields;
+    private final ByteArrayOutputStream methods;
+    private int numFields;
+    private int numMethods;
+
+    private String className;
+    private String superName;
+    private int access;
+
+    private MethodAssembler currentMethod;
+
+    private ClassFileAssembler() {
+        this.pool = new ConstantPool();
+        this.interfaces = new ArrayList<>();
+        this.fields = new ByteArrayOutputStream();
+        this.methods = new ByteArrayOutputStream();
+        this.numFields = 0;
+        this.numMethods = 0;
+        this.className = null;
+        this.superName = "java/lang/Object";
+        this.access = 0;
+        this.currentMethod = null;
+    }
+
+    /**
+     * @param jasminCode the code of a single class
+     * @return the assembled class
+     * @throws RuntimeException if the code is not valid, or uses what is not supported
+     */
+    public static AssembledClass assemble(CharSequence jasminCode) {
+        var assembler = new ClassFileAssembler();
+
+        int start = 0;
+        int line = 1;
+        for (int i = 0; i <= jasminCode.length(); i++) {
+            if (i < jasminCode.length() && jasminCode.charAt(i) != '\n') {
+                continue;
+            }
+
+            assembler.readLine(tokenize(jasminCode, start, i, line), line);
+            start = i + 1;
+            line++;
+        }
+
+        return assembler.toAssembledClass();
+    }
+
+    /**
+     * Starts a class whose methods are then added by a code generator, without writing them as Jasmin code.
+     *
+     * @param access    the access flags of the class, as in Jasmin (e.g. 'public')
+     * @param className the name of the class, in internal form
+     * @param superName the name of the super class, in internal form
+     * @return an assembler for the class
+     */
+    public static ClassFileAssembler newClass(List<String> access, String className, String superName) {
+        var assembler = new ClassFileAssembler();
+
+        assembler.access = accessFlags(access);
+        assembler.className = className;
+        assembler.superName = superName;
+
+        return assembler;
+    }
+
+    /**
+     * Assembles a method of a class started with {@link #newClass(List, String, String)}.
+     *
+     * @param access       the access flags of the method, as in Jasmin (e.g. 'public', 'static')
+     * @param name
+     * @param descriptor   such as '(I)V'
+     * @param instructions the instructions and labels of the method, in order
+     */
+    public void addMethod(List<String> access, String name, String descriptor, List<JasminInstruction> instructions) {
+        var method = new MethodAssembler(pool, className, accessFlags(access), name, descriptor);
+
+        for (var instruction : instructions) {
+            if (instruction.isLabel()) {
+                method.addLabel(instruction.getLabel(), NO_LINE);
+            } else {
+                method.addInstruction(instruction.mnemonic(), instruction.operands(), NO_LINE);
+            }
+        }
+
+        writeMethod(method);
+    }
+
+    /**
+     * @return the class, with the methods added so far
+     */
+    public AssembledClass toAssembledClass() {
+        return new AssembledClass(className, toBytes());
+    }
+
+    static RuntimeException error(int line, String message) {
+        if (line == NO_LINE) {
+            return new RuntimeException("Jasmin: " + message);
+        }
+
+        return new RuntimeException("Jasmin line " + line + ": " + message);
+    }
+
+    /**
+     * @param quoted a string literal, with quotes and escapes
+     * @return the value of the literal
+     */
+    static String unquote(String quoted, int line) {
+        var value = new StringBuilder();
+
+        for (int i = 1; i < quoted.length() - 1; i++) {
+            var c = quoted.charAt(i);
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+
+            i++;
+            value.append(switch (quoted.charAt(i)) {
+                case 'n' -> '\n';
+                case 't' -> '\t';
+                case 'r' -> '\r';
+                case '"' -> '"';
+                case '\\' -> '\\';
+                default -> throw error(line, "escape '\\" + quoted.charAt(i) + "' is not supported");
+            });
+        }
+
+        return value.toString();
+    }
+
+    private void readLine(List<String> tokens, int line) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        var first = tokens.get(0);
+
+        if (first.startsWith(".")) {
+            readDirective(first, tokens.subList(1, tokens.size()), line);
+            return;
+        }
+
+        if (currentMethod == null) {
+            throw error(line, "expected a directive outside of methods, got '" + first + "'");
+        }
+
+        if (first.endsWith(":")) {
+            currentMethod.addLabel(first.substring(0, first.length() - 1), line);
+            tokens = tokens.subList(1, tokens.size());
+
+            if (tokens.isEmpty()) {
+                return;
+            }
+        }
+
+        currentMethod.addInstruction(tokens.get(0), tokens.subList(1, tokens.size()), line);
+    }
+
+    private void readDirective(String directive, List<String> arguments, int line) {
+        switch (directive) {
+            case ".source" -> {
+                // The source file is not kept
+            }
+            case ".class" -> {
+                access = readAccess(arguments, line);
+                className = arguments.get(arguments.size() - 1);
+            }
+            case ".super" -> superName = single(directive, arguments, line);
+            case ".implements" -> interfaces.add(single(directive, arguments, line));
+            case ".field" -> readField(arguments, line);
+            case ".method" -> readMethod(arguments, line);
+            case ".limit" -> {
+                // The limits are computed from the instructions
+                if (currentMethod == null) {
+                    throw error(line, "'.limit' outside of a method");
+                }
+            }
+            case ".end" -> {
+                if (currentMethod == null || arguments.size() != 1 || !arguments.get(0).equals("method")) {
+                    throw error(line, "unexpected '.end'");
+                }
+
+                writeMethod(currentMethod);
+                currentMethod = null;
+            }
+            default -> throw error(line, "directive '" + directive + "' is not supported");
+        }
+    }
+
+    private void writeMethod(MethodAssembler method) {
+        try {
+            method.writeTo(new DataOutputStream(methods));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        numMethods++;
+    }
+
+    private void readField(List<String> arguments, int line) {
+        var fieldAccess = readAccess(arguments, line);
+        var name = arguments.get(arguments.size() - 2);
+        var descriptor = arguments.get(arguments.size() - 1);
+
+        if (arguments.contains("=")) {
+            throw error(line, "fields with an initial value are not supported");
+        }
+
+        var out = new DataOutputStream(fields);
+        try {
+            out.writeShort(fieldAccess);
+            out.writeShort(pool.utf8(name));
+            out.writeShort(pool.utf8(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        numFields++;
+    }
+
+    private void readMethod(List<String> arguments, int line) {
+        if (currentMethod != null) {
+            throw error(line, "method inside a method");
+        }
+
+        if (className == null) {
+            throw error(line, "method before '.class'");
+        }
+
+        var methodAccess = readAccess(arguments, line);
+        var signature = arguments.get(arguments.size() - 1);
+        var start = signature.indexOf('(');
+
+        if (start <= 0 || signature.indexOf(')') < start) {
+            throw error(line, "expected a method name and descriptor, got '" + signature + "'");
+        }
+
+        currentMethod = new MethodAssembler(pool, className, methodAccess, signature.substring(0, start),
+                signature.substring(start));
+    }
+
+    /**
+     * @param arguments the access flags, followed by the arguments of the directive that are not flags
+     * @return the access flags
+     */
+    private int readAccess(List<String> arguments, int line) {
+        if (arguments.isEmpty()) {
+            throw error(line, "missing arguments");
+        }
+
+        return accessFlags(arguments);
+    }
+
+    /**
+     * @param arguments the access flags, followed by anything that is not a flag
+     * @return the access flags
+     */
+    private static int accessFlags(List<String> arguments) {
+        int flags = 0;
+
+        for (var argument : arguments) {
+            var flag = ACCESS_FLAGS.get(argument);
+            if (flag == null) {
+                break;
+            }
+
+            flags |= flag;
+        }
+
+        return flags;
+    }
+
+    private String single(String directive, List<String> arguments, int line) {
+        if (arguments.size() != 1) {
+            throw error(line, "'" + directive + "' expects a single argument");
+        }
+
+        return arguments.get(0);
+    }
+
+    private byte[] toBytes() {
+        if (className == null) {
+            throw new RuntimeException("Jasmin code has no '.class'");
+        }
+
+        if (currentMethod != null) {
+            throw new RuntimeException("Jasmin code ends inside a method");
+        }
+
+        // Added before the pool is written
+        var thisIndex = pool.classRef(className);
+        var superIndex = pool.classRef(superName);
+        var interfaceIndices = interfaces.stream().mapToInt(pool::classRef).toArray();
+
+        var bytes = new ByteArrayOutputStream(fields.size() + methods.size() + 1024);
+        var out = new DataOutputStream(bytes);
+
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            pool.writeTo(out);
+
+            out.writeShort(access | ACC_SUPER);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+
+            out.writeShort(interfaceIndices.length);
+            for (var index : interfaceIndices) {
+                out.writeShort(index);
+            }
+
+            out.writeShort(numFields);
+            fields.writeTo(out);
+
+            out.writeShort(numMethods);
+            methods.writeTo(out);
+
+            // No attributes
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Splits a line into tokens separated by whitespace, dropping comments. Quoted strings are a single token, and
+     * comments start with a ';' at the start of a token, since descriptors such as 'Ljava/lang/String;' contain them.
+     */
+    private static List<String> tokenize(CharSequence code, int start, int end, int line) {
+        var tokens = new ArrayList<String>();
+
+        int i = start;
+        while (i < end) {
+            var c = code.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (c == ';') {
+                break;
+            }
+
+            int tokenStart = i;
+            if (c == '"') {
+                i++;
+                while (i < end && code.charAt(i) != '"') {
+                    i += code.charAt(i) == '\\' ? 2 : 1;
+                }
+
+                if (i >= end) {
+                    throw error(line, "unterminated string");
+                }
+
+                i++;
+            } else {
+                while (i < end && !Character.isWhitespace(code.charAt(i))) {
+                    i++;
+                }
+            }
+
+            tokens.add(code.subSequence(tokenStart, i).toString());
+        }
+
+        return tokens;
+    }
+}
@@ -0,0 +1,60 @@
+package pt.up.fe.comp2024.classfile;
+
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * A {@link JasminResult} whose class file is assembled by the {@link ClassFileAssembler} when the result is created,
+ * instead of by Jasmin when the result is compiled. The Jasmin code is kept, for debugging.
+ */
+public class ClassFileResult extends JasminResult {
+
+    private final ClassFileAssembler.AssembledClass assembledClass;
+
+    /**
+     * Assembles the class file from the Jasmin code, for a backend that only generates the code as text, such as the
+     * one from the AST.
+     */
+    public ClassFileResult(JasminResult jasminResult) {
+        this(jasminResult, ClassFileAssembler.assemble(jasminResult.getJasminCode()));
+    }
+
+    /**
+     * @param assembledClass the class file of the Jasmin code, already assembled (e.g. from the instructions of the
+     *                       OLLIR backend, or restored from the cache)
+     */
+    public ClassFileResult(JasminResult jasminResult, ClassFileAssembler.AssembledClass assembledClass) {
+        super(jasminResult.getClassName(), jasminResult.getJasminCode(), jasminResult.getReports(),
+                jasminResult.getConfig());
+
+        this.assembledClass = assembledClass;
+    }
+
+    /**
+     * @return the bytes of the class file
+     */
+    public byte[] getClassFile() {
+        return assembledClass.bytes();
+    }
+
+    /**
+     * Writes the class file that was already assembled, without running Jasmin.
+     */
+    @Override
+    public File compile(File outputDir) {
+        var classFile = new File(outputDir, assembledClass.className() + ".class");
+
+        try {
+            Files.createDirectories(classFile.getParentFile().toPath());
+            Files.write(classFile.toPath(), assembledClass.bytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write class file '" + classFile + "'", e);
+        }
+
+        return classFile;
+    }
+}
@@ -0,0 +1,155 @@
+package pt.up.fe.comp2024.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The constant pool of a class file. Each constant is added once, and later additions of the same constant return the
+ * index of the first.
+ */
+class ConstantPool {
+
+    private static final int MAX_SIZE = 0xFFFF;
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    // Index of each constant, by its tag and value
+    private final Map<String, Integer> indices;
+    private final ByteArrayOutputStream bytes;
+    private final DataOutputStream out;
+
+    // Index of the next constant, the first index is 1
+    private int size;
+
+    ConstantPool() {
+        this.indices = new HashMap<>();
+        this.bytes = new ByteArrayOutputStream();
+        this.out = new DataOutputStream(bytes);
+        this.size = 1;
+    }
+
+    int utf8(String value) {
+        var key = UTF8 + ":" + value;
+        var index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            out.writeByte(UTF8);
+            out.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return add(key);
+    }
+
+    int integer(int value) {
+        var key = INTEGER + ":" + value;
+        var index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            out.writeByte(INTEGER);
+            out.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return add(key);
+    }
+
+    /**
+     * @param internalName the name of a class, such as 'java/lang/Object', or the descriptor of an array type
+     */
+    int classRef(String internalName) {
+        return reference(CLASS, utf8(internalName));
+    }
+
+    int string(String value) {
+        return reference(STRING, utf8(value));
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return reference(FIELD_REF, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return reference(METHOD_REF, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    /**
+     * @return the number of entries of the pool, plus one, as written in the class file
+     */
+    int count() {
+        return size;
+    }
+
+    void writeTo(DataOutputStream classFile) throws IOException {
+        classFile.writeShort(size);
+        bytes.writeTo(classFile);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        return reference(NAME_AND_TYPE, utf8(name), utf8(descriptor));
+    }
+
+    private int reference(int tag, int index) {
+        var key = tag + ":" + index;
+        var existing = indices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            out.writeByte(tag);
+            out.writeShort(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return add(key);
+    }
+
+    private int reference(int tag, int first, int second) {
+        var key = tag + ":" + first + ":" + second;
+        var existing = indices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            out.writeByte(tag);
+            out.writeShort(first);
+            out.writeShort(second);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return add(key);
+    }
+
+    private int add(String key) {
+        if (size >= MAX_SIZE) {
+            throw new RuntimeException("Constant pool has more than " + (MAX_SIZE - 1) + " entries");
+        }
+
+        var index = size++;
+        indices.put(key, index);
+
+        return index;
+    }
+}
@@ -0,0 +1,40 @@
+package pt.up.fe.comp2024.classfile;
+
+import java.util.List;
+
+/**
+ * A Jasmin instruction or label of a method, as a code generator produces it. It can be written as Jasmin code, or
+ * given to the {@link ClassFileAssembler} as is, without writing and parsing that code.
+ *
+ * @param mnemonic the mnemonic of the instruction (e.g. 'iload'), or the name of a label followed by ':'
+ * @param operands the operands, in Jasmin syntax (e.g. strings are quoted)
+ */
+public record JasminInstruction(String mnemonic, List<String> operands) {
+
+    public static JasminInstruction of(String mnemonic, String... operands) {
+        return new JasminInstruction(mnemonic, List.of(operands));
+    }
+
+    public static JasminInstruction label(String name) {
+        return new JasminInstruction(name + ":", List.of());
+    }
+
+    public boolean isLabel() {
+        return mnemonic.endsWith(":");
+    }
+
+    /**
+     * @return the name of the label, if this is a label
+     */
+    public String getLabel() {
+        return mnemonic.substring(0, mnemonic.length() - 1);
+    }
+
+    /**
+     * @return the instruction as a line of Jasmin code
+     */
+    @Override
+    public String toString() {
+        return operands.isEmpty() ? mnemonic : mnemonic + " " + String.join(" ", operands);
+    }
+}
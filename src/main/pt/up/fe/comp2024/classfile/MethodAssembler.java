@@ -0,0 +1,825 @@
+package pt.up.fe.comp2024.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assembles the instructions of a single method into its Code attribute.
+ * <p>
+ * The limits of the method and the frames of its StackMapTable are computed from the instructions, by a dataflow
+ * analysis of the types of its locals and operand stack. The limits given in the Jasmin code are not used. Code that
+ * is never executed is replaced by 'nop's ending in 'athrow', as the verifier also checks it.
+ */
+class MethodAssembler {
+
+    private static final int ACC_STATIC = 0x0008;
+
+    private static final int MAX_CODE_LENGTH = 0xFFFF;
+
+    private static final String CONSTRUCTOR = "<init>";
+    private static final String THROWABLE = "java/lang/Throwable";
+
+    private static final int SAME_FRAME_MAX = 63;
+    private static final int SAME_LOCALS_1_STACK_ITEM = 64;
+    private static final int SAME_LOCALS_1_STACK_ITEM_EXTENDED = 247;
+    private static final int SAME_FRAME_EXTENDED = 251;
+    private static final int FULL_FRAME = 255;
+
+    private static class Instruction {
+        private final Opcode opcode;
+        private final int line;
+        private final int offset;
+        private final int size;
+
+        // Index of the local or of the constant, value pushed by bipush or sipush, or type of newarray
+        private int index;
+        private int increment;
+        private String label;
+        // Class of new, anewarray, checkcast and instanceof, and owner of fields and methods
+        private String owner;
+        private String name;
+        private String descriptor;
+        private VerificationType constantType;
+
+        private Instruction(Opcode opcode, int line, int offset, int size) {
+            this.opcode = opcode;
+            this.line = line;
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+
+    private static class Frame {
+        private final VerificationType[] locals;
+        private final List<VerificationType> stack;
+
+        private Frame(VerificationType[] locals, List<VerificationType> stack) {
+            this.locals = locals;
+            this.stack = stack;
+        }
+
+        private Frame copy() {
+            return new Frame(locals.clone(), new ArrayList<>(stack));
+        }
+    }
+
+    private final ConstantPool pool;
+    private final String className;
+    private final int access;
+    private final String name;
+    private final String descriptor;
+
+    private final List<Instruction> instructions;
+    // Index of the instruction after each label
+    private final Map<String, Integer> labels;
+
+    private int codeLength;
+    private int maxLocals;
+    private int maxStack;
+
+    MethodAssembler(ConstantPool pool, String className, int access, String name, String descriptor) {
+        this.pool = pool;
+        this.className = className;
+        this.access = access;
+        this.name = name;
+        this.descriptor = descriptor;
+
+        this.instructions = new ArrayList<>();
+        this.labels = new HashMap<>();
+
+        this.codeLength = 0;
+        this.maxLocals = argumentSlots();
+        this.maxStack = 0;
+    }
+
+    void addLabel(String label, int line) {
+        if (labels.putIfAbsent(label, instructions.size()) != null) {
+            throw ClassFileAssembler.error(line, "label '" + label + "' is defined more than once");
+        }
+    }
+
+    /**
+     * @param mnemonic
+     * @param operands the operands of the instruction, with quoted strings still quoted
+     * @param line     the line of the instruction, for error messages
+     */
+    void addInstruction(String mnemonic, List<String> operands, int line) {
+        var opcode = Opcode.fromMnemonic(mnemonic);
+        int index = -1;
+
+        // 'iload_1' and similar
+        if (opcode == null && mnemonic.length() > 2 && mnemonic.charAt(mnemonic.length() - 2) == '_') {
+            opcode = Opcode.fromMnemonic(mnemonic.substring(0, mnemonic.length() - 2));
+            index = Character.digit(mnemonic.charAt(mnemonic.length() - 1), 10);
+
+            if (opcode != null && (opcode.getOperand() != Opcode.Operand.LOCAL || index < 0 || index > 3)) {
+                opcode = null;
+            }
+        }
+
+        if (opcode == null) {
+            throw ClassFileAssembler.error(line, "instruction '" + mnemonic + "' is not supported");
+        }
+
+        var expectedOperands = switch (opcode.getOperand()) {
+            case NONE -> 0;
+            case LOCAL -> index < 0 ? 1 : 0;
+            case INCREMENT, FIELD -> 2;
+            default -> 1;
+        };
+
+        if (operands.size() != expectedOperands) {
+            throw ClassFileAssembler.error(line, "instruction '" + mnemonic + "' expects " + expectedOperands
+                    + " operands, got " + operands.size());
+        }
+
+        switch (opcode.getOperand()) {
+            case NONE -> add(opcode, line, 1);
+            case BYTE -> {
+                var value = parseInt(operands.get(0), Byte.MIN_VALUE, Byte.MAX_VALUE, line);
+                var byteInstruction = add(opcode, line, 2);
+                byteInstruction.index = value;
+            }
+            case SHORT -> {
+                var value = parseInt(operands.get(0), Short.MIN_VALUE, Short.MAX_VALUE, line);
+                var shortInstruction = add(opcode, line, 3);
+                shortInstruction.index = value;
+            }
+            case CONSTANT -> addConstant(opcode, operands.get(0), line);
+            case LOCAL -> {
+                var local = index >= 0 ? index : parseInt(operands.get(0), 0, 0xFFFF, line);
+                var localInstruction = add(opcode, line, local <= 3 ? 1 : local <= 0xFF ? 2 : 4);
+                localInstruction.index = local;
+                useLocal(local);
+            }
+            case INCREMENT -> {
+                var local = parseInt(operands.get(0), 0, 0xFFFF, line);
+                var increment = parseInt(operands.get(1), Short.MIN_VALUE, Short.MAX_VALUE, line);
+                var isShort = local <= 0xFF && increment >= Byte.MIN_VALUE && increment <= Byte.MAX_VALUE;
+                var incrementInstruction = add(opcode, line, isShort ? 3 : 6);
+                incrementInstruction.index = local;
+                incrementInstruction.increment = increment;
+                useLocal(local);
+            }
+            case BRANCH -> {
+                var branch = add(opcode, line, 3);
+                branch.label = operands.get(0);
+            }
+            case FIELD -> addMember(opcode, operands.get(0), operands.get(1), line);
+            case METHOD -> {
+                var member = operands.get(0);
+                var start = member.indexOf('(');
+                if (start < 0) {
+                    throw ClassFileAssembler.error(line, "expected a method descriptor, got '" + member + "'");
+                }
+                addMember(opcode, member.substring(0, start), member.substring(start), line);
+            }
+            case CLASS -> {
+                var classInstruction = add(opcode, line, 3);
+                classInstruction.owner = operands.get(0);
+                classInstruction.index = pool.classRef(operands.get(0));
+            }
+            case ARRAY_TYPE -> {
+                var arrayInstruction = add(opcode, line, 2);
+                setArrayType(arrayInstruction, operands.get(0));
+            }
+        };
+    }
+
+    /**
+     * Writes the method_info structure of the method.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        if (codeLength > MAX_CODE_LENGTH) {
+            throw new RuntimeException("Method '" + name + "' has " + codeLength + " bytes of code, more than "
+                    + MAX_CODE_LENGTH);
+        }
+
+        var initial = initialFrame();
+        var frames = analyze(initial);
+
+        var code = new ByteArrayOutputStream(codeLength);
+        var stackMapTable = new ByteArrayOutputStream();
+        var numFrames = writeCode(frames, initial, new DataOutputStream(code), new DataOutputStream(stackMapTable));
+
+        out.writeShort(access);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+
+        // Code attribute
+        out.writeShort(1);
+        out.writeShort(pool.utf8("Code"));
+
+        var stackMapTableLength = numFrames == 0 ? 0 : 2 + 4 + 2 + stackMapTable.size();
+        out.writeInt(2 + 2 + 4 + code.size() + 2 + 2 + stackMapTableLength);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.size());
+        code.writeTo(out);
+
+        // No exception table
+        out.writeShort(0);
+
+        if (numFrames == 0) {
+            out.writeShort(0);
+            return;
+        }
+
+        out.writeShort(1);
+        out.writeShort(pool.utf8("StackMapTable"));
+        out.writeInt(2 + stackMapTable.size());
+        out.writeShort(numFrames);
+        stackMapTable.writeTo(out);
+    }
+
+    private Instruction add(Opcode opcode, int line, int size) {
+        var instruction = new Instruction(opcode, line, codeLength, size);
+        instructions.add(instruction);
+        codeLength += size;
+
+        return instruction;
+    }
+
+    private Instruction addConstant(Opcode opcode, String constant, int line) {
+        int index;
+        VerificationType type;
+
+        if (constant.startsWith("\"")) {
+            index = pool.string(ClassFileAssembler.unquote(constant, line));
+            type = VerificationType.object("java/lang/String");
+        } else {
+            index = pool.integer(parseInt(constant, Integer.MIN_VALUE, Integer.MAX_VALUE, line));
+            type = VerificationType.INTEGER;
+        }
+
+        var instruction = add(opcode, line, index <= 0xFF ? 2 : 3);
+        instruction.index = index;
+        instruction.constantType = type;
+
+        return instruction;
+    }
+
+    private Instruction addMember(Opcode opcode, String member, String memberDescriptor, int line) {
+        var separator = member.lastIndexOf('/');
+        if (separator <= 0) {
+            throw ClassFileAssembler.error(line, "expected 'class/member', got '" + member + "'");
+        }
+
+        var instruction = add(opcode, line, 3);
+        instruction.owner = member.substring(0, separator);
+        instruction.name = member.substring(separator + 1);
+        instruction.descriptor = memberDescriptor;
+        instruction.index = opcode.getOperand() == Opcode.Operand.FIELD
+                ? pool.fieldRef(instruction.owner, instruction.name, memberDescriptor)
+                : pool.methodRef(instruction.owner, instruction.name, memberDescriptor);
+
+        return instruction;
+    }
+
+    private void useLocal(int local) {
+        maxLocals = Math.max(maxLocals, local + 1);
+    }
+
+    private int argumentSlots() {
+        var slots = parameterDescriptors(descriptor).size();
+        return (access & ACC_STATIC) == 0 ? slots + 1 : slots;
+    }
+
+    private Frame initialFrame() {
+        var locals = new VerificationType[maxLocals];
+        Arrays.fill(locals, VerificationType.TOP);
+
+        int local = 0;
+        if ((access & ACC_STATIC) == 0) {
+            locals[local++] = name.equals(CONSTRUCTOR)
+                    ? VerificationType.uninitializedThis(className)
+                    : VerificationType.object(className);
+        }
+
+        for (var parameter : parameterDescriptors(descriptor)) {
+            locals[local++] = VerificationType.fromDescriptor(parameter);
+        }
+
+        return new Frame(locals, new ArrayList<>());
+    }
+
+    /**
+     * @return the frame before each instruction, or null for the instructions that are never executed
+     */
+    private Frame[] analyze(Frame initial) {
+        var frames = new Frame[instructions.size()];
+        var pending = new ArrayDeque<Integer>();
+        var isPending = new boolean[instructions.size()];
+
+        if (instructions.isEmpty()) {
+            throw new RuntimeException("Method '" + name + "' has no instructions");
+        }
+
+        frames[0] = initial.copy();
+        pending.add(0);
+        isPending[0] = true;
+
+        while (!pending.isEmpty()) {
+            int index = pending.poll();
+            isPending[index] = false;
+
+            var instruction = instructions.get(index);
+            var frame = frames[index].copy();
+            execute(instruction, frame);
+
+            if (instruction.label != null) {
+                var target = target(instruction);
+                if (merge(frames, target, frame, instruction) && !isPending[target]) {
+                    pending.add(target);
+                    isPending[target] = true;
+                }
+            }
+
+            if (instruction.opcode.isUnconditional()) {
+                continue;
+            }
+
+            var next = index + 1;
+            if (next == instructions.size()) {
+                throw ClassFileAssembler.error(instruction.line, "execution falls off the end of method '" + name
+                        + "'");
+            }
+
+            if (merge(frames, next, frame, instruction) && !isPending[next]) {
+                pending.add(next);
+                isPending[next] = true;
+            }
+        }
+
+        return frames;
+    }
+
+    private boolean merge(Frame[] frames, int index, Frame frame, Instruction from) {
+        var existing = frames[index];
+        if (existing == null) {
+            frames[index] = frame.copy();
+            return true;
+        }
+
+        if (existing.stack.size() != frame.stack.size()) {
+            throw ClassFileAssembler.error(from.line, "the stack has " + frame.stack.size() + " values after '"
+                    + from.opcode.getMnemonic() + "', but " + existing.stack.size() + " at line "
+                    + instructions.get(index).line);
+        }
+
+        var changed = false;
+
+        for (int i = 0; i < existing.locals.length; i++) {
+            var merged = existing.locals[i].merge(frame.locals[i]);
+            if (merged == null) {
+                merged = VerificationType.TOP;
+            }
+
+            if (!merged.equals(existing.locals[i])) {
+                existing.locals[i] = merged;
+                changed = true;
+            }
+        }
+
+        for (int i = 0; i < existing.stack.size(); i++) {
+            var merged = existing.stack.get(i).merge(frame.stack.get(i));
+            if (merged == null) {
+                throw ClassFileAssembler.error(from.line, "the stack has a " + frame.stack.get(i) + " after '"
+                        + from.opcode.getMnemonic() + "', but a " + existing.stack.get(i) + " at line "
+                        + instructions.get(index).line);
+            }
+
+            if (!merged.equals(existing.stack.get(i))) {
+                existing.stack.set(i, merged);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    private void execute(Instruction instruction, Frame frame) {
+        switch (instruction.opcode) {
+            case NOP, GOTO, RETURN -> {
+            }
+            case ACONST_NULL -> push(frame, VerificationType.NULL);
+            case ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3, ICONST_4, ICONST_5, BIPUSH, SIPUSH ->
+                    push(frame, VerificationType.INTEGER);
+            case LDC -> push(frame, instruction.constantType);
+            case ILOAD -> push(frame, VerificationType.INTEGER);
+            case ALOAD -> {
+                var type = frame.locals[instruction.index];
+                if (!type.isObject() && !type.isUninitialized() && !type.equals(VerificationType.NULL)) {
+                    throw ClassFileAssembler.error(instruction.line, "register " + instruction.index
+                            + " does not hold a reference, but a " + type);
+                }
+                push(frame, type);
+            }
+            case IALOAD, BALOAD -> {
+                pop(frame, instruction, 2);
+                push(frame, VerificationType.INTEGER);
+            }
+            case AALOAD -> {
+                pop(frame, instruction, 1);
+                push(frame, pop(frame, instruction).elementType());
+            }
+            case ISTORE -> {
+                pop(frame, instruction);
+                frame.locals[instruction.index] = VerificationType.INTEGER;
+            }
+            case ASTORE -> frame.locals[instruction.index] = pop(frame, instruction);
+            case IASTORE, AASTORE, BASTORE -> pop(frame, instruction, 3);
+            case POP -> pop(frame, instruction);
+            case POP2 -> pop(frame, instruction, 2);
+            case DUP -> {
+                var value = pop(frame, instruction);
+                push(frame, value);
+                push(frame, value);
+            }
+            case DUP_X1 -> {
+                var first = pop(frame, instruction);
+                var second = pop(frame, instruction);
+                push(frame, first);
+                push(frame, second);
+                push(frame, first);
+            }
+            case DUP_X2 -> {
+                var first = pop(frame, instruction);
+                var second = pop(frame, instruction);
+                var third = pop(frame, instruction);
+                push(frame, first);
+                push(frame, third);
+                push(frame, second);
+                push(frame, first);
+            }
+            case DUP2 -> {
+                var first = pop(frame, instruction);
+                var second = pop(frame, instruction);
+                push(frame, second);
+                push(frame, first);
+                push(frame, second);
+                push(frame, first);
+            }
+            case SWAP -> {
+                var first = pop(frame, instruction);
+                var second = pop(frame, instruction);
+                push(frame, first);
+                push(frame, second);
+            }
+            case IADD, ISUB, IMUL, IDIV, IREM, ISHL, ISHR, IUSHR, IAND, IOR, IXOR -> {
+                pop(frame, instruction, 2);
+                push(frame, VerificationType.INTEGER);
+            }
+            case INEG, ARRAYLENGTH, INSTANCEOF -> {
+                pop(frame, instruction);
+                push(frame, VerificationType.INTEGER);
+            }
+            case IINC -> frame.locals[instruction.index] = VerificationType.INTEGER;
+            case IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE, IFNULL, IFNONNULL, IRETURN, ARETURN, ATHROW, PUTSTATIC ->
+                    pop(frame, instruction);
+            case IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT, IF_ICMPLE, IF_ACMPEQ, IF_ACMPNE, PUTFIELD ->
+                    pop(frame, instruction, 2);
+            case GETSTATIC -> push(frame, VerificationType.fromDescriptor(instruction.descriptor));
+            case GETFIELD -> {
+                pop(frame, instruction);
+                push(frame, VerificationType.fromDescriptor(instruction.descriptor));
+            }
+            case INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC -> invoke(instruction, frame);
+            case NEW -> push(frame, VerificationType.uninitialized(instruction.owner, instruction.offset));
+            case NEWARRAY -> {
+                pop(frame, instruction);
+                push(frame, VerificationType.object(instruction.descriptor));
+            }
+            case ANEWARRAY -> {
+                pop(frame, instruction);
+                var element = instruction.owner.startsWith("[") ? instruction.owner : "L" + instruction.owner + ";";
+                push(frame, VerificationType.object("[" + element));
+            }
+            case CHECKCAST -> {
+                pop(frame, instruction);
+                push(frame, VerificationType.object(instruction.owner));
+            }
+        }
+    }
+
+    private void invoke(Instruction instruction, Frame frame) {
+        pop(frame, instruction, parameterDescriptors(instruction.descriptor).size());
+
+        if (instruction.opcode != Opcode.INVOKESTATIC) {
+            var receiver = pop(frame, instruction);
+
+            // The object is initialized by its constructor, everywhere it is
+            if (instruction.name.equals(CONSTRUCTOR)) {
+                if (!receiver.isUninitialized()) {
+                    throw ClassFileAssembler.error(instruction.line, "constructor called on an initialized "
+                            + receiver);
+                }
+
+                var initialized = VerificationType.object(receiver.isUninitializedThis() ? className
+                        : receiver.className());
+
+                for (int i = 0; i < frame.locals.length; i++) {
+                    if (frame.locals[i].equals(receiver)) {
+                        frame.locals[i] = initialized;
+                    }
+                }
+
+                frame.stack.replaceAll(type -> type.equals(receiver) ? initialized : type);
+            }
+        }
+
+        var returnDescriptor = instruction.descriptor.substring(instruction.descriptor.indexOf(')') + 1);
+        if (!returnDescriptor.equals("V")) {
+            push(frame, VerificationType.fromDescriptor(returnDescriptor));
+        }
+    }
+
+    private void push(Frame frame, VerificationType type) {
+        frame.stack.add(type);
+        maxStack = Math.max(maxStack, frame.stack.size());
+    }
+
+    private VerificationType pop(Frame frame, Instruction instruction) {
+        if (frame.stack.isEmpty()) {
+            throw ClassFileAssembler.error(instruction.line, "'" + instruction.opcode.getMnemonic()
+                    + "' pops from an empty stack");
+        }
+
+        return frame.stack.remove(frame.stack.size() - 1);
+    }
+
+    private void pop(Frame frame, Instruction instruction, int count) {
+        for (int i = 0; i < count; i++) {
+            pop(frame, instruction);
+        }
+    }
+
+    private int target(Instruction instruction) {
+        var target = labels.get(instruction.label);
+
+        if (target == null) {
+            throw ClassFileAssembler.error(instruction.line, "label '" + instruction.label + "' is not defined");
+        }
+
+        if (target == instructions.size()) {
+            throw ClassFileAssembler.error(instruction.line, "label '" + instruction.label
+                    + "' is at the end of the method");
+        }
+
+        return target;
+    }
+
+    /**
+     * Writes the code of the method and the frames of its StackMapTable.
+     *
+     * @return the number of frames
+     */
+    private int writeCode(Frame[] frames, Frame initial, DataOutputStream code, DataOutputStream stackMapTable)
+            throws IOException {
+
+        // Frames are needed at the targets of jumps, and after instructions that do not continue to the next one
+        var needsFrame = new boolean[instructions.size()];
+        for (int i = 0; i < instructions.size(); i++) {
+            var instruction = instructions.get(i);
+
+            if (frames[i] != null && instruction.label != null) {
+                needsFrame[target(instruction)] = true;
+            }
+
+            var isLive = frames[i] != null;
+            var isPreviousLive = i > 0 && frames[i - 1] != null;
+            if (i > 0 && (isPreviousLive ? instructions.get(i - 1).opcode.isUnconditional() : isLive)) {
+                needsFrame[i] = true;
+            }
+        }
+
+        var previousLocals = locals(initial);
+        var previousOffset = -1;
+        var numFrames = 0;
+
+        for (int i = 0; i < instructions.size(); i++) {
+            var instruction = instructions.get(i);
+
+            if (needsFrame[i]) {
+                var frame = frames[i];
+
+                // Code that is never executed only has to be valid by itself, see below
+                if (frame == null) {
+                    frame = new Frame(new VerificationType[0], List.of(VerificationType.object(THROWABLE)));
+                    maxStack = Math.max(maxStack, 1);
+                }
+
+                var locals = locals(frame);
+                writeFrame(stackMapTable, instruction.offset - previousOffset - 1, previousLocals, locals,
+                        frame.stack);
+
+                previousLocals = locals;
+                previousOffset = instruction.offset;
+                numFrames++;
+            }
+
+            if (frames[i] == null) {
+                var isLastDead = i + 1 == instructions.size() || frames[i + 1] != null;
+                for (int b = 0; b < instruction.size - 1; b++) {
+                    code.writeByte(Opcode.NOP.getCode());
+                }
+                code.writeByte(isLastDead ? Opcode.ATHROW.getCode() : Opcode.NOP.getCode());
+                continue;
+            }
+
+            writeInstruction(code, instruction);
+        }
+
+        return numFrames;
+    }
+
+    private void writeInstruction(DataOutputStream code, Instruction instruction) throws IOException {
+        var opcode = instruction.opcode;
+
+        switch (opcode.getOperand()) {
+            case NONE -> code.writeByte(opcode.getCode());
+            case BYTE, ARRAY_TYPE -> {
+                code.writeByte(opcode.getCode());
+                code.writeByte(instruction.index);
+            }
+            case SHORT, FIELD, METHOD, CLASS -> {
+                code.writeByte(opcode.getCode());
+                code.writeShort(instruction.index);
+            }
+            case CONSTANT -> {
+                if (instruction.size == 2) {
+                    code.writeByte(opcode.getCode());
+                    code.writeByte(instruction.index);
+                } else {
+                    code.writeByte(Opcode.LDC_W);
+                    code.writeShort(instruction.index);
+                }
+            }
+            case LOCAL -> {
+                if (instruction.size == 1) {
+                    code.writeByte(opcode.getShortCode(instruction.index));
+                } else if (instruction.size == 2) {
+                    code.writeByte(opcode.getCode());
+                    code.writeByte(instruction.index);
+                } else {
+                    code.writeByte(Opcode.WIDE);
+                    code.writeByte(opcode.getCode());
+                    code.writeShort(instruction.index);
+                }
+            }
+            case INCREMENT -> {
+                if (instruction.size == 3) {
+                    code.writeByte(opcode.getCode());
+                    code.writeByte(instruction.index);
+                    code.writeByte(instruction.increment);
+                } else {
+                    code.writeByte(Opcode.WIDE);
+                    code.writeByte(opcode.getCode());
+                    code.writeShort(instruction.index);
+                    code.writeShort(instruction.increment);
+                }
+            }
+            case BRANCH -> {
+                var jump = instructions.get(target(instruction)).offset - instruction.offset;
+                if (jump < Short.MIN_VALUE || jump > Short.MAX_VALUE) {
+                    throw ClassFileAssembler.error(instruction.line, "jump to label '" + instruction.label
+                            + "' is too far");
+                }
+
+                code.writeByte(opcode.getCode());
+                code.writeShort(jump);
+            }
+        }
+    }
+
+    private void writeFrame(DataOutputStream out, int offsetDelta, List<VerificationType> previousLocals,
+                            List<VerificationType> locals, List<VerificationType> stack) throws IOException {
+
+        if (locals.equals(previousLocals) && stack.isEmpty()) {
+            if (offsetDelta <= SAME_FRAME_MAX) {
+                out.writeByte(offsetDelta);
+            } else {
+                out.writeByte(SAME_FRAME_EXTENDED);
+                out.writeShort(offsetDelta);
+            }
+            return;
+        }
+
+        if (locals.equals(previousLocals) && stack.size() == 1) {
+            if (offsetDelta <= SAME_FRAME_MAX) {
+                out.writeByte(SAME_LOCALS_1_STACK_ITEM + offsetDelta);
+            } else {
+                out.writeByte(SAME_LOCALS_1_STACK_ITEM_EXTENDED);
+                out.writeShort(offsetDelta);
+            }
+            writeType(out, stack.get(0));
+            return;
+        }
+
+        out.writeByte(FULL_FRAME);
+        out.writeShort(offsetDelta);
+        out.writeShort(locals.size());
+        for (var local : locals) {
+            writeType(out, local);
+        }
+        out.writeShort(stack.size());
+        for (var value : stack) {
+            writeType(out, value);
+        }
+    }
+
+    private void writeType(DataOutputStream out, VerificationType type) throws IOException {
+        out.writeByte(type.tag());
+
+        if (type.isObject()) {
+            out.writeShort(pool.classRef(type.className()));
+        } else if (type.isUninitialized() && !type.isUninitializedThis()) {
+            out.writeShort(type.offset());
+        }
+    }
+
+    /**
+     * @return the locals of the frame, without the unused locals at the end
+     */
+    private static List<VerificationType> locals(Frame frame) {
+        int size = frame.locals.length;
+        while (size > 0 && frame.locals[size - 1].equals(VerificationType.TOP)) {
+            size--;
+        }
+
+        return Arrays.asList(frame.locals).subList(0, size);
+    }
+
+    private static int parseInt(String value, int min, int max, int line) {
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw ClassFileAssembler.error(line, "expected an integer, got '" + value + "'");
+        }
+
+        if (parsed < min || parsed > max) {
+            throw ClassFileAssembler.error(line, value + " is not between " + min + " and " + max);
+        }
+
+        return parsed;
+    }
+
+    private static void setArrayType(Instruction instruction, String type) {
+        switch (type) {
+            case "boolean" -> {
+                instruction.index = 4;
+                instruction.descriptor = "[Z";
+            }
+            case "byte" -> {
+                instruction.index = 8;
+                instruction.descriptor = "[B";
+            }
+            case "int" -> {
+                instruction.index = 10;
+                instruction.descriptor = "[I";
+            }
+            default -> throw ClassFileAssembler.error(instruction.line, "arrays of '" + type + "' are not supported");
+        }
+    }
+
+    /**
+     * @param methodDescriptor such as '(I[Ljava/lang/String;)V'
+     * @return the descriptors of the parameters
+     */
+    static List<String> parameterDescriptors(String methodDescriptor) {
+        if (!methodDescriptor.startsWith("(") || methodDescriptor.indexOf(')') < 0) {
+            throw new RuntimeException("Invalid method descriptor '" + methodDescriptor + "'");
+        }
+
+        var parameters = new ArrayList<String>();
+        var end = methodDescriptor.indexOf(')');
+
+        int i = 1;
+        while (i < end) {
+            int start = i;
+            while (methodDescriptor.charAt(i) == '[') {
+                i++;
+            }
+
+            if (methodDescriptor.charAt(i) == 'L') {
+                i = methodDescriptor.indexOf(';', i);
+                if (i < 0 || i > end) {
+                    throw new RuntimeException("Invalid method descriptor '" + methodDescriptor + "'");
+                }
+            }
+
+            i++;
+            parameters.add(methodDescriptor.substring(start, i));
+        }
+
+        return parameters;
+    }
+}
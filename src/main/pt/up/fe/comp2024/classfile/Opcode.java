@@ -0,0 +1,162 @@
+package pt.up.fe.comp2024.classfile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The JVM instructions the assembler supports, which cover the code generated for Java--.
+ * <p>
+ * Loads and stores with the index in the name, such as 'iload_1', are read as the general instruction with that
+ * index, and always written in the shortest form.
+ */
+enum Opcode {
+    NOP(0x00, Operand.NONE),
+    ACONST_NULL(0x01, Operand.NONE),
+    ICONST_M1(0x02, Operand.NONE),
+    ICONST_0(0x03, Operand.NONE),
+    ICONST_1(0x04, Operand.NONE),
+    ICONST_2(0x05, Operand.NONE),
+    ICONST_3(0x06, Operand.NONE),
+    ICONST_4(0x07, Operand.NONE),
+    ICONST_5(0x08, Operand.NONE),
+    BIPUSH(0x10, Operand.BYTE),
+    SIPUSH(0x11, Operand.SHORT),
+    LDC(0x12, Operand.CONSTANT),
+    ILOAD(0x15, Operand.LOCAL),
+    ALOAD(0x19, Operand.LOCAL),
+    IALOAD(0x2E, Operand.NONE),
+    AALOAD(0x32, Operand.NONE),
+    BALOAD(0x33, Operand.NONE),
+    ISTORE(0x36, Operand.LOCAL),
+    ASTORE(0x3A, Operand.LOCAL),
+    IASTORE(0x4F, Operand.NONE),
+    AASTORE(0x53, Operand.NONE),
+    BASTORE(0x54, Operand.NONE),
+    POP(0x57, Operand.NONE),
+    POP2(0x58, Operand.NONE),
+    DUP(0x59, Operand.NONE),
+    DUP_X1(0x5A, Operand.NONE),
+    DUP_X2(0x5B, Operand.NONE),
+    DUP2(0x5C, Operand.NONE),
+    SWAP(0x5F, Operand.NONE),
+    IADD(0x60, Operand.NONE),
+    ISUB(0x64, Operand.NONE),
+    IMUL(0x68, Operand.NONE),
+    IDIV(0x6C, Operand.NONE),
+    IREM(0x70, Operand.NONE),
+    INEG(0x74, Operand.NONE),
+    ISHL(0x78, Operand.NONE),
+    ISHR(0x7A, Operand.NONE),
+    IUSHR(0x7C, Operand.NONE),
+    IAND(0x7E, Operand.NONE),
+    IOR(0x80, Operand.NONE),
+    IXOR(0x82, Operand.NONE),
+    IINC(0x84, Operand.INCREMENT),
+    IFEQ(0x99, Operand.BRANCH),
+    IFNE(0x9A, Operand.BRANCH),
+    IFLT(0x9B, Operand.BRANCH),
+    IFGE(0x9C, Operand.BRANCH),
+    IFGT(0x9D, Operand.BRANCH),
+    IFLE(0x9E, Operand.BRANCH),
+    IF_ICMPEQ(0x9F, Operand.BRANCH),
+    IF_ICMPNE(0xA0, Operand.BRANCH),
+    IF_ICMPLT(0xA1, Operand.BRANCH),
+    IF_ICMPGE(0xA2, Operand.BRANCH),
+    IF_ICMPGT(0xA3, Operand.BRANCH),
+    IF_ICMPLE(0xA4, Operand.BRANCH),
+    IF_ACMPEQ(0xA5, Operand.BRANCH),
+    IF_ACMPNE(0xA6, Operand.BRANCH),
+    GOTO(0xA7, Operand.BRANCH),
+    IRETURN(0xAC, Operand.NONE),
+    ARETURN(0xB0, Operand.NONE),
+    RETURN(0xB1, Operand.NONE),
+    GETSTATIC(0xB2, Operand.FIELD),
+    PUTSTATIC(0xB3, Operand.FIELD),
+    GETFIELD(0xB4, Operand.FIELD),
+    PUTFIELD(0xB5, Operand.FIELD),
+    INVOKEVIRTUAL(0xB6, Operand.METHOD),
+    INVOKESPECIAL(0xB7, Operand.METHOD),
+    INVOKESTATIC(0xB8, Operand.METHOD),
+    NEW(0xBB, Operand.CLASS),
+    NEWARRAY(0xBC, Operand.ARRAY_TYPE),
+    ANEWARRAY(0xBD, Operand.CLASS),
+    ARRAYLENGTH(0xBE, Operand.NONE),
+    ATHROW(0xBF, Operand.NONE),
+    CHECKCAST(0xC0, Operand.CLASS),
+    INSTANCEOF(0xC1, Operand.CLASS),
+    IFNULL(0xC6, Operand.BRANCH),
+    IFNONNULL(0xC7, Operand.BRANCH);
+
+    enum Operand {
+        NONE,
+        BYTE,
+        SHORT,
+        CONSTANT,
+        LOCAL,
+        INCREMENT,
+        BRANCH,
+        FIELD,
+        METHOD,
+        CLASS,
+        ARRAY_TYPE
+    }
+
+    static final int WIDE = 0xC4;
+    static final int LDC_W = 0x13;
+
+    private static final Map<String, Opcode> BY_MNEMONIC = new HashMap<>();
+
+    static {
+        for (var opcode : values()) {
+            BY_MNEMONIC.put(opcode.getMnemonic(), opcode);
+        }
+    }
+
+    private final int code;
+    private final Operand operand;
+
+    Opcode(int code, Operand operand) {
+        this.code = code;
+        this.operand = operand;
+    }
+
+    /**
+     * @param mnemonic
+     * @return the instruction with the mnemonic, or null if it is not supported
+     */
+    static Opcode fromMnemonic(String mnemonic) {
+        return BY_MNEMONIC.get(mnemonic);
+    }
+
+    int getCode() {
+        return code;
+    }
+
+    Operand getOperand() {
+        return operand;
+    }
+
+    String getMnemonic() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * @return true if the next instruction is never executed after this one
+     */
+    boolean isUnconditional() {
+        return this == GOTO || this == IRETURN || this == ARETURN || this == RETURN || this == ATHROW;
+    }
+
+    /**
+     * @return the code of the form of a load or store with the given index in the name, such as 'iload_1'
+     */
+    int getShortCode(int index) {
+        return switch (this) {
+            case ILOAD -> 0x1A + index;
+            case ALOAD -> 0x2A + index;
+            case ISTORE -> 0x3B + index;
+            case ASTORE -> 0x4B + index;
+            default -> throw new RuntimeException("Instruction '" + getMnemonic() + "' has no short form");
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package pt.up.fe.comp2024.classfile;
+
+/**
+ * The type of a local variable or of a value on the operand stack, as checked by the JVM verifier and written in the
+ * frames of the StackMapTable attribute.
+ *
+ * @param tag       the tag of the type in the StackMapTable attribute
+ * @param className the class of an object, or of an object that is not initialized yet, in internal form
+ * @param offset    the offset of the 'new' instruction that created an object that is not initialized yet
+ */
+record VerificationType(int tag, String className, int offset) {
+
+    static final VerificationType TOP = new VerificationType(0, null, -1);
+    static final VerificationType INTEGER = new VerificationType(1, null, -1);
+    static final VerificationType NULL = new VerificationType(5, null, -1);
+
+    private static final int UNINITIALIZED_THIS_TAG = 6;
+    private static final int OBJECT_TAG = 7;
+    private static final int UNINITIALIZED_TAG = 8;
+
+    private static final String OBJECT = "java/lang/Object";
+
+    static VerificationType object(String className) {
+        return new VerificationType(OBJECT_TAG, className, -1);
+    }
+
+    /**
+     * @param className the class being constructed
+     */
+    static VerificationType uninitializedThis(String className) {
+        return new VerificationType(UNINITIALIZED_THIS_TAG, className, -1);
+    }
+
+    static VerificationType uninitialized(String className, int offset) {
+        return new VerificationType(UNINITIALIZED_TAG, className, offset);
+    }
+
+    /**
+     * @param descriptor a field descriptor, such as 'I' or '[Ljava/lang/String;'
+     * @return the type of a value of the descriptor
+     */
+    static VerificationType fromDescriptor(String descriptor) {
+        return switch (descriptor.charAt(0)) {
+            case 'I', 'Z', 'B', 'C', 'S' -> INTEGER;
+            case 'L' -> object(descriptor.substring(1, descriptor.length() - 1));
+            case '[' -> object(descriptor);
+            default -> throw new RuntimeException("Type '" + descriptor + "' is not supported");
+        };
+    }
+
+    boolean isObject() {
+        return tag == OBJECT_TAG;
+    }
+
+    boolean isUninitialized() {
+        return tag == UNINITIALIZED_THIS_TAG || tag == UNINITIALIZED_TAG;
+    }
+
+    boolean isUninitializedThis() {
+        return tag == UNINITIALIZED_THIS_TAG;
+    }
+
+    /**
+     * @return the type of the elements of an array type
+     */
+    VerificationType elementType() {
+        if (equals(NULL)) {
+            return NULL;
+        }
+
+        if (!isObject() || className.charAt(0) != '[') {
+            throw new RuntimeException("Expected an array, got " + this);
+        }
+
+        return fromDescriptor(className.substring(1));
+    }
+
+    /**
+     * @return the type that both types are assignable to, or null if there is none
+     */
+    VerificationType merge(VerificationType other) {
+        if (equals(other)) {
+            return this;
+        }
+
+        if (equals(NULL) && other.isObject()) {
+            return other;
+        }
+
+        if (isObject() && other.equals(NULL)) {
+            return this;
+        }
+
+        // Java-- variables keep their class, so different classes only meet in registers that are reused
+        if (isObject() && other.isObject()) {
+            return object(OBJECT);
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return switch (tag) {
+            case 0 -> "top";
+            case 1 -> "int";
+            case 5 -> "null";
+            case UNINITIALIZED_THIS_TAG -> "uninitializedThis";
+            case UNINITIALIZED_TAG -> "uninitialized(" + className + ", " + offset + ")";
+            default -> className;
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package pt.up.fe.comp2024.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("pt.up.fe.comp2024.AnalysisPass")
+@Label("Analysis Pass")
+@Description("A single semantic analysis visitor over the AST")
+public class AnalysisPassEvent extends CompilerEvent {
+
+    @Label("Pass")
+    public String pass;
+
+    @Label("AST Nodes")
+    public int nodes;
+
+    @Label("Reports")
+    public int reports;
+
+    /**
+     * Passes fused into a single traversal (see FusedAnalysis) each have an event that spans the whole traversal, so
+     * only this is the time of the pass itself.
+     */
+    @Label("Visit Time")
+    @Description("Time spent in the visits of the pass, without the traversal shared with other passes")
+    @Timespan
+    public long visitTime;
+}
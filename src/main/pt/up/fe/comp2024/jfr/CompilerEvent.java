@@ -0,0 +1,50 @@
+package pt.up.fe.comp2024.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Base of the Java Flight Recorder events emitted by the compiler, which all carry the file being compiled.
+ * <p>
+ * Events follow the usual JFR pattern: create, {@link #begin()}, do the work, and only compute the fields and
+ * {@link #commit()} if {@link #shouldCommit()}. When no recording is enabling the event, begin and shouldCommit are
+ * no-ops and the JIT removes the allocation, so the fields (e.g. node counts) must only be computed after checking.
+ */
+@Category({"Java--", "Compiler"})
+@StackTrace(false)
+public abstract class CompilerEvent extends Event {
+
+    @Label("Input File")
+    public String inputFile;
+
+    /**
+     * @param config
+     * @return the path of the input file in the config, or an empty string if compiling code that is not in a file
+     */
+    public static String getInputFile(Map<String, String> config) {
+        if (config == null) {
+            return "";
+        }
+
+        return CompilerConfig.getInputFile(config).map(File::getPath).orElse("");
+    }
+
+    /**
+     * @param node
+     * @return the number of nodes of the subtree rooted at the given node, or 0 if the node is null
+     */
+    public static int countNodes(JmmNode node) {
+        if (node == null) {
+            return 0;
+        }
+
+        return (int) node.getDescendantsAndSelfStream().count();
+    }
+}
@@ -0,0 +1,20 @@
+package pt.up.fe.comp2024.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("pt.up.fe.comp2024.JasminGeneration")
+@Label("Jasmin Generation")
+@Description("Generation of the Jasmin code of a class from its OLLIR code")
+public class JasminGenerationEvent extends CompilerEvent {
+
+    @Label("Class Name")
+    public String className;
+
+    @Label("Methods")
+    public int methods;
+
+    @Label("Output Characters")
+    public int outputChars;
+}
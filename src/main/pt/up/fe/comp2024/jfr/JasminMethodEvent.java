@@ -0,0 +1,20 @@
+package pt.up.fe.comp2024.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("pt.up.fe.comp2024.JasminMethod")
+@Label("Jasmin Method")
+@Description("Generation of the Jasmin code of a single method from the AST")
+public class JasminMethodEvent extends CompilerEvent {
+
+    @Label("Method")
+    public String method;
+
+    @Label("AST Nodes")
+    public int nodes;
+
+    @Label("Output Characters")
+    public int outputChars;
+}
@@ -0,0 +1,17 @@
+package pt.up.fe.comp2024.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("pt.up.fe.comp2024.OllirGeneration")
+@Label("OLLIR Generation")
+@Description("Generation of the OLLIR code from the AST")
+public class OllirGenerationEvent extends CompilerEvent {
+
+    @Label("AST Nodes")
+    public int nodes;
+
+    @Label("Output Characters")
+    public int outputChars;
+}
@@ -0,0 +1,17 @@
+package pt.up.fe.comp2024.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("pt.up.fe.comp2024.Optimization")
+@Label("OLLIR Optimization")
+@Description("Optimizations over the generated OLLIR code")
+public class OptimizationEvent extends CompilerEvent {
+
+    @Label("Input Characters")
+    public int inputChars;
+
+    @Label("Output Characters")
+    public int outputChars;
+}
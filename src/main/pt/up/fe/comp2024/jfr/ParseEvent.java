@@ -0,0 +1,26 @@
+package pt.up.fe.comp2024.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("pt.up.fe.comp2024.Parse")
+@Label("Parse")
+@Description("Lexing, parsing and conversion of the parse tree into the AST")
+public class ParseEvent extends CompilerEvent {
+
+    @Label("Parser")
+    public String parser;
+
+    @Label("Starting Rule")
+    public String startingRule;
+
+    @Label("Lexer")
+    public String lexer;
+
+    @Label("Input Characters")
+    public int inputChars;
+
+    @Label("AST Nodes")
+    public int nodes;
+}
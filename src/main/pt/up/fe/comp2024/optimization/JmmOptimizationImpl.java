@@ -3,25 +3,90 @@ package pt.up.fe.comp2024.optimization;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
 import pt.up.fe.comp.jmm.ollir.JmmOptimization;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.jfr.CompilerEvent;
+import pt.up.fe.comp2024.jfr.OllirGenerationEvent;
+import pt.up.fe.comp2024.jfr.OptimizationEvent;
 
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 public class JmmOptimizationImpl implements JmmOptimization {
 
+    // Shared by all the parallel generations with the same number of threads
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
     @Override
     public OllirResult toOllir(JmmSemanticsResult semanticsResult) {
 
+        if (CompilerConfig.isOllirInMemory(semanticsResult.getConfig())) {
+            return toOllirInMemory(semanticsResult);
+        }
+
+        var event = new OllirGenerationEvent();
+        event.begin();
+
         var visitor = new OllirGeneratorVisitor(semanticsResult.getSymbolTable());
         var ollirCode = visitor.visit(semanticsResult.getRootNode());
 
+        if (event.shouldCommit()) {
+            event.inputFile = CompilerEvent.getInputFile(semanticsResult.getConfig());
+            event.nodes = CompilerEvent.countNodes(semanticsResult.getRootNode());
+            event.outputChars = ollirCode.length();
+            event.commit();
+        }
+
         return new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
     }
 
+    /**
+     * Builds the OLLIR class directly from the AST, without generating OLLIR code and parsing it. This is a separate
+     * generator, which supports other constructs than {@link OllirGeneratorVisitor} (see {@link OllirClassBuilder}).
+     */
+    private OllirResult toOllirInMemory(JmmSemanticsResult semanticsResult) {
+
+        var event = new OllirGenerationEvent();
+        event.begin();
+
+        var builder = new OllirClassBuilder(semanticsResult.getSymbolTable(), getPool(semanticsResult));
+        var ollirClass = builder.build(semanticsResult.getRootNode());
+
+        if (event.shouldCommit()) {
+            event.inputFile = CompilerEvent.getInputFile(semanticsResult.getConfig());
+            event.nodes = CompilerEvent.countNodes(semanticsResult.getRootNode());
+            event.commit();
+        }
+
+        return OllirResults.fromClass(semanticsResult, ollirClass, Collections.emptyList());
+    }
+
+    /**
+     * @return the pool where the methods of the class are generated, or null to generate them one at a time
+     */
+    private static ForkJoinPool getPool(JmmSemanticsResult semanticsResult) {
+        var config = semanticsResult.getConfig();
+
+        return CompilerConfig.isParallelOllir(config)
+                ? POOLS.computeIfAbsent(CompilerConfig.getThreads(config), ForkJoinPool::new)
+                : null;
+    }
+
     @Override
     public OllirResult optimize(OllirResult ollirResult) {
+        var event = new OptimizationEvent();
+        event.begin();
 
         //TODO: Do your OLLIR-based optimizations here
 
+        if (event.shouldCommit()) {
+            event.inputFile = CompilerEvent.getInputFile(ollirResult.getConfig());
+            event.inputChars = ollirResult.getOllirCode().length();
+            event.outputChars = ollirResult.getOllirCode().length();
+            event.commit();
+        }
+
         return ollirResult;
     }
 }
@@ -0,0 +1,309 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.specs.comp.ollir.AccessModifier;
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.CallInstruction;
+import org.specs.comp.ollir.CallType;
+import org.specs.comp.ollir.ClassType;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.ElementType;
+import org.specs.comp.ollir.Field;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.ReturnInstruction;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.KindTable;
+import pt.up.fe.comp2024.ast.NodeUtils;
+import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
+import pt.up.fe.specs.util.exceptions.NotImplementedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+
+import static pt.up.fe.comp2024.ast.Kind.*;
+
+/**
+ * Builds the OLLIR {@link ClassUnit} of a program directly from the JmmNodes that are not expressions, as the OLLIR
+ * parser builds it from the code of the class (see {@link OllirPrinter}).
+ * <p>
+ * This is an OLLIR generator of its own, used with '-m', and not an in-memory version of {@link OllirGeneratorVisitor}:
+ * it supports imports, fields, and methods of straight-line code (assignments, returns, arithmetic and boolean
+ * expressions), while OllirGeneratorVisitor does not support typed declarations yet. The code they generate for the
+ * same program differs, and the other constructs fail with a {@link NotImplementedException}.
+ * <p>
+ * One OllirClassBuilder instance per program. With a pool, the methods of the class are built concurrently, each one by a
+ * builder of its own, and added to the class in the order of their declarations.
+ */
+public class OllirClassBuilder extends AJmmVisitor<Method, Void> {
+
+    private final SymbolTable table;
+
+    // Of the method being built, so that the temporaries are numbered per method, as in OllirGeneratorVisitor
+    private OllirExprBuilder exprBuilder;
+
+    private final ClassUnit classUnit;
+
+    private final ForkJoinPool pool;
+
+    // Visit of each kind of node, resolved once per kind
+    private final KindTable<BiFunction<JmmNode, Method, Void>> visits = new KindTable<>(super::getVisit);
+
+    public OllirClassBuilder(SymbolTable table) {
+        this(table, (ForkJoinPool) null);
+    }
+
+    /**
+     * @param pool where the methods of the class are built concurrently, or null to build them one at a time
+     */
+    public OllirClassBuilder(SymbolTable table, ForkJoinPool pool) {
+        this(table, new ClassUnit(), pool);
+    }
+
+    /**
+     * Builds single methods of the class. Since the builder keeps the expression builder of the method it is building,
+     * each method built concurrently has a builder of its own.
+     */
+    private OllirClassBuilder(SymbolTable table, ClassUnit classUnit) {
+        this(table, classUnit, null);
+    }
+
+    private OllirClassBuilder(SymbolTable table, ClassUnit classUnit, ForkJoinPool pool) {
+        this.table = table;
+        this.exprBuilder = null;
+        this.classUnit = classUnit;
+        this.pool = pool;
+    }
+
+    /**
+     * @param root the root of the AST of the program
+     * @return the class of the program, with the variable tables of its methods built
+     */
+    public ClassUnit build(JmmNode root) {
+        visit(root, null);
+        classUnit.buildVarTables();
+
+        return classUnit;
+    }
+
+    @Override
+    protected BiFunction<JmmNode, Method, Void> getVisit(JmmNode node) {
+        return visits.get(node);
+    }
+
+    @Override
+    protected void buildVisitor() {
+
+        addVisit(PROGRAM, this::visitProgram);
+        addVisit(IMPORT_DECL, this::visitImport);
+        addVisit(CLASS_DECL, this::visitClass);
+        addVisit(VAR_DECL, this::visitField);
+        addVisit(METHOD_DECL, this::visitMethodDecl);
+        addVisit(BLOCK_STMT, this::visitBlock);
+        addVisit(RETURN_STMT, this::visitReturn);
+        addVisit(ASSIGN_STMT, this::visitAssignStmt);
+
+        setDefaultVisit(this::defaultVisit);
+    }
+
+
+    private Void visitAssignStmt(JmmNode node, Method method) {
+
+        var lhs = node.getJmmChild(0);
+        IDENTIFIER.checkOrThrow(lhs);
+
+        var dest = exprBuilder.visit(lhs, method);
+        var rhs = exprBuilder.buildInstruction(node.getJmmChild(1), method);
+
+        // statement has type of lhs
+        method.addInstr(new AssignInstruction(dest, dest.getType(), rhs));
+
+        return null;
+    }
+
+
+    private Void visitReturn(JmmNode node, Method method) {
+
+        var value = exprBuilder.visit(node.getJmmChild(0), method);
+
+        var instruction = new ReturnInstruction(value);
+        instruction.setReturnType(method.getReturnType());
+        method.addInstr(instruction);
+
+        return null;
+    }
+
+
+    private Void visitBlock(JmmNode node, Method method) {
+
+        for (var child : node.getChildren()) {
+            visit(child, method);
+        }
+
+        return null;
+    }
+
+
+    private Void visitMethodDecl(JmmNode node, Method unused) {
+
+        classUnit.addMethod(buildMethod(node));
+
+        return null;
+    }
+
+    private Method buildMethod(JmmNode node) {
+
+        exprBuilder = new OllirExprBuilder(table);
+
+        var name = node.get("name");
+        var method = new Method(classUnit);
+        method.setMethodName(name);
+
+        if (NodeUtils.getBooleanAttribute(node, "isPublic", "false")) {
+            method.setMethodAccessModifier(AccessModifier.PUBLIC);
+        }
+
+        if (NodeUtils.getBooleanAttribute(node, "isStatic", "false")) {
+            method.setStaticMethod();
+        }
+
+        // As in the parser, parameters are numbered from 1 when there is 'this'
+        int paramId = method.isStaticMethod() ? 0 : 1;
+        for (var param : table.getParameters(name)) {
+            var operand = new Operand(param.getName(), OptUtils.toOllirElementType(param.getType()));
+            operand.setParamId(paramId++);
+            method.addParam(operand);
+        }
+
+        method.setReturnType(OptUtils.toOllirElementType(table.getReturnType(name)));
+
+        // The type, the parameters and the local variables are in the symbol table
+        for (var child : node.getChildren()) {
+            if (!Kind.check(child, PARAM_DECL, VAR_DECL) && !child.getKind().endsWith("Type")) {
+                visit(child, method);
+            }
+        }
+
+        if (method.getReturnType().getTypeOfElement() == ElementType.VOID) {
+            var ret = new ReturnInstruction();
+            ret.setReturnType(method.getReturnType());
+            method.addInstr(ret);
+        }
+
+        return method;
+    }
+
+
+    private Void visitField(JmmNode node, Method unused) {
+
+        var name = node.get("varName");
+        var field = SymbolTableUtils.getField(table, name);
+        if (field == null) {
+            throw new RuntimeException("Field '" + name + "' is not in the symbol table");
+        }
+
+        var ollirField = new Field();
+        ollirField.setFieldName(name);
+        ollirField.setFieldType(OptUtils.toOllirElementType(field.getType()));
+        ollirField.setFieldAccessModifier(AccessModifier.PUBLIC);
+        classUnit.addField(ollirField);
+
+        return null;
+    }
+
+
+    private Void visitClass(JmmNode node, Method unused) {
+
+        classUnit.setClassName(table.getClassName());
+
+        if (table.getSuper() != null) {
+            classUnit.setSuperClass(table.getSuper());
+        }
+
+        visitMembers(node.getChildren());
+
+        classUnit.addMethod(buildConstructor());
+
+        return null;
+    }
+
+    private void visitMembers(List<JmmNode> members) {
+
+        if (pool == null || members.stream().filter(METHOD_DECL::check).count() < 2) {
+            for (var member : members) {
+                visit(member, null);
+            }
+            return;
+        }
+
+        var tasks = new ArrayList<ForkJoinTask<Method>>();
+        for (var member : members) {
+            if (METHOD_DECL.check(member)) {
+                tasks.add(pool.submit(() -> new OllirClassBuilder(table, classUnit).buildMethod(member)));
+            } else {
+                visit(member, null);
+            }
+        }
+
+        // In the order of the declarations, as when built one at a time
+        for (var task : tasks) {
+            classUnit.addMethod(task.join());
+        }
+    }
+
+    private Method buildConstructor() {
+
+        var constructor = new Method(classUnit);
+        constructor.setConstructMethod();
+        constructor.setMethodName(table.getClassName());
+        constructor.setReturnType(OptUtils.toOllirElementType(TypeUtils.getType(TypeUtils.getVoidTypeName(), false)));
+
+        var self = new Operand("this", new ClassType(ElementType.THIS, table.getClassName()));
+        var init = new LiteralElement("\"<init>\"", new org.specs.comp.ollir.Type(ElementType.STRING));
+        constructor.addInstr(new CallInstruction(CallType.invokespecial, self, init, new ArrayList<>(),
+                new org.specs.comp.ollir.Type(ElementType.VOID), true));
+
+        return constructor;
+    }
+
+
+    private Void visitProgram(JmmNode node, Method unused) {
+
+        for (var child : node.getChildren()) {
+            visit(child, null);
+        }
+
+        return null;
+    }
+
+    private Void visitImport(JmmNode node, Method unused) {
+
+        // 'importName' has the list of the names, as '[a, b, C]'
+        var importName = node.get("importName")
+                .replace("[", "")
+                .replace("]", "")
+                .replace(" ", "")
+                .replace(",", ".");
+        classUnit.addImport(importName);
+
+        return null;
+    }
+
+    /**
+     * Default visitor. Fails for the statements that can not be built yet.
+     *
+     * @param node
+     * @param method
+     * @return
+     */
+    private Void defaultVisit(JmmNode node, Method method) {
+        throw new NotImplementedException(node.getKind());
+    }
+}
@@ -0,0 +1,190 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.BinaryOpInstruction;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.Operation;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.SingleOpInstruction;
+import org.specs.comp.ollir.UnaryOpInstruction;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.KindTable;
+import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
+import pt.up.fe.specs.util.exceptions.NotImplementedException;
+
+import java.util.function.BiFunction;
+
+import static pt.up.fe.comp2024.ast.Kind.*;
+
+/**
+ * Builds the OLLIR elements of JmmNodes that are expressions.
+ * <p>
+ * The instructions that compute the children of an expression are added to the method, each one assigning a new
+ * temporary, and the visit returns the element with the value of the expression.
+ */
+public class OllirExprBuilder extends AJmmVisitor<Method, Element> {
+
+    private final SymbolTable table;
+
+    // Temporaries are numbered per builder, and there is a builder per method, as in OllirExprGeneratorVisitor
+    private int tempNumber;
+
+    // Visit of each kind of node, resolved once per kind
+    private final KindTable<BiFunction<JmmNode, Method, Element>> visits = new KindTable<>(super::getVisit);
+
+    public OllirExprBuilder(SymbolTable table) {
+        this.table = table;
+        this.tempNumber = -1;
+    }
+
+    public String getTemp() {
+
+        tempNumber += 1;
+        return "tmp" + tempNumber;
+    }
+
+    /**
+     * Builds the instruction that computes the value of the expression, without assigning it to a temporary.
+     *
+     * @param node   the expression
+     * @param method the method where the computation of the operands of the expression is added
+     * @return the right-hand side of an assignment
+     */
+    public Instruction buildInstruction(JmmNode node, Method method) {
+
+        var kind = Kind.of(node);
+
+        if (kind == PAREN_OP) {
+            return buildInstruction(node.getJmmChild(0), method);
+        }
+
+        if (kind == BINARY_EXPR) {
+            return buildBinaryOp(node, method);
+        }
+
+        if (kind == UNARY_OP) {
+            return buildUnaryOp(node, method);
+        }
+
+        return new SingleOpInstruction(visit(node, method));
+    }
+
+    @Override
+    protected BiFunction<JmmNode, Method, Element> getVisit(JmmNode node) {
+        return visits.get(node);
+    }
+
+    @Override
+    protected void buildVisitor() {
+        addVisit(IDENTIFIER, this::visitVarRef);
+        addVisit(BINARY_EXPR, this::visitOperation);
+        addVisit(UNARY_OP, this::visitOperation);
+        addVisit(PAREN_OP, this::visitParen);
+        addVisit(INTEGER_LITERAL, this::visitInteger);
+        addVisit(BOOLEAN_LITERAL, this::visitBoolean);
+
+        setDefaultVisit(this::defaultVisit);
+    }
+
+
+    private Element visitInteger(JmmNode node, Method method) {
+        var intType = TypeUtils.getType(TypeUtils.getIntTypeName(), false);
+        return new LiteralElement(node.get("value"), OptUtils.toOllirElementType(intType));
+    }
+
+
+    private Element visitBoolean(JmmNode node, Method method) {
+        // Booleans are the integers 1 and 0 in OLLIR
+        var literal = node.get("value").equals("true") ? "1" : "0";
+        var boolType = TypeUtils.getType(TypeUtils.getBooleanTypeName(), false);
+        return new LiteralElement(literal, OptUtils.toOllirElementType(boolType));
+    }
+
+
+    private Element visitParen(JmmNode node, Method method) {
+        return visit(node.getJmmChild(0), method);
+    }
+
+
+    private Element visitOperation(JmmNode node, Method method) {
+
+        var computation = buildInstruction(node, method);
+
+        // code to compute self
+        var type = OptUtils.toOllirElementType(TypeUtils.getExprType(node, table, method.getMethodName()));
+        var temp = new Operand(getTemp(), type);
+        method.addInstr(new AssignInstruction(temp, type, computation));
+
+        return temp;
+    }
+
+
+    private Instruction buildBinaryOp(JmmNode node, Method method) {
+
+        var lhs = visit(node.getJmmChild(0), method);
+        var rhs = visit(node.getJmmChild(1), method);
+
+        var opType = switch (node.get("op")) {
+            case "+" -> OperationType.ADD;
+            case "-" -> OperationType.SUB;
+            case "*" -> OperationType.MUL;
+            case "/" -> OperationType.DIV;
+            case "<" -> OperationType.LTH;
+            case "&&" -> OperationType.ANDB;
+            default -> throw new NotImplementedException(node.get("op"));
+        };
+
+        var type = OptUtils.toOllirElementType(TypeUtils.getExprType(node, table, method.getMethodName()));
+
+        return new BinaryOpInstruction(lhs, new Operation(opType, type), rhs);
+    }
+
+
+    private Instruction buildUnaryOp(JmmNode node, Method method) {
+
+        if (!node.get("op").equals("!")) {
+            throw new NotImplementedException(node.get("op"));
+        }
+
+        var operand = visit(node.getJmmChild(0), method);
+        var type = OptUtils.toOllirElementType(TypeUtils.getType(TypeUtils.getBooleanTypeName(), false));
+
+        return new UnaryOpInstruction(new Operation(OperationType.NOTB, type), operand);
+    }
+
+
+    private Element visitVarRef(JmmNode node, Method method) {
+
+        var id = node.get("value");
+
+        // Fields need 'getfield' and 'putfield', imported classes are only used in calls
+        var methodName = method.getMethodName();
+        if (!SymbolTableUtils.isLocal(table, methodName, id)) {
+            throw new NotImplementedException("reference to '" + id + "', which is not a local variable");
+        }
+
+        var type = TypeUtils.getExprType(node, table, methodName);
+
+        return new Operand(id, OptUtils.toOllirElementType(type));
+    }
+
+    /**
+     * Default visitor. Fails for the expressions that can not be built yet.
+     *
+     * @param node
+     * @param method
+     * @return
+     */
+    private Element defaultVisit(JmmNode node, Method method) {
+        throw new NotImplementedException(node.getKind());
+    }
+
+}
@@ -4,8 +4,11 @@ import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.comp2024.ast.KindTable;
 import pt.up.fe.comp2024.ast.TypeUtils;
 
+import java.util.function.BiFunction;
+
 import static pt.up.fe.comp2024.ast.Kind.*;
 
 /**
@@ -19,8 +22,37 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
 
     private final SymbolTable table;
 
+    // Temporaries are numbered per generator, and there is a generator per method, so that neither the methods
+    // generated concurrently nor the files compiled in the same JVM share (or race on) a counter
+    private int tempNumber;
+
+    // Visit of each kind of node, resolved once per kind
+    private final KindTable<BiFunction<JmmNode, Void, OllirExprResult>> visits = new KindTable<>(super::getVisit);
+
     public OllirExprGeneratorVisitor(SymbolTable table) {
         this.table = table;
+        this.tempNumber = -1;
+    }
+
+    public String getTemp() {
+
+        return getTemp("tmp");
+    }
+
+    public String getTemp(String prefix) {
+
+        return prefix + getNextTempNum();
+    }
+
+    public int getNextTempNum() {
+
+        tempNumber += 1;
+        return tempNumber;
+    }
+
+    @Override
+    protected BiFunction<JmmNode, Void, OllirExprResult> getVisit(JmmNode node) {
+        return visits.get(node);
     }
 
     @Override
@@ -34,7 +66,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
 
 
     private OllirExprResult visitInteger(JmmNode node, Void unused) {
-        var intType = new Type(TypeUtils.getIntTypeName(), false);
+        var intType = TypeUtils.getType(TypeUtils.getIntTypeName(), false);
         String ollirIntType = OptUtils.toOllirType(intType);
         String code = node.get("value") + ollirIntType;
         return new OllirExprResult(code);
@@ -55,7 +87,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         // code to compute self
         Type resType = TypeUtils.getExprType(node, table, "");
         String resOllirType = OptUtils.toOllirType(resType);
-        String code = OptUtils.getTemp() + resOllirType;
+        String code = getTemp() + resOllirType;
 
         computation.append(code).append(SPACE)
                 .append(ASSIGN).append(resOllirType).append(SPACE)
@@ -4,13 +4,19 @@ import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.KindTable;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
 
+import java.util.function.BiFunction;
+
 import static pt.up.fe.comp2024.ast.Kind.*;
 
 /**
  * Generates OLLIR code from JmmNodes that are not expressions.
+ * <p>
+ * Each method is generated with an expression visitor of its own, so its temporaries are numbered from 'tmp0' whatever
+ * the methods before it.
  */
 public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
@@ -24,14 +30,23 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
     private final SymbolTable table;
 
-    private final OllirExprGeneratorVisitor exprVisitor;
+    // Of the method being generated
+    private OllirExprGeneratorVisitor exprVisitor;
+
+    // Visit of each kind of node, resolved once per kind
+    private final KindTable<BiFunction<JmmNode, Void, String>> visits = new KindTable<>(super::getVisit);
 
     public OllirGeneratorVisitor(SymbolTable table) {
         this.table = table;
-        exprVisitor = new OllirExprGeneratorVisitor(table);
+        exprVisitor = null;
     }
 
 
+    @Override
+    protected BiFunction<JmmNode, Void, String> getVisit(JmmNode node) {
+        return visits.get(node);
+    }
+
     @Override
     protected void buildVisitor() {
 
@@ -117,6 +132,8 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
     private String visitMethodDecl(JmmNode node, Void unused) {
 
+        exprVisitor = new OllirExprGeneratorVisitor(table);
+
         StringBuilder code = new StringBuilder(".method ");
 
         boolean isPublic = NodeUtils.getBooleanAttribute(node, "isPublic", "false");
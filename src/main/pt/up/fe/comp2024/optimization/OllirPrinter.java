@@ -0,0 +1,266 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.specs.comp.ollir.AccessModifier;
+import org.specs.comp.ollir.ArrayType;
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.BinaryOpInstruction;
+import org.specs.comp.ollir.CallInstruction;
+import org.specs.comp.ollir.ClassType;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.Field;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.Operation;
+import org.specs.comp.ollir.ReturnInstruction;
+import org.specs.comp.ollir.SingleOpInstruction;
+import org.specs.comp.ollir.Type;
+import org.specs.comp.ollir.UnaryOpInstruction;
+import org.specs.comp.ollir.tree.TreeNode;
+import pt.up.fe.specs.util.classmap.BiConsumerClassMap;
+import pt.up.fe.specs.util.exceptions.NotImplementedException;
+
+/**
+ * Prints the OLLIR code of a {@link ClassUnit}, in the same format as {@link OllirGeneratorVisitor}.
+ * <p>
+ * Parsing the printed code gives back the same class, so the code of a class built by {@link OllirClassBuilder} does not
+ * need to be generated as text. The elements are appended to a single builder, without creating a string per element.
+ */
+public class OllirPrinter {
+
+    private static final String SPACE = " ";
+    private static final String ASSIGN = ":=";
+    private static final String END_STMT = ";\n";
+    private static final String NL = "\n";
+    private static final String L_BRACKET = " {\n";
+    private static final String R_BRACKET = "}\n";
+
+    private final BiConsumerClassMap<TreeNode, StringBuilder> printers;
+
+    public OllirPrinter() {
+        this.printers = new BiConsumerClassMap<>();
+        printers.put(AssignInstruction.class, this::printAssign);
+        printers.put(SingleOpInstruction.class, this::printSingleOp);
+        printers.put(BinaryOpInstruction.class, this::printBinaryOp);
+        printers.put(UnaryOpInstruction.class, this::printUnaryOp);
+        printers.put(ReturnInstruction.class, this::printReturn);
+        printers.put(CallInstruction.class, this::printCall);
+        printers.put(LiteralElement.class, this::printLiteral);
+        printers.put(Operand.class, this::printOperand);
+    }
+
+    public String print(ClassUnit classUnit) {
+
+        StringBuilder code = new StringBuilder();
+
+        for (var importName : classUnit.getImports()) {
+            code.append("import ").append(importName).append(END_STMT);
+        }
+
+        code.append(classUnit.getClassName());
+        if (classUnit.getSuperClass() != null) {
+            code.append(" extends ").append(classUnit.getSuperClass());
+        }
+        code.append(L_BRACKET);
+
+        code.append(NL);
+
+        for (var field : classUnit.getFields()) {
+            printField(field, code);
+        }
+
+        var needNl = true;
+
+        // The constructor goes last, as in the generated code
+        for (var method : classUnit.getMethods()) {
+            if (method.isConstructMethod()) {
+                continue;
+            }
+
+            if (needNl) {
+                code.append(NL);
+                needNl = false;
+            }
+
+            printMethod(method, code);
+        }
+
+        for (var method : classUnit.getMethods()) {
+            if (method.isConstructMethod()) {
+                printConstructor(method, code);
+            }
+        }
+
+        code.append(R_BRACKET);
+
+        return code.toString();
+    }
+
+    private void printField(Field field, StringBuilder code) {
+        code.append(".field ");
+        printModifier(field.getFieldAccessModifier(), code);
+        code.append(field.getFieldName());
+        printType(field.getFieldType(), code);
+        code.append(END_STMT);
+    }
+
+    private void printMethod(Method method, StringBuilder code) {
+
+        code.append(".method ");
+
+        printModifier(method.getMethodAccessModifier(), code);
+
+        if (method.isStaticMethod()) {
+            code.append("static ");
+        }
+
+        code.append(method.getMethodName()).append("(");
+
+        var params = method.getParams();
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                code.append(", ");
+            }
+            printers.accept(params.get(i), code);
+        }
+        code.append(")");
+
+        printType(method.getReturnType(), code);
+        code.append(L_BRACKET);
+
+        for (var instruction : method.getInstructions()) {
+            printers.accept(instruction, code);
+            code.append(END_STMT);
+        }
+
+        code.append(R_BRACKET);
+        code.append(NL);
+    }
+
+    private void printConstructor(Method constructor, StringBuilder code) {
+
+        code.append(".construct ").append(constructor.getMethodName()).append("().V").append(L_BRACKET);
+
+        for (var instruction : constructor.getInstructions()) {
+            printers.accept(instruction, code);
+            code.append(END_STMT);
+        }
+
+        code.append(R_BRACKET);
+    }
+
+    private void printAssign(AssignInstruction assign, StringBuilder code) {
+        printers.accept(assign.getDest(), code);
+        code.append(SPACE).append(ASSIGN);
+        printType(assign.getTypeOfAssign(), code);
+        code.append(SPACE);
+        printers.accept(assign.getRhs(), code);
+    }
+
+    private void printSingleOp(SingleOpInstruction singleOp, StringBuilder code) {
+        printers.accept(singleOp.getSingleOperand(), code);
+    }
+
+    private void printBinaryOp(BinaryOpInstruction binaryOp, StringBuilder code) {
+        printers.accept(binaryOp.getLeftOperand(), code);
+        code.append(SPACE);
+        printOperation(binaryOp.getOperation(), code);
+        code.append(SPACE);
+        printers.accept(binaryOp.getRightOperand(), code);
+    }
+
+    private void printUnaryOp(UnaryOpInstruction unaryOp, StringBuilder code) {
+        printOperation(unaryOp.getOperation(), code);
+        code.append(SPACE);
+        printers.accept(unaryOp.getOperand(), code);
+    }
+
+    private void printReturn(ReturnInstruction returnInst, StringBuilder code) {
+        code.append("ret");
+        printType(returnInst.getReturnType(), code);
+
+        if (returnInst.hasReturnValue()) {
+            code.append(SPACE);
+            printers.accept(returnInst.getOperand(), code);
+        }
+    }
+
+    private void printCall(CallInstruction call, StringBuilder code) {
+
+        code.append(call.getInvocationType().name()).append("(");
+        printElementName(call.getCaller(), code);
+
+        call.getMethodNameTry().ifPresent(name -> code.append(", ").append(((LiteralElement) name).getLiteral()));
+
+        for (var argument : call.getArguments()) {
+            code.append(", ");
+            printers.accept(argument, code);
+        }
+
+        code.append(")");
+        printType(call.getReturnType(), code);
+    }
+
+    private void printLiteral(LiteralElement literal, StringBuilder code) {
+        code.append(literal.getLiteral());
+        printType(literal.getType(), code);
+    }
+
+    private void printOperand(Operand operand, StringBuilder code) {
+        code.append(operand.getName());
+        printType(operand.getType(), code);
+    }
+
+    /**
+     * Prints the name of an element used as the caller of a call, which has no type when it is 'this' or a class.
+     */
+    private void printElementName(Element element, StringBuilder code) {
+        switch (element.getType().getTypeOfElement()) {
+            case THIS -> code.append("this");
+            case CLASS -> code.append(((ClassType) element.getType()).getName());
+            default -> printers.accept(element, code);
+        }
+    }
+
+    private void printOperation(Operation operation, StringBuilder code) {
+
+        var op = switch (operation.getOpType()) {
+            case ADD -> "+";
+            case SUB -> "-";
+            case MUL -> "*";
+            case DIV -> "/";
+            case LTH -> "<";
+            case ANDB -> "&&";
+            case NOTB -> "!";
+            default -> throw new NotImplementedException(operation.getOpType());
+        };
+
+        code.append(op);
+        printType(operation.getTypeInfo(), code);
+    }
+
+    private void printModifier(AccessModifier modifier, StringBuilder code) {
+        if (modifier != AccessModifier.DEFAULT) {
+            code.append(modifier.name().toLowerCase()).append(SPACE);
+        }
+    }
+
+    private void printType(Type type, StringBuilder code) {
+
+        if (type instanceof ArrayType arrayType) {
+            code.append(".array");
+            printType(arrayType.getElementType(), code);
+            return;
+        }
+
+        code.append(switch (type.getTypeOfElement()) {
+            case INT32 -> ".i32";
+            case BOOLEAN -> ".bool";
+            case STRING -> ".String";
+            case VOID -> ".V";
+            case OBJECTREF, CLASS -> "." + ((ClassType) type).getName();
+            default -> throw new NotImplementedException(type.getTypeOfElement());
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.specs.comp.ollir.ClassUnit;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.specs.util.SpecsCollections;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the {@link OllirResult} of a class that was built in memory, by {@link OllirClassBuilder}, without parsing
+ * OLLIR code.
+ * <p>
+ * The public constructors of OllirResult parse the code they are given. The result is created with its private
+ * constructor instead, which takes the class as it is, together with the code printed from it by {@link OllirPrinter}.
+ * Printing is linear in the size of the class and much cheaper than parsing. If that constructor is not available (a
+ * different version of comp-lib), the printed code is parsed, as in the text-based OLLIR stage.
+ */
+public class OllirResults {
+
+    // OllirResult(String ollirCode, ClassUnit ollirClass, SymbolTable symbolTable, List<Report> reports, Map config)
+    private static final MethodHandle CONSTRUCTOR = findConstructor();
+
+    private OllirResults() {
+    }
+
+    /**
+     * @param semanticsResult
+     * @param ollirClass      the class built from the AST of the semantics result, with its variable tables built
+     * @param reports         the reports of the OLLIR generation
+     * @return the same result as parsing the code of the class
+     */
+    public static OllirResult fromClass(JmmSemanticsResult semanticsResult, ClassUnit ollirClass,
+                                        List<Report> reports) {
+
+        var ollirCode = new OllirPrinter().print(ollirClass);
+
+        if (CONSTRUCTOR == null) {
+            return new OllirResult(semanticsResult, ollirCode, reports);
+        }
+
+        try {
+            return (OllirResult) CONSTRUCTOR.invoke(ollirCode, ollirClass, semanticsResult.getSymbolTable(),
+                    SpecsCollections.concat(semanticsResult.getReports(), reports), semanticsResult.getConfig());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Could not create the OLLIR result of class " + ollirClass.getClassName(), e);
+        }
+    }
+
+    private static MethodHandle findConstructor() {
+        try {
+            var lookup = MethodHandles.privateLookupIn(OllirResult.class, MethodHandles.lookup());
+            var type = MethodType.methodType(void.class, String.class, ClassUnit.class, SymbolTable.class, List.class,
+                    Map.class);
+
+            return lookup.findConstructor(OllirResult.class, type);
+        } catch (ReflectiveOperationException | SecurityException e) {
+            return null;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package pt.up.fe.comp2024.optimization;
 
+import org.specs.comp.ollir.ArrayType;
+import org.specs.comp.ollir.ClassType;
+import org.specs.comp.ollir.ElementType;
 import org.specs.comp.ollir.Instruction;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
@@ -12,23 +15,6 @@ import java.util.Optional;
 import static pt.up.fe.comp2024.ast.Kind.TYPE;
 
 public class OptUtils {
-    private static int tempNumber = -1;
-
-    public static String getTemp() {
-
-        return getTemp("tmp");
-    }
-
-    public static String getTemp(String prefix) {
-
-        return prefix + getNextTempNum();
-    }
-
-    public static int getNextTempNum() {
-
-        tempNumber += 1;
-        return tempNumber;
-    }
 
     public static String toOllirType(JmmNode typeNode) {
 
@@ -53,5 +39,43 @@ public class OptUtils {
         return type;
     }
 
+    /**
+     * @param type
+     * @return the OLLIR type of the elements of that type, as the OLLIR parser creates it
+     */
+    public static org.specs.comp.ollir.Type toOllirElementType(Type type) {
+
+        var elementType = toElementType(type.getName());
+
+        if (type.isArray()) {
+            var arrayType = new ArrayType();
+            arrayType.setNumDimensions(1);
+            arrayType.setTypeOfElements(elementType);
+
+            if (elementType == ElementType.STRING) {
+                arrayType.setElementClass("String");
+            }
+
+            return arrayType;
+        }
+
+        if (elementType == ElementType.OBJECTREF) {
+            return new ClassType(ElementType.OBJECTREF, type.getName());
+        }
+
+        return new org.specs.comp.ollir.Type(elementType);
+    }
+
+    private static ElementType toElementType(String typeName) {
+
+        return switch (typeName) {
+            case "int", "int..." -> ElementType.INT32;
+            case "boolean" -> ElementType.BOOLEAN;
+            case "String" -> ElementType.STRING;
+            case "void" -> ElementType.VOID;
+            default -> ElementType.OBJECTREF;
+        };
+    }
+
 
 }
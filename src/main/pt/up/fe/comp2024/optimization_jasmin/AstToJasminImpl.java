@@ -3,19 +3,90 @@ package pt.up.fe.comp2024.optimization_jasmin;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
 import pt.up.fe.comp.jmm.ast2jasmin.AstToJasmin;
 import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.cache.CacheEntry;
+import pt.up.fe.comp2024.cache.CompilationCache;
+import pt.up.fe.comp2024.classfile.ClassFileResult;
+import pt.up.fe.comp2024.jfr.CompilerEvent;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 public class AstToJasminImpl implements AstToJasmin {
+
+    private static final String CACHE_NAMESPACE = "ast2jasmin";
+
+    // Shared by all the parallel generations with the same number of threads
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
     @Override
     public JasminResult toJasmin(JmmSemanticsResult semanticsResult) {
+        var jasminResult = toJasminCode(semanticsResult);
+
+        return CompilerConfig.isClassFile(semanticsResult.getConfig()) ? new ClassFileResult(jasminResult)
+                : jasminResult;
+    }
+
+    private JasminResult toJasminCode(JmmSemanticsResult semanticsResult) {
+
+        // The cache is keyed by the code the AST was parsed from, which the parser records in the root
+        var config = semanticsResult.getConfig();
+        var cache = CompilationCache.fromConfig(config);
+        var sourceHash = semanticsResult.getRootNode().getOptional(CompilationCache.SOURCE_HASH);
+
+        if (cache.isEmpty() || sourceHash.isEmpty()) {
+            return generate(semanticsResult);
+        }
+
+        var key = CompilationCache.computeKey(CACHE_NAMESPACE, sourceHash.get(), config);
+        var entry = cache.get().get(key);
+        if (entry.isPresent()) {
+            return new JasminResult(entry.get().getClassName(), entry.get().getJasminCode(),
+                    entry.get().getReports(), config);
+        }
 
-        var generator = new JasminGeneratorVisitor(semanticsResult.getSymbolTable());
+        var jasminResult = generate(semanticsResult);
+        cache.get().put(key, new CacheEntry(jasminResult.getClassName(), null, jasminResult.getJasminCode(), null,
+                jasminResult.getReports()));
+
+        return jasminResult;
+    }
+
+    private JasminResult generate(JmmSemanticsResult semanticsResult) {
+        var generator = newGenerator(semanticsResult);
         var code = generator.visit(semanticsResult.getRootNode());
 
         return new JasminResult(semanticsResult, code, Collections.emptyList());
     }
 
+    /**
+     * Writes the Jasmin code to the output as it is generated, such as to a file, without keeping it in memory. The
+     * cache is not used, since it keeps the whole code.
+     *
+     * @param semanticsResult
+     * @param out
+     * @return the reports of the generation
+     */
+    public List<Report> toJasmin(JmmSemanticsResult semanticsResult, Appendable out) {
+        var generator = newGenerator(semanticsResult);
+        generator.write(semanticsResult.getRootNode(), out);
+
+        return Collections.emptyList();
+    }
+
+    private static JasminGeneratorVisitor newGenerator(JmmSemanticsResult semanticsResult) {
+        var config = semanticsResult.getConfig();
+        var pool = CompilerConfig.isParallelJasmin(config)
+                ? POOLS.computeIfAbsent(CompilerConfig.getThreads(config), ForkJoinPool::new)
+                : null;
+
+        return new JasminGeneratorVisitor(semanticsResult.getSymbolTable(), CompilerEvent.getInputFile(config), pool);
+    }
+
     @Override
     public JmmSemanticsResult optimize(JmmSemanticsResult semanticsResult) {
         // TODO: To implement for CP3
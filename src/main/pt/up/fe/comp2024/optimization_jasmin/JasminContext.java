@@ -0,0 +1,150 @@
+package pt.up.fe.comp2024.optimization_jasmin;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The context of each node of a class that the Jasmin generators need, such as the statement that encloses it or
+ * whether it is on the left side of an assignment. Computed by a single preorder pass over the AST, so that the
+ * generators decide how to generate each node in constant time, instead of searching its ancestors or descendants.
+ * <p>
+ * Nodes that were not in the AST during the pass get their context from their parent, each time it is asked. The
+ * contexts are not changed after the pass, so the methods of a class can be generated concurrently with the same
+ * JasminContext.
+ */
+public class JasminContext {
+
+    private record NodeContext(JmmNode assignStmt, boolean assignLhs, boolean onAssignLhs, JmmNode binaryExpr,
+                               boolean inMemberAccess, JmmNode whileStmt, JmmNode methodDecl) {
+
+        private static final NodeContext ROOT = new NodeContext(null, false, false, null, false, null, null);
+
+        private NodeContext child(JmmNode parent, JmmNode child) {
+            var kind = Kind.of(parent);
+            boolean isAssign = kind == Kind.ASSIGN_STMT;
+
+            return new NodeContext(
+                    isAssign ? parent : assignStmt,
+                    isAssign && parent.getChild(0) == child,
+                    !isAssign && (assignLhs || onAssignLhs),
+                    kind == Kind.BINARY_EXPR ? parent : binaryExpr,
+                    inMemberAccess || kind == Kind.MEMBER_ACCESS_OP,
+                    kind == Kind.WHILE_STMT ? parent : whileStmt,
+                    kind == Kind.METHOD_DECL ? parent : methodDecl);
+        }
+    }
+
+    private final Map<JmmNode, NodeContext> contexts;
+    private final Map<String, List<JmmNode>> methodsByName;
+
+    private JasminContext() {
+        this.contexts = new IdentityHashMap<>();
+        this.methodsByName = new HashMap<>();
+    }
+
+    /**
+     * @param classDecl
+     * @return the context of every node of the class
+     */
+    public static JasminContext build(JmmNode classDecl) {
+        var context = new JasminContext();
+
+        for (var method : classDecl.getChildren(Kind.METHOD_DECL)) {
+            context.methodsByName.computeIfAbsent(method.get("name"), name -> new ArrayList<>()).add(method);
+        }
+
+        context.build(classDecl, NodeContext.ROOT);
+
+        return context;
+    }
+
+    /**
+     * @param node
+     * @return the closest assignment that contains the node, or null if there is none
+     */
+    public JmmNode getAssignStmt(JmmNode node) {
+        return get(node).assignStmt();
+    }
+
+    /**
+     * @param node
+     * @return true if the node is inside the left side of its assignment, not counting the left side itself
+     */
+    public boolean isOnAssignLhs(JmmNode node) {
+        return get(node).onAssignLhs();
+    }
+
+    /**
+     * @param node
+     * @return the closest binary expression that contains the node, or null if there is none
+     */
+    public JmmNode getBinaryExpr(JmmNode node) {
+        return get(node).binaryExpr();
+    }
+
+    /**
+     * @param node
+     * @return true if the closest binary expression that contains the node was folded into a constant
+     */
+    public boolean isInFoldedBinaryExpr(JmmNode node) {
+        var binaryExpr = getBinaryExpr(node);
+        return binaryExpr != null && binaryExpr.hasAttribute("value");
+    }
+
+    /**
+     * @param node
+     * @return true if the node is an argument, or part of an argument or of the object, of a method call
+     */
+    public boolean isInMemberAccess(JmmNode node) {
+        return get(node).inMemberAccess();
+    }
+
+    /**
+     * @param node
+     * @return the closest loop that contains the node, or null if there is none
+     */
+    public JmmNode getWhileStmt(JmmNode node) {
+        return get(node).whileStmt();
+    }
+
+    /**
+     * @param node
+     * @return the method that contains the node, or null if there is none
+     */
+    public JmmNode getMethodDecl(JmmNode node) {
+        return get(node).methodDecl();
+    }
+
+    /**
+     * @param name
+     * @return the declarations of the methods of the class with the given name
+     */
+    public List<JmmNode> getMethods(String name) {
+        return methodsByName.getOrDefault(name, List.of());
+    }
+
+    private void build(JmmNode node, NodeContext nodeContext) {
+        contexts.put(node, nodeContext);
+
+        for (var child : node.getChildren()) {
+            build(child, nodeContext.child(node, child));
+        }
+    }
+
+    private NodeContext get(JmmNode node) {
+        var nodeContext = contexts.get(node);
+
+        if (nodeContext == null) {
+            var parent = node.getParent();
+            nodeContext = parent == null ? NodeContext.ROOT : get(parent).child(parent, node);
+        }
+
+        return nodeContext;
+    }
+}
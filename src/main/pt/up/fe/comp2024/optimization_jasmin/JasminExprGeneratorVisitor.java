@@ -5,13 +5,16 @@ import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.PostorderJmmVisitor;
 import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.KindTable;
 import pt.up.fe.comp2024.ast.TypeUtils;
 import pt.up.fe.specs.util.SpecsCheck;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiFunction;
 
 public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilder, Void> {
 
@@ -23,16 +26,26 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
     private HashMap<String, Integer> numberOfArrayAccessCall = new HashMap<>();
 
     private final Map<String, Integer> currentRegisters;
+    private final JasminContext context;
 
+    // Visit of each kind of node, resolved once per kind
+    private final KindTable<BiFunction<JmmNode, StringBuilder, Void>> visits = new KindTable<>(super::getVisit);
 
-    public JasminExprGeneratorVisitor(Map<String, Integer> currentRegisters, SymbolTable table, String methodName, int currNumInStack, int maxInStack){
+
+    public JasminExprGeneratorVisitor(Map<String, Integer> currentRegisters, SymbolTable table, JasminContext context, String methodName, int currNumInStack, int maxInStack){
         this.table = table;
+        this.context = context;
         this.currentRegisters = currentRegisters;
         currentMethod = methodName;
         this.currNumInStack = currNumInStack;
         this.maxInStack = maxInStack;
     }
 
+    @Override
+    protected BiFunction<JmmNode, StringBuilder, Void> getVisit(JmmNode node) {
+        return visits.get(node);
+    }
+
     @Override
     protected void buildVisitor() {
         // Using strings to avoid compilation problems in projects that
@@ -137,23 +150,18 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
     }
 
     private Void visitIntegerLiteral(JmmNode integerLiteral, StringBuilder code) {
-        if(integerLiteral.getParent().getKind().equals("ArrayCreationOp")
-                || integerLiteral.getParent().getKind().equals("MemberAccessOp")){
+        var parentKind = Kind.of(integerLiteral.getParent());
+        if(parentKind == Kind.ARRAY_CREATION_OP || parentKind == Kind.MEMBER_ACCESS_OP){
             return null;
         }
-        if(integerLiteral.getParent().getKind().equals("ArrayAccessOp")){
-            if(!integerLiteral.getAncestor("AssignStmt").isEmpty()){
-                var assignStmtLeftSideDescendants = integerLiteral.getAncestor("AssignStmt").get().getChild(0).getDescendants();
-                if(!assignStmtLeftSideDescendants.contains(integerLiteral)){
-                    return null;
-                }
-            }
-        }
-        if(integerLiteral.getAncestor("BinaryExpr").isPresent()){
-            if(integerLiteral.getAncestor("BinaryExpr").get().hasAttribute("value")){
+        if(parentKind == Kind.ARRAY_ACCESS_OP){
+            if(context.getAssignStmt(integerLiteral) != null && !context.isOnAssignLhs(integerLiteral)){
                 return null;
             }
         }
+        if(context.isInFoldedBinaryExpr(integerLiteral)){
+            return null;
+        }
         var value = Integer.parseInt(integerLiteral.get("value"));
         checkConstantSize(value, code);
         return null;
@@ -161,10 +169,8 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
 
     private Void visitBooleanLiteral(JmmNode booleanLiteral, StringBuilder code) {
         String value;
-        if(booleanLiteral.getAncestor("BinaryExpr").isPresent()){
-            if(booleanLiteral.getAncestor("BinaryExpr").get().hasAttribute("value")){
-                return null;
-            }
+        if(context.isInFoldedBinaryExpr(booleanLiteral)){
+            return null;
         }
 
         value = switch (booleanLiteral.get("value")) {
@@ -177,35 +183,28 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
     }
 
     private Void visitIdentifier(JmmNode idExpr, StringBuilder code) {
-        if(idExpr.getParent().getKind().equals("ArrayAccessOp")){
-            if(!idExpr.getAncestor("AssignStmt").isEmpty()){
-                var assignStmtLeftSideDescendants = idExpr.getAncestor("AssignStmt").get().getChild(0).getDescendants();
-                if(!assignStmtLeftSideDescendants.contains(idExpr)){
-                    return null;
-                }
+        if(Kind.ARRAY_ACCESS_OP.check(idExpr.getParent())){
+            if(context.getAssignStmt(idExpr) != null && !context.isOnAssignLhs(idExpr)){
+                return null;
             }
         }
         var name = idExpr.get("value");
         var type = TypeUtils.getExprType(idExpr, table, currentMethod);
         Type fieldType = null;
         String fieldTypeString = "";
-        boolean isField = false;
-        for(var field : table.getFields()) {
-            if (field.getName().equals(name)) {
-                isField = true;
-                fieldType = field.getType();
-                break;
-            }
+        var field = SymbolTableUtils.getField(table, name);
+        boolean isField = field != null;
+        if (isField) {
+            fieldType = field.getType();
         }
-        if(table.getImports().stream().anyMatch(importDecl -> importDecl.equals(name))){
+        if(SymbolTableUtils.isImported(table, name)){
             return null;
         }
-        if (table.getParameters(currentMethod).stream().anyMatch(parameter -> parameter.getName().equals(name)) ||
-                table.getLocalVariables(currentMethod).stream().anyMatch(variable -> variable.getName().equals(name))) {
+        if (SymbolTableUtils.isLocal(table, currentMethod, name)) {
             isField = false;
         }
 
-        if(idExpr.getParent().getKind().equals("MemberAccessOp")) {
+        if(Kind.MEMBER_ACCESS_OP.check(idExpr.getParent())) {
             return null;
         }
 
@@ -263,11 +262,12 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
             default -> throw new NotImplementedException(binaryExpr.get("op"));
         };
 
-        if(binaryExpr.getParent().getKind().equals("IfElseStmt")) {
+        var parentKind = Kind.of(binaryExpr.getParent());
+        if(parentKind == Kind.IF_ELSE_STMT) {
             code.append("if_icmplt").append(" ");
             updateCurrNumInStack(-1);
             return null;
-        } else if(binaryExpr.getParent().getKind().equals("WhileStmt")) {
+        } else if(parentKind == Kind.WHILE_STMT) {
             code.append("if_icmpge").append(" ");
             updateCurrNumInStack(-1);
             return null;
@@ -280,7 +280,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
 
         var parent = binaryExpr.getParent();
 
-        while(parent.getKind().equals("ParenOp")){
+        while(Kind.PAREN_OP.check(parent)){
             parent = parent.getParent();
         }
 
@@ -319,7 +319,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
 
     private Void visitNewOpObject(JmmNode newOp, StringBuilder code) {
         var name = "";
-        if(!newOp.getParent().getKind().equals("ParenOp")){
+        if(!Kind.PAREN_OP.check(newOp.getParent())){
             name = newOp.getParent().getChild(0).get("value");
         }
         var reg = currentRegisters.get(name);
@@ -332,7 +332,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
 
         var program = newOp.getParent();
 
-        while(!program.getKind().equals("Program")) {
+        while(!Kind.PROGRAM.check(program)) {
             program = program.getParent();
         }
 
@@ -386,9 +386,9 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
         boolean isPrimitive = TypeUtils.checkIfTypeIsPrimitive(memberAccessType);
         // get register for object
         var firstChild = memberAccessOp.getChild(0);
-        if(memberAccessOp.getChild(0).getKind().equals("ParenOp")){
+        if(Kind.PAREN_OP.check(memberAccessOp.getChild(0))){
             for(var child: memberAccessOp.getChild(0).getDescendants()){
-                if(!child.getKind().equals("ParenOp")){
+                if(!Kind.PAREN_OP.check(child)){
                     firstChild = child;
                 }
             }
@@ -397,29 +397,26 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
         var reg = currentRegisters.get(name);
 
         // If no mapping, variable has not been assigned yet, create mapping, unless for this and imports
-        if (reg == null && !name.equals("this") && !table.getImports().contains(name)) {
+        if (reg == null && !name.equals("this") && !SymbolTableUtils.isImported(table, name)) {
             reg = currentRegisters.size();
             currentRegisters.put(name, reg);
         }
         // aload object if it is a class method and not directly from import
-        if(!firstChild.getKind().equals("This") && !table.getImports().contains(name)){
+        if(!Kind.THIS.check(firstChild) && !SymbolTableUtils.isImported(table, name)){
             loadALoad(reg, code);
         }
 
         // check for vararg parameters
         boolean hasVarargs = false;
         int numOfDeclParams = 0;
-        var methodDecl = memberAccessOp.getAncestor("ClassDecl").get().getDescendants("MethodDecl");
-        for(var method: methodDecl){
-            if(method.get("name").equals(funcName)){
-                var parameters = method.getChildren("ParamDecl");
-                for(var param: parameters){
-                    numOfDeclParams++;
-                    // check for varargs
-                    var paramType = TypeUtils.getExprType(param, table, currentMethod);
-                    if(paramType.getName().equals("int...")){
-                        hasVarargs = true;
-                    }
+        for(var method: context.getMethods(funcName)){
+            var parameters = method.getChildren("ParamDecl");
+            for(var param: parameters){
+                numOfDeclParams++;
+                // check for varargs
+                var paramType = TypeUtils.getExprType(param, table, currentMethod);
+                if(paramType.getName().equals("int...")){
+                    hasVarargs = true;
                 }
             }
         }
@@ -430,9 +427,9 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
         var numOfParams = memberAccessOp.getNumChildren() - 1;
         for(var child : memberAccessOp.getChildren().subList(1, memberAccessOp.getNumChildren())) {
             count++;
-            if (child.getKind().equals("ParenOp")) {
+            if (Kind.PAREN_OP.check(child)) {
                 for (var grandChild : child.getDescendants()) {
-                    if (!grandChild.getKind().equals("ParenOp")) {
+                    if (!Kind.PAREN_OP.check(grandChild)) {
                         child = grandChild;
                     }
                 }
@@ -455,42 +452,36 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
                 updateCurrNumInStack(1);
             } else {
                 var idType = TypeUtils.getExprType(child, table, currentMethod);
+                var childKind = Kind.of(child);
                 String childName;
 
-                if (child.getKind().equals("LengthOp")) {
+                if (childKind == Kind.LENGTH_OP) {
                     childName = child.getChild(0).get("value") + ".length";
-                } else if (child.getKind().equals("ArrayAccessOp")) {
+                } else if (childKind == Kind.ARRAY_ACCESS_OP) {
                     childName = child.getChild(0).get("value");
-                } else if (child.getKind().equals("BinaryExpr")) {
+                } else if (childKind == Kind.BINARY_EXPR) {
                     if (currentRegisters.containsValue(0)) reg = currentRegisters.size();
                     else reg = currentRegisters.size() + 1;
 
                     currentRegisters.put("temp_" + reg, reg);
                     loadIStore(reg, code);
                     childName = "temp_" + reg;
-                } else if (child.getKind().equals("ArrayCreationOp")) {
+                } else if (childKind == Kind.ARRAY_CREATION_OP) {
                     childName = "";
-                } else if (child.getKind().equals("UnaryOp")){
+                } else if (childKind == Kind.UNARY_OP){
                     childName = child.getChild(0).get("value");
-                } else if (!child.getKind().equals("MemberAccessOp")) {
+                } else if (childKind != Kind.MEMBER_ACCESS_OP) {
                     childName = child.get("value");
                 } else {
                     childName = child.get("func");
 
                 }
 
-                boolean isField = false;
-                Type fieldType = null;
+                var field = SymbolTableUtils.getField(table, childName);
+                boolean isField = field != null;
+                Type fieldType = isField ? field.getType() : null;
                 String fieldTypeString = "";
-                for (var field : table.getFields()) {
-                    if (field.getName().equals(childName)) {
-                        isField = true;
-                        fieldType = field.getType();
-                        break;
-                    }
-                }
-                if (table.getParameters(currentMethod).stream().anyMatch(parameter -> parameter.getName().equals(childName)) ||
-                        table.getLocalVariables(currentMethod).stream().anyMatch(variable -> variable.getName().equals(childName))) {
+                if (SymbolTableUtils.isLocal(table, currentMethod, childName)) {
                     isField = false;
                 }
 
@@ -518,7 +509,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
                     loadIStore(reg, code);
                     loadILoad(reg, code);
                 } else {
-                    if (!child.getKind().equals("IntegerLiteral") && !child.getKind().equals("BooleanLiteral") && !child.getKind().equals("ArrayCreationOp")) {
+                    if (childKind != Kind.INTEGER_LITERAL && childKind != Kind.BOOLEAN_LITERAL && childKind != Kind.ARRAY_CREATION_OP) {
 
                         reg = currentRegisters.get(childName);
 
@@ -528,7 +519,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
                             currentRegisters.put(childName, reg);
                         }
 
-                        if (child.getKind().equals("ArrayAccessOp")) {
+                        if (childKind == Kind.ARRAY_ACCESS_OP) {
                             // do nothing
                         } else if (idType.getName().equals(TypeUtils.getIntTypeName()) && !idType.isArray()) {
                             loadILoad(currentRegisters.get(childName), code);
@@ -537,20 +528,20 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
                         } else {
                             loadALoad(currentRegisters.get(childName), code);
                         }
-                    } else if (child.getKind().equals("IntegerLiteral")) {
+                    } else if (childKind == Kind.INTEGER_LITERAL) {
                         checkConstantSize(Integer.parseInt(child.get("value")), code);
                     }
                 }
             }
         }
 
-        if(firstChild.getKind().equals("This")){
+        if(Kind.THIS.check(firstChild)){
             code.append("invokevirtual ");
             updateCurrNumInStack(-1);
             updateCurrNumInStack(-numOfParams);
             updateCurrNumInStack(1);
         }
-        else if(table.getImports().contains(name) || table.getMethods().contains(memberAccessType.getName())){
+        else if(SymbolTableUtils.isImported(table, name) || table.getMethods().contains(memberAccessType.getName())){
             code.append("invokestatic ");
             updateCurrNumInStack(-numOfParams);
             updateCurrNumInStack(1);
@@ -568,7 +559,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
         else{
             var importNode = memberAccessOp.getParent();
 
-            while(!importNode.getKind().equals("Program")) {
+            while(!Kind.PROGRAM.check(importNode)) {
                 importNode = importNode.getParent();
             }
 
@@ -609,9 +600,9 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
                     }
                 } else if (paramType.getName().equals(TypeUtils.getBooleanTypeName())) {
                     code.append("Z");
-                } else if (table.getImports().contains(paramType.getName())) {
+                } else if (SymbolTableUtils.isImported(table, paramType.getName())) {
                     var program = memberAccessOp.getParent();
-                    while (!program.getKind().equals("Program")) {
+                    while (!Kind.PROGRAM.check(program)) {
                         program = program.getParent();
                     }
                     var classes = "";
@@ -645,13 +636,13 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
                 break;
         }
 
-        boolean isReturn = !memberAccessOp.getParent().getKind().equals("ExprStmt");
-        if(isReturn && !memberAccessOp.getAncestor("BinaryExpr").isPresent()){
+        boolean isReturn = !Kind.EXPR_STMT.check(memberAccessOp.getParent());
+        if(isReturn && context.getBinaryExpr(memberAccessOp) == null){
             code.append(NL);
             // Return store
-            if(TypeUtils.checkIfTypeIsPrimitive(TypeUtils.getExprType(memberAccessOp, table, currentMethod)) && !memberAccessOp.getAncestor("BinaryExpr").isPresent()){
-                if(memberAccessOp.getAncestor("AssignStmt").isPresent() && !memberAccessOp.getAncestor("MemberAccessOp").isPresent()){
-                    name = memberAccessOp.getAncestor("AssignStmt").get().getChild(0).get("value");
+            if(TypeUtils.checkIfTypeIsPrimitive(TypeUtils.getExprType(memberAccessOp, table, currentMethod)) && context.getBinaryExpr(memberAccessOp) == null){
+                if(context.getAssignStmt(memberAccessOp) != null && !context.isInMemberAccess(memberAccessOp)){
+                    name = context.getAssignStmt(memberAccessOp).getChild(0).get("value");
                     reg = currentRegisters.get(name);
 
                     // If no mapping, variable has not been assigned yet, create mapping
@@ -674,8 +665,8 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
                 }
             }
             else{
-                if(memberAccessOp.getAncestor("AssignStmt").isPresent() && !memberAccessOp.getAncestor("MemberAccessOp").isPresent()){
-                    name = memberAccessOp.getAncestor("AssignStmt").get().getChild(0).get("value");
+                if(context.getAssignStmt(memberAccessOp) != null && !context.isInMemberAccess(memberAccessOp)){
+                    name = context.getAssignStmt(memberAccessOp).getChild(0).get("value");
                     reg = currentRegisters.get(name);
 
                     // If no mapping, variable has not been assigned yet, create mapping
@@ -698,7 +689,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
                 }
             }
         }
-        else if(isReturn && memberAccessOp.getAncestor("BinaryExpr").isPresent()){
+        else if(isReturn && context.getBinaryExpr(memberAccessOp) != null){
             code.append(NL);
             if(currentRegisters.containsValue(0)) reg = currentRegisters.size();
             else reg = currentRegisters.size() + 1;
@@ -718,7 +709,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
     }
 
     private Void visitThisExpr(JmmNode thisExpr, StringBuilder code) {
-        if(thisExpr.getParent().getKind().equals("AssignStmt")){
+        if(Kind.ASSIGN_STMT.check(thisExpr.getParent())){
             code.append("new ").append(table.getClassName()).append(NL);
             code.append("dup").append(NL);
             updateCurrNumInStack(2);
@@ -760,9 +751,10 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
         code.append("arraylength").append(NL);
         updateCurrNumInStack(-1);
         updateCurrNumInStack(1);
-        if(!lengthOp.getParent().getKind().equals("BinaryExpr")) {
+        var parentKind = Kind.of(lengthOp.getParent());
+        if(parentKind != Kind.BINARY_EXPR) {
             loadIStore(reg, code);
-            if (lengthOp.getParent().getKind().equals("AssignStmt")) {
+            if (parentKind == Kind.ASSIGN_STMT) {
                 loadILoad(reg, code);
             }
         }
@@ -770,7 +762,8 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
     }
 
     private Void visitArrayAccessOp(JmmNode arrayAccessOp, StringBuilder code) {
-        if(arrayAccessOp.getParent().getKind().equals("ReturnStmt")){
+        var parentKind = Kind.of(arrayAccessOp.getParent());
+        if(parentKind == Kind.RETURN_STMT){
             var reg = currentRegisters.get(arrayAccessOp.getChild(0).get("value"));
 
             // If no mapping, variable has not been assigned yet, create mapping
@@ -784,7 +777,7 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
             updateCurrNumInStack(-2);
             updateCurrNumInStack(1);
         }
-        else if(arrayAccessOp.getParent().getKind().equals("MemberAccessOp")){
+        else if(parentKind == Kind.MEMBER_ACCESS_OP){
             switch(arrayAccessOp.getChild(1).getKind()){
                 case "BinaryExpr":
                     // store the binary result
@@ -980,15 +973,15 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
             currentRegisters.put(arrayCreationOp.getParent().getChild(0).get("value"), reg);
         }
 
-        if(!arrayCreationOp.getParent().getKind().equals("MemberAccessOp")) {
+        if(!Kind.MEMBER_ACCESS_OP.check(arrayCreationOp.getParent())) {
             loadAStore(reg, code);
         }
         return null;
     }
 
     private Void visitUnaryOp(JmmNode unaryOp, StringBuilder code) {
-        if(unaryOp.getAncestor("AssignStmt").isPresent()) {
-            var reg = unaryOp.getAncestor("AssignStmt").get().getChild(0).get("value"); // what if its array access?
+        if(context.getAssignStmt(unaryOp) != null) {
+            var reg = context.getAssignStmt(unaryOp).getChild(0).get("value"); // what if its array access?
             var regInt = currentRegisters.get(reg);
             code.append("iconst_1").append(NL); // For ixor purposes
             code.append("ixor").append(NL);
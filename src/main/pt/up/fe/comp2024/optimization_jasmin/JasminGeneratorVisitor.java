@@ -5,12 +5,18 @@ import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.KindTable;
 import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.backend.JasminWriter;
+import pt.up.fe.comp2024.jfr.CompilerEvent;
+import pt.up.fe.comp2024.jfr.JasminMethodEvent;
 import pt.up.fe.specs.util.SpecsCheck;
-import pt.up.fe.specs.util.utilities.StringLines;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
 
 public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
 
@@ -18,8 +24,11 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
     private static final String TAB = "   ";
 
     private final SymbolTable table;
+    private final String inputFile;
+    private final ForkJoinPool pool;
 
     private JasminExprGeneratorVisitor exprGenerator;
+    private JasminContext context;
 
     private String currentMethod;
     private int nextRegister;
@@ -28,15 +37,67 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
 
     private Map<String, Integer> currentRegisters;
 
+    // Code of the statements of the current method, reused between methods. The limits of a method are only known
+    // after generating its statements, but must be written before them
+    private final StringBuilder methodBody;
+
+    // Visit of each kind of node, resolved once per kind
+    private final KindTable<BiFunction<JmmNode, Void, String>> visits = new KindTable<>(super::getVisit);
+
     public JasminGeneratorVisitor(SymbolTable table) {
+        this(table, "");
+    }
+
+    /**
+     * @param inputFile the file being compiled, reported in the {@link JasminMethodEvent} of each method
+     */
+    public JasminGeneratorVisitor(SymbolTable table, String inputFile) {
+        this(table, inputFile, (ForkJoinPool) null);
+    }
+
+    /**
+     * @param inputFile the file being compiled, reported in the {@link JasminMethodEvent} of each method
+     * @param pool      where the methods of the class are generated concurrently, or null to generate them one at a
+     *                  time
+     */
+    public JasminGeneratorVisitor(SymbolTable table, String inputFile, ForkJoinPool pool) {
         this.table = table;
+        this.inputFile = inputFile;
+        this.pool = pool;
         this.exprGenerator = null;
         currentMethod = null;
         nextRegister = -1;
         currentRegisters = null;
+        this.methodBody = new StringBuilder();
+    }
+
+    /**
+     * Generates a single method of a class, with the context of the class. Since the visitor keeps the state of the
+     * method it is generating, each method generated concurrently has a visitor of its own.
+     */
+    private JasminGeneratorVisitor(SymbolTable table, String inputFile, JasminContext context) {
+        this(table, inputFile, (ForkJoinPool) null);
+        this.context = context;
+    }
+
+    /**
+     * Writes the Jasmin code of the program to the output as it is generated, instead of building it in memory.
+     *
+     * @param program
+     * @param out
+     */
+    public void write(JmmNode program, Appendable out) {
+        Kind.PROGRAM.checkOrThrow(program);
+
+        writeClassDecl(program.getChildren(Kind.CLASS_DECL).get(0), new JasminWriter(out, TAB));
     }
 
 
+    @Override
+    protected BiFunction<JmmNode, Void, String> getVisit(JmmNode node) {
+        return visits.get(node);
+    }
+
     @Override
     protected void buildVisitor() {
         // Using strings to avoid compilation problems in projects that
@@ -53,7 +114,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
     }
 
     private void updateRegisters(JmmNode AssignStmt) {
-        var methodDecl = AssignStmt.getAncestor("MethodDecl").get();
+        var methodDecl = context.getMethodDecl(AssignStmt);
         var noDuplicateRegisterNumbers = new HashMap<String, Integer>();
 
         // check for duplicate registers
@@ -96,10 +157,17 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
 
     private String visitClassDecl(JmmNode classDecl, Void unused) {
         var code = new StringBuilder();
+        writeClassDecl(classDecl, new JasminWriter(code, TAB));
+
+        return code.toString();
+    }
+
+    private void writeClassDecl(JmmNode classDecl, JasminWriter code) {
+        context = JasminContext.build(classDecl);
 
         // generate class name
         var className = table.getClassName();
-        code.append(".class ").append(className).append(NL);
+        code.append(".class ").append(className).newLine();
         var superClass = "empty";
 
         // generate super class if it exists
@@ -117,11 +185,11 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
                     break;
                 }
             }
-            code.append(".super ").append(classes).append(NL);
+            code.append(".super ").append(classes).newLine();
             superClass = "invokespecial " + classes +"/<init>()V\n";
         }
         else{
-            code.append(".super java/lang/Object").append(NL);
+            code.append(".super java/lang/Object").newLine();
             superClass = "invokespecial java/lang/Object/<init>()V\n";
         }
 
@@ -140,12 +208,12 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
                     auxfield = "Z";
                     break;
                 default:
-                    if(table.getImports().contains(fieldType.getName()))
+                    if(SymbolTableUtils.isImported(table, fieldType.getName()))
                         auxfield = getImport(classDecl, fieldType);
                         auxfield = "L"+auxfield+";";
                     break;
             }
-            code.append(".field public "+fieldName+" "+auxfield).append(NL);
+            code.append(".field public "+fieldName+" "+auxfield).newLine();
 
         }
 
@@ -161,11 +229,31 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
         code.append(defaultConstructor);
 
         // generate code for all other methods
-        for (var method : classDecl.getChildren("MethodDecl")) {
-            code.append(visit(method));
+        writeMethodDecls(classDecl.getChildren("MethodDecl"), code);
+    }
+
+    private void writeMethodDecls(List<JmmNode> methodDecls, JasminWriter code) {
+        if (pool == null || methodDecls.size() < 2) {
+            for (var method : methodDecls) {
+                writeMethodDecl(method, code);
+            }
+            return;
         }
 
-        return code.toString();
+        var tasks = new ArrayList<ForkJoinTask<StringBuilder>>();
+        for (var method : methodDecls) {
+            tasks.add(pool.submit(() -> {
+                var methodCode = new StringBuilder();
+                new JasminGeneratorVisitor(table, inputFile, context)
+                        .writeMethodDecl(method, new JasminWriter(methodCode, TAB));
+                return methodCode;
+            }));
+        }
+
+        // In the order of the declarations, as when generated one at a time
+        for (var task : tasks) {
+            code.append(task.join());
+        }
     }
 
     private int calculateLocals(JmmNode methodDecl){
@@ -189,6 +277,17 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
     }
 
     private String visitMethodDecl(JmmNode methodDecl, Void unused) {
+        var code = new StringBuilder();
+        writeMethodDecl(methodDecl, new JasminWriter(code, TAB));
+
+        return code.toString();
+    }
+
+    private void writeMethodDecl(JmmNode methodDecl, JasminWriter code) {
+        var event = new JasminMethodEvent();
+        event.begin();
+        var start = code.length();
+
         var methodName = methodDecl.get("name");
         // set method
         currentMethod = methodName;
@@ -209,17 +308,18 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
         currNumInStack = 0;
         maxInStack = 0;
 
-        exprGenerator = new JasminExprGeneratorVisitor(currentRegisters, table, currentMethod, currNumInStack, maxInStack);
-
-        var code = new StringBuilder();
+        if(context == null){
+            context = JasminContext.build(methodDecl.getParent());
+        }
+        exprGenerator = new JasminExprGeneratorVisitor(currentRegisters, table, context, currentMethod, currNumInStack, maxInStack);
 
         // calculate modifier
         var modifier = methodDecl.getObject("isPublic", Boolean.class) ? "public " : "";
 
         if(methodDecl.getObject("isStatic",Boolean.class))
-            code.append("\n.method ").append(modifier).append("static ").append(methodName).append("(");
+            code.newLine().append(".method ").append(modifier).append("static ").append(methodName).append("(");
         else
-            code.append("\n.method ").append(modifier).append(methodName).append("(");
+            code.newLine().append(".method ").append(modifier).append(methodName).append("(");
 
         String classes = "empty";
         for(var param : methodDecl.getChildren("ParamDecl")){
@@ -243,7 +343,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
                 default:
                     var importNode = methodDecl.getParent();
 
-                    while(!importNode.getKind().equals("Program")) {
+                    while(!Kind.PROGRAM.check(importNode)) {
                         importNode = importNode.getParent();
                     }
 
@@ -282,7 +382,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
                 code.append(")V").append(NL);
                 break;
             default:
-                if(table.getImports().contains(returnType.getName())){
+                if(SymbolTableUtils.isImported(table, returnType.getName())){
                     var auxclasses = getImport(methodDecl, returnType);
                     code.append(")L").append(auxclasses).append(";").append(NL);
                 }
@@ -290,27 +390,26 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
         }
 
         // generate code for all statements
-        var code_rest = new StringBuilder();
+        methodBody.setLength(0);
+        var code_rest = new JasminWriter(methodBody, TAB);
 
         for (var stmt : methodDecl.getChildren("Stmt")) {
-            // Get code for statement, split into lines and insert the necessary indentation
-            var instCode = StringLines.getLines(visit(stmt)).stream()
-                    .collect(Collectors.joining(NL + TAB, TAB, NL));
-            code_rest.append(instCode);
-            if(stmt.getKind().equals("IfElseStmt") || stmt.getKind().equals("WhileStmt")) { //Label for code to jump into after if statement
-                code_rest.append(TAB).append(createReverseLabelName(stmt)).append(":").append(NL);
+            // Get code for statement, the writer inserts the necessary indentation
+            code_rest.lines(visit(stmt));
+            if(Kind.check(stmt, Kind.IF_ELSE_STMT, Kind.WHILE_STMT)) { //Label for code to jump into after if statement
+                code_rest.line(createReverseLabelName(stmt) + ":");
             }
         }
 
         if(returnType.getName().equals("void"))
-            code_rest.append("\treturn").append(NL);
+            code_rest.append("\treturn").newLine();
 
-        code_rest.append(".end method\n");
+        code_rest.append(".end method").newLine();
 
         //code.append(".limit stack 99").append(NL);
-        code.append(".limit stack ").append(exprGenerator.getMaxInStack()).append(NL);
+        code.append(".limit stack ").append(exprGenerator.getMaxInStack()).newLine();
         var locals = calculateLocals(methodDecl);
-        code.append(".limit locals ").append(locals).append(NL);
+        code.append(".limit locals ").append(locals).newLine();
 
         // reset information
         exprGenerator = null;
@@ -318,9 +417,15 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
         currentRegisters = null;
         currentMethod = null;
 
-        code.append(code_rest);
+        code.append(methodBody);
 
-        return code.toString();
+        if (event.shouldCommit()) {
+            event.inputFile = inputFile;
+            event.method = methodName;
+            event.nodes = CompilerEvent.countNodes(methodDecl);
+            event.outputChars = (int) (code.length() - start);
+            event.commit();
+        }
     }
 
     private String createReverseLabelName(JmmNode ifElseStmt) {
@@ -343,7 +448,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
         var code = new StringBuilder();
         var stmt = exprStmt.getChild(0);
 
-        if (stmt.getKind().equals("MemberAccessOp")) {
+        if (Kind.MEMBER_ACCESS_OP.check(stmt)) {
             // store value in top of the stack in destination
             var lhs = stmt.getChild(0);
             SpecsCheck.checkArgument(lhs.isInstance("Identifier") || lhs.isInstance("This") || lhs.isInstance("ParenOp"), () -> "Expected a node of type 'Identifier', but instead got '" + lhs.getKind() + "'");
@@ -353,7 +458,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
             // get register
             var reg = currentRegisters.get(destName);
 
-            if(!table.getImports().stream().anyMatch(importDecl -> importDecl.equals(destName))) {
+            if(!SymbolTableUtils.isImported(table, destName)) {
                 // If no mapping, variable has not been assigned yet, create mapping
                 if (reg == null) {
                     reg = nextRegister;
@@ -372,11 +477,11 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
         var lhs = assignStmt.getChild(0);
         var childExpr = assignStmt.getChild(1);
 
-        while(childExpr.getKind().equals("ParenOp")){
+        while(Kind.PAREN_OP.check(childExpr)){
             childExpr = childExpr.getChild(0);
         }
 
-        if(childExpr.getKind().equals("BinaryExpr")){
+        if(Kind.BINARY_EXPR.check(childExpr)){
             var operator = childExpr.get("op");
             if(operator.equals("+") || operator.equals("-")){
                 if(childExpr.getDescendants("IntegerLiteral").size() == 1 && childExpr.getDescendants("Identifier").size() == 1){
@@ -393,11 +498,10 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
 
     private void checkForField(String destName, StringBuilder code){
         var isField = false;
-        if(table.getFields().stream().anyMatch(param -> param.getName().equals(destName))){
+        if(SymbolTableUtils.getField(table, destName) != null){
             isField = true;
         }
-        if(table.getParameters(currentMethod).stream().anyMatch(param -> param.getName().equals(destName)) ||
-                table.getLocalVariables(currentMethod).stream().anyMatch(varDecl -> varDecl.getName().equals(destName))) {
+        if(SymbolTableUtils.isLocal(table, currentMethod, destName)) {
             isField = false;
         }
 
@@ -474,8 +578,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
                     break;
                 }
             }
-            if(table.getParameters(currentMethod).stream().anyMatch(param -> param.getName().equals(destName)) ||
-                    table.getLocalVariables(currentMethod).stream().anyMatch(varDecl -> varDecl.getName().equals(destName))) {
+            if(SymbolTableUtils.isLocal(table, currentMethod, destName)) {
                 isField = false;
             }
 
@@ -513,7 +616,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
 
         // generate code that will put the value of the return on the top of the stack
         exprGenerator.visit(returnStmt.getChild(0), code);
-        var returnType = table.getReturnType(returnStmt.getAncestor("MethodDecl").get().get("name"));
+        var returnType = table.getReturnType(context.getMethodDecl(returnStmt).get("name"));
 
         switch(returnType.getName()){
             case "int", "boolean":
@@ -532,7 +635,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
     private String getImport(JmmNode node, Type type){
         var auxclasses = "";
         var program = node.getParent();
-        while(!program.getKind().equals("Program")) {
+        while(!Kind.PROGRAM.check(program)) {
             program = program.getParent();
         }
         for(var imports: program.getChildren(Kind.IMPORT_DECL.getNodeName())){
@@ -555,12 +658,12 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
         String labelName = createLabelName(ifElseStmt);
         JmmNode masterLbl = ifElseStmt;
         String goToLabelName;
-        if(masterLbl.getAncestor("WhileStmt").isPresent()) {
+        if(context.getWhileStmt(masterLbl) != null) {
             //generate code that codes to rest of while loop
-            goToLabelName = createLabelName(masterLbl.getAncestor("WhileStmt").get());
+            goToLabelName = createLabelName(context.getWhileStmt(masterLbl));
             goToLabelName += "_rest";
         } else {
-            while(!masterLbl.getParent().getKind().equals("MethodDecl")) {
+            while(!Kind.METHOD_DECL.check(masterLbl.getParent())) {
                 masterLbl = masterLbl.getParent();
             }
             goToLabelName = createReverseLabelName(masterLbl);
@@ -569,10 +672,11 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
 
         // add compare instruction
         var comp = ifElseStmt.getChild(0);
-        if(comp.getKind().equals("BinaryExpr")) {
+        var compKind = Kind.of(comp);
+        if(compKind == Kind.BINARY_EXPR) {
             exprGenerator.visit(ifElseStmt.getChild(0), code);
             code.append(labelName).append(NL);
-        } else if(comp.getKind().equals("BooleanLiteral") || comp.getKind().equals("Identifier")) {
+        } else if(compKind == Kind.BOOLEAN_LITERAL || compKind == Kind.IDENTIFIER) {
             exprGenerator.visit(comp, code);
             code.append("ifne ").append(labelName).append(NL);
         }
@@ -595,7 +699,7 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
 
         //label to jump to after loop
         JmmNode masterLbl = whileStmt;
-        while(!masterLbl.getParent().getKind().equals("MethodDecl")) {
+        while(!Kind.METHOD_DECL.check(masterLbl.getParent())) {
             masterLbl = masterLbl.getParent();
         }
         String goToLabelName = createReverseLabelName(masterLbl);
@@ -613,11 +717,11 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
     }
 
     private void dealWithStatements(JmmNode trueOrFalseStmt, StringBuilder code, String labelName, boolean stmt) {
-        //if(trueOrFalseStmt.getKind().equals("BinaryExpr")) exprGenerator.visit(trueOrFalseStmt.getChild(0), code);
+        //if(Kind.BINARY_EXPR.check(trueOrFalseStmt)) exprGenerator.visit(trueOrFalseStmt.getChild(0), code);
 
         if(!stmt) {
             dealWithStatementsHelper(trueOrFalseStmt, code);
-            if(!trueOrFalseStmt.getChild(0).getKind().equals("IfElseStmt") || trueOrFalseStmt.getParent().getKind().equals("IfElseStmt"))
+            if(!Kind.IF_ELSE_STMT.check(trueOrFalseStmt.getChild(0)) || Kind.IF_ELSE_STMT.check(trueOrFalseStmt.getParent()))
                 code.append("goto ").append(labelName).append(NL);
         } else {
             code.append(createLabelName(trueOrFalseStmt.getParent())).append(": ").append(NL);
@@ -626,25 +730,27 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
     }
 
     private void dealWithStatementsHelper(JmmNode trueOrFalseStmt, StringBuilder code) {
-        if(trueOrFalseStmt.getKind().equals("BlockStmt")) { //If there is a block of instructions, iterate through them
+        var stmtKind = Kind.of(trueOrFalseStmt);
+        if(stmtKind == Kind.BLOCK_STMT) { //If there is a block of instructions, iterate through them
             for(JmmNode exprStmt : trueOrFalseStmt.getChildren()) {
-                if(exprStmt.getKind().equals("IfElseStmt") && exprStmt.getAncestor("WhileStmt").isPresent()) {
+                var exprStmtKind = Kind.of(exprStmt);
+                if(exprStmtKind == Kind.IF_ELSE_STMT && context.getWhileStmt(exprStmt) != null) {
                     //Visit the IfElseStmt
                     code.append(visit(exprStmt));
                     //Generate label for the rest of the while code
-                    code.append(createLabelName(exprStmt.getAncestor("WhileStmt").get())).append("_rest:").append(NL);
-                } else if(exprStmt.getKind().equals("IfElseStmt") ||
-                        exprStmt.getKind().equals("WhileStmt") ||
-                        exprStmt.getKind().equals("AssignStmt"))
+                    code.append(createLabelName(context.getWhileStmt(exprStmt))).append("_rest:").append(NL);
+                } else if(exprStmtKind == Kind.IF_ELSE_STMT ||
+                        exprStmtKind == Kind.WHILE_STMT ||
+                        exprStmtKind == Kind.ASSIGN_STMT)
                     code.append(visit(exprStmt));
-                else if(exprStmt.getKind().equals("ExprStmt"))
+                else if(exprStmtKind == Kind.EXPR_STMT)
                     exprGenerator.visit(exprStmt.getChild(0), code);
             }
-        } else if(trueOrFalseStmt.getKind().equals("ExprStmt")) {
+        } else if(stmtKind == Kind.EXPR_STMT) {
             exprGenerator.visit(trueOrFalseStmt.getChild(0), code);
-        } else if(trueOrFalseStmt.getKind().equals("IfElseStmt") ||
-                trueOrFalseStmt.getKind().equals("WhileStmt") ||
-                trueOrFalseStmt.getKind().equals("AssignStmt")) {
+        } else if(stmtKind == Kind.IF_ELSE_STMT ||
+                stmtKind == Kind.WHILE_STMT ||
+                stmtKind == Kind.ASSIGN_STMT) {
             code.append(visit(trueOrFalseStmt));
         }
     }
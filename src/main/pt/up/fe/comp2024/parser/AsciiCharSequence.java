@@ -0,0 +1,75 @@
+package pt.up.fe.comp2024.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link CharSequence} view over a buffer of ASCII bytes (e.g. a memory-mapped file), where each byte is a
+ * character. No characters are copied, except by {@link #toString()}.
+ */
+public class AsciiCharSequence implements CharSequence {
+
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    public AsciiCharSequence(ByteBuffer bytes) {
+        this(bytes, 0, bytes.limit());
+    }
+
+    private AsciiCharSequence(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return true if all the bytes of the buffer are ASCII, i.e. if the buffer can be read as an AsciiCharSequence
+     */
+    public static boolean isAscii(ByteBuffer bytes) {
+        for (int i = 0; i < bytes.limit(); i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return a read-only view of the bytes of this sequence
+     */
+    public ByteBuffer getBytes() {
+        return bytes.asReadOnlyBuffer().position(offset).limit(offset + length).slice();
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        return (char) bytes.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("[" + start + ", " + end + ") of " + length);
+        }
+
+        return new AsciiCharSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        var chars = new byte[length];
+        bytes.get(offset, chars);
+        return new String(chars, StandardCharsets.US_ASCII);
+    }
+}
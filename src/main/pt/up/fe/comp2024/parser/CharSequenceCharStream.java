@@ -0,0 +1,97 @@
+package pt.up.fe.comp2024.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * A {@link CharStream} view over a {@link CharSequence}, which, unlike ANTLRInputStream, does not copy the characters
+ * into an array of its own.
+ */
+public class CharSequenceCharStream implements CharStream {
+
+    private final CharSequence data;
+    private final String sourceName;
+    private int index;
+
+    public CharSequenceCharStream(CharSequence data) {
+        this(data, IntStream.UNKNOWN_SOURCE_NAME);
+    }
+
+    public CharSequenceCharStream(CharSequence data, String sourceName) {
+        this.data = data;
+        this.sourceName = sourceName;
+        this.index = 0;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = interval.a;
+        int stop = Math.min(interval.b, data.length() - 1);
+
+        if (start >= data.length() || stop < start) {
+            return "";
+        }
+
+        return data.subSequence(start, stop + 1).toString();
+    }
+
+    @Override
+    public void consume() {
+        if (index >= data.length()) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        index++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+
+        // Negative offsets look behind, -1 is the previous character
+        int position = i < 0 ? index + i : index + i - 1;
+
+        if (position < 0 || position >= data.length()) {
+            return IntStream.EOF;
+        }
+
+        return data.charAt(position);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public void seek(int index) {
+        this.index = Math.min(index, data.length());
+    }
+
+    @Override
+    public int size() {
+        return data.length();
+    }
+
+    @Override
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    @Override
+    public String toString() {
+        return data.toString();
+    }
+}
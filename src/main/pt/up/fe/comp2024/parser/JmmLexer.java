@@ -0,0 +1,422 @@
+package pt.up.fe.comp2024.parser;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+import pt.up.fe.comp2024.JavammLexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hand-written lexer for the tokens of Javamm.g4, a drop-in replacement for the generated {@link JavammLexer}.
+ * <p>
+ * The whole input is scanned on the first request for a token, keeping the type, start, stop, line and column of each
+ * token in primitive arrays. {@link Token} objects are only created when requested, and their text is only extracted
+ * from the input when asked for. Produces the same tokens and lexical errors as the generated lexer, including its
+ * longest-match behavior (e.g. an unterminated comment is lexed as '/' and '*').
+ */
+public class JmmLexer implements TokenSource {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final CharSequence code;
+    private final CharStream input;
+    private final Pair<TokenSource, CharStream> source;
+    private final List<ANTLRErrorListener> listeners;
+
+    private TokenFactory<?> factory;
+
+    // Tokens, including the final EOF
+    private int[] types;
+    private int[] starts;
+    private int[] stops;
+    private int[] lines;
+    private int[] columns;
+    private int numTokens;
+    private boolean scanned;
+
+    // Index of the next token returned by nextToken()
+    private int next;
+
+    // Scanning state
+    private int index;
+    private int line;
+    private int lineStart;
+    private boolean unterminatedComment;
+
+    public JmmLexer(CharSequence code) {
+        this.code = code;
+        this.input = new CharSequenceCharStream(code);
+        this.source = new Pair<>(this, input);
+        this.listeners = new ArrayList<>();
+        this.factory = CommonTokenFactory.DEFAULT;
+
+        this.types = new int[INITIAL_CAPACITY];
+        this.starts = new int[INITIAL_CAPACITY];
+        this.stops = new int[INITIAL_CAPACITY];
+        this.lines = new int[INITIAL_CAPACITY];
+        this.columns = new int[INITIAL_CAPACITY];
+        this.numTokens = 0;
+        this.scanned = false;
+        this.next = 0;
+
+        this.index = 0;
+        this.line = 1;
+        this.lineStart = 0;
+        this.unterminatedComment = false;
+    }
+
+    /**
+     * Adds a listener for lexical errors. Must be called before the first token is requested.
+     */
+    public void addErrorListener(ANTLRErrorListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return the number of tokens, including EOF
+     */
+    public int size() {
+        scan();
+        return numTokens;
+    }
+
+    public int getType(int token) {
+        scan();
+        return types[token];
+    }
+
+    public int getStartIndex(int token) {
+        scan();
+        return starts[token];
+    }
+
+    public int getStopIndex(int token) {
+        scan();
+        return stops[token];
+    }
+
+    public int getLine(int token) {
+        scan();
+        return lines[token];
+    }
+
+    public int getCharPositionInLine(int token) {
+        scan();
+        return columns[token];
+    }
+
+    public String getText(int token) {
+        scan();
+        return types[token] == Token.EOF ? "<EOF>" : code.subSequence(starts[token], stops[token] + 1).toString();
+    }
+
+    public Token getToken(int token) {
+        scan();
+        return factory.create(source, types[token], null, Token.DEFAULT_CHANNEL, starts[token], stops[token],
+                lines[token], columns[token]);
+    }
+
+    @Override
+    public Token nextToken() {
+        scan();
+
+        // After the end, keep returning EOF
+        var token = getToken(next);
+        if (next < numTokens - 1) {
+            next++;
+        }
+
+        return token;
+    }
+
+    @Override
+    public int getLine() {
+        scan();
+        return lines[next];
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        scan();
+        return columns[next];
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        return input;
+    }
+
+    @Override
+    public String getSourceName() {
+        return input.getSourceName();
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+        return factory;
+    }
+
+    private void scan() {
+        if (scanned) {
+            return;
+        }
+
+        scanned = true;
+
+        int length = code.length();
+        while (index < length) {
+            scanToken(code.charAt(index));
+        }
+
+        addToken(Token.EOF, index, index - 1, line, index - lineStart);
+    }
+
+    private void scanToken(char current) {
+        int start = index;
+        int startLine = line;
+        int startColumn = index - lineStart;
+
+        switch (current) {
+            case ' ', '\t', '\r', '\f' -> index++;
+            case '\n' -> newLine();
+            case '=' -> addSingle(JavammLexer.EQUALS);
+            case ';' -> addSingle(JavammLexer.SEMI);
+            case '{' -> addSingle(JavammLexer.LCURLY);
+            case '}' -> addSingle(JavammLexer.RCURLY);
+            case '(' -> addSingle(JavammLexer.LPAREN);
+            case ')' -> addSingle(JavammLexer.RPAREN);
+            case '*' -> addSingle(JavammLexer.MUL);
+            case '+' -> addSingle(JavammLexer.ADD);
+            case '-' -> addSingle(JavammLexer.SUB);
+            case '.' -> addSingle(JavammLexer.DOT);
+            case '[' -> addSingle(JavammLexer.LSQUARE);
+            case ']' -> addSingle(JavammLexer.RSQUARE);
+            case ',' -> addSingle(JavammLexer.COMMA);
+            case '<' -> addSingle(JavammLexer.LT);
+            case '!' -> addSingle(JavammLexer.NEG);
+            case '/' -> scanSlash();
+            case '&' -> {
+                if (peek(1) == '&') {
+                    addToken(JavammLexer.AND, start, start + 1, startLine, startColumn);
+                    index += 2;
+                } else {
+                    // The generated lexer fails on the character after '&' and also discards it
+                    int stop = Math.min(start + 1, code.length() - 1);
+                    error(start, stop, startLine, startColumn);
+                    skip(stop - start + 1);
+                }
+            }
+            default -> {
+                if (isIdentifierStart(current)) {
+                    scanIdentifier();
+                } else if (current >= '0' && current <= '9') {
+                    scanInteger();
+                } else {
+                    error(start, start, startLine, startColumn);
+                    index++;
+                }
+            }
+        }
+    }
+
+    private void scanSlash() {
+        int start = index;
+
+        if (peek(1) == '/') {
+            // Line comment, up to (excluding) the end of the line
+            index += 2;
+            while (index < code.length() && code.charAt(index) != '\n' && code.charAt(index) != '\r') {
+                index++;
+            }
+            return;
+        }
+
+        if (peek(1) == '*' && !unterminatedComment) {
+            int end = findCommentEnd(start + 2);
+
+            if (end != -1) {
+                skip(end + 2 - start);
+                return;
+            }
+
+            // No comment after this one can be terminated either
+            unterminatedComment = true;
+        }
+
+        addSingle(JavammLexer.DIV);
+    }
+
+    private int findCommentEnd(int from) {
+        for (int i = from; i + 1 < code.length(); i++) {
+            if (code.charAt(i) == '*' && code.charAt(i + 1) == '/') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void scanIdentifier() {
+        int start = index;
+        int column = index - lineStart;
+
+        index++;
+        while (index < code.length() && isIdentifierPart(code.charAt(index))) {
+            index++;
+        }
+
+        int length = index - start;
+
+        // 'int...' is longer than the identifier 'int', so it wins
+        if (length == 3 && matches(start, "int") && matches(index, "...")) {
+            index += 3;
+            addToken(JavammLexer.INT_ELLIPSIS, start, index - 1, line, column);
+            return;
+        }
+
+        addToken(keywordType(start, length), start, index - 1, line, column);
+    }
+
+    private void scanInteger() {
+        int start = index;
+
+        index++;
+        if (code.charAt(start) != '0') {
+            while (index < code.length() && code.charAt(index) >= '0' && code.charAt(index) <= '9') {
+                index++;
+            }
+        }
+
+        addToken(JavammLexer.INTEGER, start, index - 1, line, start - lineStart);
+    }
+
+    /**
+     * @return the type of the keyword at the given position, or ID if it is not a keyword
+     */
+    private int keywordType(int start, int length) {
+        return switch (length) {
+            case 2 -> matches(start, "if") ? JavammLexer.IF : JavammLexer.ID;
+            case 3 -> matches(start, "int") ? JavammLexer.INT
+                    : matches(start, "new") ? JavammLexer.NEW
+                    : JavammLexer.ID;
+            case 4 -> matches(start, "true") ? JavammLexer.TRUE
+                    : matches(start, "this") ? JavammLexer.THIS
+                    : matches(start, "null") ? JavammLexer.NULL
+                    : matches(start, "else") ? JavammLexer.ELSE
+                    : matches(start, "void") ? JavammLexer.VOID
+                    : JavammLexer.ID;
+            case 5 -> matches(start, "class") ? JavammLexer.CLASS
+                    : matches(start, "false") ? JavammLexer.FALSE
+                    : matches(start, "while") ? JavammLexer.WHILE
+                    : JavammLexer.ID;
+            case 6 -> matches(start, "public") ? JavammLexer.PUBLIC
+                    : matches(start, "return") ? JavammLexer.RETURN
+                    : matches(start, "static") ? JavammLexer.STATIC
+                    : matches(start, "String") ? JavammLexer.STRING
+                    : matches(start, "import") ? JavammLexer.IMPORT
+                    : JavammLexer.ID;
+            case 7 -> matches(start, "boolean") ? JavammLexer.BOOLEAN
+                    : matches(start, "extends") ? JavammLexer.EXTENDS
+                    : JavammLexer.ID;
+            default -> JavammLexer.ID;
+        };
+    }
+
+    private boolean matches(int start, String text) {
+        if (start + text.length() > code.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            if (code.charAt(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+
+    private int peek(int offset) {
+        int position = index + offset;
+        return position < code.length() ? code.charAt(position) : -1;
+    }
+
+    private void newLine() {
+        index++;
+        line++;
+        lineStart = index;
+    }
+
+    /**
+     * Advances the given number of characters, keeping track of the lines.
+     */
+    private void skip(int numChars) {
+        int end = index + numChars;
+        while (index < end) {
+            if (code.charAt(index) == '\n') {
+                newLine();
+            } else {
+                index++;
+            }
+        }
+    }
+
+    private void addSingle(int type) {
+        addToken(type, index, index, line, index - lineStart);
+        index++;
+    }
+
+    private void addToken(int type, int start, int stop, int line, int column) {
+        if (numTokens == types.length) {
+            int capacity = types.length * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            stops = Arrays.copyOf(stops, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+
+        types[numTokens] = type;
+        starts[numTokens] = start;
+        stops[numTokens] = stop;
+        lines[numTokens] = line;
+        columns[numTokens] = column;
+        numTokens++;
+    }
+
+    /**
+     * Reports an error with the same message as the generated lexer.
+     */
+    private void error(int start, int stop, int line, int column) {
+        var text = code.subSequence(start, stop + 1).toString()
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+
+        var message = "token recognition error at: '" + text + "'";
+
+        for (var listener : listeners) {
+            listener.syntaxError(null, null, line, column, message, null);
+        }
+    }
+}
@@ -1,14 +1,30 @@
 package pt.up.fe.comp2024.parser;
 
-import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
 import pt.up.fe.comp.jmm.ast.antlr.AntlrParser;
+import pt.up.fe.comp.jmm.ast.antlr.AntlrToJmmNodeConverter;
+import pt.up.fe.comp.jmm.ast.antlr.JmmErrorListener;
+import pt.up.fe.comp.jmm.ast.antlr.JmmNodeCleanup;
 import pt.up.fe.comp.jmm.parser.JmmParser;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.cache.CompilationCache;
+import pt.up.fe.comp2024.jfr.CompilerEvent;
+import pt.up.fe.comp2024.jfr.ParseEvent;
 
-import java.util.Collections;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Map;
 
 /**
@@ -33,12 +49,39 @@ public class JmmParserImpl implements JmmParser {
 
     @Override
     public JmmParserResult parse(String jmmCode, String startingRule, Map<String, String> config) {
+        return parse((CharSequence) jmmCode, startingRule, config);
+    }
+
+    /**
+     * Parses code given as any CharSequence (e.g. a memory-mapped file, see {@link SourceLoader}), which is read by
+     * the lexer in place, without being copied.
+     */
+    public JmmParserResult parse(CharSequence jmmCode, String startingRule, Map<String, String> config) {
+        var event = new ParseEvent();
+        event.begin();
+
+        var result = parseCode(jmmCode, startingRule, config);
+        CompilationCache.recordSource(result.getRootNode(), jmmCode, config);
+
+        if (event.shouldCommit()) {
+            event.inputFile = CompilerEvent.getInputFile(config);
+            event.parser = getClass().getSimpleName();
+            event.startingRule = startingRule;
+            event.lexer = CompilerConfig.getLexer(config);
+            event.inputChars = jmmCode.length();
+            event.nodes = CompilerEvent.countNodes(result.getRootNode());
+            event.commit();
+        }
+
+        return result;
+    }
+
+    private JmmParserResult parseCode(CharSequence jmmCode, String startingRule, Map<String, String> config) {
 
         try {
-            // Convert code string into a character stream
-            var input = new ANTLRInputStream(jmmCode);
+            var lexerListener = new JmmErrorListener(Stage.LEXICAL);
             // Transform characters into tokens using the lexer
-            var lex = new pt.up.fe.comp2024.JavammLexer(input);
+            var lex = newLexer(jmmCode, lexerListener, config);
             // Wrap lexer around a token stream
             var tokens = new CommonTokenStream(lex);
             // Transforms tokens into a parse tree
@@ -46,11 +89,102 @@ public class JmmParserImpl implements JmmParser {
 
 
             // Convert ANTLR CST to JmmNode AST
-            return AntlrParser.parse(lex, parser, startingRule, config);
+            return parse(lexerListener, tokens, parser, startingRule, config);
 
         } catch (Exception e) {
             // There was an uncaught exception during parsing, create an error JmmParserResult without root node
             return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1, "Exception during parsing", e), config);
         }
     }
+
+    /**
+     * Creates the lexer selected in the config, either the generated one or {@link JmmLexer}.
+     */
+    private TokenSource newLexer(CharSequence jmmCode, JmmErrorListener lexerListener, Map<String, String> config) {
+        if (CompilerConfig.getLexer(config).equals(CompilerConfig.LEXER_HANDWRITTEN)) {
+            var lex = new JmmLexer(jmmCode);
+            lex.addErrorListener(lexerListener);
+            return lex;
+        }
+
+        // Wrap the code into a character stream, without copying it
+        var input = new CharSequenceCharStream(jmmCode);
+        var lex = new pt.up.fe.comp2024.JavammLexer(input);
+        lex.removeErrorListeners();
+        lex.addErrorListener(lexerListener);
+        return lex;
+    }
+
+    /**
+     * Same as {@link AntlrParser#parse(Lexer, Parser, String, Map)}, but invokes the starting rule directly instead of
+     * going through SpecsSystem.invoke, whose method cache is not thread-safe. This allows several files to be parsed
+     * concurrently in the same JVM.
+     * <p>
+     * Unless full LL is requested in the config, the input is first parsed with SLL prediction, which is much faster
+     * but may fail on inputs that are valid. Only when SLL parsing fails is the input parsed again with full LL
+     * prediction and the usual error reporting, so syntax errors are reported exactly as with full LL parsing.
+     */
+    private JmmParserResult parse(JmmErrorListener lexerListener, CommonTokenStream tokens, Parser parser,
+                                  String startingRule, Map<String, String> config) throws ReflectiveOperationException {
+
+        parser.removeErrorListeners();
+        var parserListener = new JmmErrorListener(Stage.SYNTATIC);
+
+        ParseTree node = null;
+
+        if (!CompilerConfig.getFullLL(config)) {
+            node = parseSLL(parser, startingRule);
+        }
+
+        if (node == null) {
+            // Tokens are buffered, rewind them instead of lexing again
+            tokens.seek(0);
+            parser.reset();
+
+            parser.addErrorListener(parserListener);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+
+            node = invokeRule(parser, startingRule);
+        }
+
+        var reports = new ArrayList<Report>();
+        reports.addAll(lexerListener.getReports());
+        reports.addAll(parserListener.getReports());
+
+        if (reports.stream().anyMatch(r -> r.getType().equals(ReportType.ERROR))) {
+            return new JmmParserResult(null, reports, config);
+        }
+
+        var root = AntlrToJmmNodeConverter.convert(node, parser);
+
+        var ignoreList = AntlrParser.getIgnoreList(parser);
+        if (!ignoreList.isEmpty()) {
+            new JmmNodeCleanup(ignoreList).visit(root);
+        }
+
+        return new JmmParserResult(root, reports, config);
+    }
+
+    /**
+     * @return the parse tree, or null if the input could not be parsed with SLL prediction
+     */
+    private ParseTree parseSLL(Parser parser, String startingRule) throws ReflectiveOperationException {
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+
+        try {
+            return invokeRule(parser, startingRule);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof ParseCancellationException) {
+                return null;
+            }
+
+            throw e;
+        }
+    }
+
+    private ParseTree invokeRule(Parser parser, String startingRule) throws ReflectiveOperationException {
+        return (ParseTree) parser.getClass().getMethod(startingRule).invoke(parser);
+    }
 }
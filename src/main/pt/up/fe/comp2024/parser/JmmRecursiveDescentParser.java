@@ -0,0 +1,586 @@
+package pt.up.fe.comp2024.parser;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.NodePosition;
+import pt.up.fe.comp.jmm.ast.antlr.JmmErrorListener;
+import pt.up.fe.comp.jmm.parser.JmmParser;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.cache.CompilationCache;
+import pt.up.fe.comp2024.jfr.CompilerEvent;
+import pt.up.fe.comp2024.jfr.ParseEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static pt.up.fe.comp2024.JavammLexer.*;
+
+/**
+ * Hand-written recursive-descent parser for Javamm.g4 that builds the {@link JmmNode} AST directly from the tokens of
+ * {@link JmmLexer}, without building an ANTLR parse tree first.
+ * <p>
+ * For valid inputs, produces the same AST as {@link JmmParserImpl}: same kinds, hierarchies, attributes and positions.
+ * Expressions are parsed by precedence climbing, with the precedences the ANTLR left-recursion rewrite gives to the
+ * alternatives of the 'expr' rule. For invalid inputs, only the first syntax error is reported.
+ * <p>
+ * To use it, set 'ParserClass' in config.properties to this class.
+ */
+public class JmmRecursiveDescentParser implements JmmParser {
+
+    @Override
+    public String getDefaultRule() {
+        return "program";
+    }
+
+    @Override
+    public JmmParserResult parse(String jmmCode, String startingRule, Map<String, String> config) {
+        var event = new ParseEvent();
+        event.begin();
+
+        var result = parseCode(jmmCode, startingRule, config);
+        CompilationCache.recordSource(result.getRootNode(), jmmCode, config);
+
+        if (event.shouldCommit()) {
+            event.inputFile = CompilerEvent.getInputFile(config);
+            event.parser = getClass().getSimpleName();
+            event.startingRule = startingRule;
+            event.lexer = CompilerConfig.LEXER_HANDWRITTEN;
+            event.inputChars = jmmCode.length();
+            event.nodes = CompilerEvent.countNodes(result.getRootNode());
+            event.commit();
+        }
+
+        return result;
+    }
+
+    private JmmParserResult parseCode(String jmmCode, String startingRule, Map<String, String> config) {
+
+        try {
+            var lexerListener = new JmmErrorListener(Stage.LEXICAL);
+            var lexer = new JmmLexer(jmmCode);
+            lexer.addErrorListener(lexerListener);
+
+            JmmNode root = null;
+            Report syntaxError = null;
+
+            try {
+                root = new DescentParser(lexer).parseRule(startingRule);
+            } catch (SyntaxError e) {
+                syntaxError = Report.newError(Stage.SYNTATIC, e.line, e.column, e.getMessage(), null);
+            }
+
+            var reports = new ArrayList<Report>(lexerListener.getReports());
+            if (syntaxError != null) {
+                reports.add(syntaxError);
+            }
+
+            if (reports.stream().anyMatch(r -> r.getType().equals(ReportType.ERROR))) {
+                return new JmmParserResult(null, reports, config);
+            }
+
+            return new JmmParserResult(root, reports, config);
+
+        } catch (Exception e) {
+            // There was an uncaught exception during parsing, create an error JmmParserResult without root node
+            return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1, "Exception during parsing", e), config);
+        }
+    }
+
+    private static class SyntaxError extends RuntimeException {
+        private final int line;
+        private final int column;
+
+        private SyntaxError(String message, int line, int column) {
+            super(message);
+            this.line = line;
+            this.column = column;
+        }
+    }
+
+    /**
+     * The state of parsing a single input.
+     */
+    private static class DescentParser {
+
+        // Precedences of the ANTLR left-recursion rewrite of 'expr'
+        private static final int UNARY_PRECEDENCE = 15;
+        private static final int MUL_PRECEDENCE = 12;
+        private static final int ADD_PRECEDENCE = 11;
+        private static final int LT_PRECEDENCE = 10;
+        private static final int AND_PRECEDENCE = 9;
+
+        private static final String EXPR = "Expr";
+        private static final String STMT = "Stmt";
+        private static final String TYPE = "Type";
+
+        private final JmmLexer tokens;
+        private final int eof;
+        private int current;
+
+        private DescentParser(JmmLexer tokens) {
+            this.tokens = tokens;
+            this.eof = tokens.size() - 1;
+            this.current = 0;
+        }
+
+        private JmmNode parseRule(String rule) {
+            return switch (rule) {
+                case "program" -> program();
+                case "importDeclaration" -> importDeclaration();
+                case "classDeclaration" -> classDeclaration();
+                case "varDeclaration" -> varDeclaration();
+                case "methodDeclaration" -> methodDeclaration();
+                case "param" -> param();
+                case "type" -> type();
+                case "stmt" -> stmt();
+                case "expr" -> expr(0);
+                default -> throw new RuntimeException("Unknown rule '" + rule + "'");
+            };
+        }
+
+        private JmmNode program() {
+            int start = current;
+            var node = new JmmNodeImpl("Program");
+            node.setHierarchy(List.of("Program"));
+
+            while (type(0) == IMPORT) {
+                node.add(importDeclaration());
+            }
+
+            node.add(classDeclaration());
+
+            // The program ends at the EOF token
+            expect(EOF, "<EOF>");
+            setPosition(node, start, eof);
+
+            return node;
+        }
+
+        private JmmNode importDeclaration() {
+            int start = current;
+            var node = newNode("ImportDecl", "ImportDeclaration");
+
+            expect(IMPORT, "'import'");
+
+            var importName = new ArrayList<String>();
+            importName.add(text(expect(ID, "identifier")));
+            while (accept(DOT)) {
+                importName.add(text(expect(ID, "identifier")));
+            }
+
+            expect(SEMI, "';'");
+
+            node.put("ID", importName.get(importName.size() - 1));
+            node.putObject("importName", importName);
+
+            return finish(node, start);
+        }
+
+        private JmmNode classDeclaration() {
+            int start = current;
+            var node = newNode("ClassDecl", "ClassDeclaration");
+
+            expect(CLASS, "'class'");
+            node.put("className", text(expect(ID, "identifier")));
+
+            if (accept(EXTENDS)) {
+                node.put("extension", text(expect(ID, "identifier")));
+            }
+
+            expect(LCURLY, "'{'");
+
+            // A field is a type and a name followed by ';', a method has '(' instead
+            int typeLength;
+            while ((typeLength = typeLength(0)) > 0 && type(typeLength) == ID && type(typeLength + 1) == SEMI) {
+                node.add(varDeclaration());
+            }
+
+            while (type(0) != RCURLY) {
+                node.add(methodDeclaration());
+            }
+
+            expect(RCURLY, "'}'");
+
+            return finish(node, start);
+        }
+
+        private JmmNode varDeclaration() {
+            int start = current;
+            var node = newNode("VarDecl", "VarDeclaration");
+
+            node.add(type());
+            node.put("varName", text(expect(ID, "identifier")));
+            expect(SEMI, "';'");
+
+            return finish(node, start);
+        }
+
+        private JmmNode methodDeclaration() {
+            int start = current;
+            var node = newNode("MethodDecl", "MethodDeclaration");
+
+            node.putObject("isPublic", accept(PUBLIC));
+            node.putObject("isStatic", accept(STATIC));
+
+            node.add(type());
+            node.put("name", text(expect(ID, "identifier")));
+
+            expect(LPAREN, "'('");
+            if (type(0) != RPAREN) {
+                node.add(param());
+                while (accept(COMMA)) {
+                    node.add(param());
+                }
+            }
+            expect(RPAREN, "')'");
+
+            expect(LCURLY, "'{'");
+
+            // A local variable starts with a type followed by a name, which no statement does
+            int typeLength;
+            while ((typeLength = typeLength(0)) > 0 && type(typeLength) == ID) {
+                node.add(varDeclaration());
+            }
+
+            while (type(0) != RCURLY) {
+                node.add(stmt());
+            }
+
+            expect(RCURLY, "'}'");
+
+            return finish(node, start);
+        }
+
+        private JmmNode param() {
+            int start = current;
+            var node = newNode("ParamDecl", "Param");
+
+            node.add(type());
+            node.put("var", text(expect(ID, "identifier")));
+
+            return finish(node, start);
+        }
+
+        /**
+         * @return the number of tokens of the type that starts at the given offset, or 0 if there is no type there
+         */
+        private int typeLength(int offset) {
+            return switch (type(offset)) {
+                case INT, STRING -> type(offset + 1) == LSQUARE && type(offset + 2) == RSQUARE ? 3 : 1;
+                case INT_ELLIPSIS, BOOLEAN, ID, VOID -> 1;
+                default -> 0;
+            };
+        }
+
+        private JmmNode type() {
+            int start = current;
+
+            var kind = switch (type(0)) {
+                case INT -> type(1) == LSQUARE ? "IntArrayType" : "IntType";
+                case STRING -> type(1) == LSQUARE ? "StringArrayType" : "StringType";
+                case INT_ELLIPSIS -> "IntEllipsisType";
+                case BOOLEAN -> "BooleanType";
+                case ID -> "IdentifierType";
+                case VOID -> "VoidType";
+                default -> throw error("type");
+            };
+
+            var node = newNode(kind, TYPE);
+            node.put("typeName", text(current));
+            current++;
+
+            boolean isBracketArray = kind.equals("IntArrayType") || kind.equals("StringArrayType");
+            boolean isVarargs = kind.equals("IntEllipsisType");
+
+            if (isBracketArray) {
+                expect(LSQUARE, "'['");
+                expect(RSQUARE, "']'");
+            }
+
+            node.putObject("isArray", isBracketArray || isVarargs);
+            node.putObject("isVarargs", isVarargs);
+
+            return finish(node, start);
+        }
+
+        private JmmNode stmt() {
+            int start = current;
+
+            switch (type(0)) {
+                case LCURLY -> {
+                    var node = newNode("BlockStmt", STMT);
+                    current++;
+                    while (type(0) != RCURLY) {
+                        node.add(stmt());
+                    }
+                    expect(RCURLY, "'}'");
+                    return finish(node, start);
+                }
+                case IF -> {
+                    var node = newNode("IfElseStmt", STMT);
+                    current++;
+                    expect(LPAREN, "'('");
+                    node.add(expr(0));
+                    expect(RPAREN, "')'");
+                    node.add(stmt());
+                    expect(ELSE, "'else'");
+                    node.add(stmt());
+                    return finish(node, start);
+                }
+                case WHILE -> {
+                    var node = newNode("WhileStmt", STMT);
+                    current++;
+                    expect(LPAREN, "'('");
+                    node.add(expr(0));
+                    expect(RPAREN, "')'");
+                    node.add(stmt());
+                    return finish(node, start);
+                }
+                case RETURN -> {
+                    var node = newNode("ReturnStmt", STMT);
+                    current++;
+                    node.add(expr(0));
+                    expect(SEMI, "';'");
+                    return finish(node, start);
+                }
+                default -> {
+                    var expr = expr(0);
+
+                    if (accept(SEMI)) {
+                        var node = newNode("ExprStmt", STMT);
+                        node.add(expr);
+                        return finish(node, start);
+                    }
+
+                    // 'a[i] = b;' is an AssignStmt with an ArrayAccessOp on the left, ANTLR picks the first
+                    // alternative on ambiguities, so ArrayAssign is never produced
+                    expect(EQUALS, "'=' or ';'");
+                    var node = newNode("AssignStmt", STMT);
+                    node.add(expr);
+                    node.add(expr(0));
+                    expect(SEMI, "';'");
+                    return finish(node, start);
+                }
+            }
+        }
+
+        private JmmNode expr(int minPrecedence) {
+            int start = current;
+            var left = primary();
+
+            while (true) {
+                switch (type(0)) {
+                    // Postfix operators have the highest precedences, so they always apply
+                    case DOT -> {
+                        var kind = type(1) == ID && type(2) == LPAREN ? "MemberAccessOp" : "LengthOp";
+                        var node = newNode(kind, EXPR);
+                        node.put("op", text(current));
+                        current++;
+
+                        var name = text(expect(ID, "identifier"));
+                        node.add(left);
+
+                        if (kind.equals("MemberAccessOp")) {
+                            node.put("func", name);
+                            expect(LPAREN, "'('");
+                            if (type(0) != RPAREN) {
+                                node.add(expr(0));
+                                while (accept(COMMA)) {
+                                    node.add(expr(0));
+                                }
+                            }
+                            expect(RPAREN, "')'");
+                        } else {
+                            node.put("value", name);
+                        }
+
+                        left = finish(node, start);
+                    }
+                    case LSQUARE -> {
+                        var node = newNode("ArrayAccessOp", EXPR);
+                        current++;
+                        node.add(left);
+                        node.add(expr(0));
+                        expect(RSQUARE, "']'");
+                        left = finish(node, start);
+                    }
+                    default -> {
+                        int precedence = binaryPrecedence(type(0));
+                        if (precedence < minPrecedence) {
+                            return left;
+                        }
+
+                        var node = newNode("BinaryExpr", EXPR);
+                        node.put("op", text(current));
+                        current++;
+
+                        // Left-associative, the right operand only takes operators of higher precedence
+                        node.add(left);
+                        node.add(expr(precedence + 1));
+                        left = finish(node, start);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the precedence of the binary operator, or -1 if the token is not one
+         */
+        private static int binaryPrecedence(int type) {
+            return switch (type) {
+                case MUL, DIV -> MUL_PRECEDENCE;
+                case ADD, SUB -> ADD_PRECEDENCE;
+                case LT -> LT_PRECEDENCE;
+                case AND -> AND_PRECEDENCE;
+                default -> -1;
+            };
+        }
+
+        private JmmNode primary() {
+            int start = current;
+
+            switch (type(0)) {
+                case LPAREN -> {
+                    var node = newNode("ParenOp", EXPR);
+                    node.put("op", text(current));
+                    current++;
+                    node.add(expr(0));
+                    expect(RPAREN, "')'");
+                    return finish(node, start);
+                }
+                case NEG -> {
+                    var node = newNode("UnaryOp", EXPR);
+                    node.put("op", text(current));
+                    current++;
+                    node.add(expr(UNARY_PRECEDENCE));
+                    return finish(node, start);
+                }
+                case NEW -> {
+                    var op = text(current);
+                    current++;
+
+                    if (type(0) == INT) {
+                        var node = newNode("NewOpArray", EXPR);
+                        node.put("op", op);
+                        node.put("value", text(current));
+                        current++;
+                        expect(LSQUARE, "'['");
+                        node.add(expr(0));
+                        expect(RSQUARE, "']'");
+                        return finish(node, start);
+                    }
+
+                    var node = newNode("NewOpObject", EXPR);
+                    node.put("op", op);
+                    node.put("value", text(expect(ID, "'int' or identifier")));
+                    expect(LPAREN, "'('");
+                    expect(RPAREN, "')'");
+                    return finish(node, start);
+                }
+                case LSQUARE -> {
+                    var node = newNode("ArrayCreationOp", EXPR);
+                    current++;
+                    if (type(0) != RSQUARE) {
+                        node.add(expr(0));
+                        while (accept(COMMA)) {
+                            node.add(expr(0));
+                        }
+                    }
+                    expect(RSQUARE, "']'");
+                    return finish(node, start);
+                }
+                case INT -> {
+                    return literal("Int", start);
+                }
+                case TRUE, FALSE -> {
+                    return literal("BooleanLiteral", start);
+                }
+                case ID -> {
+                    return literal("Identifier", start);
+                }
+                case THIS -> {
+                    return literal("This", start);
+                }
+                case NULL -> {
+                    return literal("Null", start);
+                }
+                case INTEGER -> {
+                    return literal("IntegerLiteral", start);
+                }
+                default -> throw error("expression");
+            }
+        }
+
+        private JmmNode literal(String kind, int start) {
+            var node = newNode(kind, EXPR);
+            node.put("value", text(current));
+            current++;
+            return finish(node, start);
+        }
+
+        private JmmNodeImpl newNode(String kind, String rule) {
+            var node = new JmmNodeImpl(kind);
+            node.setHierarchy(List.of(kind, rule));
+            return node;
+        }
+
+        /**
+         * Sets the position of the node, which spans from the given token to the last consumed token.
+         */
+        private JmmNode finish(JmmNode node, int start) {
+            setPosition(node, start, current - 1);
+            return node;
+        }
+
+        /**
+         * Same positions as the ANTLR conversion: the start of the first and of the last token of the node.
+         */
+        private void setPosition(JmmNode node, int start, int stop) {
+            node.put(NodePosition.LINE_START.getKey(), Integer.toString(tokens.getLine(start)));
+            node.put(NodePosition.COL_START.getKey(), Integer.toString(tokens.getCharPositionInLine(start)));
+            node.put(NodePosition.LINE_END.getKey(), Integer.toString(tokens.getLine(stop)));
+            node.put(NodePosition.COL_END.getKey(), Integer.toString(tokens.getCharPositionInLine(stop)));
+        }
+
+        private int type(int offset) {
+            return tokens.getType(Math.min(current + offset, eof));
+        }
+
+        private String text(int token) {
+            return tokens.getText(token);
+        }
+
+        private boolean accept(int type) {
+            if (type(0) != type) {
+                return false;
+            }
+
+            current++;
+            return true;
+        }
+
+        /**
+         * @return the index of the consumed token
+         */
+        private int expect(int type, String expected) {
+            if (type(0) != type) {
+                throw error(expected);
+            }
+
+            // Never move past EOF
+            return type == EOF ? current : current++;
+        }
+
+        private SyntaxError error(String expected) {
+            int token = Math.min(current, eof);
+            var message = "mismatched input '" + text(token) + "' expecting " + expected;
+
+            return new SyntaxError(message, tokens.getLine(token), tokens.getCharPositionInLine(token));
+        }
+    }
+}
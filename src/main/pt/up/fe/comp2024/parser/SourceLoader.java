@@ -0,0 +1,44 @@
+package pt.up.fe.comp2024.parser;
+
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads Java-- sources for the parser.
+ * <p>
+ * Large files are memory-mapped and exposed as an {@link AsciiCharSequence}, so that their contents are never copied
+ * into the heap: not into a String, nor into the char array of an ANTLRInputStream (see
+ * {@link JmmParserImpl#parse(CharSequence, String, java.util.Map)}). This is only valid because Java-- sources are
+ * ASCII; files with other characters (e.g. in comments) are read as usual.
+ */
+public class SourceLoader {
+
+    /**
+     * Smaller files are cheaper to read than to map.
+     */
+    private static final long MAP_THRESHOLD_BYTES = 1024 * 1024;
+
+    public static CharSequence load(File file) {
+        if (file.length() < MAP_THRESHOLD_BYTES || file.length() > Integer.MAX_VALUE) {
+            return SpecsIo.read(file);
+        }
+
+        try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping remains valid after the channel is closed
+            var bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (!AsciiCharSequence.isAscii(bytes)) {
+                return SpecsIo.read(file);
+            }
+
+            return new AsciiCharSequence(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map file '" + file + "'", e);
+        }
+    }
+}
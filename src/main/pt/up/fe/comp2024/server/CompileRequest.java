@@ -0,0 +1,78 @@
+package pt.up.fe.comp2024.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A request to compile a single source, as received by the {@link CompileServer}.
+ * <p>
+ * The header line has the format:
+ * <pre>
+ * COMPILE &lt;id&gt; &lt;length&gt; [&lt;key&gt;=&lt;value&gt; ...]
+ * </pre>
+ * and is followed by exactly 'length' bytes of UTF-8 source code. The optional key/value pairs are added to the
+ * compiler config (e.g. 'optimize=true').
+ */
+public class CompileRequest {
+
+    public static final String COMMAND = "COMPILE";
+
+    private final String id;
+    private final int length;
+    private final Map<String, String> options;
+    private String code;
+
+    private CompileRequest(String id, int length, Map<String, String> options) {
+        this.id = id;
+        this.length = length;
+        this.options = options;
+        this.code = null;
+    }
+
+    public static CompileRequest fromHeader(String header) {
+        var parts = header.trim().split("\\s+");
+
+        if (parts.length < 3 || !parts[0].equals(COMMAND)) {
+            throw new IllegalArgumentException("Expected '" + COMMAND + " <id> <length> [key=value ...]', got '" + header + "'");
+        }
+
+        int length;
+        try {
+            length = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid source length '" + parts[2] + "'");
+        }
+
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid source length '" + length + "'");
+        }
+
+        var options = new HashMap<String, String>();
+        for (int i = 3; i < parts.length; i++) {
+            var option = parts[i].split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+
+        return new CompileRequest(parts[1], length, options);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
@@ -0,0 +1,141 @@
+package pt.up.fe.comp2024.server;
+
+import pt.up.fe.comp2024.CompilationPipeline;
+import pt.up.fe.comp2024.CompilationResult;
+import pt.up.fe.comp2024.cache.CompilationCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resident compiler that serves compile requests over stdin/stdout or a local socket.
+ * <p>
+ * Keeping the JVM alive avoids paying, on every compile, for JVM startup, class loading of the compiler stages and the
+ * deserialization of the ANTLR ATN. The lexer and parser DFA caches are static in the generated ANTLR classes, so they
+ * keep getting warmer as more requests are served. See {@link ServerConnection} for the protocol.
+ */
+public class CompileServer {
+
+    /**
+     * Exercises every compiler stage once, so that the first real request does not pay for class loading.
+     */
+    private static final String WARM_UP_CODE = """
+            import io;
+            class WarmUp {
+                int field;
+                public int foo(int a, int[] b, boolean c) {
+                    int d;
+                    d = a + b[0] * 2 - b.length / 3;
+                    while (d < 10 && c) {
+                        d = d + 1;
+                    }
+                    if (!c) {
+                        io.println(d);
+                    } else {
+                        d = this.foo(d, new int[2], false);
+                    }
+                    return d;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static final int WARM_UP_ITERATIONS = 20;
+
+    private final CompilationPipeline pipeline;
+    private final Map<String, String> config;
+    private final ExecutorService executor;
+
+    public CompileServer(Map<String, String> config) {
+        this(new CompilationPipeline(), config);
+    }
+
+    public CompileServer(CompilationPipeline pipeline, Map<String, String> config) {
+        this.pipeline = pipeline;
+        this.config = config;
+        this.executor = newExecutor();
+    }
+
+    public void warmUp() {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            pipeline.compile(WARM_UP_CODE, new HashMap<>(config));
+        }
+    }
+
+    /**
+     * Serves a single client over the given streams (e.g. stdin/stdout), until the client sends QUIT or closes the
+     * input.
+     */
+    public void serve(InputStream in, OutputStream out) {
+        new ServerConnection(this, new BufferedInputStream(in), new BufferedOutputStream(out)).run();
+    }
+
+    /**
+     * Accepts clients on the given port of the loopback interface, serving each one concurrently. Does not return.
+     */
+    public void listen(int port) {
+        try (var serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("Compile server listening on " + serverSocket.getLocalSocketAddress());
+
+            while (true) {
+                var socket = serverSocket.accept();
+                execute(() -> serve(socket));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen on port " + port, e);
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            serve(socket.getInputStream(), socket.getOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    CompilationResult compile(CompileRequest request) {
+        var requestConfig = new HashMap<>(config);
+        requestConfig.putAll(request.getOptions());
+
+        return pipeline.compile(request.getCode(), requestConfig);
+    }
+
+    Optional<String> getCacheStats() {
+        return CompilationCache.fromConfig(config).map(CompilationCache::getStatsSummary);
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Uses a virtual thread per task when running on a JVM that supports them (21+), since requests mostly wait on
+     * I/O of their clients. Otherwise, falls back to a cached pool of daemon platform threads.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                var thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package pt.up.fe.comp2024.server;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilationResult;
+import pt.up.fe.comp2024.CompilerConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Phaser;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the requests of a single client, given as an input/output stream pair.
+ * <p>
+ * Requests are read sequentially, but compiled concurrently. Each response is written as a whole and carries the id
+ * of its request, so responses may arrive in a different order than the requests. The response has the format:
+ * <pre>
+ * RESULT &lt;id&gt; &lt;OK|ERROR&gt; &lt;reportsLength&gt; &lt;ollirLength&gt; &lt;jasminLength&gt; &lt;micros&gt;
+ * </pre>
+ * followed by the reports (one per line), the OLLIR code and the Jasmin code, with lengths in bytes of UTF-8. Besides
+ * COMPILE, the server accepts 'PING' (answered with 'PONG'), 'STATS' (answered with a line with the statistics of the
+ * compilation cache, or 'STATS disabled') and 'QUIT', which closes the connection after the pending requests have been
+ * answered.
+ * <p>
+ * Every COMPILE gets a RESULT, with ERROR and the exception as a report if the request could not be compiled, e.g.
+ * because of an option that cannot be set per request (see {@link CompilerConfig#checkRequestOptions(java.util.Map)}).
+ */
+public class ServerConnection implements Runnable {
+
+    private static final String NL = "\n";
+
+    private final CompileServer server;
+    private final InputStream in;
+    private final OutputStream out;
+
+    // Tracks the requests that are still being compiled
+    private final Phaser pending;
+
+    public ServerConnection(CompileServer server, InputStream in, OutputStream out) {
+        this.server = server;
+        this.in = in;
+        this.out = out;
+        this.pending = new Phaser(1);
+    }
+
+    @Override
+    public void run() {
+        try {
+            serve();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // Wait for the responses of the requests already received
+            pending.arriveAndAwaitAdvance();
+        }
+    }
+
+    private void serve() throws IOException {
+        String header;
+
+        while ((header = readLine()) != null) {
+
+            if (header.isBlank()) {
+                continue;
+            }
+
+            if (header.equals("QUIT")) {
+                return;
+            }
+
+            if (header.equals("PING")) {
+                write("PONG" + NL, new byte[0]);
+                continue;
+            }
+
+            if (header.equals("STATS")) {
+                write("STATS " + server.getCacheStats().orElse("disabled") + NL, new byte[0]);
+                continue;
+            }
+
+            CompileRequest request;
+            try {
+                request = CompileRequest.fromHeader(header);
+            } catch (IllegalArgumentException e) {
+                // The length of the body is unknown, the stream can no longer be trusted
+                write("FAIL " + e.getMessage() + NL, new byte[0]);
+                return;
+            }
+
+            var body = in.readNBytes(request.getLength());
+            if (body.length != request.getLength()) {
+                write("FAIL expected " + request.getLength() + " bytes of source, got " + body.length + NL, new byte[0]);
+                return;
+            }
+
+            request.setCode(new String(body, StandardCharsets.UTF_8));
+
+            // Invalid options are answered right away, the body was read so the stream can still be trusted
+            try {
+                CompilerConfig.checkRequestOptions(request.getOptions());
+            } catch (RuntimeException e) {
+                write(request, failed(request, e), 0);
+                continue;
+            }
+
+            pending.register();
+            server.execute(() -> {
+                try {
+                    respond(request);
+                } finally {
+                    pending.arriveAndDeregister();
+                }
+            });
+        }
+    }
+
+    private void respond(CompileRequest request) {
+        long start = System.nanoTime();
+
+        // Every request gets a response, even when it could not be compiled
+        CompilationResult result;
+        try {
+            result = server.compile(request);
+        } catch (RuntimeException e) {
+            result = failed(request, e);
+        }
+
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        try {
+            write(request, result, micros);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CompilationResult failed(CompileRequest request, RuntimeException e) {
+        var report = Report.newError(Stage.OTHER, -1, -1, "Could not compile request '" + request.getId() + "'", e);
+        return new CompilationResult(null, null, null, null, List.of(report));
+    }
+
+    private void write(CompileRequest request, CompilationResult result, long micros) throws IOException {
+        var reports = result.getReports().stream()
+                .map(report -> report.toString() + NL)
+                .collect(Collectors.joining())
+                .getBytes(StandardCharsets.UTF_8);
+
+        var ollir = result.getOllirCode()
+                .orElse("")
+                .getBytes(StandardCharsets.UTF_8);
+
+        var jasmin = result.getJasminCode()
+                .orElse("")
+                .getBytes(StandardCharsets.UTF_8);
+
+        var header = "RESULT " + request.getId() + " " + (result.isSuccess() ? "OK" : "ERROR") + " "
+                + reports.length + " " + ollir.length + " " + jasmin.length + " " + micros + NL;
+
+        var body = new ByteArrayOutputStream(reports.length + ollir.length + jasmin.length);
+        body.writeBytes(reports);
+        body.writeBytes(ollir);
+        body.writeBytes(jasmin);
+
+        write(header, body.toByteArray());
+    }
+
+    private void write(String header, byte[] body) throws IOException {
+        // Responses of concurrent requests must not interleave
+        synchronized (out) {
+            out.write(header.getBytes(StandardCharsets.UTF_8));
+            out.write(body);
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads a header line, byte by byte, so that the source that follows it stays in the stream.
+     *
+     * @return the line without the line terminator, or null if the stream ended
+     */
+    private String readLine() throws IOException {
+        var line = new ByteArrayOutputStream();
+
+        int current;
+        while ((current = in.read()) != -1) {
+            if (current == '\n') {
+                return line.toString(StandardCharsets.UTF_8).stripTrailing();
+            }
+
+            line.write(current);
+        }
+
+        return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8).stripTrailing();
+    }
+}
@@ -0,0 +1,391 @@
+package pt.up.fe.comp2024.stats;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Wall time, CPU time and allocated bytes of each compilation stage and analysis pass, together with the size of the
+ * AST and of each method, enabled with the option '-s'.
+ * <p>
+ * CPU time and allocations are read from the {@link ThreadMXBean} of the current thread, so a stage must run on the
+ * thread that measures it. An instance collects the statistics of a single compilation and is not thread-safe. When
+ * disabled, {@link #measure(String, Supplier)} just runs the stage.
+ */
+public class CompilationStats {
+
+    private static final String NL = "\n";
+    private static final String INDENT = "  ";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final boolean enabled;
+    private final List<StageStats> stages;
+    private final Map<String, Integer> nodesByKind;
+    private final Map<String, MethodStats> methods;
+    private final Map<String, Long> counters;
+
+    private int depth;
+    private int astNodes;
+
+    private CompilationStats(boolean enabled) {
+        this.enabled = enabled;
+        this.stages = new ArrayList<>();
+        this.nodesByKind = new TreeMap<>();
+        this.methods = new LinkedHashMap<>();
+        this.counters = new LinkedHashMap<>();
+        this.depth = 0;
+        this.astNodes = 0;
+    }
+
+    public static CompilationStats enabled() {
+        return new CompilationStats(true);
+    }
+
+    public static CompilationStats disabled() {
+        return new CompilationStats(false);
+    }
+
+    /**
+     * @param config
+     * @return statistics enabled if the config has the option '-s'
+     */
+    public static CompilationStats fromConfig(Map<String, String> config) {
+        return new CompilationStats(CompilerConfig.isStats(config));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the given stage, recording its cost under the given name. Stages measured while running another stage are
+     * recorded as nested in it. The cost is recorded even if the stage throws.
+     *
+     * @param name
+     * @param stage
+     * @return the result of the stage
+     */
+    public <T> T measure(String name, Supplier<T> stage) {
+        if (!enabled) {
+            return stage.get();
+        }
+
+        // Reserve the position, so that stages are listed in the order they started
+        int index = stages.size();
+        stages.add(null);
+
+        long cpuStart = cpuTime();
+        long allocatedStart = allocatedBytes();
+        long wallStart = System.nanoTime();
+
+        depth++;
+        try {
+            return stage.get();
+        } finally {
+            depth--;
+
+            long wall = System.nanoTime() - wallStart;
+            long cpu = cpuStart < 0 ? -1 : cpuTime() - cpuStart;
+            long allocated = allocatedStart < 0 ? -1 : allocatedBytes() - allocatedStart;
+
+            stages.set(index, new StageStats(name, depth, wall, cpu, allocated));
+        }
+    }
+
+    /**
+     * Records the wall time of a stage that the caller measured itself, e.g. an analysis pass whose visits are
+     * interleaved with those of other passes. It is recorded as nested in the stage being measured, if any. CPU time
+     * and allocations are not known for such a stage.
+     *
+     * @param name
+     * @param wallNanos
+     */
+    public void record(String name, long wallNanos) {
+        if (enabled) {
+            stages.add(new StageStats(name, depth, wallNanos, -1, -1));
+        }
+    }
+
+    /**
+     * Counts the nodes of the AST, by kind, and the size of each method.
+     *
+     * @param root
+     */
+    public void recordAst(JmmNode root) {
+        if (!enabled || root == null) {
+            return;
+        }
+
+        root.getDescendantsAndSelfStream().forEach(node -> {
+            nodesByKind.merge(node.getKind(), 1, Integer::sum);
+            astNodes++;
+        });
+
+        for (var method : root.getDescendants(Kind.METHOD_DECL)) {
+            var name = method.get("name");
+            var paramTypes = method.getChildren(Kind.PARAM_DECL).stream()
+                    .map(param -> typeName(param.getChild(0)))
+                    .toList();
+            var signature = signature(name, paramTypes);
+            var nodes = (int) method.getDescendantsAndSelfStream().count();
+            var statements = (int) method.getDescendantsStream()
+                    .filter(node -> node.getKind().endsWith("Stmt"))
+                    .count();
+            var locals = method.getChildren(Kind.VAR_DECL).size();
+
+            methods.put(signature, new MethodStats(name, signature, nodes, statements, locals));
+        }
+    }
+
+    /**
+     * Counts the instructions of each method in the generated Jasmin code.
+     *
+     * @param jasminCode
+     */
+    public void recordJasmin(String jasminCode) {
+        if (!enabled || jasminCode == null) {
+            return;
+        }
+
+        MethodStats current = null;
+        int instructions = 0;
+
+        for (var line : jasminCode.split("\n")) {
+            line = line.trim();
+
+            if (line.startsWith(".method")) {
+                current = methods.get(jasminSignature(line));
+                instructions = 0;
+            } else if (line.startsWith(".end method")) {
+                if (current != null) {
+                    current.setJasminInstructions(instructions);
+                }
+                current = null;
+            } else if (!line.isEmpty() && !line.startsWith(".") && !line.startsWith(";") && !line.endsWith(":")) {
+                instructions++;
+            }
+        }
+    }
+
+    /**
+     * @param type a type node, such as 'IntArrayType'
+     * @return the type as written in the source, with varargs as arrays, e.g. 'int[]'
+     */
+    private static String typeName(JmmNode type) {
+        var name = type.get("typeName").replace("...", "");
+        return Boolean.parseBoolean(type.get("isArray")) ? name + "[]" : name;
+    }
+
+    /**
+     * @param methodLine e.g. '.method public static main([Ljava/lang/String;)V'
+     * @return the signature of the method, as in {@link MethodStats#getSignature()}, e.g. 'main(String[])'
+     */
+    private static String jasminSignature(String methodLine) {
+        int open = methodLine.indexOf('(');
+        int close = methodLine.indexOf(')');
+        if (open < 0 || close < open) {
+            return signature(methodLine.substring(methodLine.lastIndexOf(' ') + 1), List.of());
+        }
+
+        var name = methodLine.substring(methodLine.lastIndexOf(' ', open) + 1, open);
+        var descriptor = methodLine.substring(open + 1, close);
+
+        var paramTypes = new ArrayList<String>();
+        int i = 0;
+        while (i < descriptor.length()) {
+            int dimensions = 0;
+            while (descriptor.charAt(i) == '[') {
+                dimensions++;
+                i++;
+            }
+
+            String typeName;
+            if (descriptor.charAt(i) == 'L') {
+                int end = descriptor.indexOf(';', i);
+                var className = descriptor.substring(i + 1, end);
+                typeName = className.substring(className.lastIndexOf('/') + 1);
+                i = end + 1;
+            } else {
+                typeName = switch (descriptor.charAt(i)) {
+                    case 'I' -> "int";
+                    case 'Z' -> "boolean";
+                    default -> String.valueOf(descriptor.charAt(i));
+                };
+                i++;
+            }
+
+            paramTypes.add(typeName + "[]".repeat(dimensions));
+        }
+
+        return signature(name, paramTypes);
+    }
+
+    private static String signature(String name, List<String> paramTypes) {
+        return name + "(" + String.join(", ", paramTypes) + ")";
+    }
+
+    /**
+     * Adds the given value to a named counter, e.g. the number of AST traversals of the analysis.
+     *
+     * @param name
+     * @param value
+     */
+    public void count(String name, long value) {
+        if (enabled) {
+            counters.merge(name, value, Long::sum);
+        }
+    }
+
+    public List<StageStats> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    public int getAstNodes() {
+        return astNodes;
+    }
+
+    public Map<String, Integer> getNodesByKind() {
+        return Collections.unmodifiableMap(nodesByKind);
+    }
+
+    public List<MethodStats> getMethods() {
+        return List.copyOf(methods.values());
+    }
+
+    public Map<String, Long> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public String toJson() {
+        var json = new JsonObject();
+
+        var stagesJson = new JsonArray();
+        for (var stage : stages) {
+            var stageJson = new JsonObject();
+            stageJson.addProperty("name", stage.getName());
+            stageJson.addProperty("depth", stage.getDepth());
+            stageJson.addProperty("wallNanos", stage.getWallNanos());
+            stageJson.addProperty("cpuNanos", stage.getCpuNanos());
+            stageJson.addProperty("allocatedBytes", stage.getAllocatedBytes());
+            stagesJson.add(stageJson);
+        }
+        json.add("stages", stagesJson);
+
+        var astJson = new JsonObject();
+        astJson.addProperty("nodes", astNodes);
+        var kindsJson = new JsonObject();
+        nodesByKind.forEach(kindsJson::addProperty);
+        astJson.add("nodesByKind", kindsJson);
+        json.add("ast", astJson);
+
+        var methodsJson = new JsonArray();
+        for (var method : methods.values()) {
+            var methodJson = new JsonObject();
+            methodJson.addProperty("name", method.getName());
+            methodJson.addProperty("signature", method.getSignature());
+            methodJson.addProperty("astNodes", method.getAstNodes());
+            methodJson.addProperty("statements", method.getStatements());
+            methodJson.addProperty("locals", method.getLocals());
+            methodJson.addProperty("jasminInstructions", method.getJasminInstructions());
+            methodsJson.add(methodJson);
+        }
+        json.add("methods", methodsJson);
+
+        var countersJson = new JsonObject();
+        counters.forEach(countersJson::addProperty);
+        json.add("counters", countersJson);
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+    }
+
+    public String toTable() {
+        var table = new StringBuilder();
+
+        table.append(String.format("%-36s %12s %12s %14s", "Stage", "Wall (ms)", "CPU (ms)", "Alloc (KB)")).append(NL);
+
+        long totalWall = 0;
+        long totalCpu = 0;
+        long totalAllocated = 0;
+        for (var stage : stages) {
+            table.append(String.format("%-36s %12s %12s %14s",
+                    INDENT.repeat(stage.getDepth()) + stage.getName(),
+                    millis(stage.getWallNanos()), millis(stage.getCpuNanos()), kilobytes(stage.getAllocatedBytes())))
+                    .append(NL);
+
+            if (stage.getDepth() == 0) {
+                totalWall += stage.getWallNanos();
+                totalCpu = stage.getCpuNanos() < 0 || totalCpu < 0 ? -1 : totalCpu + stage.getCpuNanos();
+                totalAllocated = stage.getAllocatedBytes() < 0 || totalAllocated < 0
+                        ? -1 : totalAllocated + stage.getAllocatedBytes();
+            }
+        }
+
+        table.append(String.format("%-36s %12s %12s %14s", "total",
+                millis(totalWall), millis(totalCpu), kilobytes(totalAllocated))).append(NL);
+
+        if (astNodes > 0) {
+            table.append(NL).append("AST nodes: ").append(astNodes).append(NL);
+            nodesByKind.forEach((kind, count) -> table.append(String.format("%-36s %12d", INDENT + kind, count))
+                    .append(NL));
+        }
+
+        if (!methods.isEmpty()) {
+            table.append(NL).append(String.format("%-36s %12s %12s %14s %14s",
+                    "Method", "AST nodes", "Statements", "Locals", "Jasmin instrs")).append(NL);
+
+            for (var method : methods.values()) {
+                table.append(String.format("%-36s %12d %12d %14d %14s", method.getSignature(), method.getAstNodes(),
+                                method.getStatements(), method.getLocals(),
+                                method.getJasminInstructions() < 0 ? "-" : method.getJasminInstructions()))
+                        .append(NL);
+            }
+        }
+
+        if (!counters.isEmpty()) {
+            table.append(NL).append("Counters:").append(NL);
+            counters.forEach((name, value) -> table.append(String.format("%-36s %12d", INDENT + name, value))
+                    .append(NL));
+        }
+
+        return table.toString();
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 0 ? "-" : String.format("%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String kilobytes(long bytes) {
+        return bytes < 0 ? "-" : String.format("%.1f", bytes / 1024.0);
+    }
+
+    private static long cpuTime() {
+        if (!THREADS.isCurrentThreadCpuTimeSupported() || !THREADS.isThreadCpuTimeEnabled()) {
+            return -1;
+        }
+
+        return THREADS.getCurrentThreadCpuTime();
+    }
+
+    private static long allocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,57 @@
+package pt.up.fe.comp2024.stats;
+
+/**
+ * The size of a single method, to correlate the cost of the stages with the shape of the input.
+ */
+public class MethodStats {
+
+    private final String name;
+    private final String signature;
+    private final int astNodes;
+    private final int statements;
+    private final int locals;
+    private int jasminInstructions;
+
+    public MethodStats(String name, String signature, int astNodes, int statements, int locals) {
+        this.name = name;
+        this.signature = signature;
+        this.astNodes = astNodes;
+        this.statements = statements;
+        this.locals = locals;
+        this.jasminInstructions = -1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the name and the parameter types of the method, which tell overloads apart, e.g. 'add(int, int[])'
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public int getAstNodes() {
+        return astNodes;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getLocals() {
+        return locals;
+    }
+
+    /**
+     * @return the number of Jasmin instructions of the method, or -1 if no Jasmin code was generated
+     */
+    public int getJasminInstructions() {
+        return jasminInstructions;
+    }
+
+    void setJasminInstructions(int jasminInstructions) {
+        this.jasminInstructions = jasminInstructions;
+    }
+}
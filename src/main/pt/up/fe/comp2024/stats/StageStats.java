@@ -0,0 +1,46 @@
+package pt.up.fe.comp2024.stats;
+
+/**
+ * The cost of running a single stage or pass, measured on the thread that ran it.
+ * <p>
+ * CPU time and allocated bytes are -1 when the JVM does not support measuring them.
+ */
+public class StageStats {
+
+    private final String name;
+    private final int depth;
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+
+    public StageStats(String name, int depth, long wallNanos, long cpuNanos, long allocatedBytes) {
+        this.name = name;
+        this.depth = depth;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 0 for a top-level stage, 1 for a pass inside a stage, and so on
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
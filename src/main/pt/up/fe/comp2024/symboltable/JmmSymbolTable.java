@@ -3,11 +3,26 @@ package pt.up.fe.comp2024.symboltable;
 import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp2024.ast.ExprTypes;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Symbol table of a Java-- class.
+ * <p>
+ * Besides the lists of the {@link SymbolTable} interface, keeps hash indexes of the parameters and locals of each
+ * method, the fields and the imports, so that names are resolved in constant time and without allocating (see
+ * {@link SymbolTableUtils}). When a name is declared more than once, the index keeps the first declaration, which is
+ * the one a linear search of the lists would find.
+ * <p>
+ * Once the semantic analysis annotates the AST, the table also carries the {@link ExprTypes} of the class, so that the
+ * backends can reuse them.
+ */
 public class JmmSymbolTable implements SymbolTable {
 
     private final String className;
@@ -19,6 +34,13 @@ public class JmmSymbolTable implements SymbolTable {
     private final String superClass;
     private final List<Symbol> fields;
 
+    private final Map<String, Map<String, Symbol>> paramsByName;
+    private final Map<String, Map<String, Symbol>> localsByName;
+    private final Map<String, Symbol> fieldsByName;
+    private final Set<String> importSet;
+
+    private ExprTypes exprTypes;
+
     public JmmSymbolTable(String className,
                           List<String> methods,
                           Map<String, Type> returnTypes,
@@ -30,17 +52,41 @@ public class JmmSymbolTable implements SymbolTable {
         this.className = className;
         this.methods = methods;
         this.returnTypes = returnTypes;
-        this.params = params;
-        this.locals = locals;
-        this.imports = imports;
+        this.params = unmodifiableLists(params);
+        this.locals = unmodifiableLists(locals);
+        this.imports = Collections.unmodifiableList(imports);
         this.superClass = superClass;
-        this.fields = fields;
+        this.fields = Collections.unmodifiableList(fields);
+
+        this.paramsByName = new HashMap<>();
+        this.localsByName = new HashMap<>();
+        params.forEach((method, symbols) -> paramsByName.put(method, index(symbols)));
+        locals.forEach((method, symbols) -> localsByName.put(method, index(symbols)));
+        this.fieldsByName = index(fields);
+        this.importSet = new HashSet<>(imports);
+    }
+
+    // Wrapped once, so that the getters do not allocate
+    private static Map<String, List<Symbol>> unmodifiableLists(Map<String, List<Symbol>> symbols) {
+        var wrapped = new HashMap<String, List<Symbol>>();
+        symbols.forEach((method, methodSymbols) -> wrapped.put(method, Collections.unmodifiableList(methodSymbols)));
+
+        return wrapped;
+    }
+
+    private static Map<String, Symbol> index(List<Symbol> symbols) {
+        var index = new HashMap<String, Symbol>();
+
+        for (var symbol : symbols) {
+            index.putIfAbsent(symbol.getName(), symbol);
+        }
 
+        return index;
     }
 
     @Override
     public List<String> getImports() {
-        return Collections.unmodifiableList(imports);
+        return imports;
     }
 
     @Override
@@ -53,7 +99,7 @@ public class JmmSymbolTable implements SymbolTable {
 
     @Override
     public List<Symbol> getFields() {
-        return Collections.unmodifiableList(fields);
+        return fields;
     }
 
     @Override
@@ -68,12 +114,57 @@ public class JmmSymbolTable implements SymbolTable {
 
     @Override
     public List<Symbol> getParameters(String methodSignature) {
-        return Collections.unmodifiableList(params.get(methodSignature));
+        return params.get(methodSignature);
     }
 
     @Override
     public List<Symbol> getLocalVariables(String methodSignature) {
-        return Collections.unmodifiableList(locals.get(methodSignature));
+        return locals.get(methodSignature);
+    }
+
+    /**
+     * @param methodSignature
+     * @param name
+     * @return the parameter of the method with the given name, or null if there is none
+     */
+    public Symbol getParameter(String methodSignature, String name) {
+        var methodParams = paramsByName.get(methodSignature);
+
+        return methodParams == null ? null : methodParams.get(name);
+    }
+
+    /**
+     * @param methodSignature
+     * @param name
+     * @return the local variable of the method with the given name, or null if there is none
+     */
+    public Symbol getLocalVariable(String methodSignature, String name) {
+        var methodLocals = localsByName.get(methodSignature);
+
+        return methodLocals == null ? null : methodLocals.get(name);
+    }
+
+    /**
+     * @param name
+     * @return the field with the given name, or null if there is none
+     */
+    public Symbol getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    public boolean isImported(String name) {
+        return importSet.contains(name);
+    }
+
+    /**
+     * @return the types of the expressions of the AST of this class, or null if they were not annotated yet
+     */
+    public ExprTypes getExprTypes() {
+        return exprTypes;
+    }
+
+    public void setExprTypes(ExprTypes exprTypes) {
+        this.exprTypes = exprTypes;
     }
 
 }
@@ -4,6 +4,7 @@ import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.TypeUtils;
 import pt.up.fe.specs.util.SpecsCheck;
 
 import java.util.*;
@@ -24,7 +25,7 @@ public class JmmSymbolTableBuilder {
         var classDecl = root.getChildren(Kind.CLASS_DECL).get(0);
         var superClass = classDecl.getOptional("extension").orElse(null);
         var fields = classDecl.getChildren(Kind.VAR_DECL).stream()
-                .map(field -> new Symbol(new Type(field.getChild(0).get("typeName"), Boolean.parseBoolean(field.getChild(0).get("isArray"))), field.get("varName")))
+                .map(field -> new Symbol(TypeUtils.getType(field.getChild(0).get("typeName"), Boolean.parseBoolean(field.getChild(0).get("isArray"))), field.get("varName")))
                 .toList();
         SpecsCheck.checkArgument(Kind.CLASS_DECL.check(classDecl), () -> "Expected a class declaration: " + classDecl);
         String className = classDecl.get("className");
@@ -42,7 +43,7 @@ public class JmmSymbolTableBuilder {
         Map<String, Type> map = new HashMap<>();
 
         classDecl.getChildren(Kind.METHOD_DECL).stream()
-                .forEach(method -> map.put(method.get("name"), new Type(method.getChild(0).get("typeName"), Boolean.parseBoolean(method.getChild(0).get("isArray")))));
+                .forEach(method -> map.put(method.get("name"), TypeUtils.getType(method.getChild(0).get("typeName"), Boolean.parseBoolean(method.getChild(0).get("isArray")))));
 
         return map;
     }
@@ -59,7 +60,7 @@ public class JmmSymbolTableBuilder {
 
     public static List<Symbol> getMethodDeclParams(JmmNode methodDecl) {
             return methodDecl.getChildren(Kind.PARAM_DECL).stream()
-                    .map(param -> new Symbol(new Type(param.getChild(0).get("typeName"), Boolean.parseBoolean(param.getChild(0).get("isArray"))), param.get("var")))
+                    .map(param -> new Symbol(TypeUtils.getType(param.getChild(0).get("typeName"), Boolean.parseBoolean(param.getChild(0).get("isArray"))), param.get("var")))
                     .toList();
     }
 
@@ -83,7 +84,7 @@ public class JmmSymbolTableBuilder {
     private static List<Symbol> getLocalsList(JmmNode methodDecl) {
 
         return methodDecl.getChildren(Kind.VAR_DECL).stream()
-                .map(varDecl -> new Symbol(new Type(varDecl.getChild(0).get("typeName"), Boolean.parseBoolean(varDecl.getChild(0).get("isArray"))), varDecl.get("varName")))
+                .map(varDecl -> new Symbol(TypeUtils.getType(varDecl.getChild(0).get("typeName"), Boolean.parseBoolean(varDecl.getChild(0).get("isArray"))), varDecl.get("varName")))
                 .toList();
     }
 
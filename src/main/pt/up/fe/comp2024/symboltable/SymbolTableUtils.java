@@ -0,0 +1,91 @@
+package pt.up.fe.comp2024.symboltable;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+
+import java.util.List;
+
+/**
+ * Lookups of names in a {@link SymbolTable}, which use the indexes of {@link JmmSymbolTable} when available, and fall
+ * back to a linear search for other implementations.
+ */
+public class SymbolTableUtils {
+
+    /**
+     * @param table
+     * @param method
+     * @param name
+     * @return the parameter of the method with the given name, or null if there is none
+     */
+    public static Symbol getParameter(SymbolTable table, String method, String name) {
+        if (table instanceof JmmSymbolTable jmmTable) {
+            return jmmTable.getParameter(method, name);
+        }
+
+        return find(table.getParameters(method), name);
+    }
+
+    /**
+     * @param table
+     * @param method
+     * @param name
+     * @return the local variable of the method with the given name, or null if there is none
+     */
+    public static Symbol getLocalVariable(SymbolTable table, String method, String name) {
+        if (table instanceof JmmSymbolTable jmmTable) {
+            return jmmTable.getLocalVariable(method, name);
+        }
+
+        return find(table.getLocalVariables(method), name);
+    }
+
+    /**
+     * @param table
+     * @param name
+     * @return the field with the given name, or null if there is none
+     */
+    public static Symbol getField(SymbolTable table, String name) {
+        if (table instanceof JmmSymbolTable jmmTable) {
+            return jmmTable.getField(name);
+        }
+
+        return find(table.getFields(), name);
+    }
+
+    /**
+     * @param table
+     * @param method
+     * @param name
+     * @return true if the name is a parameter or a local variable of the method
+     */
+    public static boolean isLocal(SymbolTable table, String method, String name) {
+        return getParameter(table, method, name) != null || getLocalVariable(table, method, name) != null;
+    }
+
+    /**
+     * @param table
+     * @param name
+     * @return true if the name is one of the imports of the table
+     */
+    public static boolean isImported(SymbolTable table, String name) {
+        if (table instanceof JmmSymbolTable jmmTable) {
+            return jmmTable.isImported(name);
+        }
+
+        return table.getImports().contains(name);
+    }
+
+    private static Symbol find(List<Symbol> symbols, String name) {
+        if (symbols == null) {
+            return null;
+        }
+
+        for (var symbol : symbols) {
+            if (symbol.getName().equals(name)) {
+                return symbol;
+            }
+        }
+
+        return null;
+    }
+}
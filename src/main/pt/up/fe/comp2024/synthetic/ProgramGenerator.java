@@ -0,0 +1,292 @@
+package pt.up.fe.comp2024.synthetic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates valid Java-- programs of a given {@link ProgramShape}, for benchmarks and stress tests.
+ * <p>
+ * Programs conform to Javamm.g4 and pass the semantic analysis: every variable is declared and initialized before
+ * being used, and every expression has the type its context expects. The generated code only depends on the seed and
+ * on the shape, so the same generator always produces the same sequence of programs.
+ * <p>
+ * Every method has the signature 'int mN(int a, int[] b, boolean c)', so that calls between methods can be generated
+ * without keeping track of signatures. Imported classes are only used in expression statements, since their methods
+ * have unknown types.
+ */
+public class ProgramGenerator {
+
+    private static final String NL = "\n";
+    private static final String TAB = "    ";
+
+    private static final String CLASS_NAME = "Synthetic";
+
+    // Statements inside conditionals and loops, which are not counted in ProgramShape.getStatements()
+    private static final int NESTED_STATEMENTS = 2;
+
+    private static final int MAX_LITERAL = 100;
+
+    private final Random random;
+
+    private ProgramShape shape;
+    private StringBuilder code;
+
+    // Variables in scope in the current method, by type
+    private final List<String> intVars;
+    private final List<String> booleanVars;
+    private final List<String> arrayVars;
+
+    public ProgramGenerator(long seed) {
+        this.random = new Random(seed);
+        this.intVars = new ArrayList<>();
+        this.booleanVars = new ArrayList<>();
+        this.arrayVars = new ArrayList<>();
+    }
+
+    /**
+     * @param shape
+     * @return the code of a new program with the given shape
+     */
+    public String generate(ProgramShape shape) {
+        this.shape = shape;
+        this.code = new StringBuilder();
+
+        for (int i = 0; i < shape.getImports(); i++) {
+            code.append("import lib").append(i).append(".Lib").append(i).append(";").append(NL);
+        }
+
+        code.append("class ").append(CLASS_NAME).append(" {").append(NL);
+
+        for (int i = 0; i < shape.getFields(); i++) {
+            code.append(TAB).append(typeName(i)).append(" f").append(i).append(";").append(NL);
+        }
+
+        for (int i = 0; i < shape.getMethods(); i++) {
+            generateMethod(i);
+        }
+
+        code.append(TAB).append("public static void main(String[] args) {").append(NL);
+        code.append(TAB).append("}").append(NL);
+        code.append("}").append(NL);
+
+        return code.toString();
+    }
+
+    private void generateMethod(int index) {
+        intVars.clear();
+        booleanVars.clear();
+        arrayVars.clear();
+
+        intVars.add("a");
+        arrayVars.add("b");
+        booleanVars.add("c");
+
+        // Fields are initialized in the first statements of each method, since methods can be called in any order
+        for (int i = 0; i < shape.getFields(); i++) {
+            addVar("f" + i, i);
+        }
+
+        code.append(TAB).append("public int m").append(index).append("(int a, int[] b, boolean c) {").append(NL);
+
+        var indent = TAB + TAB;
+
+        for (int i = 0; i < shape.getLocals(); i++) {
+            code.append(indent).append(typeName(i)).append(" l").append(i).append(";").append(NL);
+        }
+
+        for (int i = 0; i < shape.getFields(); i++) {
+            generateInit("f" + i, i, indent);
+        }
+
+        for (int i = 0; i < shape.getLocals(); i++) {
+            generateInit("l" + i, i, indent);
+            addVar("l" + i, i);
+        }
+
+        for (int i = 0; i < shape.getStatements(); i++) {
+            // The first statement is the deepest loop nest, so that every method scales with the loop nesting
+            if (i == 0 && shape.getLoopNesting() > 0) {
+                generateWhile(shape.getLoopNesting(), indent);
+            } else {
+                generateStatement(shape.getLoopNesting() - 1, indent);
+            }
+        }
+
+        code.append(indent).append("return ").append(intExpr(shape.getExpressionDepth())).append(";").append(NL);
+        code.append(TAB).append("}").append(NL);
+    }
+
+    private void generateInit(String name, int typeIndex, String indent) {
+        var value = switch (typeIndex % 3) {
+            case 0 -> Integer.toString(random.nextInt(MAX_LITERAL));
+            case 1 -> random.nextBoolean() ? "true" : "false";
+            default -> arrayLiteral(0);
+        };
+
+        code.append(indent).append(name).append(" = ").append(value).append(";").append(NL);
+    }
+
+    /**
+     * @param loops the maximum number of nested loops that the statement can have
+     */
+    private void generateStatement(int loops, String indent) {
+        int kind = random.nextInt(loops > 0 ? 7 : 6);
+
+        switch (kind) {
+            case 0 -> generateAssign(intVars, intExpr(depth()), indent);
+            case 1 -> generateAssign(booleanVars, booleanExpr(depth()), indent);
+            case 2 -> generateAssign(arrayVars, arrayExpr(depth()), indent);
+            case 3 -> code.append(indent).append(pick(arrayVars)).append("[").append(intExpr(0)).append("] = ")
+                    .append(intExpr(depth())).append(";").append(NL);
+            case 4 -> generateIf(loops, indent);
+            case 5 -> generateCallStatement(indent);
+            default -> generateWhile(loops, indent);
+        }
+    }
+
+    private void generateAssign(List<String> vars, String value, String indent) {
+        code.append(indent).append(pick(vars)).append(" = ").append(value).append(";").append(NL);
+    }
+
+    private void generateIf(int loops, String indent) {
+        code.append(indent).append("if (").append(booleanExpr(depth())).append(") {").append(NL);
+        generateBlock(loops, indent + TAB);
+        code.append(indent).append("} else {").append(NL);
+        generateBlock(loops, indent + TAB);
+        code.append(indent).append("}").append(NL);
+    }
+
+    /**
+     * Generates a nest of the given number of loops, each with a few statements besides the nested loop.
+     */
+    private void generateWhile(int loops, String indent) {
+        code.append(indent).append("while (").append(booleanExpr(depth())).append(") {").append(NL);
+
+        var bodyIndent = indent + TAB;
+        generateBlock(0, bodyIndent);
+        if (loops > 1) {
+            generateWhile(loops - 1, bodyIndent);
+        }
+
+        code.append(indent).append("}").append(NL);
+    }
+
+    private void generateBlock(int loops, String indent) {
+        for (int i = 0; i < NESTED_STATEMENTS; i++) {
+            // Nested statements are only assignments, so that the size of a method is linear in its statements
+            generateAssign(intVars, intExpr(depth()), indent);
+        }
+
+        if (loops > 0 && random.nextBoolean()) {
+            generateWhile(loops, indent);
+        }
+    }
+
+    private void generateCallStatement(String indent) {
+        if (shape.getImports() > 0 && random.nextBoolean()) {
+            int lib = random.nextInt(shape.getImports());
+            code.append(indent).append("Lib").append(lib).append(".use(").append(intExpr(depth())).append(");")
+                    .append(NL);
+            return;
+        }
+
+        code.append(indent).append(call(depth())).append(";").append(NL);
+    }
+
+    private String intExpr(int depth) {
+        if (depth == 0) {
+            return switch (random.nextInt(4)) {
+                case 0 -> Integer.toString(random.nextInt(MAX_LITERAL));
+                case 1 -> pick(arrayVars) + ".length";
+                default -> pick(intVars);
+            };
+        }
+
+        return switch (random.nextInt(6)) {
+            case 0 -> "(" + intExpr(depth - 1) + ")";
+            case 1 -> pick(arrayVars) + "[" + intExpr(depth - 1) + "]";
+            case 2 -> shape.getMethods() > 0 ? call(depth - 1) : intExpr(depth - 1);
+            default -> intExpr(depth - 1) + " " + pick("+", "-", "*", "/") + " " + intExpr(random.nextInt(depth));
+        };
+    }
+
+    private String booleanExpr(int depth) {
+        if (depth == 0) {
+            return switch (random.nextInt(3)) {
+                case 0 -> random.nextBoolean() ? "true" : "false";
+                default -> pick(booleanVars);
+            };
+        }
+
+        return switch (random.nextInt(4)) {
+            case 0 -> "!" + booleanExpr(depth - 1);
+            case 1 -> booleanExpr(depth - 1) + " && " + booleanExpr(random.nextInt(depth));
+            default -> intExpr(depth - 1) + " < " + intExpr(random.nextInt(depth));
+        };
+    }
+
+    private String arrayExpr(int depth) {
+        return switch (random.nextInt(3)) {
+            case 0 -> pick(arrayVars);
+            case 1 -> "new int[" + intExpr(depth) + "]";
+            default -> arrayLiteral(depth);
+        };
+    }
+
+    private String arrayLiteral(int depth) {
+        // The analysis does not support empty array literals
+        if (shape.getArrayLiteralSize() == 0) {
+            return "new int[" + intExpr(depth) + "]";
+        }
+
+        var literal = new StringBuilder("[");
+
+        for (int i = 0; i < shape.getArrayLiteralSize(); i++) {
+            if (i > 0) {
+                literal.append(", ");
+            }
+            literal.append(i == 0 ? intExpr(depth) : intExpr(0));
+        }
+
+        return literal.append("]").toString();
+    }
+
+    private String call(int argumentDepth) {
+        int method = random.nextInt(Math.max(shape.getMethods(), 1));
+
+        return "this.m" + method + "(" + intExpr(argumentDepth) + ", " + pick(arrayVars) + ", "
+                + booleanExpr(argumentDepth) + ")";
+    }
+
+    /**
+     * @return a random expression depth, up to the maximum of the shape
+     */
+    private int depth() {
+        return random.nextInt(shape.getExpressionDepth() + 1);
+    }
+
+    private void addVar(String name, int typeIndex) {
+        switch (typeIndex % 3) {
+            case 0 -> intVars.add(name);
+            case 1 -> booleanVars.add(name);
+            default -> arrayVars.add(name);
+        }
+    }
+
+    private static String typeName(int typeIndex) {
+        return switch (typeIndex % 3) {
+            case 0 -> "int";
+            case 1 -> "boolean";
+            default -> "int[]";
+        };
+    }
+
+    private String pick(List<String> options) {
+        return options.get(random.nextInt(options.size()));
+    }
+
+    private String pick(String... options) {
+        return options[random.nextInt(options.length)];
+    }
+}
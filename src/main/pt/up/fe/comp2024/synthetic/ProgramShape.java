@@ -0,0 +1,165 @@
+package pt.up.fe.comp2024.synthetic;
+
+import java.util.List;
+
+/**
+ * The size of a program generated by {@link ProgramGenerator}, along independent axes.
+ * <p>
+ * Instances are immutable, the 'with' methods return a copy with one axis changed.
+ */
+public class ProgramShape {
+
+    /**
+     * The axes along which a shape can be scaled, see {@link #scale(String, int)}.
+     */
+    public static final List<String> AXES = List.of("methods", "fields", "locals", "statements", "depth", "nesting",
+            "imports", "arraySize");
+
+    private final int methods;
+    private final int fields;
+    private final int locals;
+    private final int statements;
+    private final int expressionDepth;
+    private final int loopNesting;
+    private final int imports;
+    private final int arrayLiteralSize;
+
+    public ProgramShape(int methods, int fields, int locals, int statements, int expressionDepth, int loopNesting,
+                        int imports, int arrayLiteralSize) {
+        this.methods = checkNonNegative(methods, "methods");
+        this.fields = checkNonNegative(fields, "fields");
+        this.locals = checkNonNegative(locals, "locals");
+        this.statements = checkNonNegative(statements, "statements");
+        this.expressionDepth = checkNonNegative(expressionDepth, "expression depth");
+        this.loopNesting = checkNonNegative(loopNesting, "loop nesting");
+        this.imports = checkNonNegative(imports, "imports");
+        this.arrayLiteralSize = checkNonNegative(arrayLiteralSize, "array literal size");
+    }
+
+    /**
+     * @return a small shape, similar to the programs of the test corpus
+     */
+    public static ProgramShape small() {
+        return new ProgramShape(4, 2, 3, 6, 2, 1, 1, 3);
+    }
+
+    public int getMethods() {
+        return methods;
+    }
+
+    public int getFields() {
+        return fields;
+    }
+
+    /**
+     * @return the number of local variables of each method, besides the parameters
+     */
+    public int getLocals() {
+        return locals;
+    }
+
+    /**
+     * @return the number of statements in the body of each method, not counting nested statements
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the maximum depth of the expression trees, 0 for literals and variables only
+     */
+    public int getExpressionDepth() {
+        return expressionDepth;
+    }
+
+    /**
+     * @return the maximum number of nested loops in each method
+     */
+    public int getLoopNesting() {
+        return loopNesting;
+    }
+
+    public int getImports() {
+        return imports;
+    }
+
+    public int getArrayLiteralSize() {
+        return arrayLiteralSize;
+    }
+
+    public ProgramShape withMethods(int methods) {
+        return new ProgramShape(methods, fields, locals, statements, expressionDepth, loopNesting, imports,
+                arrayLiteralSize);
+    }
+
+    public ProgramShape withFields(int fields) {
+        return new ProgramShape(methods, fields, locals, statements, expressionDepth, loopNesting, imports,
+                arrayLiteralSize);
+    }
+
+    public ProgramShape withLocals(int locals) {
+        return new ProgramShape(methods, fields, locals, statements, expressionDepth, loopNesting, imports,
+                arrayLiteralSize);
+    }
+
+    public ProgramShape withStatements(int statements) {
+        return new ProgramShape(methods, fields, locals, statements, expressionDepth, loopNesting, imports,
+                arrayLiteralSize);
+    }
+
+    public ProgramShape withExpressionDepth(int expressionDepth) {
+        return new ProgramShape(methods, fields, locals, statements, expressionDepth, loopNesting, imports,
+                arrayLiteralSize);
+    }
+
+    public ProgramShape withLoopNesting(int loopNesting) {
+        return new ProgramShape(methods, fields, locals, statements, expressionDepth, loopNesting, imports,
+                arrayLiteralSize);
+    }
+
+    public ProgramShape withImports(int imports) {
+        return new ProgramShape(methods, fields, locals, statements, expressionDepth, loopNesting, imports,
+                arrayLiteralSize);
+    }
+
+    public ProgramShape withArrayLiteralSize(int arrayLiteralSize) {
+        return new ProgramShape(methods, fields, locals, statements, expressionDepth, loopNesting, imports,
+                arrayLiteralSize);
+    }
+
+    /**
+     * Sets the value of one of the {@link #AXES}.
+     *
+     * @param axis
+     * @param value
+     * @return a copy of this shape with the given axis changed
+     */
+    public ProgramShape scale(String axis, int value) {
+        return switch (axis) {
+            case "methods" -> withMethods(value);
+            case "fields" -> withFields(value);
+            case "locals" -> withLocals(value);
+            case "statements" -> withStatements(value);
+            case "depth" -> withExpressionDepth(value);
+            case "nesting" -> withLoopNesting(value);
+            case "imports" -> withImports(value);
+            case "arraySize" -> withArrayLiteralSize(value);
+            default -> throw new IllegalArgumentException("Unknown axis '" + axis + "', expected one of " + AXES);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "methods=" + methods + ", fields=" + fields + ", locals=" + locals + ", statements=" + statements
+                + ", depth=" + expressionDepth + ", nesting=" + loopNesting + ", imports=" + imports
+                + ", arraySize=" + arrayLiteralSize;
+    }
+
+    private static int checkNonNegative(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Expected a non-negative number of " + name + ", got " + value);
+        }
+
+        return value;
+    }
+}
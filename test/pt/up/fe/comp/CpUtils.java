@@ -23,6 +23,7 @@ import pt.up.fe.specs.util.SpecsCollections;
 import pt.up.fe.specs.util.SpecsIo;
 import pt.up.fe.specs.util.SpecsStrings;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
+import pt.up.fe.specs.util.system.ProcessOutputAsString;
 import pt.up.fe.specs.util.utilities.LineStream;
 
 import java.io.File;
@@ -51,6 +52,9 @@ public class CpUtils {
     public static final String IF_REGEX = "((if_icmpeq|if_icmpne|if_icmplt|if_icmpge|if_icmpgt|if_icmple|ifeq|ifne|iflt|ifge|ifgt|ifle)\\s+\\w+)";
     public static final String GOTO_REGEX = "(goto\\s+\\w+)";
 
+    // Runs the compiled programs inside the test JVM, instead of starting a 'java' process for each of them
+    private static final ProgramRunner RUNNER = new ProgramRunner();
+
     static final String FIELD_PREFIX = "\\.field\\s+((public|private)\\s+)?(')?";
     static final String FIELD_SUFFIX = "(')?\\s+";
 
@@ -109,6 +113,13 @@ public class CpUtils {
         // return message + "\n\nJasmin:\n" + result.getJasminCode();
     }
 
+    /**
+     * Runs the compiled program, as {@link JasminResult#runWithFullOutput()}, but in the test JVM.
+     */
+    public static ProcessOutputAsString run(JasminResult jasminResult) {
+        return RUNNER.run(jasminResult);
+    }
+
     public static void testOllirToJasmin(String resource, String expectedOutput) {
         // If AstToJasmin pipeline, do not execute test
         if (TestUtils.hasAstToJasminClass()) {
@@ -121,7 +132,7 @@ public class CpUtils {
 
         var testName = new File(resource).getName();
         System.out.println(testName + ":\n" + result.getJasminCode());
-        var runOutput = result.runWithFullOutput();
+        var runOutput = run(result);
         Assert.assertEquals("Error while running compiled Jasmin: " + runOutput.getOutput() + "\n\nJasmin code:\n"
                 + result.getJasminCode(), 0, runOutput.getReturnValue());
         System.out.println("\n Result: " + runOutput.getOutput());
@@ -145,7 +156,7 @@ public class CpUtils {
 
             var testName = new File(resource).getName();
             System.out.println(testName + ":\n" + result.getJasminCode());
-            var runOutput = result.runWithFullOutput();
+            var runOutput = run(result);
             Assert.assertEquals("Error while running compiled Jasmin: " + runOutput.getOutput() + "\n\nJasmin code:\n"
                             + result.getJasminCode(), 0,
                     runOutput.getReturnValue());
@@ -528,7 +539,7 @@ public class CpUtils {
 
     public static void runJasmin(JasminResult jasminResult, String expected) {
         try {
-            var output = SpecsStrings.normalizeFileContents(jasminResult.run(), true);
+            var output = SpecsStrings.normalizeFileContents(run(jasminResult).getOutput(), true);
             assertEquals("Jasmin output", expected, output, jasminResult);
         } catch (Exception e) {
             throw new RuntimeException("Problems while running Jasmin code:\n" + jasminResult.getJasminCode(), e);
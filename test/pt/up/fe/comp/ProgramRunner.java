@@ -0,0 +1,520 @@
+package pt.up.fe.comp;
+
+import jasmin.ClassFile;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp2024.classfile.ClassFileAssembler;
+import pt.up.fe.comp2024.classfile.ClassFileResult;
+import pt.up.fe.specs.util.system.ProcessOutputAsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs compiled Java-- programs inside the current JVM, as a faster replacement for
+ * {@link JasminResult#runWithFullOutput()}, which starts a 'java' process for each program.
+ * <p>
+ * Each run loads the program and the classes of the classpath in a new class loader, so runs do not share static
+ * state, and calls 'main' in a thread of its own. What that thread prints to System.out and System.err, and reads from
+ * System.in, is redirected to the run, so several programs can run at the same time. The original streams are put
+ * back when no run is left. The output has the same form as the one of the process: lines end with '\n', and the
+ * standard error follows the standard output.
+ * <p>
+ * Programs share the JVM of the caller, so a program that calls System.exit (or Runtime.exit or halt) is not run,
+ * since it would stop the tests. Only the class of the program is checked, not the classes of the classpath.
+ */
+public class ProgramRunner {
+
+    /**
+     * Same as the timeout of {@link JasminResult#runWithFullOutput()}.
+     */
+    public static final long DEFAULT_TIMEOUT_MS = 5_000;
+
+    /**
+     * The return value of a run that did not finish in time, as for processes.
+     */
+    public static final int TIMED_OUT = -1;
+
+    private static final String LIBS_CLASSPATH = "libs-jmm/compiled";
+
+    // Methods that would stop the JVM of the runner, as owner and name
+    private static final Set<String> EXIT_METHODS = Set.of("java/lang/System.exit", "java/lang/Runtime.exit",
+            "java/lang/Runtime.halt");
+
+    private static final ThreadLocal<Streams> STREAMS = new InheritableThreadLocal<>();
+
+    // The streams installed by the runner while programs run, and the ones they replaced
+    private static PrintStream routedOut = null;
+    private static PrintStream routedErr = null;
+    private static InputStream routedIn = null;
+    private static PrintStream originalOut = null;
+    private static PrintStream originalErr = null;
+    private static InputStream originalIn = null;
+    private static int activeRuns = 0;
+
+    private final URL[] classpath;
+    private final long timeoutMs;
+
+    /**
+     * The streams of the thread of a run.
+     */
+    private record Streams(ByteArrayOutputStream out, ByteArrayOutputStream err, InputStream in) {
+    }
+
+    public ProgramRunner() {
+        this(List.of(LIBS_CLASSPATH), DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * @param classpath the folders and jars with the classes that programs use, such as the ones they import
+     * @param timeoutMs the maximum time of each run
+     */
+    public ProgramRunner(List<String> classpath, long timeoutMs) {
+        this.classpath = classpath.stream().map(ProgramRunner::toUrl).toArray(URL[]::new);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * @return the class file of the result, assembled by Jasmin unless it was already assembled
+     */
+    public static ClassFileAssembler.AssembledClass assemble(JasminResult jasminResult) {
+        if (jasminResult instanceof ClassFileResult classFileResult) {
+            return new ClassFileAssembler.AssembledClass(jasminResult.getClassName(), classFileResult.getClassFile());
+        }
+
+        var classFile = new ClassFile();
+
+        try {
+            classFile.readJasmin(new StringReader(jasminResult.getJasminCode()), jasminResult.getClassName(), false);
+            if (classFile.errorCount() > 0) {
+                throw new RuntimeException("Jasmin found " + classFile.errorCount() + " errors in class '"
+                        + jasminResult.getClassName() + "'");
+            }
+
+            var bytes = new ByteArrayOutputStream();
+            classFile.write(bytes);
+            return new ClassFileAssembler.AssembledClass(classFile.getClassName(), bytes.toByteArray());
+        } catch (Exception e) {
+            throw new RuntimeException("Could not assemble class '" + jasminResult.getClassName() + "'", e);
+        }
+    }
+
+    public ProcessOutputAsString run(JasminResult jasminResult) {
+        return run(assemble(jasminResult), List.of(), null);
+    }
+
+    /**
+     * @param assembledClass the class with the 'main' method
+     * @param args           the arguments of 'main'
+     * @param input          what the program reads from System.in, or null
+     * @return the output of the program, and a return value as the one of 'java'
+     * @throws RuntimeException if the program calls System.exit
+     */
+    public ProcessOutputAsString run(ClassFileAssembler.AssembledClass assembledClass, List<String> args,
+                                     String input) {
+
+        if (callsExit(assembledClass.bytes())) {
+            throw new RuntimeException("Class '" + assembledClass.className()
+                    + "' calls System.exit, which would stop the JVM of the runner, run it as a process instead");
+        }
+
+        var streams = new Streams(new ByteArrayOutputStream(), new ByteArrayOutputStream(),
+                new LineInputStream(input == null ? "" : input));
+        var returnValue = new int[]{0};
+
+        installStreams();
+        try {
+            var thread = new Thread(() -> {
+                STREAMS.set(streams);
+                returnValue[0] = runMain(assembledClass, args);
+            }, "main");
+            thread.setDaemon(true);
+            thread.start();
+
+            try {
+                thread.join(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while running class '" + assembledClass.className() + "'");
+            }
+
+            if (thread.isAlive()) {
+                stop(thread);
+                return new ProcessOutputAsString(TIMED_OUT, toLines(streams.out()), toLines(streams.err()));
+            }
+
+            return new ProcessOutputAsString(returnValue[0], toLines(streams.out()), toLines(streams.err()));
+        } finally {
+            restoreStreams();
+        }
+    }
+
+    /**
+     * Runs the programs at the same time, without arguments or input.
+     *
+     * @param assembledClasses
+     * @param numThreads       the maximum number of programs that run at the same time
+     * @return the output of each program, in the same order
+     */
+    public List<ProcessOutputAsString> runAll(List<ClassFileAssembler.AssembledClass> assembledClasses,
+                                              int numThreads) {
+
+        var executor = Executors.newFixedThreadPool(numThreads, task -> {
+            var thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            var futures = new ArrayList<Future<ProcessOutputAsString>>();
+            for (var assembledClass : assembledClasses) {
+                futures.add(executor.submit(() -> run(assembledClass, List.of(), null)));
+            }
+
+            var outputs = new ArrayList<ProcessOutputAsString>();
+            for (var future : futures) {
+                outputs.add(future.get());
+            }
+
+            return outputs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running programs");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Could not run programs", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the return value, 0 if 'main' returns and 1 if the class could not be loaded or 'main' threw
+     */
+    private int runMain(ClassFileAssembler.AssembledClass assembledClass, List<String> args) {
+        var className = assembledClass.className().replace('/', '.');
+
+        Class<?> mainClass;
+        try (var loader = new ProgramLoader(classpath, assembledClass)) {
+            try {
+                mainClass = Class.forName(className, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Same message as 'java'
+                System.err.println("Error: Unable to initialize main class " + className);
+                System.err.println("Caused by: " + e);
+                return 1;
+            }
+
+            try {
+                // As 'java', also runs classes that are not public
+                var main = mainClass.getMethod("main", String[].class);
+                main.setAccessible(true);
+                main.invoke(null, (Object) args.toArray(String[]::new));
+            } catch (NoSuchMethodException e) {
+                System.err.println("Error: Main method not found in class " + className);
+                return 1;
+            } catch (InvocationTargetException e) {
+                System.err.print("Exception in thread \"main\" ");
+                e.getCause().printStackTrace();
+                return 1;
+            } catch (IllegalAccessException e) {
+                System.err.println("Error: Main method of class " + className + " is not accessible");
+                return 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Programs that do not finish in time are usually in an endless loop, which does not check for interrupts. Since
+     * the thread only runs classes of its own throwaway loader, it can be stopped without leaving shared state
+     * inconsistent.
+     */
+    @SuppressWarnings("deprecation")
+    private static void stop(Thread thread) {
+        thread.interrupt();
+
+        try {
+            thread.stop();
+        } catch (UnsupportedOperationException e) {
+            // Removed in recent JVMs, the daemon thread keeps running until the JVM exits
+        }
+    }
+
+    /**
+     * Redirects System.out, System.err and System.in to the streams of the run of the current thread. Threads that
+     * are not running a program keep using the original streams.
+     */
+    private static synchronized void installStreams() {
+        activeRuns++;
+
+        if (System.out != routedOut) {
+            originalOut = System.out;
+            routedOut = new PrintStream(new RoutedOutputStream(System.out, Streams::out), true);
+            System.setOut(routedOut);
+        }
+
+        if (System.err != routedErr) {
+            originalErr = System.err;
+            routedErr = new PrintStream(new RoutedOutputStream(System.err, Streams::err), true);
+            System.setErr(routedErr);
+        }
+
+        if (System.in != routedIn) {
+            originalIn = System.in;
+            routedIn = new RoutedInputStream(System.in);
+            System.setIn(routedIn);
+        }
+    }
+
+    /**
+     * Puts back the original streams after the last run that is left. Streams that were replaced by someone else in
+     * the meantime are kept. A program that timed out and could not be stopped prints to the original streams.
+     */
+    private static synchronized void restoreStreams() {
+        activeRuns--;
+
+        if (activeRuns > 0) {
+            return;
+        }
+
+        if (System.out == routedOut) {
+            System.setOut(originalOut);
+        }
+
+        if (System.err == routedErr) {
+            System.setErr(originalErr);
+        }
+
+        if (System.in == routedIn) {
+            System.setIn(originalIn);
+        }
+
+        routedOut = null;
+        routedErr = null;
+        routedIn = null;
+        originalOut = null;
+        originalErr = null;
+        originalIn = null;
+    }
+
+    /**
+     * Reads the methods that the class calls from its constant pool.
+     *
+     * @return true if the class calls one of the {@link #EXIT_METHODS}
+     */
+    static boolean callsExit(byte[] classFile) {
+        var in = new DataInputStream(new ByteArrayInputStream(classFile));
+
+        try {
+            // Magic and version
+            in.skipBytes(8);
+
+            int count = in.readUnsignedShort();
+            var utf8 = new String[count];
+            // Name of each class, and name of each name and type, as indices of Utf8 constants
+            var names = new int[count];
+            // Class and name and type of each method reference
+            var methodRefs = new ArrayList<int[]>();
+
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+
+                switch (tag) {
+                    case 1 -> utf8[i] = in.readUTF();
+                    case 7 -> names[i] = in.readUnsignedShort();
+                    case 10, 11 -> methodRefs.add(new int[]{in.readUnsignedShort(), in.readUnsignedShort()});
+                    case 12 -> {
+                        names[i] = in.readUnsignedShort();
+                        in.skipBytes(2);
+                    }
+                    case 8, 16, 19, 20 -> in.skipBytes(2);
+                    case 15 -> in.skipBytes(3);
+                    case 3, 4, 9, 17, 18 -> in.skipBytes(4);
+                    case 5, 6 -> {
+                        // Takes two entries
+                        in.skipBytes(8);
+                        i++;
+                    }
+                    default -> throw new IOException("Unknown constant tag " + tag);
+                }
+            }
+
+            for (var methodRef : methodRefs) {
+                var owner = utf8[names[methodRef[0]]];
+                var name = utf8[names[methodRef[1]]];
+
+                if (EXIT_METHODS.contains(owner + "." + name)) {
+                    return true;
+                }
+            }
+
+            return false;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            // Not a valid class file, which the class loader reports when running it
+            return false;
+        }
+    }
+
+    /**
+     * @return the text, with each line ending with '\n', as read from the output of a process
+     */
+    private static String toLines(ByteArrayOutputStream bytes) {
+        String text;
+        synchronized (bytes) {
+            text = bytes.toString(StandardCharsets.UTF_8);
+        }
+
+        if (text.isEmpty()) {
+            return text;
+        }
+
+        var lines = text.replace("\r\n", "\n").replace('\r', '\n');
+        return lines.endsWith("\n") ? lines : lines + "\n";
+    }
+
+    private static URL toUrl(String path) {
+        try {
+            return new File(path).toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Invalid classpath element '" + path + "'", e);
+        }
+    }
+
+    /**
+     * Loads the program and, separately from the classes of the compiler, the classes of the classpath.
+     */
+    private static class ProgramLoader extends URLClassLoader {
+
+        private final ClassFileAssembler.AssembledClass assembledClass;
+
+        ProgramLoader(URL[] classpath, ClassFileAssembler.AssembledClass assembledClass) {
+            super(classpath, ClassLoader.getPlatformClassLoader());
+
+            this.assembledClass = assembledClass;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (name.equals(assembledClass.className().replace('/', '.'))) {
+                var bytes = assembledClass.bytes();
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+
+            return super.findClass(name);
+        }
+    }
+
+    private static class RoutedOutputStream extends OutputStream {
+
+        private final OutputStream original;
+        private final Function<Streams, ByteArrayOutputStream> select;
+
+        RoutedOutputStream(OutputStream original, Function<Streams, ByteArrayOutputStream> select) {
+            this.original = original;
+            this.select = select;
+        }
+
+        private OutputStream target() {
+            var streams = STREAMS.get();
+            return streams == null ? original : select.apply(streams);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            var target = target();
+            synchronized (target) {
+                target.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            var target = target();
+            synchronized (target) {
+                target.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+    }
+
+    private static class RoutedInputStream extends InputStream {
+
+        private final InputStream original;
+
+        RoutedInputStream(InputStream original) {
+            this.original = original;
+        }
+
+        private InputStream target() {
+            var streams = STREAMS.get();
+            return streams == null ? original : streams.in();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return target().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return target().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return target().available();
+        }
+    }
+
+    /**
+     * Gives at most a line in each read, as a terminal does. The 'io' library creates a new reader over System.in for
+     * each value it reads, which would otherwise buffer, and lose, the lines of the next values.
+     */
+    private static class LineInputStream extends ByteArrayInputStream {
+
+        LineInputStream(String input) {
+            super(input.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int end = pos;
+            while (end < count && end - pos < len && buf[end++] != '\n') {
+                // Finds the end of the line
+            }
+
+            return super.read(b, off, end - pos);
+        }
+
+        @Override
+        public synchronized int available() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package pt.up.fe.comp.analysis;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.analysis.DeclarationIndex;
+import pt.up.fe.comp2024.analysis.DeclarationIndex.DeclarationKind;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.NodeUtils;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DeclarationIndexTest {
+
+    private static final String CODE = """
+            import a.B;
+            import c.B;
+            class Foo {
+                int x;
+                boolean y;
+                boolean x;
+                public int bar(int a, int[] a, boolean b) {
+                    int c;
+                    int a;
+                    boolean c;
+                    return 0;
+                }
+                public int baz(int a) {
+                    int c;
+                    return a;
+                }
+                public int bar() {
+                    return 0;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    @Test
+    public void testDuplicates() {
+        var root = TestUtils.parse(CODE).getRootNode();
+        var classDecl = root.getChildren(Kind.CLASS_DECL).get(0);
+        var methods = classDecl.getChildren(Kind.METHOD_DECL);
+
+        var index = DeclarationIndex.build(classDecl);
+
+        assertEquals(List.of("IMPORT B", "FIELD x", "METHOD bar"), describe(index.getDuplicates(classDecl)));
+        assertEquals(List.of("PARAMETER a", "VARIABLE c"), describe(index.getDuplicates(methods.get(0))));
+        assertTrue(index.getDuplicates(methods.get(1)).isEmpty());
+        assertTrue(index.getDuplicates(methods.get(3)).isEmpty());
+
+        // Each duplicate is the second declaration, not the first
+        var field = index.getDuplicates(classDecl).get(1);
+        assertEquals(DeclarationKind.FIELD, field.kind());
+        assertEquals(6, NodeUtils.getLine(field.node()));
+    }
+
+    @Test
+    public void testReportedWhereDeclared() {
+        var reports = TestUtils.analyse(CODE).getReports().stream()
+                .filter(report -> report.getMessage().endsWith("is duplicated"))
+                .toList();
+
+        assertEquals(List.of("2: Import 'B' is duplicated", "6: Field 'x' is duplicated",
+                        "17: Method 'bar' is duplicated", "7: Parameter 'a' is duplicated",
+                        "10: Variable 'c' is duplicated"),
+                reports.stream().map(DeclarationIndexTest::describe).toList());
+    }
+
+    private static List<String> describe(List<DeclarationIndex.Duplicate> duplicates) {
+        return duplicates.stream().map(duplicate -> duplicate.kind() + " " + duplicate.name()).toList();
+    }
+
+    private static String describe(Report report) {
+        return report.getLine() + ": " + report.getMessage();
+    }
+}
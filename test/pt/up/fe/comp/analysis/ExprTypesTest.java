@@ -0,0 +1,124 @@
+package pt.up.fe.comp.analysis;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2024.ast.ExprTypes;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.stats.CompilationStats;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ExprTypesTest {
+
+    private static final Path SEMANTIC_ANALYSIS = Path.of("test", "pt", "up", "fe", "comp", "cp2", "semanticanalysis");
+
+    @Test
+    public void testSameTypesAsComputed() throws IOException {
+        try (var paths = Files.walk(SEMANTIC_ANALYSIS)) {
+            for (var path : paths.filter(p -> p.toString().endsWith(".jmm")).toList()) {
+                var root = TestUtils.parse(SpecsIo.read(path.toFile()), CompilerConfig.getDefault()).getRootNode();
+                if (root == null) {
+                    continue;
+                }
+
+                var annotated = JmmSymbolTableBuilder.build(root);
+                ExprTypes.annotate(root, annotated);
+                var computed = JmmSymbolTableBuilder.build(root);
+
+                for (var method : root.getDescendants(Kind.METHOD_DECL)) {
+                    for (var expr : method.getDescendants()) {
+                        if (isExpr(expr)) {
+                            assertEquals(path + ": " + expr, typeOrError(expr, computed, method.get("name")),
+                                    typeOrError(expr, annotated, method.get("name")));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testErrorsAreKept() {
+        var code = """
+                class Foo {
+                    public int bar() {
+                        return x + 1;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+        var root = TestUtils.parse(code).getRootNode();
+        var table = JmmSymbolTableBuilder.build(root);
+        var exprTypes = ExprTypes.annotate(root, table);
+
+        var identifier = root.getDescendants(Kind.IDENTIFIER).get(0);
+        var binaryExpr = root.getDescendants(Kind.BINARY_EXPR).get(0);
+
+        assertSame(exprTypes, table.getExprTypes());
+        assertEquals(TypeUtils.getType("int", false), TypeUtils.getExprType(binaryExpr, table, "bar"));
+
+        try {
+            TypeUtils.getExprType(identifier, table, "bar");
+            fail("Expected the typing error of an undeclared symbol");
+        } catch (RuntimeException e) {
+            assertEquals("Undeclared symbol 'x'.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testAnnotatedOnceByTheAnalysis() {
+        var code = """
+                class Foo {
+                    public int bar(int a, boolean b) {
+                        int[] c;
+                        c = new int[a];
+                        if (b && a < 2) {
+                            a = c[0] + c.length;
+                        } else {
+                        }
+                        return a;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+        var stats = CompilationStats.enabled();
+        var result = new JmmAnalysisImpl(stats).semanticAnalysis(TestUtils.parse(code));
+
+        var exprTypes = ((JmmSymbolTable) result.getSymbolTable()).getExprTypes();
+        assertNotNull(exprTypes);
+        assertEquals((long) exprTypes.size(), (long) stats.getCounters().get("typed expressions"));
+        assertEquals(result.getRootNode().getDescendants().stream().filter(ExprTypesTest::isExpr).count(),
+                exprTypes.size());
+    }
+
+    private static boolean isExpr(JmmNode node) {
+        for (var kind : Kind.values()) {
+            if (kind.check(node)) {
+                return kind.isExpr();
+            }
+        }
+
+        return false;
+    }
+
+    private static String typeOrError(JmmNode expr, JmmSymbolTable table, String method) {
+        try {
+            return TypeUtils.getExprType(expr, table, method).toString();
+        } catch (RuntimeException e) {
+            return "error: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package pt.up.fe.comp.analysis;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.analysis.AnalysisPass;
+import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2024.analysis.passes.*;
+import pt.up.fe.comp2024.stats.CompilationStats;
+import pt.up.fe.comp2024.stats.StageStats;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
+import pt.up.fe.specs.util.SpecsIo;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FusedAnalysisTest {
+
+    private static final Path SEMANTIC_ANALYSIS = Path.of("test", "pt", "up", "fe", "comp", "cp2", "semanticanalysis");
+
+    @Test
+    public void testSameReportsAsSeparateTraversals() throws IOException {
+        try (var paths = Files.walk(SEMANTIC_ANALYSIS)) {
+            for (var path : paths.filter(p -> p.toString().endsWith(".jmm")).toList()) {
+                var parserResult = TestUtils.parse(SpecsIo.read(path.toFile()), CompilerConfig.getDefault());
+                if (parserResult.getRootNode() == null) {
+                    continue;
+                }
+
+                var fused = new JmmAnalysisImpl().semanticAnalysis(parserResult).getReports();
+                var separate = analyzeSeparately(parserResult.getRootNode(), parserResult.getConfig());
+
+                assertEquals(path.toString(), toStrings(separate), toStrings(fused));
+            }
+        }
+    }
+
+    @Test
+    public void testTraversalCounters() {
+        var code = """
+                class Foo {
+                    public int bar(int x) {
+                        return x + 1;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+
+        var stats = CompilationStats.enabled();
+        new JmmAnalysisImpl(stats).semanticAnalysis(TestUtils.parse(code));
+
+        // ConstantFolding changes the AST, so it keeps its own traversal
+        assertEquals(2L, (long) stats.getCounters().get("analysis traversals"));
+        assertEquals(9L, (long) stats.getCounters().get("analysis traversals saved"));
+        assertTrue(stats.getStages().stream().anyMatch(stage -> stage.getName().equals("fused passes")));
+    }
+
+    @Test
+    public void testFusedPassesTimedSeparately() {
+        var code = """
+                class Foo {
+                    public int bar(int x) {
+                        return x + 1;
+                    }
+                }
+                """;
+
+        var stats = CompilationStats.enabled();
+        new JmmAnalysisImpl(stats).semanticAnalysis(TestUtils.parse(code));
+
+        var names = stats.getStages().stream().map(StageStats::getName).toList();
+        var fused = names.indexOf("fused passes");
+
+        // Each read-only pass is listed by its name, nested in the fused traversal, in the order of the passes
+        assertEquals(List.of("UndeclaredSymbol", "ArrayAccessOnInt", "ArrayIndexNotInt", "WrongInit",
+                        "ConditionsWithoutBooleans", "WrongOpTypes", "ImportDeclAndMemberAccess", "ReturnTypes",
+                        "MethodParams", "StaticMethods"),
+                names.subList(fused + 1, fused + 11));
+
+        for (var stage : stats.getStages().subList(fused + 1, fused + 11)) {
+            assertEquals(1, stage.getDepth());
+            assertTrue(stage.getName(), stage.getWallNanos() >= 0);
+        }
+
+        // The visits are part of the traversal
+        var traversal = stats.getStages().get(fused).getWallNanos();
+        var visits = stats.getStages().subList(fused + 1, fused + 11).stream().mapToLong(StageStats::getWallNanos).sum();
+        assertTrue(visits <= traversal);
+    }
+
+    @Test
+    public void testEventPerFusedPass() throws IOException {
+        var code = """
+                class Foo {
+                    public int bar(int x) {
+                        return x + y;
+                    }
+                }
+                """;
+
+        var file = Files.createTempFile("analysis", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("pt.up.fe.comp2024.AnalysisPass");
+            recording.start();
+            new JmmAnalysisImpl().semanticAnalysis(TestUtils.parse(code));
+            recording.stop();
+            recording.dump(file);
+
+            var events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("pt.up.fe.comp2024.AnalysisPass"))
+                    .toList();
+
+            // Every pass has an event of its own, including the fused ones
+            var passes = events.stream().map(event -> event.getString("pass")).sorted().toList();
+            assertEquals(Stream.of("ConstantFolding", "UndeclaredSymbol", "ArrayAccessOnInt", "ArrayIndexNotInt",
+                    "WrongInit", "ConditionsWithoutBooleans", "WrongOpTypes", "ImportDeclAndMemberAccess",
+                    "ReturnTypes", "MethodParams", "StaticMethods").sorted().toList(), passes);
+
+            for (var event : events) {
+                var visitTime = event.getDuration("visitTime");
+                assertTrue(event.getString("pass"), !visitTime.isNegative());
+                assertTrue(event.getString("pass"), visitTime.compareTo(event.getDuration()) <= 0);
+            }
+
+            var undeclared = events.stream().filter(event -> event.getString("pass").equals("UndeclaredSymbol"))
+                    .findFirst().orElseThrow();
+            assertEquals(1, undeclared.getInt("reports"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<Report> analyzeSeparately(JmmNode root, Map<String, String> config) {
+        var table = JmmSymbolTableBuilder.build(root);
+        List<AnalysisPass> passes = List.of(new UndeclaredSymbol(), new ConstantFolding(), new ArrayAccessOnInt(),
+                new ArrayIndexNotInt(), new WrongInit(), new ConditionsWithoutBooleans(), new WrongOpTypes(),
+                new ImportDeclAndMemberAccess(), new ReturnTypes(), new MethodParams(), new StaticMethods());
+
+        var reports = new ArrayList<Report>();
+        for (var pass : passes) {
+            try {
+                pass.setConfig(config);
+                reports.addAll(pass.analyze(root, table));
+            } catch (Exception e) {
+                reports.add(Report.newError(Stage.SEMANTIC, -1, -1,
+                        "Problem while executing analysis pass '" + pass.getClass() + "'", e));
+            }
+        }
+
+        return reports;
+    }
+
+    private static List<String> toStrings(List<Report> reports) {
+        return reports.stream().map(Report::toString).toList();
+    }
+}
@@ -0,0 +1,113 @@
+package pt.up.fe.comp.analysis;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.analysis.AnalysisPass;
+import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2024.analysis.passes.*;
+import pt.up.fe.comp2024.synthetic.ProgramGenerator;
+import pt.up.fe.comp2024.synthetic.ProgramShape;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelAnalysisTest {
+
+    private static final Path SEMANTIC_ANALYSIS = Path.of("test", "pt", "up", "fe", "comp", "cp2", "semanticanalysis");
+
+    @Test
+    public void testSameReportsAsSequential() throws IOException {
+        try (var paths = Files.walk(SEMANTIC_ANALYSIS)) {
+            for (var path : paths.filter(p -> p.toString().endsWith(".jmm")).toList()) {
+                assertSameReports(path.toString(), SpecsIo.read(path.toFile()));
+            }
+        }
+    }
+
+    @Test
+    public void testManyMethods() {
+        var shape = ProgramShape.small().withMethods(200);
+        var code = new ProgramGenerator(0).generate(shape);
+
+        var config = parallelConfig("4");
+        TestUtils.noErrors(TestUtils.analyse(code, config));
+    }
+
+    @Test
+    public void testReportsSortedByPosition() {
+        var code = """
+                class Foo {
+                    public int bar() {
+                        return true;
+                    }
+                    public int baz() {
+                        int a;
+                        a = 1 + true;
+                        return a;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+
+        var reports = TestUtils.analyse(code, parallelConfig("2")).getReports();
+
+        assertEquals(sorted(reports), reports.stream().map(Report::toString).toList());
+    }
+
+    @Test
+    public void testMethodLocalPasses() {
+        List<AnalysisPass> methodLocal = List.of(new UndeclaredSymbol(), new ConstantFolding(), new ArrayAccessOnInt(),
+                new ArrayIndexNotInt(), new ConditionsWithoutBooleans(), new WrongOpTypes(),
+                new ImportDeclAndMemberAccess(), new ReturnTypes(), new MethodParams(), new StaticMethods());
+
+        for (var pass : methodLocal) {
+            assertTrue(pass.getClass().getSimpleName(), pass.isMethodLocal());
+        }
+
+        // Resolves declarations of the whole class
+        assertFalse(new WrongInit().isMethodLocal());
+    }
+
+    private static void assertSameReports(String name, String code) {
+        // Not using TestUtils.analyse, which throws if a pass failed with an exception
+        var sequential = analyse(code, CompilerConfig.getDefault());
+        var parallel = analyse(code, parallelConfig("3"));
+
+        assertEquals(name, sorted(sequential), parallel.stream().map(Report::toString).toList());
+    }
+
+    private static List<Report> analyse(String code, Map<String, String> config) {
+        var parserResult = TestUtils.parse(code, config);
+        if (parserResult.getRootNode() == null) {
+            return parserResult.getReports();
+        }
+
+        return new JmmAnalysisImpl().semanticAnalysis(parserResult).getReports();
+    }
+
+    private static List<String> sorted(List<Report> reports) {
+        return reports.stream()
+                .sorted(Comparator.comparingInt(Report::getLine).thenComparingInt(Report::getColumn))
+                .map(Report::toString)
+                .toList();
+    }
+
+    private static Map<String, String> parallelConfig(String threads) {
+        var config = CompilerConfig.getDefault();
+        config.put("parallelAnalysis", "true");
+        config.put("threads", threads);
+        return config;
+    }
+}
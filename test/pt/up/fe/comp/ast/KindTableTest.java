@@ -0,0 +1,76 @@
+package pt.up.fe.comp.ast;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.KindTable;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class KindTableTest {
+
+    private static JmmNode parse(String resource) {
+        return TestUtils.parse(SpecsIo.getResource(resource), CompilerConfig.getDefault()).getRootNode();
+    }
+
+    private static List<JmmNode> allNodes(JmmNode root) {
+        var nodes = new ArrayList<JmmNode>();
+        nodes.add(root);
+        nodes.addAll(root.getDescendants());
+        return nodes;
+    }
+
+    @Test
+    public void testOfSameAsCheck() {
+        var root = parse("pt/up/fe/comp/cpf/4_jasmin/control_flow/IfWhileNested.jmm");
+
+        for (var node : allNodes(root)) {
+            var kind = Kind.of(node);
+
+            for (var other : Kind.values()) {
+                assertEquals(node.getKind() + " " + other, other.check(node), other == kind);
+            }
+        }
+    }
+
+    @Test
+    public void testFromString() {
+        for (var kind : Kind.values()) {
+            assertSame(kind, Kind.fromString(kind.getNodeName()));
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testFromStringUnknown() {
+        Kind.fromString("NotAKind");
+    }
+
+    @Test
+    public void testComputedOncePerKind() {
+        var root = parse("pt/up/fe/comp/cpf/4_jasmin/control_flow/IfWhileNested.jmm");
+
+        var computed = new HashMap<String, Integer>();
+        var table = new KindTable<String>(node -> {
+            computed.merge(node.getKind(), 1, Integer::sum);
+            return node.getKind();
+        });
+
+        for (var node : allNodes(root)) {
+            assertEquals(node.getKind(), table.get(node));
+            assertEquals(node.getKind(), table.get(node));
+        }
+
+        for (var node : allNodes(root)) {
+            if (Kind.of(node) != null) {
+                assertEquals(node.getKind(), 1, (int) computed.get(node.getKind()));
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package pt.up.fe.comp.batch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.batch.BatchCompiler;
+import pt.up.fe.comp2024.batch.FileCompilation;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BatchCompilerTest {
+
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("batch").toFile();
+    }
+
+    @After
+    public void deleteFolder() {
+        SpecsIo.deleteFolder(folder);
+    }
+
+    private static Map<String, String> batchConfig() {
+        var config = CompilerConfig.getDefault();
+        config.put("ollirInMemory", "true");
+        return config;
+    }
+
+    private File write(String name, String code) {
+        var file = new File(folder, name + ".jmm");
+        SpecsIo.write(file, code);
+        return file;
+    }
+
+    /**
+     * @param numMethods so that some files take longer to compile than others
+     */
+    private File program(String className, int numMethods) {
+        var code = new StringBuilder("class ").append(className).append(" {\n");
+
+        for (int i = 0; i < numMethods; i++) {
+            code.append("    public int m").append(i).append("(int a) {\n");
+            code.append("        return a + ").append(i).append(";\n");
+            code.append("    }\n");
+        }
+
+        return write(className, code.append("}\n").toString());
+    }
+
+    @Test
+    public void testResultsInInputOrder() {
+        var files = new ArrayList<File>();
+        for (int i = 0; i < 12; i++) {
+            // The first files are the slowest, so they tend to finish last
+            files.add(program("Batch" + i, (12 - i) * 10));
+        }
+
+        var result = new BatchCompiler(4).compile(files, batchConfig());
+
+        assertEquals(files, result.getFiles().stream().map(FileCompilation::getFile).toList());
+        assertEquals(0, result.getNumFailed());
+        assertEquals("", result.getReportsSummary());
+
+        for (int i = 0; i < files.size(); i++) {
+            var jasminCode = result.getFiles().get(i).getResult().getJasminCode().orElseThrow();
+            assertTrue(jasminCode, jasminCode.contains(" Batch" + i + "\n"));
+        }
+    }
+
+    @Test
+    public void testReports() {
+        var valid = program("Valid", 1);
+        var undeclared = write("Undeclared", """
+                class Undeclared {
+                    public int foo() {
+                        return bar;
+                    }
+                }
+                """);
+        var missing = new File(folder, "Missing.jmm");
+
+        var result = new BatchCompiler(2).compile(List.of(valid, undeclared, missing), batchConfig());
+
+        assertTrue(result.getFiles().get(0).isSuccess());
+        assertFalse(result.getFiles().get(1).isSuccess());
+        assertFalse(result.getFiles().get(2).isSuccess());
+        assertEquals(2, result.getNumFailed());
+
+        // Only the files with errors or warnings are listed, in the order of the input
+        var summary = result.getReportsSummary();
+        assertFalse(summary, summary.contains(valid.getPath()));
+        assertTrue(summary, summary.indexOf(undeclared.getPath() + ":") >= 0);
+        assertTrue(summary, summary.indexOf(missing.getPath() + ":") > summary.indexOf(undeclared.getPath() + ":"));
+
+        assertTrue(result.getSummary(), result.getSummary().startsWith("Compiled 3 files (2 failed) in "));
+        assertTrue(result.getSummary(), result.getSummary().contains(" on 2 threads, "));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoThreads() {
+        new BatchCompiler(0);
+    }
+}
@@ -0,0 +1,240 @@
+package pt.up.fe.comp.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2024.CompilationPipeline;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.cache.CacheEntry;
+import pt.up.fe.comp2024.cache.CompilationCache;
+import pt.up.fe.comp2024.classfile.ClassFileResult;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class CompilationCacheTest {
+
+    private static final String CALC = """
+            class Calc {
+                public int calc(int a) {
+                    int b;
+                    b = a * 2;
+                    return b + a;
+                }
+            }
+            """;
+
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("cache").toFile();
+    }
+
+    @After
+    public void deleteFolder() {
+        SpecsIo.deleteFolder(folder);
+    }
+
+    private static CacheEntry entry(String jasminCode) {
+        return new CacheEntry("Foo", null, jasminCode, null, List.of());
+    }
+
+    private static String key(String code) {
+        return CompilationCache.computeKey("test", CompilationCache.hashSource(code), CompilerConfig.getDefault());
+    }
+
+    private Map<String, String> cacheConfig() {
+        var config = CompilerConfig.getDefault();
+        config.put("cache", folder.getPath());
+        return config;
+    }
+
+    private List<Path> files(String extension) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            return paths.filter(path -> path.toString().endsWith(extension)).toList();
+        }
+    }
+
+    private Path entryPath(String key) throws IOException {
+        return files(key + ".json").get(0);
+    }
+
+    @Test
+    public void testHitAndMissStats() {
+        var cache = CompilationCache.open(folder.toPath(), 1_000_000);
+
+        assertTrue(cache.get(key("a")).isEmpty());
+        cache.put(key("a"), entry("code a"));
+        assertEquals("code a", cache.get(key("a")).orElseThrow().getJasminCode());
+        assertEquals("code a", cache.get(key("a")).orElseThrow().getJasminCode());
+        assertTrue(cache.get(key("b")).isEmpty());
+
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertTrue(cache.getStatsSummary(),
+                cache.getStatsSummary().startsWith("Cache: 2 hits, 2 misses (50.0% hit rate), 1 writes, 0 evictions"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        var code = "x".repeat(1000);
+        var entrySize = Files.size(writeProbe(code));
+
+        // Room for two entries
+        var cache = CompilationCache.open(folder.toPath().resolve("lru"), entrySize * 5 / 2);
+
+        cache.put(key("a"), entry(code));
+        cache.put(key("b"), entry(code));
+
+        // 'a' is older than 'b', but is used after it
+        Files.setLastModifiedTime(entryPath(key("a")), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(entryPath(key("b")), FileTime.fromMillis(2000));
+        assertTrue(cache.get(key("a")).isPresent());
+
+        cache.put(key("c"), entry(code));
+
+        assertTrue(cache.get(key("a")).isPresent());
+        assertTrue(cache.get(key("b")).isEmpty());
+        assertTrue(cache.get(key("c")).isPresent());
+        assertTrue(cache.getStatsSummary(), cache.getStatsSummary().contains("1 evictions"));
+    }
+
+    @Test
+    public void testRewritesCountedOnce() {
+        var cache = CompilationCache.open(folder.toPath(), 100 * 1024 * 1024);
+
+        // About 0.2 MB, counted once however many times it is written
+        for (int i = 0; i < 10; i++) {
+            cache.put(key("a"), entry("x".repeat(200_000)));
+        }
+
+        assertTrue(cache.getStatsSummary(), cache.getStatsSummary().endsWith("10 writes, 0 evictions, 0.2/100.0 MB"));
+    }
+
+    @Test
+    public void testMaxSizeOfLastOpen() throws IOException {
+        var code = "x".repeat(1000);
+        var entrySize = Files.size(writeProbe(code));
+        var cacheFolder = folder.toPath().resolve("resized");
+
+        var cache = CompilationCache.open(cacheFolder, 1_000_000);
+        cache.put(key("a"), entry(code));
+        cache.put(key("b"), entry(code));
+        Files.setLastModifiedTime(entryPath(key("a")), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(entryPath(key("b")), FileTime.fromMillis(2000));
+
+        // Same instance, but only room for one entry from now on
+        assertSame(cache, CompilationCache.open(cacheFolder, entrySize * 3 / 2));
+        cache.put(key("c"), entry(code));
+
+        assertTrue(cache.getStatsSummary(), cache.getStatsSummary().contains("2 evictions"));
+        assertTrue(cache.get(key("c")).isPresent());
+    }
+
+    private Path writeProbe(String code) throws IOException {
+        var probe = CompilationCache.open(folder.toPath().resolve("probe"), 1_000_000);
+        probe.put(key("probe"), entry(code));
+
+        return entryPath(key("probe"));
+    }
+
+    @Test
+    public void testConcurrentWritersNeverExposePartialEntries() throws Exception {
+        var cache = CompilationCache.open(folder.toPath(), 100_000_000);
+        var key = key("shared");
+
+        // Every writer writes a large entry of its own to the same key, while the others read it
+        var codes = new ArrayList<String>();
+        for (int i = 0; i < 4; i++) {
+            codes.add(String.valueOf((char) ('a' + i)).repeat(200_000));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(codes.size());
+        try {
+            var tasks = new ArrayList<Future<?>>();
+            for (var code : codes) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        cache.put(key, entry(code));
+
+                        var read = cache.get(key);
+                        assertTrue(read.isPresent());
+                        assertTrue(codes.contains(read.get().getJasminCode()));
+                    }
+                }));
+            }
+
+            for (var task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(codes.contains(cache.get(key).orElseThrow().getJasminCode()));
+        assertEquals(1, files(".json").size());
+        assertTrue(files(".tmp").isEmpty());
+    }
+
+    @Test
+    public void testOutputOptionsInKey() {
+        var sourceHash = CompilationCache.hashSource(CALC);
+        var keys = new ArrayList<String>();
+
+        for (var option : List.of("optimize", "ollirInMemory", "classFile")) {
+            var config = CompilerConfig.getDefault();
+            config.put(option, "true");
+            keys.add(CompilationCache.computeKey("test", sourceHash, config));
+        }
+        keys.add(CompilationCache.computeKey("test", sourceHash, CompilerConfig.getDefault()));
+
+        assertEquals(keys.size(), keys.stream().distinct().count());
+    }
+
+    @Test
+    public void testClassFileRestoredOnHit() {
+        var config = cacheConfig();
+        config.put("ollirInMemory", "true");
+        config.put("classFile", "true");
+
+        var compiled = new CompilationPipeline().compile(CALC, config);
+        var cached = new CompilationPipeline().compile(CALC, config);
+
+        assertTrue(compiled.isSuccess());
+        assertFalse(compiled.isCached());
+        assertTrue(cached.isCached());
+
+        var expected = (ClassFileResult) compiled.getJasminResult().orElseThrow();
+        var restored = (ClassFileResult) cached.getJasminResult().orElseThrow();
+        assertTrue(Arrays.equals(expected.getClassFile(), restored.getClassFile()));
+    }
+
+    @Test
+    public void testAstBackendKeyedOnParsedCode() {
+        var config = cacheConfig();
+        var changed = CALC.replace("a * 2", "a * 3");
+
+        var first = TestUtils.backend(CALC, config).getJasminCode();
+        var second = TestUtils.backend(changed, config).getJasminCode();
+
+        assertNotEquals(first, second);
+        assertEquals(first, TestUtils.backend(CALC, config).getJasminCode());
+        assertEquals(1, CompilationCache.open(folder.toPath(), 1).getHits());
+    }
+}
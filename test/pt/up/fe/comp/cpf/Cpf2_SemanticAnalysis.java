@@ -110,7 +110,7 @@ public class Cpf2_SemanticAnalysis {
     public void section2_Lookup_VarLookup_Local() {
         var jasminResult = getJasminResult("lookup/VarLookup_Local.jmm");
         System.out.println(jasminResult.getJasminCode());
-        assertEquals("10", jasminResult.run().trim());
+        assertEquals("10", CpUtils.run(jasminResult).getOutput().trim());
     }
 
     /**
@@ -120,7 +120,7 @@ public class Cpf2_SemanticAnalysis {
     public void section2_Lookup_VarLookup_Field() {
         var jasminResult = getJasminResult("lookup/VarLookup_Field.jmm");
         System.out.println(jasminResult.getJasminCode());
-        CpUtils.assertEquals("Lookup of field", "10", jasminResult.run().trim(), jasminResult);
+        CpUtils.assertEquals("Lookup of field", "10", CpUtils.run(jasminResult).getOutput().trim(), jasminResult);
     }
 
     /**
@@ -130,7 +130,7 @@ public class Cpf2_SemanticAnalysis {
     public void section2_Lookup_VarLookup_Param() {
         var jasminResult = getJasminResult("lookup/VarLookup_Param.jmm");
         System.out.println(jasminResult.getJasminCode());
-        CpUtils.assertEquals("Lookup of field", "10", jasminResult.run().trim(), jasminResult);
+        CpUtils.assertEquals("Lookup of field", "10", CpUtils.run(jasminResult).getOutput().trim(), jasminResult);
     }
 
     @Test
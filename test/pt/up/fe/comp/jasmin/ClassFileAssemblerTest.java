@@ -0,0 +1,147 @@
+package pt.up.fe.comp.jasmin;
+
+import org.junit.Test;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.classfile.ClassFileAssembler;
+import pt.up.fe.comp2024.classfile.ClassFileResult;
+import pt.up.fe.comp2024.classfile.JasminInstruction;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ClassFileAssemblerTest {
+
+    private static JasminResult getResult(String filename) {
+        return TestUtils.backend(SpecsIo.getResource("pt/up/fe/comp/cpf/4_jasmin/" + filename),
+                Map.of("classFile", "true"));
+    }
+
+    private static int majorVersion(byte[] classFile) {
+        return ((classFile[6] & 0xFF) << 8) | (classFile[7] & 0xFF);
+    }
+
+    @Test
+    public void testOptionAssemblesClassFile() {
+        var result = getResult("control_flow/IfWhileNested.jmm");
+
+        assertTrue(result instanceof ClassFileResult);
+        assertEquals(ClassFileAssembler.MAJOR_VERSION, majorVersion(((ClassFileResult) result).getClassFile()));
+    }
+
+    @Test
+    public void testRunsAsJasmin() {
+        CpUtils.runJasmin(getResult("control_flow/IfWhileNested.jmm"), "Result: 1\nResult: 2\nResult: 1");
+        CpUtils.runJasmin(getResult("control_flow/SimpleWhileStat.jmm"), "Result: 0\nResult: 1\nResult: 2");
+        CpUtils.runJasmin(getResult("control_flow/SimpleIfElseStat.jmm"), "Result: 5\nResult: 8");
+    }
+
+    @Test
+    public void testCompileWritesClassFile() throws Exception {
+        var result = (ClassFileResult) getResult("control_flow/SimpleIfElseStat.jmm");
+        var outputDir = Files.createTempDirectory("classfile").toFile();
+
+        try {
+            File classFile = result.compile(outputDir);
+
+            assertEquals(result.getClassName() + ".class", classFile.getName());
+            assertTrue(Arrays.equals(result.getClassFile(), Files.readAllBytes(classFile.toPath())));
+        } finally {
+            SpecsIo.deleteFolder(outputDir);
+        }
+    }
+
+    @Test
+    public void testLimitsAreComputed() {
+        var code = """
+                .class public Limits
+                .super java/lang/Object
+
+                .method public static sum(II)I
+                   .limit stack 99
+                   .limit locals 99
+                   iload_0
+                   iload_1
+                   iadd
+                   ireturn
+                .end method
+                """;
+
+        var assembledClass = ClassFileAssembler.assemble(code);
+
+        assertEquals("Limits", assembledClass.className());
+        assertEquals(ClassFileAssembler.MAJOR_VERSION, majorVersion(assembledClass.bytes()));
+    }
+
+    @Test
+    public void testAssembledFromInstructions() {
+        var config = Map.of("classFile", "true");
+
+        var files = List.of("cpf/4_jasmin/arithmetic/ByteCodeIndexes1.ollir", "initial/jasmin/OllirToJasminBasic.ollir");
+
+        for (var file : files) {
+            var ollirResult = new OllirResult(SpecsIo.getResource("pt/up/fe/comp/" + file), config);
+            var result = (ClassFileResult) TestUtils.backend(ollirResult);
+
+            // The same class file as assembling the Jasmin code that is kept for debugging
+            var fromCode = ClassFileAssembler.assemble(result.getJasminCode());
+            assertTrue(file, Arrays.equals(fromCode.bytes(), result.getClassFile()));
+        }
+    }
+
+    @Test
+    public void testNewClass() {
+        var assembler = ClassFileAssembler.newClass(List.of("public"), "Limits", "java/lang/Object");
+        assembler.addMethod(List.of("public", "static"), "sum", "(II)I", List.of(JasminInstruction.of("iload_0"),
+                JasminInstruction.of("iload_1"), JasminInstruction.of("iadd"), JasminInstruction.of("ireturn")));
+
+        var expected = ClassFileAssembler.assemble("""
+                .class public Limits
+                .super java/lang/Object
+
+                .method public static sum(II)I
+                   iload_0
+                   iload_1
+                   iadd
+                   ireturn
+                .end method
+                """);
+
+        var assembledClass = assembler.toAssembledClass();
+        assertEquals("Limits", assembledClass.className());
+        assertTrue(Arrays.equals(expected.bytes(), assembledClass.bytes()));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testStackUnderflow() {
+        ClassFileAssembler.assemble("""
+                .class public Underflow
+                .super java/lang/Object
+
+                .method public static f()I
+                   iadd
+                   ireturn
+                .end method
+                """);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUndefinedLabel() {
+        ClassFileAssembler.assemble("""
+                .class public Undefined
+                .super java/lang/Object
+
+                .method public static f()V
+                   goto missing
+                .end method
+                """);
+    }
+}
@@ -0,0 +1,87 @@
+package pt.up.fe.comp.jasmin;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.optimization_jasmin.JasminContext;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class JasminContextTest {
+
+    private static final Path TEST_FILES = Path.of("test", "pt", "up", "fe", "comp");
+
+    @Test
+    public void testSameAsAncestorSearch() throws IOException {
+        try (var paths = Files.walk(TEST_FILES)) {
+            for (var path : paths.filter(p -> p.toString().endsWith(".jmm")).toList()) {
+                var root = TestUtils.parse(SpecsIo.read(path.toFile()), CompilerConfig.getDefault()).getRootNode();
+                if (root == null) {
+                    continue;
+                }
+
+                var classDecl = root.getChildren(Kind.CLASS_DECL).get(0);
+                var context = JasminContext.build(classDecl);
+
+                for (var node : classDecl.getDescendants()) {
+                    var message = path + ": " + node;
+
+                    assertSame(message, ancestor(node, "AssignStmt"), context.getAssignStmt(node));
+                    assertSame(message, ancestor(node, "BinaryExpr"), context.getBinaryExpr(node));
+                    assertSame(message, ancestor(node, "WhileStmt"), context.getWhileStmt(node));
+                    assertSame(message, ancestor(node, "MethodDecl"), context.getMethodDecl(node));
+                    assertEquals(message, node.getAncestor("MemberAccessOp").isPresent(),
+                            context.isInMemberAccess(node));
+
+                    var assignStmt = node.getAncestor("AssignStmt");
+                    assertEquals(message,
+                            assignStmt.isPresent() && assignStmt.get().getChild(0).getDescendants().contains(node),
+                            context.isOnAssignLhs(node));
+                }
+
+                for (var method : classDecl.getChildren(Kind.METHOD_DECL)) {
+                    assertTrue(context.getMethods(method.get("name")).contains(method));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFoldingAfterTheContext() {
+        var code = """
+                class Foo {
+                    public int bar(int a) {
+                        a = a + 1;
+                        return a;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+        var classDecl = TestUtils.parse(code).getRootNode().getChildren(Kind.CLASS_DECL).get(0);
+        var context = JasminContext.build(classDecl);
+
+        var assignStmt = classDecl.getDescendants(Kind.ASSIGN_STMT).get(0);
+        var binaryExpr = assignStmt.getChild(1);
+        var literal = binaryExpr.getChild(1);
+
+        assertSame(binaryExpr, context.getBinaryExpr(literal));
+        assertFalse(context.isInFoldedBinaryExpr(literal));
+
+        binaryExpr.put("value", "2");
+        assertTrue(context.isInFoldedBinaryExpr(literal));
+
+        assertTrue(context.getMethods("baz").isEmpty());
+    }
+
+    private static JmmNode ancestor(JmmNode node, String kind) {
+        return node.getAncestor(kind).orElse(null);
+    }
+}
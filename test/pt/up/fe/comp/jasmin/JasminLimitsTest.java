@@ -0,0 +1,178 @@
+package pt.up.fe.comp.jasmin;
+
+import org.junit.Test;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.ProgramRunner;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.backend.JasminLimits;
+import pt.up.fe.comp2024.classfile.ClassFileAssembler;
+import pt.up.fe.comp2024.classfile.JasminInstruction;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class JasminLimitsTest {
+
+    private static final String OLLIR = """
+            Limits {
+                .construct Limits().V {
+                    invokespecial(this, "<init>").V;
+                }
+
+                .method public calc(a.i32).i32 {
+                    b.i32 :=.i32 a.i32 *.i32 2.i32;
+                    c.i32 :=.i32 b.i32 +.i32 a.i32;
+                    ret.i32 c.i32;
+                }
+            }
+            """;
+
+    private static class VerifyingLoader extends ClassLoader {
+
+        boolean verifies(ClassFileAssembler.AssembledClass assembledClass) {
+            try {
+                var bytes = assembledClass.bytes();
+                var loadedClass = defineClass(assembledClass.className(), bytes, 0, bytes.length);
+                Class.forName(loadedClass.getName(), true, this);
+                return true;
+            } catch (VerifyError e) {
+                return false;
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static int limit(String code, Pattern regex) {
+        var matcher = regex.matcher(code);
+        assertTrue("Expected a limit in:\n" + code, matcher.find());
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static boolean verifies(String jasminCode) {
+        var jasminResult = new JasminResult("Limits", jasminCode, Collections.emptyList());
+        return new VerifyingLoader().verifies(ProgramRunner.assemble(jasminResult));
+    }
+
+    @Test
+    public void testOllirMethodLimits() {
+        var jasminCode = TestUtils.backend(new OllirResult(OLLIR, Collections.emptyMap())).getJasminCode();
+
+        int stack = limit(jasminCode, CpUtils.getLimitStackRegex());
+        int locals = limit(jasminCode, CpUtils.getLimitLocalsRegex());
+
+        // 'this', 'a', 'b' and 'c'
+        assertEquals(2, stack);
+        assertEquals(4, locals);
+
+        // The limits are accepted by the verifier, and are the smallest ones it accepts
+        assertTrue(verifies(jasminCode));
+        assertFalse(verifies(jasminCode.replace(".limit stack " + stack, ".limit stack " + (stack - 1))));
+        assertFalse(verifies(jasminCode.replace(".limit locals " + locals, ".limit locals " + (locals - 1))));
+    }
+
+    @Test
+    public void testMaxStackAcrossBranches() {
+        var code = """
+                   iload_1
+                   ifeq else
+                   iconst_1
+                   iconst_2
+                   iconst_3
+                   iadd
+                   goto end
+                else:
+                   iconst_0
+                   iconst_0
+                end:
+                   iadd
+                   ireturn
+                """;
+
+        assertEquals(3, JasminLimits.maxStack(code));
+    }
+
+    @Test
+    public void testMaxStackOfCalls() {
+        var code = """
+                   aload_0
+                   iconst_1
+                   iconst_2
+                   invokevirtual Limits/add(II)I
+                   invokestatic io/println(I)V
+                   return
+                """;
+
+        assertEquals(3, JasminLimits.maxStack(code));
+    }
+
+    @Test
+    public void testMaxStackOfInterfaceCalls() {
+        var code = """
+                   aload_1
+                   iconst_1
+                   iconst_2
+                   invokeinterface Adder/add(II)I 3
+                   aload_1
+                   aload_2
+                   invokeinterface Adder/add(Ljava/lang/Object;)V 2
+                   ireturn
+                """;
+
+        assertEquals(3, JasminLimits.maxStack(code));
+    }
+
+    @Test
+    public void testTrailingComments() {
+        var code = """
+                   ; the condition
+                   iload_1 ; a
+                   ifeq else ; false
+                   ldc "a ; b"
+                   invokestatic io/println(Ljava/lang/String;)V ; no result
+                   iconst_1
+                   goto end ; skip the else
+                else: ; the else
+                   iconst_0
+                end:
+                   ireturn
+                """;
+
+        assertEquals(1, JasminLimits.maxStack(code));
+    }
+
+    @Test
+    public void testMaxStackOfInstructions() {
+        var instructions = List.of(JasminInstruction.of("iload_1"), JasminInstruction.of("ifeq", "zero"),
+                JasminInstruction.of("iload_1"), JasminInstruction.of("iload_2"), JasminInstruction.of("iadd"),
+                JasminInstruction.of("ireturn"), JasminInstruction.label("zero"), JasminInstruction.of("iconst_0"),
+                JasminInstruction.of("ireturn"));
+
+        assertEquals(2, JasminLimits.maxStack(instructions));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnderflow() {
+        JasminLimits.maxStack("""
+                   iconst_1
+                   iadd
+                   ireturn
+                """);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testDifferentDepthsAtLabel() {
+        JasminLimits.maxStack("""
+                   iload_1
+                   ifeq end
+                   iconst_1
+                end:
+                   return
+                """);
+    }
+}
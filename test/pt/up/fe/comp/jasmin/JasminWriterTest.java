@@ -0,0 +1,172 @@
+package pt.up.fe.comp.jasmin;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.CompilationPipeline;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.backend.JasminGenerator;
+import pt.up.fe.comp2024.backend.JasminWriter;
+import pt.up.fe.comp2024.optimization_jasmin.AstToJasminImpl;
+import pt.up.fe.comp2024.optimization_jasmin.JasminGeneratorVisitor;
+import pt.up.fe.comp2024.stats.CompilationStats;
+import pt.up.fe.specs.util.SpecsIo;
+import pt.up.fe.specs.util.utilities.StringLines;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class JasminWriterTest {
+
+    private static final String TAB = "   ";
+
+    private static final String CALC = """
+            class Calc {
+                public int calc(int a) {
+                    return a * 2 + a;
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String lines(String code) {
+        var out = new StringBuilder();
+        var writer = new JasminWriter(out, TAB);
+        writer.lines(code);
+
+        assertEquals(out.length(), writer.length());
+
+        return out.toString();
+    }
+
+    @Test
+    public void testSameAsSplitAndJoin() {
+        var codes = new String[]{"", "\n", "iload 1", "iload 1\n", "iload 1\niload 2\niadd\n", "iload 1\n\niadd",
+                "iload 1\n\n", "iload 1\r\niadd\riadd\r\n", "\n\niadd"};
+
+        for (var code : codes) {
+            var expected = StringLines.getLines(code).stream().collect(Collectors.joining("\n" + TAB, TAB, "\n"));
+            assertEquals(code, expected, lines(code));
+        }
+    }
+
+    @Test
+    public void testOllirWriteSameAsBuild() {
+        var ollirResult = new OllirResult(
+                SpecsIo.getResource("pt/up/fe/comp/initial/jasmin/OllirToJasminArithmetics.ollir"),
+                Collections.emptyMap());
+
+        var out = new StringWriter();
+        new JasminGenerator(ollirResult).write(out);
+
+        assertEquals(new JasminGenerator(ollirResult).build(), out.toString());
+    }
+
+    @Test
+    public void testAstWriteSameAsVisit() {
+        var code = SpecsIo.getResource("pt/up/fe/comp/cpf/4_jasmin/control_flow/IfWhileNested.jmm");
+        var semantics = TestUtils.analyse(code, CompilerConfig.getDefault());
+
+        var out = new StringWriter();
+        new JasminGeneratorVisitor(semantics.getSymbolTable()).write(semantics.getRootNode(), out);
+
+        var expected = new JasminGeneratorVisitor(semantics.getSymbolTable()).visit(semantics.getRootNode());
+        assertEquals(expected, out.toString());
+    }
+
+    @Test
+    public void testAstBackendWriteSameAsResult() {
+        var code = SpecsIo.getResource("pt/up/fe/comp/cpf/4_jasmin/control_flow/IfWhileNested.jmm");
+        var semantics = TestUtils.analyse(code, CompilerConfig.getDefault());
+        var backend = new AstToJasminImpl();
+
+        var out = new StringWriter();
+        var reports = backend.toJasmin(semantics, out);
+
+        assertTrue(reports.isEmpty());
+        assertEquals(backend.toJasmin(semantics).getJasminCode(), out.toString());
+    }
+
+    @Test
+    public void testPipelineWriteSameAsResult() {
+        var code = """
+                class Calc {
+                    public int calc(int a) {
+                        return a * 2 + a;
+                    }
+                }
+                """;
+        var config = CompilerConfig.getDefault();
+        config.put("ollirInMemory", "true");
+
+        var out = new StringWriter();
+        var written = new CompilationPipeline().compile(code, config, CompilationStats.disabled(), out);
+        var result = new CompilationPipeline().compile(code, config);
+
+        assertTrue(written.getReports().toString(), written.isSuccess());
+        assertTrue(written.getJasminResult().isEmpty());
+        assertEquals(result.getJasminCode().orElseThrow(), out.toString());
+    }
+
+    @Test
+    public void testPipelineWriteNothingOnError() {
+        var code = "class A { public int foo() { return bar; } }";
+
+        var out = new StringWriter();
+        var written = new CompilationPipeline().compile(code, CompilerConfig.getDefault(), CompilationStats.disabled(),
+                out);
+
+        assertFalse(written.isSuccess());
+        assertEquals("", out.toString());
+    }
+
+    @Test
+    public void testPipelineWriteFile() throws IOException {
+        var config = CompilerConfig.getDefault();
+        config.put("ollirInMemory", "true");
+        var file = folder.getRoot().toPath().resolve("Calc.j");
+        Files.writeString(file, "previous");
+
+        var written = new CompilationPipeline().compile(CALC, config, CompilationStats.disabled(), file);
+        var result = new CompilationPipeline().compile(CALC, config);
+
+        assertTrue(written.getReports().toString(), written.isSuccess());
+        assertEquals(result.getJasminCode().orElseThrow(), Files.readString(file));
+        assertArrayEquals(new String[]{"Calc.j"}, folder.getRoot().list());
+    }
+
+    @Test
+    public void testPipelineWriteFileKeptOnError() throws IOException {
+        var code = "class A { public int foo() { return bar; } }";
+        var file = folder.getRoot().toPath().resolve("A.j");
+        Files.writeString(file, "previous");
+
+        var written = new CompilationPipeline().compile(code, CompilerConfig.getDefault(), CompilationStats.disabled(),
+                file);
+
+        assertFalse(written.isSuccess());
+        assertEquals("previous", Files.readString(file));
+        assertArrayEquals(new String[]{"A.j"}, folder.getRoot().list());
+    }
+
+    @Test
+    public void testPipelineWriteNoFileOnError() {
+        var code = "class A { public int foo() { return bar; } }";
+        var file = folder.getRoot().toPath().resolve("A.j");
+
+        var written = new CompilationPipeline().compile(code, CompilerConfig.getDefault(), CompilationStats.disabled(),
+                file);
+
+        assertFalse(written.isSuccess());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+}
@@ -0,0 +1,98 @@
+package pt.up.fe.comp.jasmin;
+
+import org.junit.Test;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ParallelJasminTest {
+
+    private static final Path CP2 = Path.of("test", "pt", "up", "fe", "comp", "cp2");
+
+    private static String manyMethods(int numMethods) {
+        var code = new StringBuilder();
+
+        code.append("import io;\n");
+        code.append("class ManyMethods {\n");
+
+        for (int i = 0; i < numMethods; i++) {
+            code.append("    public int method").append(i).append("(int a, int b) {\n");
+            code.append("        int i;\n");
+            code.append("        boolean flag;\n");
+            code.append("        flag = true;\n");
+            code.append("        i = 0;\n");
+            code.append("        while (i < a) {\n");
+            code.append("            if (flag) {\n");
+            code.append("                io.println(i);\n");
+            code.append("            } else {\n");
+            code.append("                io.println(b);\n");
+            code.append("            }\n");
+            code.append("            flag = !flag;\n");
+            code.append("            i = i + ").append(i % 5 + 1).append(";\n");
+            code.append("        }\n");
+            code.append("        return i;\n");
+            code.append("    }\n");
+        }
+
+        code.append("    public static void main(String[] args) {\n");
+        code.append("        ManyMethods m;\n");
+        code.append("        m = new ManyMethods();\n");
+        code.append("        io.println(m.method").append(numMethods - 1).append("(4, 7));\n");
+        code.append("    }\n");
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    private static Map<String, String> parallelConfig(String threads) {
+        var config = CompilerConfig.getDefault();
+        config.put("parallelJasmin", "true");
+        config.put("threads", threads);
+        return config;
+    }
+
+    private static String sequential(String code) {
+        return TestUtils.backend(code, CompilerConfig.getDefault()).getJasminCode();
+    }
+
+    private static String parallel(String code) {
+        return TestUtils.backend(code, parallelConfig("3")).getJasminCode();
+    }
+
+    @Test
+    public void testSameCodeAsSequential() throws IOException {
+        try (var paths = Files.walk(CP2)) {
+            for (var path : paths.filter(p -> p.toString().endsWith(".jmm")).sorted().toList()) {
+                var code = SpecsIo.read(path.toFile());
+
+                String expected;
+                try {
+                    expected = sequential(code);
+                } catch (RuntimeException e) {
+                    // Not supported by the backend, or not a valid program
+                    continue;
+                }
+
+                assertEquals(path.toString(), expected, parallel(code));
+            }
+        }
+    }
+
+    @Test
+    public void testManyMethods() {
+        var code = manyMethods(200);
+        var jasminResult = TestUtils.backend(code, parallelConfig("4"));
+
+        assertEquals(sequential(code), jasminResult.getJasminCode());
+        // The last method prints 0, steps past 4 by 5, and returns 5
+        assertEquals("0\n5\n", CpUtils.run(jasminResult).getOutput());
+    }
+}
@@ -0,0 +1,134 @@
+package pt.up.fe.comp.jasmin;
+
+import org.junit.Test;
+import pt.up.fe.comp.ProgramRunner;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2024.classfile.ClassFileAssembler;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProgramRunnerTest {
+
+    private static ClassFileAssembler.AssembledClass program(String name, String mainCode) {
+        return ClassFileAssembler.assemble(".class public " + name + "\n"
+                + ".super java/lang/Object\n"
+                + ".method public static main([Ljava/lang/String;)V\n"
+                + mainCode
+                + ".end method\n");
+    }
+
+    @Test
+    public void testSameOutputAsProcess() {
+        var runner = new ProgramRunner();
+
+        for (var app : List.of("HelloWorld.jmm", "Simple.jmm")) {
+            var jasminResult = TestUtils.backend(SpecsIo.getResource("pt/up/fe/comp/cp2/apps/" + app),
+                    Collections.emptyMap());
+
+            var expected = jasminResult.runWithFullOutput();
+            var output = runner.run(jasminResult);
+
+            assertEquals(app, expected.getReturnValue(), output.getReturnValue());
+            assertEquals(app, expected.getOutput(), output.getOutput());
+        }
+    }
+
+    @Test
+    public void testException() {
+        var divideByZero = program("DivideByZero", """
+                iconst_1
+                iconst_0
+                idiv
+                invokestatic io/println(I)V
+                return
+                """);
+
+        var output = new ProgramRunner().run(divideByZero, List.of(), null);
+
+        assertEquals(1, output.getReturnValue());
+        assertTrue(output.getStdErr(), output.getStdErr().startsWith(
+                "Exception in thread \"main\" java.lang.ArithmeticException"));
+    }
+
+    @Test
+    public void testTimeout() {
+        var endless = program("Endless", """
+                loop:
+                goto loop
+                """);
+
+        var output = new ProgramRunner(List.of("libs-jmm/compiled"), 200).run(endless, List.of(), null);
+
+        assertEquals(ProgramRunner.TIMED_OUT, output.getReturnValue());
+    }
+
+    @Test
+    public void testInputIsPerRun() {
+        // 'io' keeps the values of a line that were not read yet, which must not leak to the next run
+        var sum = program("Sum", """
+                invokestatic io/read()I
+                invokestatic io/read()I
+                iadd
+                invokestatic io/println(I)V
+                return
+                """);
+
+        var runner = new ProgramRunner();
+
+        assertEquals("3\n", runner.run(sum, List.of(), "1 2 10\n").getOutput());
+        assertEquals("7\n", runner.run(sum, List.of(), "3\n4\n").getOutput());
+    }
+
+    @Test
+    public void testRunAll() {
+        var programs = new ArrayList<ClassFileAssembler.AssembledClass>();
+        for (int i = 0; i < 20; i++) {
+            programs.add(program("Print" + i, "sipush " + i + "\n"
+                    + "invokestatic io/println(I)V\n"
+                    + "return\n"));
+        }
+
+        var outputs = new ProgramRunner().runAll(programs, 4);
+
+        assertEquals(programs.size(), outputs.size());
+        for (int i = 0; i < outputs.size(); i++) {
+            assertEquals(0, outputs.get(i).getReturnValue());
+            assertEquals(i + "\n", outputs.get(i).getOutput());
+        }
+    }
+
+    @Test
+    public void testStreamsRestored() {
+        var out = System.out;
+        var err = System.err;
+        var in = System.in;
+
+        var hello = program("Hello", """
+                iconst_1
+                invokestatic io/println(I)V
+                return
+                """);
+
+        assertEquals("1\n", new ProgramRunner().run(hello, List.of(), null).getOutput());
+
+        assertSame(out, System.out);
+        assertSame(err, System.err);
+        assertSame(in, System.in);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testExitNotRun() {
+        var exit = program("Exit", """
+                iconst_0
+                invokestatic java/lang/System/exit(I)V
+                return
+                """);
+
+        new ProgramRunner().run(exit, List.of(), null);
+    }
+}
@@ -0,0 +1,137 @@
+package pt.up.fe.comp.ollir;
+
+import org.junit.Test;
+import org.specs.comp.ollir.ClassUnit;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.optimization.OllirClassBuilder;
+import pt.up.fe.comp2024.optimization.OllirPrinter;
+import pt.up.fe.comp2024.optimization.OllirResults;
+import pt.up.fe.specs.util.SpecsIo;
+import pt.up.fe.specs.util.exceptions.NotImplementedException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class InMemoryOllirTest {
+
+    private static final Map<String, String> IN_MEMORY = Map.of("ollirInMemory", "true");
+
+    private static final String CALC = """
+            class Calc {
+                public int calc(int a) {
+                    int b;
+                    int c;
+                    b = a * 2;
+                    c = (b + a) * (a + 3);
+                    return c + b * a;
+                }
+            }
+            """;
+
+    private static final String OPERATIONS = """
+            import io;
+
+            class Operations {
+                int count;
+                boolean done;
+
+                public static void main(String[] args) {
+                }
+
+                public boolean check(int a, boolean b) {
+                    boolean c;
+                    int d;
+                    d = a / 2 - 1;
+                    {
+                        c = !(d < a) && b && true;
+                    }
+                    return c;
+                }
+            }
+            """;
+
+    private static OllirResult inMemory(String code) {
+        var ollirResult = TestUtils.optimize(code, IN_MEMORY);
+        TestUtils.noErrors(ollirResult);
+
+        return ollirResult;
+    }
+
+    private static Map<String, Map<String, Integer>> registers(ClassUnit classUnit) {
+        var registers = new HashMap<String, Map<String, Integer>>();
+
+        for (var method : classUnit.getMethods()) {
+            var methodRegisters = new HashMap<String, Integer>();
+            method.getVarTable().forEach((name, descriptor) -> methodRegisters.put(name, descriptor.getVirtualReg()));
+            registers.put(method.getMethodName(), methodRegisters);
+        }
+
+        return registers;
+    }
+
+    @Test
+    public void testInMemoryResult() {
+        var ollirResult = inMemory(CALC);
+
+        // The result has the class as built, and its code, with no other class parsed
+        assertEquals(OllirResult.class, ollirResult.getClass());
+        assertEquals("Calc", ollirResult.getOllirClass().getClassName());
+        assertEquals(new OllirPrinter().print(ollirResult.getOllirClass()), ollirResult.getOllirCode());
+        assertNotNull(ollirResult.getSymbolTable());
+        assertNotNull(ollirResult.getConfig());
+    }
+
+    @Test
+    public void testClassNotParsed() {
+        var semanticsResult = TestUtils.analyse(CALC);
+        var ollirClass = new OllirClassBuilder(semanticsResult.getSymbolTable()).build(semanticsResult.getRootNode());
+
+        var ollirResult = OllirResults.fromClass(semanticsResult, ollirClass, Collections.emptyList());
+
+        assertSame(ollirClass, ollirResult.getOllirClass());
+    }
+
+    @Test
+    public void testPrintedCodeParsesToSameClass() {
+        var programs = List.of(CALC, OPERATIONS,
+                SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/CompileArithmetic.jmm"),
+                SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/CompileAssignment.jmm"));
+
+        for (var program : programs) {
+            var built = inMemory(program);
+            var code = built.getOllirCode();
+            var parsed = new OllirResult(code, Collections.emptyMap());
+
+            // Printing is the inverse of parsing
+            assertEquals(code, new OllirPrinter().print(parsed.getOllirClass()));
+            assertEquals(code, registers(parsed.getOllirClass()), registers(built.getOllirClass()));
+        }
+    }
+
+    @Test
+    public void testSameJasminAsParsedCode() {
+        var built = inMemory(CALC);
+        var parsed = new OllirResult(built.getOllirCode(), Collections.emptyMap());
+
+        assertEquals(TestUtils.backend(parsed).getJasminCode(), TestUtils.backend(built).getJasminCode());
+    }
+
+    @Test(expected = NotImplementedException.class)
+    public void testUnsupportedStatement() {
+        TestUtils.optimize("""
+                class Loop {
+                    public int loop(int a) {
+                        while (a < 10) {
+                            a = a + 1;
+                        }
+                        return a;
+                    }
+                }
+                """, IN_MEMORY);
+    }
+}
@@ -0,0 +1,100 @@
+package pt.up.fe.comp.ollir;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Methods are only built concurrently by the in-memory OLLIR generator ('-m'), since the default one does not support
+ * them yet.
+ */
+public class ParallelOllirTest {
+
+    private static String manyMethods(int numMethods) {
+        var code = new StringBuilder();
+
+        code.append("class ManyMethods {\n");
+
+        for (int i = 0; i < numMethods; i++) {
+            code.append("    public int method").append(i).append("(int a, int b) {\n");
+            code.append("        int c;\n");
+            code.append("        c = (a + ").append(i).append(") * (b - a);\n");
+            code.append("        return c + a * b;\n");
+            code.append("    }\n");
+        }
+
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    private static Map<String, String> inMemoryConfig() {
+        var config = CompilerConfig.getDefault();
+        config.put("ollirInMemory", "true");
+        return config;
+    }
+
+    private static Map<String, String> parallelConfig(String threads) {
+        var config = inMemoryConfig();
+        config.put("parallelOllir", "true");
+        config.put("threads", threads);
+        return config;
+    }
+
+    private static String sequential(String code) {
+        var ollirResult = TestUtils.optimize(code, inMemoryConfig());
+        TestUtils.noErrors(ollirResult);
+
+        return ollirResult.getOllirCode();
+    }
+
+    private static String parallel(String code, String threads) {
+        var ollirResult = TestUtils.optimize(code, parallelConfig(threads));
+        TestUtils.noErrors(ollirResult);
+
+        return ollirResult.getOllirCode();
+    }
+
+    @Test
+    public void testSameCodeAsSequential() {
+        var programs = List.of(manyMethods(3),
+                SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/CompileArithmetic.jmm"),
+                SpecsIo.getResource("pt/up/fe/comp/cp2/ollir/CompileAssignment.jmm"));
+
+        for (var program : programs) {
+            assertEquals(sequential(program), parallel(program, "3"));
+        }
+    }
+
+    @Test
+    public void testManyMethods() {
+        var code = manyMethods(200);
+        var expected = sequential(code);
+
+        // The same code in every compilation, whatever the order the methods are generated in
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected, parallel(code, "4"));
+        }
+    }
+
+    @Test
+    public void testTempsNumberedPerMethod() {
+        var code = sequential(manyMethods(2));
+
+        assertEquals(code, sequential(manyMethods(2)));
+
+        // Each method computes four temporaries of its own
+        for (var method : code.split("\\.method ")) {
+            if (method.startsWith("public")) {
+                assertTrue(method, method.contains("tmp0.i32 :=") && method.contains("tmp3.i32 :="));
+                assertFalse(method, method.contains("tmp4"));
+            }
+        }
+    }
+}
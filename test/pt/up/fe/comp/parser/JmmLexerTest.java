@@ -0,0 +1,104 @@
+package pt.up.fe.comp.parser;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.antlr.JmmErrorListener;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.JavammLexer;
+import pt.up.fe.comp2024.parser.JmmLexer;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that the hand-written {@link JmmLexer} produces the same tokens and errors as the generated lexer.
+ */
+public class JmmLexerTest {
+
+    @Test
+    public void testCorpus() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(Path.of("test"))) {
+            files = paths.filter(path -> path.toString().endsWith(".jmm")).sorted().toList();
+        }
+
+        assertFalse(files.isEmpty());
+
+        for (var file : files) {
+            assertSameTokens(file.toString(), SpecsIo.read(file.toFile()));
+        }
+    }
+
+    @Test
+    public void testKeywordsAndIdentifiers() {
+        assertSameTokens("class classes int integer int... int..x int.. intx... String Strings $a _b1 if iff");
+    }
+
+    @Test
+    public void testIntegers() {
+        assertSameTokens("0 007 10 123abc 0x 9");
+    }
+
+    @Test
+    public void testComments() {
+        assertSameTokens("a /* multi\nline */ b // line\r\nc /**/ d /* x */ / e");
+        assertSameTokens("a // comment at the end");
+        assertSameTokens("a /* unterminated\n b * c /* again");
+    }
+
+    @Test
+    public void testErrors() {
+        assertSameTokens("a & b && c &\nd # e \"s\" @");
+        assertSameTokens("x = 1;\n\tfoo(&&&);\n &");
+        assertSameTokens("\u00e9 1 ");
+    }
+
+    private static void assertSameTokens(String code) {
+        assertSameTokens(code, code);
+    }
+
+    private static void assertSameTokens(String name, String code) {
+        var antlrListener = new JmmErrorListener(Stage.LEXICAL);
+        var antlrLexer = new JavammLexer(new ANTLRInputStream(code));
+        antlrLexer.removeErrorListeners();
+        antlrLexer.addErrorListener(antlrListener);
+
+        var jmmListener = new JmmErrorListener(Stage.LEXICAL);
+        var jmmLexer = new JmmLexer(code);
+        jmmLexer.addErrorListener(jmmListener);
+
+        assertEquals(name, toString(antlrLexer), toString(jmmLexer));
+
+        assertEquals(name, toString(antlrListener), toString(jmmListener));
+    }
+
+    private static String toString(TokenSource lexer) {
+        var tokens = new ArrayList<String>();
+
+        Token token;
+        do {
+            token = lexer.nextToken();
+            tokens.add(token.getType() + " '" + token.getText() + "' " + token.getLine() + ":"
+                    + token.getCharPositionInLine() + " [" + token.getStartIndex() + ", " + token.getStopIndex() + "]");
+        } while (token.getType() != Token.EOF);
+
+        return String.join("\n", tokens);
+    }
+
+    private static String toString(JmmErrorListener listener) {
+        return listener.getReports().stream()
+                .map(report -> report.getLine() + ":" + report.getColumn() + " " + report.getMessage())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,120 @@
+package pt.up.fe.comp.parser;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that parsing with SLL prediction first, falling back to full LL, gives the same results as always parsing
+ * with full LL ('-l').
+ * <p>
+ * No valid program of this grammar was found that SLL prediction fails to parse, so the fallback is exercised with
+ * syntax errors, which make the SLL pass bail out.
+ */
+public class JmmParserImplTest {
+
+    private static final List<String> SYNTAX_ERRORS = List.of(
+            "class A { public int foo() { return 1 } }",
+            "class A { public int foo() { int a; a = ; return a; } }",
+            "class A { public int foo(int a,) { return a; } }",
+            "class A { int a public int foo() { return a; } }",
+            "import a.; class A { }",
+            "class A { public int foo() { if (true) return 1; } }",
+            "class A { public int foo() { return 1; } } }");
+
+    private static Map<String, String> fullLLConfig() {
+        var config = CompilerConfig.getDefault();
+        config.put("fullLL", "true");
+        return config;
+    }
+
+    private static JmmParserResult parse(String code, Map<String, String> config) {
+        return new JmmParserImpl().parse(code, "program", config);
+    }
+
+    private static List<String> reports(JmmParserResult result) {
+        return result.getReports().stream().map(Report::toString).toList();
+    }
+
+    @Test
+    public void testFallbackReportsSameErrors() {
+        for (var code : SYNTAX_ERRORS) {
+            var fallback = parse(code, CompilerConfig.getDefault());
+            var fullLL = parse(code, fullLLConfig());
+
+            // The SLL pass reports nothing, the errors can only come from the full LL pass
+            assertFalse(code, fallback.getReports().isEmpty());
+            assertNull(code, fallback.getRootNode());
+            assertEquals(code, reports(fullLL), reports(fallback));
+        }
+    }
+
+    @Test
+    public void testFallbackWithHandwrittenLexer() {
+        var config = CompilerConfig.getDefault();
+        config.put("lexer", CompilerConfig.LEXER_HANDWRITTEN);
+
+        var handwrittenFullLL = fullLLConfig();
+        handwrittenFullLL.put("lexer", CompilerConfig.LEXER_HANDWRITTEN);
+
+        // The tokens are rewound for the second pass, not read again from the lexer
+        for (var code : SYNTAX_ERRORS) {
+            assertEquals(code, reports(parse(code, handwrittenFullLL)), reports(parse(code, config)));
+        }
+    }
+
+    @Test
+    public void testSameTreeAsFullLL() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(Path.of("test"))) {
+            files = paths.filter(path -> path.toString().endsWith(".jmm")).sorted().toList();
+        }
+
+        assertFalse(files.isEmpty());
+
+        for (var file : files) {
+            var code = SpecsIo.read(file.toFile());
+            var sll = parse(code, CompilerConfig.getDefault());
+            var fullLL = parse(code, fullLLConfig());
+
+            assertEquals(file.toString(), reports(fullLL), reports(sll));
+
+            if (fullLL.getRootNode() != null) {
+                assertEquals(file.toString(), fullLL.getRootNode().toTree(), sll.getRootNode().toTree());
+            }
+        }
+    }
+
+    @Test
+    public void testAmbiguousStatementsParsedAsFullLL() {
+        // 'x[1] = 2;' is both an assignment to an array access and an array assignment
+        var code = """
+                class A {
+                    public int foo(int[] x) {
+                        x[1] = 2;
+                        x[1][2] = 3;
+                        x.length + x[1] = 4;
+                        return x[1];
+                    }
+                }
+                """;
+
+        var sll = parse(code, CompilerConfig.getDefault());
+        var fullLL = parse(code, fullLLConfig());
+
+        assertTrue(reports(sll).toString(), sll.getReports().isEmpty());
+        assertEquals(fullLL.getRootNode().toTree(), sll.getRootNode().toTree());
+    }
+}
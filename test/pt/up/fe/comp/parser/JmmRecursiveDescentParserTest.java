@@ -0,0 +1,109 @@
+package pt.up.fe.comp.parser;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.parser.JmmRecursiveDescentParser;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that {@link JmmRecursiveDescentParser} builds the same AST as the ANTLR-based {@link JmmParserImpl}.
+ */
+public class JmmRecursiveDescentParserTest {
+
+    @Test
+    public void testCorpus() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(Path.of("test"))) {
+            files = paths.filter(path -> path.toString().endsWith(".jmm")).sorted().toList();
+        }
+
+        assertFalse(files.isEmpty());
+
+        for (var file : files) {
+            assertSameAst(file.toString(), SpecsIo.read(file.toFile()), "program");
+        }
+    }
+
+    @Test
+    public void testExpressions() {
+        assertSameAst("a + b * c - d / e < f && g", "expr");
+        assertSameAst("!a.b(c)[d].length && !(e < f)", "expr");
+        assertSameAst("new int[a.length][0] + new A().foo()", "expr");
+        assertSameAst("[1, [2], []].length", "expr");
+        assertSameAst("this.a(b, c).d(null, int, true, false)", "expr");
+    }
+
+    @Test
+    public void testStatements() {
+        assertSameAst("{ a = 1; b[i] = c; foo(); }", "stmt");
+        assertSameAst("if (a) while (b) { } else return c;", "stmt");
+    }
+
+    @Test
+    public void testDeclarations() {
+        assertSameAst("import a.b.c;", "importDeclaration");
+        assertSameAst("public static int[] foo(int... a, String[] b, boolean c, A d) { int[] x; A y; x[0] = 1; }",
+                "methodDeclaration");
+        assertSameAst("class A extends B { int a; String b; void foo() { } }", "classDeclaration");
+    }
+
+    @Test
+    public void testErrors() {
+        assertSameAst("class A { int a = 1; }", "program");
+        assertSameAst("class A { void foo() { a b = 1; } }", "program");
+        assertSameAst("class A { } class B { }", "program");
+        assertSameAst("import a; import ;", "program");
+    }
+
+    private static void assertSameAst(String code, String rule) {
+        assertSameAst(code, code, rule);
+    }
+
+    private static void assertSameAst(String name, String code, String rule) {
+        var expected = new JmmParserImpl().parse(code, rule, new HashMap<>());
+        var actual = new JmmRecursiveDescentParser().parse(code, rule, new HashMap<>());
+
+        assertEquals(name, toString(expected), toString(actual));
+    }
+
+    /**
+     * @return the AST with the kind, hierarchy and attributes of every node, or "ERROR" if the code did not parse
+     */
+    private static String toString(JmmParserResult result) {
+        if (result.getRootNode() == null) {
+            return "ERROR";
+        }
+
+        var builder = new StringBuilder();
+        toString(result.getRootNode(), "", builder);
+        return builder.toString();
+    }
+
+    private static void toString(JmmNode node, String indentation, StringBuilder builder) {
+        var attributes = new ArrayList<>(node.getAttributes());
+        attributes.sort(String::compareTo);
+
+        builder.append(indentation).append(node.getKind()).append(" ").append(node.getHierarchy());
+        for (var attribute : attributes) {
+            builder.append(" ").append(attribute).append("=").append(node.getObject(attribute));
+        }
+        builder.append("\n");
+
+        for (var child : node.getChildren()) {
+            toString(child, indentation + "  ", builder);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package pt.up.fe.comp.parser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.parser.AsciiCharSequence;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.parser.SourceLoader;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class SourceLoaderTest {
+
+    private static final int MAP_THRESHOLD_BYTES = 1024 * 1024;
+
+    private static final String CODE = """
+            class A {
+                public int foo(int a) {
+                    return a + 1;
+                }
+            }
+            """;
+
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("source").toFile();
+    }
+
+    @After
+    public void deleteFolder() {
+        SpecsIo.deleteFolder(folder);
+    }
+
+    /**
+     * Writes a program padded with a comment to the given size, in bytes of UTF-8.
+     */
+    private File write(String name, int size, char padding) {
+        var comment = "// " + padding + "\n";
+        var line = "// " + "x".repeat(76) + "\n";
+
+        var code = new StringBuilder(CODE).append(comment);
+        int remaining = size - CODE.length() - comment.getBytes(StandardCharsets.UTF_8).length;
+
+        code.append(line.repeat(remaining / line.length()));
+        code.append("/".repeat(remaining % line.length()));
+
+        var file = new File(folder, name);
+        SpecsIo.write(file, code.toString());
+        assertEquals(size, file.length());
+
+        return file;
+    }
+
+    private static String parse(CharSequence code) {
+        var result = new JmmParserImpl().parse(code, "program", CompilerConfig.getDefault());
+        assertTrue(result.getReports().toString(), result.getReports().isEmpty());
+
+        return result.getRootNode().toTree();
+    }
+
+    @Test
+    public void testMapThreshold() {
+        var below = write("Below.jmm", MAP_THRESHOLD_BYTES - 1, 'a');
+        var above = write("Above.jmm", MAP_THRESHOLD_BYTES, 'a');
+
+        var read = SourceLoader.load(below);
+        var mapped = SourceLoader.load(above);
+
+        assertTrue(read instanceof String);
+        assertTrue(mapped instanceof AsciiCharSequence);
+
+        assertEquals(SpecsIo.read(below), read);
+        assertEquals(SpecsIo.read(above), mapped.toString());
+        assertEquals(MAP_THRESHOLD_BYTES, mapped.length());
+
+        // Only the padding differs, which is a comment
+        assertEquals(parse(read), parse(mapped));
+    }
+
+    @Test
+    public void testNonAsciiNotMapped() {
+        var file = write("Accents.jmm", MAP_THRESHOLD_BYTES + 1, '\u00E7');
+
+        var code = SourceLoader.load(file);
+
+        assertTrue(code instanceof String);
+        assertEquals(SpecsIo.read(file), code);
+        assertEquals(MAP_THRESHOLD_BYTES, code.length());
+    }
+
+    @Test
+    public void testAsciiCharSequence() {
+        var bytes = ByteBuffer.wrap("class A { }".getBytes(StandardCharsets.US_ASCII));
+        assertTrue(AsciiCharSequence.isAscii(bytes));
+
+        var code = new AsciiCharSequence(bytes);
+        assertEquals(11, code.length());
+        assertEquals('c', code.charAt(0));
+        assertEquals('}', code.charAt(10));
+        assertEquals("class A { }", code.toString());
+
+        var name = code.subSequence(6, 9);
+        assertEquals("A {", name.toString());
+        assertEquals('{', name.charAt(2));
+        assertEquals("{", name.subSequence(2, 3).toString());
+        assertEquals("", name.subSequence(1, 1).toString());
+
+        // A view over the same bytes, from the start of the subsequence
+        var view = ((AsciiCharSequence) name).getBytes();
+        assertTrue(view.isReadOnly());
+        assertEquals(0, view.position());
+        assertEquals(3, view.remaining());
+        assertEquals('A', view.get(0));
+
+        // Reading the view does not move the bytes of the sequence
+        view.get();
+        assertEquals("A {", name.toString());
+    }
+
+    @Test
+    public void testNonAscii() {
+        assertFalse(AsciiCharSequence.isAscii(ByteBuffer.wrap("// \u00E7".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCharAtOutOfBounds() {
+        var code = new AsciiCharSequence(ByteBuffer.wrap("class A { }".getBytes(StandardCharsets.US_ASCII)));
+        code.subSequence(6, 9).charAt(3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSubSequenceOutOfBounds() {
+        var code = new AsciiCharSequence(ByteBuffer.wrap("class A { }".getBytes(StandardCharsets.US_ASCII)));
+        code.subSequence(6, 12);
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testBytesReadOnly() {
+        var code = new AsciiCharSequence(ByteBuffer.wrap("class A { }".getBytes(StandardCharsets.US_ASCII)));
+        code.getBytes().put(0, (byte) 'C');
+    }
+}
@@ -0,0 +1,230 @@
+package pt.up.fe.comp.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.up.fe.comp2024.CompilationPipeline;
+import pt.up.fe.comp2024.CompilationResult;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.server.CompileServer;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CompileServerTest {
+
+    // The comment makes the length in bytes differ from the length in characters
+    private static final String CALC = """
+            // C\u00E1lculo
+            class Calc {
+                public int calc(int a) {
+                    int b;
+                    b = a * 2;
+                    return b + a;
+                }
+            }
+            """;
+
+    private static final String UNDECLARED = """
+            class Undeclared {
+                public int foo() {
+                    return bar;
+                }
+            }
+            """;
+
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("server").toFile();
+    }
+
+    @After
+    public void deleteFolder() {
+        SpecsIo.deleteFolder(folder);
+    }
+
+    /**
+     * A RESULT response, with its body split into reports, OLLIR code and Jasmin code.
+     */
+    private record Result(String status, String reports, String ollirCode, String jasminCode) {
+    }
+
+    private static byte[] compileRequest(String id, String code, String options) {
+        var source = code.getBytes(StandardCharsets.UTF_8);
+        var header = "COMPILE " + id + " " + source.length + (options.isEmpty() ? "" : " " + options) + "\n";
+
+        var request = new ByteArrayOutputStream();
+        request.writeBytes(header.getBytes(StandardCharsets.UTF_8));
+        request.writeBytes(source);
+        return request.toByteArray();
+    }
+
+    private static byte[] command(String line) {
+        return (line + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] serve(CompileServer server, byte[]... requests) {
+        var in = new ByteArrayOutputStream();
+        Arrays.stream(requests).forEach(in::writeBytes);
+
+        var out = new ByteArrayOutputStream();
+        server.serve(new ByteArrayInputStream(in.toByteArray()), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Splits the output of the server into responses: RESULT responses by id, and the other response lines in order.
+     */
+    private static Map<String, Result> parse(byte[] output, List<String> lines) {
+        var results = new HashMap<String, Result>();
+        int position = 0;
+
+        while (position < output.length) {
+            int end = position;
+            while (output[end] != '\n') {
+                end++;
+            }
+
+            var line = new String(output, position, end - position, StandardCharsets.UTF_8);
+            position = end + 1;
+
+            if (!line.startsWith("RESULT ")) {
+                lines.add(line);
+                continue;
+            }
+
+            var parts = line.split(" ");
+            assertEquals(line, 7, parts.length);
+
+            var body = new String[3];
+            for (int i = 0; i < body.length; i++) {
+                int length = Integer.parseInt(parts[3 + i]);
+                body[i] = new String(output, position, length, StandardCharsets.UTF_8);
+                position += length;
+            }
+
+            assertNull(results.put(parts[1], new Result(parts[2], body[0], body[1], body[2])));
+        }
+
+        return results;
+    }
+
+    @Test
+    public void testPingAndStats() {
+        var output = serve(new CompileServer(CompilerConfig.getDefault()),
+                command("PING"), command(""), command("STATS"), command("QUIT"), command("PING"));
+
+        assertEquals("PONG\nSTATS disabled\n", new String(output, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCompile() {
+        var server = new CompileServer(CompilerConfig.getDefault());
+        var lines = new ArrayList<String>();
+
+        var results = parse(serve(server,
+                compileRequest("calc", CALC, "ollirInMemory=true optimize"),
+                compileRequest("undeclared", UNDECLARED, ""),
+                command("PING")), lines);
+
+        assertEquals(List.of("PONG"), lines);
+        assertEquals(2, results.size());
+
+        var calc = results.get("calc");
+        assertEquals("OK", calc.status());
+        assertTrue(calc.ollirCode(), calc.ollirCode().contains("Calc"));
+        assertTrue(calc.jasminCode(), calc.jasminCode().startsWith(".class "));
+        assertTrue(calc.jasminCode(), calc.jasminCode().contains("Calc"));
+
+        var undeclared = results.get("undeclared");
+        assertEquals("ERROR", undeclared.status());
+        assertTrue(undeclared.reports(), undeclared.reports().startsWith("ERROR@"));
+        assertEquals("", undeclared.jasminCode());
+    }
+
+    @Test
+    public void testStats() {
+        var config = CompilerConfig.getDefault();
+        config.put("cache", folder.getPath());
+        config.put("ollirInMemory", "true");
+        var server = new CompileServer(config);
+
+        // Each connection answers its requests before returning, so the second one is compiled after the first
+        var first = parse(serve(server, compileRequest("1", CALC, "")), new ArrayList<>());
+        var second = parse(serve(server, compileRequest("2", CALC, "")), new ArrayList<>());
+        assertEquals(first.get("1").jasminCode(), second.get("2").jasminCode());
+
+        var lines = new ArrayList<String>();
+        parse(serve(server, command("STATS")), lines);
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0), lines.get(0).startsWith("STATS Cache: 1 hits, 1 misses"));
+    }
+
+    @Test
+    public void testMalformedHeaderClosesConnection() {
+        var output = serve(new CompileServer(CompilerConfig.getDefault()),
+                command("COMPILE 1 many"), command("PING"));
+
+        assertEquals("FAIL Invalid source length 'many'\n", new String(output, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTruncatedSource() {
+        var output = serve(new CompileServer(CompilerConfig.getDefault()), command("COMPILE 1 100"), command("PING"));
+
+        assertEquals("FAIL expected 100 bytes of source, got 5\n", new String(output, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testServerOptionsRejected() {
+        var lines = new ArrayList<String>();
+        var results = parse(serve(new CompileServer(CompilerConfig.getDefault()),
+                compileRequest("cache", CALC, "cache=" + folder.getPath()),
+                compileRequest("size", CALC, "cacheSize=abc"),
+                compileRequest("register", CALC, "registerAllocation=abc"),
+                command("PING")), lines);
+
+        // The connection stays open after each of them
+        assertEquals(List.of("PONG"), lines);
+
+        for (var id : List.of("cache", "size", "register")) {
+            var result = results.get(id);
+            assertEquals(id, "ERROR", result.status());
+            assertTrue(result.reports(), result.reports().contains("Could not compile request '" + id + "'"));
+            assertEquals("", result.jasminCode());
+        }
+
+        assertEquals(0, folder.list().length);
+    }
+
+    @Test
+    public void testExceptionAnswered() {
+        var pipeline = new CompilationPipeline() {
+            @Override
+            public CompilationResult compile(CharSequence code, Map<String, String> config) {
+                throw new IllegalStateException("broken pipeline");
+            }
+        };
+
+        var results = parse(serve(new CompileServer(pipeline, CompilerConfig.getDefault()),
+                compileRequest("1", CALC, "")), new ArrayList<>());
+
+        assertEquals("ERROR", results.get("1").status());
+        assertTrue(results.get("1").reports(), results.get("1").reports().contains("Could not compile request '1'"));
+    }
+}
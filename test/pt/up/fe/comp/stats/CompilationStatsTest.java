@@ -0,0 +1,129 @@
+package pt.up.fe.comp.stats;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2024.stats.CompilationStats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompilationStatsTest {
+
+    private static final String CODE = """
+            class Foo {
+                int a;
+                public int bar(int x) {
+                    int y;
+                    y = x + 1;
+                    return y;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    @Test
+    public void testNestedStages() {
+        var stats = CompilationStats.enabled();
+
+        var result = stats.measure("outer", () -> stats.measure("inner", () -> 42));
+
+        assertEquals(42, (int) result);
+        assertEquals(2, stats.getStages().size());
+        assertEquals("outer", stats.getStages().get(0).getName());
+        assertEquals(0, stats.getStages().get(0).getDepth());
+        assertEquals("inner", stats.getStages().get(1).getName());
+        assertEquals(1, stats.getStages().get(1).getDepth());
+        assertTrue(stats.getStages().get(0).getWallNanos() >= stats.getStages().get(1).getWallNanos());
+    }
+
+    @Test
+    public void testDisabled() {
+        var stats = CompilationStats.disabled();
+
+        assertEquals(42, (int) stats.measure("stage", () -> 42));
+        assertTrue(stats.getStages().isEmpty());
+    }
+
+    @Test
+    public void testMethodSizes() {
+        var stats = CompilationStats.enabled();
+        stats.recordAst(TestUtils.parse(CODE).getRootNode());
+        stats.recordJasmin("""
+                .method public bar(I)I
+                    .limit stack 2
+                    .limit locals 3
+                    iload_1
+                    iconst_1
+                    iadd
+                    istore_2
+                    iload_2
+                    ireturn
+                .end method
+                """);
+
+        var bar = stats.getMethods().get(0);
+        assertEquals("bar", bar.getName());
+        assertEquals("bar(int)", bar.getSignature());
+        assertEquals(2, bar.getStatements());
+        assertEquals(1, bar.getLocals());
+        assertEquals(6, bar.getJasminInstructions());
+
+        var main = stats.getMethods().get(1);
+        assertEquals("main(String[])", main.getSignature());
+        assertEquals(-1, main.getJasminInstructions());
+
+        assertEquals(1, (int) stats.getNodesByKind().get("ClassDecl"));
+        assertTrue(stats.toJson().contains("\"jasminInstructions\": 6"));
+    }
+
+    @Test
+    public void testOverloadedMethods() {
+        var code = """
+                import Bar;
+                class Foo {
+                    public int add(int a) {
+                        return a;
+                    }
+                    public int add(int a, int[] b) {
+                        return a + b[0];
+                    }
+                    public int add(Bar a, int... b) {
+                        return b[0];
+                    }
+                }
+                """;
+
+        var stats = CompilationStats.enabled();
+        stats.recordAst(TestUtils.parse(code).getRootNode());
+        stats.recordJasmin("""
+                .method public add(I)I
+                    iload_1
+                    ireturn
+                .end method
+                .method public add(I[I)I
+                    iload_1
+                    aload_2
+                    iconst_0
+                    iaload
+                    iadd
+                    ireturn
+                .end method
+                .method public add(Lpkg/Bar;[I)I
+                    aload_2
+                    iconst_0
+                    iaload
+                    ireturn
+                .end method
+                """);
+
+        var methods = stats.getMethods();
+        assertEquals(3, methods.size());
+        assertEquals("add(int)", methods.get(0).getSignature());
+        assertEquals(2, methods.get(0).getJasminInstructions());
+        assertEquals("add(int, int[])", methods.get(1).getSignature());
+        assertEquals(6, methods.get(1).getJasminInstructions());
+        assertEquals("add(Bar, int[])", methods.get(2).getSignature());
+        assertEquals(4, methods.get(2).getJasminInstructions());
+    }
+}
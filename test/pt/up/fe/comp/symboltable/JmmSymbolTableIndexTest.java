@@ -0,0 +1,115 @@
+package pt.up.fe.comp.symboltable;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
+import pt.up.fe.comp2024.symboltable.SymbolTableUtils;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JmmSymbolTableIndexTest {
+
+    private static final String CODE = """
+            import a.B;
+            import c.D;
+            class Foo {
+                int x;
+                boolean y;
+                public int bar(int a, int[] b) {
+                    int c;
+                    boolean x;
+                    c = a;
+                    return c;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static JmmSymbolTable build() {
+        return JmmSymbolTableBuilder.build(TestUtils.parse(CODE).getRootNode());
+    }
+
+    @Test
+    public void testLookupsMatchLinearSearch() {
+        var table = build();
+
+        for (var method : table.getMethods()) {
+            for (var param : table.getParameters(method)) {
+                assertEquals(param, table.getParameter(method, param.getName()));
+            }
+            for (var local : table.getLocalVariables(method)) {
+                assertEquals(local, table.getLocalVariable(method, local.getName()));
+            }
+        }
+        for (var field : table.getFields()) {
+            assertEquals(field, table.getField(field.getName()));
+        }
+
+        assertNull(table.getParameter("bar", "c"));
+        assertNull(table.getLocalVariable("bar", "a"));
+        assertNull(table.getParameter("unknown", "a"));
+        assertNull(table.getField("z"));
+
+        assertTrue(table.isImported("B"));
+        assertTrue(table.isImported("D"));
+        assertFalse(table.isImported("Foo"));
+        assertFalse(table.isImported(null));
+    }
+
+    @Test
+    public void testFirstDeclarationWins() {
+        var code = """
+                class Foo {
+                    int x;
+                    boolean x;
+                    public static void main(String[] args) {
+                    }
+                }
+                """;
+        var table = JmmSymbolTableBuilder.build(TestUtils.parse(code).getRootNode());
+
+        assertEquals(table.getFields().get(0), table.getField("x"));
+    }
+
+    @Test
+    public void testUtils() {
+        var table = build();
+
+        assertNotNull(SymbolTableUtils.getField(table, "y"));
+        assertTrue(SymbolTableUtils.isLocal(table, "bar", "x"));
+        assertFalse(SymbolTableUtils.isLocal(table, "bar", "y"));
+        assertEquals(new Symbol(TypeUtils.getType("int", false), "a"), SymbolTableUtils.getParameter(table, "bar", "a"));
+    }
+
+    @Test
+    public void testGettersDoNotAllocate() {
+        var table = build();
+
+        assertSame(table.getParameters("bar"), table.getParameters("bar"));
+        assertSame(table.getLocalVariables("bar"), table.getLocalVariables("bar"));
+        assertSame(table.getFields(), table.getFields());
+    }
+
+    @Test
+    public void testBuiltInTypesAreInterned() {
+        assertSame(TypeUtils.getType("int", false), TypeUtils.getType(TypeUtils.getIntTypeName(), false));
+        assertSame(TypeUtils.getIntArrayType(), TypeUtils.getType("int", true));
+        assertSame(TypeUtils.getType("String", true), TypeUtils.getType("String", true));
+
+        // Class types are not kept, since their names are unbounded
+        assertNotSame(TypeUtils.getType("Foo", false), TypeUtils.getType("Foo", false));
+        assertEquals(new Type("Foo", true), TypeUtils.getType("Foo", true));
+
+        var table = build();
+        List<Symbol> params = table.getParameters("bar");
+        assertSame(TypeUtils.getType("int", false), params.get(0).getType());
+        assertSame(TypeUtils.getIntArrayType(), params.get(1).getType());
+    }
+}
@@ -0,0 +1,50 @@
+package pt.up.fe.comp.synthetic;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2024.synthetic.ProgramGenerator;
+import pt.up.fe.comp2024.synthetic.ProgramShape;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProgramGeneratorTest {
+
+    @Test
+    public void testProgramsAreValid() {
+        for (long seed = 0; seed < 20; seed++) {
+            var code = new ProgramGenerator(seed).generate(ProgramShape.small());
+            TestUtils.noErrors(TestUtils.analyse(code));
+        }
+    }
+
+    @Test
+    public void testScaledProgramsAreValid() {
+        for (var axis : ProgramShape.AXES) {
+            for (int value = 0; value <= 4; value++) {
+                var shape = ProgramShape.small().scale(axis, value);
+                var code = new ProgramGenerator(value).generate(shape);
+                TestUtils.noErrors(TestUtils.analyse(code));
+            }
+        }
+    }
+
+    @Test
+    public void testSameSeedSameProgram() {
+        var shape = ProgramShape.small();
+
+        assertEquals(new ProgramGenerator(42).generate(shape), new ProgramGenerator(42).generate(shape));
+        assertNotEquals(new ProgramGenerator(42).generate(shape), new ProgramGenerator(43).generate(shape));
+    }
+
+    @Test
+    public void testProgramsGrowAlongEveryAxis() {
+        for (var axis : ProgramShape.AXES) {
+            var small = new ProgramGenerator(0).generate(ProgramShape.small().scale(axis, 2));
+            var large = new ProgramGenerator(0).generate(ProgramShape.small().scale(axis, 8));
+
+            assertTrue("Expected a larger program when scaling " + axis, large.length() > small.length());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package utils;
 
 import org.specs.comp.ollir.*;
+import pt.up.fe.comp.CpUtils;
 import pt.up.fe.comp.jmm.jasmin.JasminResult;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.specs.util.SpecsCollections;
@@ -324,7 +325,7 @@ public class ProjectTestUtils {
     }
 
     public static void runJasmin(JasminResult jasminResult, String expected) {
-        var output = SpecsStrings.normalizeFileContents(jasminResult.run(), true);
+        var output = SpecsStrings.normalizeFileContents(CpUtils.run(jasminResult).getOutput(), true);
 
         // No expected output, just run test
         if (expected == null) {